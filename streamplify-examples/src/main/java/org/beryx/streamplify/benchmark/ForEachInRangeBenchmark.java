@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.benchmark;
+
+import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.Streamable;
+import org.beryx.streamplify.combination.Combinations;
+import org.beryx.streamplify.partperm.PartialPermutations;
+import org.beryx.streamplify.permutation.Permutations;
+import org.beryx.streamplify.powerset.PowerSet;
+import org.beryx.streamplify.product.CartesianProduct;
+
+import java.util.Spliterator;
+import java.util.function.Supplier;
+
+/**
+ * Compares the sequential traversal of the built-in data sources using {@link Spliterator#forEachRemaining}
+ * (which calls {@link Splittable.LongIndexed#forEachInRange} for unshuffled streams) with the traversal using {@link Spliterator#tryAdvance},
+ * which retrieves each element through a separate call of the value supplier.
+ * <br>All data sources are traversed in the same JVM, so the call sites shared by different types are exercised with several receiver types,
+ * as in applications that use more than one type of data source.
+ */
+public class ForEachInRangeBenchmark {
+    private static final int ITERATIONS = 5;
+
+    private final String name;
+    private final Supplier<Streamable<int[], ?>> streamableSupplier;
+    private long checksum;
+
+    public ForEachInRangeBenchmark(String name, Supplier<Streamable<int[], ?>> streamableSupplier) {
+        this.name = name;
+        this.streamableSupplier = streamableSupplier;
+    }
+
+    private Spliterator<int[]> newSpliterator() {
+        return streamableSupplier.get().stream().spliterator();
+    }
+
+    private long runForEachRemaining() {
+        long start = System.nanoTime();
+        newSpliterator().forEachRemaining(arr -> checksum += arr.length == 0 ? 1 : arr[arr.length - 1]);
+        return System.nanoTime() - start;
+    }
+
+    private long runTryAdvance() {
+        long start = System.nanoTime();
+        Spliterator<int[]> spliterator = newSpliterator();
+        while(spliterator.tryAdvance(arr -> checksum += arr.length == 0 ? 1 : arr[arr.length - 1]));
+        return System.nanoTime() - start;
+    }
+
+    public void run() {
+        long bestForEach = Long.MAX_VALUE;
+        long bestTryAdvance = Long.MAX_VALUE;
+        for(int i = 0; i < ITERATIONS; i++) {
+            bestTryAdvance = Math.min(bestTryAdvance, runTryAdvance());
+            bestForEach = Math.min(bestForEach, runForEachRemaining());
+        }
+        long count = streamableSupplier.get().count();
+        System.out.printf("%-28s %12d elements   tryAdvance: %8.2f ns/element   forEachRemaining: %8.2f ns/element   (checksum %d)%n",
+                name, count, (double)bestTryAdvance / count, (double)bestForEach / count, checksum);
+    }
+
+    public static void main(String[] args) {
+        ForEachInRangeBenchmark[] benchmarks = {
+                new ForEachInRangeBenchmark("Permutations(11)", () -> new Permutations(11)),
+                new ForEachInRangeBenchmark("Combinations(30, 8)", () -> new Combinations(30, 8)),
+                new ForEachInRangeBenchmark("CartesianProduct(8 x 10^7)", () -> new CartesianProduct(8, 10, 10, 10, 10, 10, 10, 10)),
+                new ForEachInRangeBenchmark("PartialPermutations(9)", () -> new PartialPermutations(9)),
+                new ForEachInRangeBenchmark("PowerSet(23)", () -> new PowerSet(23)),
+        };
+        // warm up all call sites with all types before measuring
+        for(ForEachInRangeBenchmark benchmark : benchmarks) {
+            benchmark.runTryAdvance();
+            benchmark.runForEachRemaining();
+        }
+        for(ForEachInRangeBenchmark benchmark : benchmarks) {
+            benchmark.run();
+        }
+    }
+}
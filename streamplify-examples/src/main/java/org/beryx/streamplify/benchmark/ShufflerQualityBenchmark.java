@@ -0,0 +1,445 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.benchmark;
+
+import org.beryx.streamplify.shuffler.BigIntegerShuffler;
+import org.beryx.streamplify.shuffler.DefaultBigIntegerShuffler;
+import org.beryx.streamplify.shuffler.DefaultLongShuffler;
+import org.beryx.streamplify.shuffler.FeistelBigIntegerShuffler;
+import org.beryx.streamplify.shuffler.FeistelLongShuffler;
+import org.beryx.streamplify.shuffler.LongShuffler;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * A headless harness that evaluates the throughput and the statistical quality of shufflers and writes the results as a JSON report.
+ * <br>For each candidate shuffler, the report contains:
+ * <ul>
+ *     <li>the throughput (indices per second) for long and BigInteger domains of various bit widths;</li>
+ *     <li>the result of an exhaustive bijectivity check on small domains;</li>
+ *     <li>the serial correlation between shuffled values at distances 1 and 256, with its z-score;</li>
+ *     <li>a chi-squared test of the uniformity of the position of each index, computed over many seeds;</li>
+ *     <li>the distribution of the number of rounds needed by cycle-walking, for shufflers that permute a power-of-two domain and walk until the value fits in the range.</li>
+ * </ul>
+ * Usage: {@code ShufflerQualityBenchmark [--output <file>] [<candidate class name> ...]}.
+ * <br>Additional shufflers can be evaluated by passing the names of classes implementing {@link Candidate}, which must have a no-arg constructor.
+ * Without {@code --output}, the report is written to the standard output.
+ */
+public class ShufflerQualityBenchmark {
+    private static final long MEASUREMENT_NANOS = 300_000_000L;
+    private static final int BATCH_SIZE = 1024;
+    private static final int CORRELATION_SAMPLES = 200_000;
+    private static final int DEPTH_SAMPLES = 100_000;
+
+    /**
+     * A shuffler evaluated by this harness.
+     */
+    public interface Candidate {
+        String getName();
+
+        LongShuffler createLongShuffler(long count, long seed);
+
+        /**
+         * @return a shuffler for BigInteger indices, or null if the candidate does not support them
+         */
+        default BigIntegerShuffler createBigIntegerShuffler(BigInteger count, long seed) {
+            return null;
+        }
+
+        /**
+         * @return the bit width of the domain on which the indices of a range with the given bit width are cycle-walked,
+         * or -1 if the shuffler does not use cycle-walking
+         */
+        default int getWalkBits(int bitCount) {
+            return bitCount;
+        }
+    }
+
+    public static final Candidate DEFAULT = new Candidate() {
+        @Override
+        public String getName() {
+            return "DefaultShuffler";
+        }
+
+        @Override
+        public LongShuffler createLongShuffler(long count, long seed) {
+            return new DefaultLongShuffler(count, new Random(seed));
+        }
+
+        @Override
+        public BigIntegerShuffler createBigIntegerShuffler(BigInteger count, long seed) {
+            return new DefaultBigIntegerShuffler(count, new Random(seed));
+        }
+    };
+
+    public static final Candidate FEISTEL = new Candidate() {
+        @Override
+        public String getName() {
+            return "FeistelShuffler";
+        }
+
+        @Override
+        public LongShuffler createLongShuffler(long count, long seed) {
+            return new FeistelLongShuffler(count, seed);
+        }
+
+        @Override
+        public BigIntegerShuffler createBigIntegerShuffler(BigInteger count, long seed) {
+            return new FeistelBigIntegerShuffler(count, seed);
+        }
+
+        @Override
+        public int getWalkBits(int bitCount) {
+            return (bitCount + 1) & ~1;
+        }
+    };
+
+    /** A baseline that does not shuffle at all, useful for calibrating the statistics. */
+    public static final Candidate IDENTITY = new Candidate() {
+        @Override
+        public String getName() {
+            return "Identity";
+        }
+
+        @Override
+        public LongShuffler createLongShuffler(long count, long seed) {
+            return LongShuffler.IDENTITY;
+        }
+
+        @Override
+        public BigIntegerShuffler createBigIntegerShuffler(BigInteger count, long seed) {
+            return BigIntegerShuffler.IDENTITY;
+        }
+
+        @Override
+        public int getWalkBits(int bitCount) {
+            return -1;
+        }
+    };
+
+    private final List<Candidate> candidates = new ArrayList<>();
+    private long checksum;
+
+    public ShufflerQualityBenchmark addCandidate(Candidate candidate) {
+        candidates.add(candidate);
+        return this;
+    }
+
+    public Map<String, Object> run() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        List<Object> results = new ArrayList<>();
+        for(Candidate candidate : candidates) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("name", candidate.getName());
+            result.put("throughput", measureThroughput(candidate));
+            result.put("bijectivity", checkBijectivity(candidate));
+            result.put("serialCorrelation", computeSerialCorrelations(candidate));
+            result.put("positionUniformity", computePositionUniformity(candidate));
+            result.put("cycleWalkDepth", computeCycleWalkDepths(candidate));
+            results.add(result);
+        }
+        report.put("shufflers", results);
+        report.put("checksum", checksum);
+        return report;
+    }
+
+    private List<Object> measureThroughput(Candidate candidate) {
+        List<Object> measurements = new ArrayList<>();
+        for(int bits : new int[] {8, 16, 32, 48, 62}) {
+            long count = 3L << (bits - 2);
+            LongShuffler shuffler = candidate.createLongShuffler(count, bits);
+            long[] out = new long[(int)Math.min(BATCH_SIZE, count)];
+            measureLong(shuffler, count, out, MEASUREMENT_NANOS / 3);
+            measurements.add(measurement("long", bits, measureLong(shuffler, count, out, MEASUREMENT_NANOS)));
+        }
+        for(int bits : new int[] {64, 128, 256, 1024}) {
+            BigInteger count = BigInteger.valueOf(3).shiftLeft(bits - 2);
+            BigIntegerShuffler shuffler = candidate.createBigIntegerShuffler(count, bits);
+            if(shuffler == null) continue;
+            measureBigInteger(shuffler, count, MEASUREMENT_NANOS / 3);
+            measurements.add(measurement("BigInteger", bits, measureBigInteger(shuffler, count, MEASUREMENT_NANOS)));
+        }
+        return measurements;
+    }
+
+    private static Map<String, Object> measurement(String domain, int bits, double indicesPerSecond) {
+        Map<String, Object> measurement = new LinkedHashMap<>();
+        measurement.put("domain", domain);
+        measurement.put("bits", bits);
+        measurement.put("indicesPerSecond", Math.round(indicesPerSecond));
+        return measurement;
+    }
+
+    private double measureLong(LongShuffler shuffler, long count, long[] out, long nanos) {
+        long from = 0;
+        long indices = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            if(from > count - out.length) from = 0;
+            shuffler.getShuffledIndices(from, out);
+            checksum += out[out.length - 1];
+            from += out.length;
+            indices += out.length;
+            elapsed = System.nanoTime() - start;
+        } while(elapsed < nanos);
+        return indices * 1e9 / elapsed;
+    }
+
+    private double measureBigInteger(BigIntegerShuffler shuffler, BigInteger count, long nanos) {
+        BigInteger base = count.shiftRight(1);
+        long indices = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for(int i = 0; i < BATCH_SIZE; i++) {
+                checksum += shuffler.getShuffledIndex(base, indices + i).intValue();
+            }
+            indices += BATCH_SIZE;
+            elapsed = System.nanoTime() - start;
+        } while(elapsed < nanos);
+        return indices * 1e9 / elapsed;
+    }
+
+    private static Map<String, Object> checkBijectivity(Candidate candidate) {
+        List<Long> counts = new ArrayList<>();
+        for(long count = 1; count <= 300; count++) counts.add(count);
+        for(int bits = 9; bits <= 20; bits++) {
+            counts.add((1L << bits) - 1);
+            counts.add(1L << bits);
+            counts.add((1L << bits) + 1);
+        }
+        List<Object> failures = new ArrayList<>();
+        int checked = 0;
+        for(long count : counts) {
+            LongShuffler longShuffler = candidate.createLongShuffler(count, count);
+            BigIntegerShuffler bigShuffler = (count <= 1 << 16) ? candidate.createBigIntegerShuffler(BigInteger.valueOf(count), count) : null;
+            BitSet longValues = new BitSet((int)count);
+            BitSet bigValues = new BitSet((int)count);
+            for(long index = 0; index < count; index++) {
+                setChecked(longValues, longShuffler.getShuffledIndex(index), count);
+                if(bigShuffler != null) {
+                    BigInteger value = bigShuffler.getShuffledIndex(BigInteger.valueOf(index));
+                    setChecked(bigValues, (value.bitLength() < 63) ? value.longValue() : -1, count);
+                }
+            }
+            checked++;
+            if(longValues.cardinality() != count) failures.add("long:" + count);
+            if(bigShuffler != null && bigValues.cardinality() != count) failures.add("BigInteger:" + count);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("domainsChecked", checked);
+        result.put("failures", failures);
+        return result;
+    }
+
+    /** Values outside the range are not recorded, so they cause a cardinality mismatch. */
+    private static void setChecked(BitSet values, long value, long count) {
+        if(value >= 0 && value < count) values.set((int)value);
+    }
+
+    private static List<Object> computeSerialCorrelations(Candidate candidate) {
+        List<Object> results = new ArrayList<>();
+        for(long count : new long[] {(1L << 20) + 7, 1_000_000_000_039L, Long.MAX_VALUE / 3}) {
+            LongShuffler shuffler = candidate.createLongShuffler(count, 42);
+            long start = count / 3;
+            double[] values = new double[CORRELATION_SAMPLES + 256];
+            for(int i = 0; i < values.length; i++) {
+                values[i] = (double)shuffler.getShuffledIndex(start + i) / count;
+            }
+            results.add(correlations("long", Long.toString(count), values));
+        }
+        BigInteger count = BigInteger.ONE.shiftLeft(100).add(BigInteger.valueOf(12345));
+        BigIntegerShuffler shuffler = candidate.createBigIntegerShuffler(count, 42);
+        if(shuffler != null) {
+            BigInteger start = count.divide(BigInteger.valueOf(3));
+            double countValue = count.doubleValue();
+            double[] values = new double[CORRELATION_SAMPLES + 256];
+            for(int i = 0; i < values.length; i++) {
+                values[i] = shuffler.getShuffledIndex(start, i).doubleValue() / countValue;
+            }
+            results.add(correlations("BigInteger", count.toString(), values));
+        }
+        return results;
+    }
+
+    private static Map<String, Object> correlations(String domain, String count, double[] values) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("domain", domain);
+        result.put("count", count);
+        for(int lag : new int[] {1, 256}) {
+            double r = correlation(values, lag, CORRELATION_SAMPLES);
+            result.put("lag" + lag, r);
+            result.put("lag" + lag + "ZScore", r * Math.sqrt(CORRELATION_SAMPLES));
+        }
+        return result;
+    }
+
+    /** @return the Pearson correlation coefficient of the pairs (values[i], values[i + lag]), for i in [0, n) */
+    private static double correlation(double[] values, int lag, int n) {
+        double meanX = 0, meanY = 0;
+        for(int i = 0; i < n; i++) {
+            meanX += values[i];
+            meanY += values[i + lag];
+        }
+        meanX /= n;
+        meanY /= n;
+        double sumXX = 0, sumYY = 0, sumXY = 0;
+        for(int i = 0; i < n; i++) {
+            double x = values[i] - meanX;
+            double y = values[i + lag] - meanY;
+            sumXX += x * x;
+            sumYY += y * y;
+            sumXY += x * y;
+        }
+        return sumXY / Math.sqrt(sumXX * sumYY);
+    }
+
+    private static List<Object> computePositionUniformity(Candidate candidate) {
+        List<Object> results = new ArrayList<>();
+        for(int count : new int[] {8, 50, 1000}) {
+            int seeds = 100 * count;
+            long[][] frequencies = new long[count][count];
+            for(int seed = 0; seed < seeds; seed++) {
+                LongShuffler shuffler = candidate.createLongShuffler(count, seed);
+                for(int index = 0; index < count; index++) {
+                    frequencies[index][(int)shuffler.getShuffledIndex(index)]++;
+                }
+            }
+            double expected = (double)seeds / count;
+            double chiSquared = 0;
+            for(long[] row : frequencies) {
+                for(long frequency : row) {
+                    chiSquared += (frequency - expected) * (frequency - expected) / expected;
+                }
+            }
+            int degreesOfFreedom = (count - 1) * (count - 1);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", count);
+            result.put("seeds", seeds);
+            result.put("chiSquared", chiSquared);
+            result.put("degreesOfFreedom", degreesOfFreedom);
+            result.put("zScore", wilsonHilferty(chiSquared, degreesOfFreedom));
+            results.add(result);
+        }
+        return results;
+    }
+
+    /** @return the approximate standard normal score of a chi-squared statistic (Wilson-Hilferty transformation) */
+    private static double wilsonHilferty(double chiSquared, int degreesOfFreedom) {
+        double variance = 2.0 / (9 * degreesOfFreedom);
+        return (Math.cbrt(chiSquared / degreesOfFreedom) - (1 - variance)) / Math.sqrt(variance);
+    }
+
+    /**
+     * Retraces the cycle-walk of sampled indices using a shuffler for the whole power-of-two domain.
+     * The depths are reported only if the retraced walks produce the same values as the shuffler of the range.
+     */
+    private static List<Object> computeCycleWalkDepths(Candidate candidate) {
+        List<Object> results = new ArrayList<>();
+        for(int bits : new int[] {10, 21, 40}) {
+            int walkBits = candidate.getWalkBits(bits);
+            if(walkBits < 0) break;
+            for(long count : new long[] {(1L << (bits - 1)) + 1, 3L << (bits - 2)}) {
+                LongShuffler shuffler = candidate.createLongShuffler(count, bits);
+                LongShuffler domainShuffler = candidate.createLongShuffler(1L << walkBits, bits);
+                Random rnd = new Random(bits);
+                SortedMap<Integer, Integer> histogram = new TreeMap<>();
+                boolean consistent = true;
+                long totalDepth = 0;
+                for(int i = 0; i < DEPTH_SAMPLES && consistent; i++) {
+                    long index = (long)(rnd.nextDouble() * count);
+                    long value = index;
+                    int depth = 0;
+                    do {
+                        value = domainShuffler.getShuffledIndex(value);
+                        depth++;
+                    } while(value >= count && depth < 10_000);
+                    consistent = (value == shuffler.getShuffledIndex(index));
+                    histogram.merge(depth, 1, Integer::sum);
+                    totalDepth += depth;
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("count", count);
+                result.put("walkBits", walkBits);
+                result.put("consistent", consistent);
+                if(consistent) {
+                    result.put("expectedMeanDepth", Math.pow(2, walkBits) / count);
+                    result.put("meanDepth", (double)totalDepth / DEPTH_SAMPLES);
+                    result.put("maxDepth", histogram.lastKey());
+                    result.put("histogram", histogram);
+                }
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    static void writeJson(Object value, Writer writer, String indent) throws IOException {
+        if(value instanceof Map) {
+            writer.write("{");
+            String separator = "\n";
+            for(Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                writer.write(separator + indent + "  \"" + entry.getKey() + "\": ");
+                writeJson(entry.getValue(), writer, indent + "  ");
+                separator = ",\n";
+            }
+            writer.write("\n" + indent + "}");
+        } else if(value instanceof List) {
+            writer.write("[");
+            String separator = "\n";
+            for(Object element : (List<?>)value) {
+                writer.write(separator + indent + "  ");
+                writeJson(element, writer, indent + "  ");
+                separator = ",\n";
+            }
+            writer.write("\n" + indent + "]");
+        } else if(value instanceof String) {
+            writer.write("\"" + ((String)value).replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+        } else if(value instanceof Double && !Double.isFinite((Double)value)) {
+            writer.write("null");
+        } else {
+            writer.write(String.valueOf(value));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ShufflerQualityBenchmark benchmark = new ShufflerQualityBenchmark()
+                .addCandidate(DEFAULT)
+                .addCandidate(FEISTEL)
+                .addCandidate(IDENTITY);
+        String output = null;
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("--output") && i + 1 < args.length) {
+                output = args[++i];
+            } else {
+                benchmark.addCandidate((Candidate)Class.forName(args[i]).getDeclaredConstructor().newInstance());
+            }
+        }
+        Map<String, Object> report = benchmark.run();
+        try(Writer writer = (output != null) ? new FileWriter(output) : new OutputStreamWriter(System.out)) {
+            writeJson(report, writer, "");
+            writer.write("\n");
+        }
+    }
+}
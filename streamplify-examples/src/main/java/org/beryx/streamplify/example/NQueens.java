@@ -15,6 +15,10 @@
  */
 package org.beryx.streamplify.example;
 
+import org.beryx.streamplify.IntBatch;
+import org.beryx.streamplify.IntBatches;
+import org.beryx.streamplify.PrefixPredicate;
+import org.beryx.streamplify.VectorizedPredicate;
 import org.beryx.streamplify.permutation.Permutations;
 
 import java.util.stream.Collectors;
@@ -23,6 +27,9 @@ import java.util.stream.Stream;
 /**
  * A brute force solver for the N-Queens problem.
  * <br>Illustrates the use of {@link Permutations}.
+ * <br>The pruned streams reject a partial placement as soon as two queens attack each other,
+ * skipping all permutations that start with it.
+ * <br>{@link #countSolutions()} evaluates the permutations in column-major batches, using {@link QueensBatchPredicate}.
  */
 public class NQueens {
     private final int length;
@@ -39,6 +46,72 @@ public class NQueens {
         return new Permutations(length).parallelStream().filter(NQueens::isNQueensSolution);
     }
 
+    public Stream<int[]> prunedStream() {
+        return new Permutations(length).prunedStream(() -> new QueensPredicate(length));
+    }
+
+    public Stream<int[]> parallelPrunedStream() {
+        return new Permutations(length).parallelPrunedStream(() -> new QueensPredicate(length));
+    }
+
+    /**
+     * @return the number of solutions, computed by evaluating batches of permutations with {@link QueensBatchPredicate}
+     */
+    public long countSolutions() {
+        return IntBatches.countMatches(new Permutations(length), new QueensBatchPredicate());
+    }
+
+    /**
+     * The batch version of {@link #isNQueensSolution(int[])}.
+     * <br>For each pair of rows, the inner loop runs over the contiguous columns of the batch, which lets the JIT compiler vectorize it.
+     */
+    static class QueensBatchPredicate implements VectorizedPredicate {
+        @Override
+        public void test(IntBatch batch, boolean[] matches) {
+            int size = batch.getSize();
+            int[] data = batch.getData();
+            for(int row = 0; row < size; row++) {
+                matches[row] = true;
+            }
+            for(int i = 0; i < batch.getLength() - 1; i++) {
+                int offI = batch.getOffset(i);
+                for(int j = i + 1; j < batch.getLength(); j++) {
+                    int offJ = batch.getOffset(j);
+                    int dist = j - i;
+                    for(int row = 0; row < size; row++) {
+                        int diff = data[offJ + row] - data[offI + row];
+                        matches[row] &= (diff != dist) & (diff != -dist);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Accepts a prefix if the queen placed in its last row does not share a diagonal with the queens placed in the previous rows.
+     * <br>The occupied diagonals are kept as bitsets indexed by the prefix length. Supports sizes up to 32.
+     */
+    static class QueensPredicate implements PrefixPredicate {
+        private final long[] diagonals;
+        private final long[] antiDiagonals;
+
+        QueensPredicate(int length) {
+            this.diagonals = new long[length + 1];
+            this.antiDiagonals = new long[length + 1];
+        }
+
+        @Override
+        public boolean test(int[] perm, int length) {
+            int row = length - 1;
+            long diagonal = 1L << (row + perm[row]);
+            long antiDiagonal = 1L << (row - perm[row] + perm.length - 1);
+            if((diagonals[row] & diagonal) != 0 || (antiDiagonals[row] & antiDiagonal) != 0) return false;
+            diagonals[length] = diagonals[row] | diagonal;
+            antiDiagonals[length] = antiDiagonals[row] | antiDiagonal;
+            return true;
+        }
+    }
+
     public static boolean isNQueensSolution(int[] perm) {
         int size = perm.length;
         for(int i = 0; i < size - 1; i++) {
@@ -90,7 +163,7 @@ public class NQueens {
     }
 
     /**
-     * Prints at most 10 solutions of the N-Queens problem with size 12.
+     * Prints at most 10 solutions of the N-Queens problem with size 12 and the number of solutions for sizes 14 and 10.
      */
     public static void main(String[] args) {
         System.out.println("Solutions:\n"
@@ -99,5 +172,7 @@ public class NQueens {
                 .limit(10)
                 .map(NQueens::toString)
                 .collect(Collectors.joining("\n\n")));
+        System.out.println("Number of solutions for size 14: " + new NQueens(14).parallelPrunedStream().count());
+        System.out.println("Number of solutions for size 10: " + new NQueens(10).countSolutions());
     }
 }
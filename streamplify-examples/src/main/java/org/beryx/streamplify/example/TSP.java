@@ -16,6 +16,7 @@
 package org.beryx.streamplify.example;
 
 import javafx.geometry.Point2D;
+import org.beryx.streamplify.SharedBound;
 import org.beryx.streamplify.permutation.Permutations;
 
 import java.util.Arrays;
@@ -25,6 +26,8 @@ import java.util.stream.Collectors;
 /**
  * A brute force solver for the Travelling salesman problem.
  * <br>Illustrates the use of {@link Permutations}.
+ * <br>The {@link #solvePruned()} method performs a branch-and-bound search, which rejects all routes starting with a path
+ * that is not shorter than the best route found so far.
  */
 public class TSP {
     private final Point2D[] locations;
@@ -36,12 +39,7 @@ public class TSP {
 
         Solution(int[] route) {
             this.route = route;
-            int len = route.length;
-            double d = distances[len-1][0];
-            for(int i = 0; i < len-1; i++) {
-                d += distances[i][i+1];
-            }
-            this.routeLength = d;
+            this.routeLength = pathLength(route, route.length);
         }
 
         @Override
@@ -65,6 +63,18 @@ public class TSP {
         }
     }
 
+    /**
+     * @return the length of the path visiting the first {@code len} locations of the route.
+     * If the path contains the entire route, the distance back to the first location is also included.
+     */
+    private double pathLength(int[] route, int len) {
+        double d = (len == route.length) ? distances[route[len-1]][route[0]] : 0;
+        for(int i = 0; i < len-1; i++) {
+            d += distances[route[i]][route[i+1]];
+        }
+        return d;
+    }
+
     public static TSP ofRandomLocations(int length) {
         Random rnd = new Random();
         Point2D[] locations = new Point2D[length];
@@ -82,7 +92,18 @@ public class TSP {
                 .get();
     }
 
+    public Solution solvePruned() {
+        SharedBound<int[]> bound = new SharedBound<>();
+        new Permutations(locations.length)
+                .withPrefix(0)
+                .parallelPrunedStream(() -> (route, len) -> pathLength(route, len) < bound.getValue())
+                .forEach(route -> bound.offer(pathLength(route, route.length), route));
+        return new Solution(bound.getSolution());
+    }
+
     public static void main(String[] args) {
-        System.out.println(TSP.ofRandomLocations(10).solve());
+        TSP tsp = TSP.ofRandomLocations(10);
+        System.out.println(tsp.solve());
+        System.out.println(tsp.solvePruned());
     }
 }
@@ -16,34 +16,52 @@
 package org.beryx.streamplify;
 
 import org.beryx.streamplify.permutation.LongPermutations;
+import org.beryx.streamplify.shared.Limbs;
 import org.beryx.streamplify.shuffler.BigIntegerShuffler;
+import org.beryx.streamplify.shuffler.BlockBigIntegerShuffler;
 import org.beryx.streamplify.shuffler.DefaultBigIntegerShuffler;
+import org.beryx.streamplify.shuffler.LimbsShuffler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigInteger;
-import java.util.Random;
-import java.util.Spliterator;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
  * An indexed-spliterator that uses a BigInteger index.
  */
-public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSpliterator<T,S>> implements Spliterator<T>, Streamable<T,S> {
+public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSpliterator<T,S>> implements Spliterator<T>, IndexedStreamable<T,S> {
     private static final Logger logger =  LoggerFactory.getLogger(LongPermutations.class);
 
     private Splittable.BigIntegerIndexed<T> valueSupplier;
-    private BigInteger index;
+    /** The current index is {@code base + offset}. */
+    private BigInteger base;
+    private long offset;
+    /** The number of indexes that can still be traversed by incrementing the offset, before the base must be recomputed. */
+    private long remaining;
     private final BigInteger fence;
     int characteristics = Spliterator.IMMUTABLE;
     private BigIntegerShuffler shuffler = BigIntegerShuffler.IDENTITY;
 
+    /** Reusable buffers for shuffling indexes with a {@link LimbsShuffler}, allocated on first use. */
+    private LimbsShuffler limbsShuffler;
+    private BigInteger limbsBase;
+    private Limbs baseLimbs;
+    private Limbs indexLimbs;
+    private Limbs shuffledIndex;
+
     protected BigIntegerIndexedSpliterator(BigInteger origin, BigInteger fence) {
         logger.trace("BigIntegerIndexedSpliterator({}, {})", origin, fence);
         if(origin.compareTo(BigInteger.ZERO) < 0 || fence.compareTo(origin) < 0) throw new IllegalArgumentException("origin: " + origin + ", fence: " + fence);
-        this.index = origin;
+        setIndex(origin);
         this.fence = fence;
     }
 
@@ -74,8 +92,32 @@ public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSplitera
         return (S)this;
     }
 
+    /**
+     * @return the current index. The offset is folded into the base, which requires a BigInteger addition only if the offset is not zero.
+     */
     protected BigInteger getIndex() {
-        return index;
+        if(offset != 0) {
+            base = base.add(BigInteger.valueOf(offset));
+            offset = 0;
+        }
+        return base;
+    }
+
+    private void setIndex(BigInteger index) {
+        base = index;
+        offset = 0;
+        remaining = 0;
+    }
+
+    /**
+     * Computes how many of the remaining indexes can be traversed by incrementing the offset of the current base.
+     * @return false, if there are no remaining indexes
+     */
+    private boolean startWindow() {
+        BigInteger size = fence.subtract(getIndex());
+        if(size.signum() <= 0) return false;
+        remaining = size.min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
+        return true;
     }
     
     protected BigInteger getFence() {
@@ -103,7 +145,7 @@ public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSplitera
 
     @Override
     public BigInteger bigCount() {
-        return fence.subtract(index);
+        return fence.subtract(getIndex());
     }
 
     @SuppressWarnings("unchecked")
@@ -116,8 +158,8 @@ public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSplitera
     @Override
     public S skip(BigInteger n) {
         if(n.compareTo(BigInteger.ZERO) < 0) throw new IllegalArgumentException("skip(" + n + ")");
-        BigInteger targetIndex = index.add(n);
-        index = (targetIndex.compareTo(fence) >= 0) ? fence : targetIndex;
+        BigInteger targetIndex = getIndex().add(n);
+        setIndex((targetIndex.compareTo(fence) >= 0) ? fence : targetIndex);
         return (S)this;
     }
 
@@ -135,38 +177,77 @@ public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSplitera
     @Override
     public boolean tryAdvance(Consumer<? super T> action) {
         if (action == null) throw new NullPointerException();
-        if (index.compareTo(BigInteger.ZERO) >= 0 && index.compareTo(fence) < 0) {
-            BigInteger shuffledIndex = shuffler.getShuffledIndex(index);
-            T val = valueSupplier.apply(shuffledIndex);
-            index = index.add(BigInteger.ONE);
-            action.accept(val);
-            return true;
+        if(remaining == 0 && !startWindow()) return false;
+        T val = nextValue();
+        action.accept(val);
+        return true;
+    }
+
+    /**
+     * Retrieves the value at the current index and moves to the next index, using only primitive arithmetic for the index.
+     * The caller must ensure that {@code remaining > 0}.
+     */
+    private T nextValue() {
+        T val;
+        if(shuffler == BigIntegerShuffler.IDENTITY) {
+            val = valueSupplier.apply(base, offset);
+        } else if(shuffler instanceof LimbsShuffler) {
+            val = nextShuffledValue((LimbsShuffler)shuffler);
+        } else {
+            val = valueSupplier.apply(shuffler.getShuffledIndex(base, offset));
         }
-        return false;
+        offset++;
+        remaining--;
+        return val;
+    }
+
+    /**
+     * Retrieves the value at the shuffled current index, using reusable limb buffers instead of BigInteger objects.
+     */
+    private T nextShuffledValue(LimbsShuffler indexShuffler) {
+        if(indexShuffler != limbsShuffler) {
+            limbsShuffler = indexShuffler;
+            limbsBase = null;
+            int bitCount = indexShuffler.getCount().bitLength();
+            baseLimbs = new Limbs(bitCount);
+            indexLimbs = new Limbs(bitCount);
+            shuffledIndex = new Limbs(bitCount);
+        }
+        if(base != limbsBase) {
+            baseLimbs.set(base);
+            limbsBase = base;
+        }
+        indexLimbs.set(baseLimbs, offset);
+        indexShuffler.getShuffledIndex(indexLimbs, shuffledIndex);
+        return valueSupplier.apply(shuffledIndex);
     }
 
     @Override
     public Spliterator<T> trySplit() {
+        BigInteger index = getIndex();
         BigInteger mid = index.add(fence).divide(BigInteger.valueOf(2));
         if(index.compareTo(mid) >= 0) return null;
         S spliterator = (S)new BigIntegerIndexedSpliterator<T,S>(index, mid)
                 .withAdditionalCharacteristics(characteristics)
                 .withValueSupplier(valueSupplier.split())
                 .withShuffler(shuffler);
-        index = mid;
+        setIndex(mid);
         return spliterator;
     }
 
     @Override
     public void forEachRemaining(Consumer<? super T> action) {
         if (action == null) throw new NullPointerException();
-        if(index.compareTo(BigInteger.ZERO) >= 0 && index.compareTo(fence) < 0) {
-            for(BigInteger i = index; i.compareTo(fence) < 0; i = i.add(BigInteger.ONE)) {
-                BigInteger shuffledIndex = shuffler.getShuffledIndex(i);
-                T val = valueSupplier.apply(shuffledIndex);
-                action.accept(val);
+        BigInteger index = getIndex();
+        if(index.compareTo(fence) < 0) {
+            if(shuffler == BigIntegerShuffler.IDENTITY) {
+                valueSupplier.forEachInRange(index, fence, action);
+            } else {
+                while(remaining > 0 || startWindow()) {
+                    action.accept(nextValue());
+                }
             }
-            index = fence;
+            setIndex(fence);
         }
     }
 
@@ -176,4 +257,344 @@ public class BigIntegerIndexedSpliterator<T, S extends BigIntegerIndexedSplitera
         shuffler = new DefaultBigIntegerShuffler(fence, rnd);
         return (S)this;
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z blockShuffle(long blockSize, Random rnd) {
+        shuffler = new BlockBigIntegerShuffler(fence, blockSize, rnd);
+        return (Z)this;
+    }
+
+    /**
+     * Creates an immutable template that provides the elements currently covered by this spliterator.
+     * The value supplier of the template is obtained by splitting the value supplier of this spliterator.
+     * <br>Later changes of this spliterator (for example, skipping or traversing elements) do not affect the template.
+     */
+    @Override
+    public BigIntegerIndexedTemplate<T> asTemplate() {
+        return new BigIntegerIndexedTemplate<>(getIndex(), fence, characteristics, shuffler, valueSupplier.split());
+    }
+
+    /**
+     * Collects the remaining elements into a single flat int array, using a parallel traversal.
+     * Each leaf of the traversal writes its elements directly into the region of the flat array corresponding to its index range.
+     * @throws ClassCastException if the elements of this spliterator are not int arrays
+     * @throws IllegalStateException if the elements do not fit in a single int array
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public IntMatrix toFlatArray() {
+        int width = (valueSupplier instanceof IntArraySupplier) ? ((IntArraySupplier)valueSupplier).getSequenceLength() : -1;
+        return IntMatrix.fromIndexedSpliterator((Spliterator<int[]>)this, width);
+    }
+
+    /**
+     * Creates a spliterator over the elements whose ranks are contained in the given bitmap.
+     * The value supplier of the new spliterator is obtained by splitting the value supplier of this spliterator, which is not modified.
+     * <br>The fence of this spliterator is considered the size of the data source.
+     */
+    @Override
+    public LongIndexedSpliterator<T, ?> restrictTo(RankBitmap ranks) {
+        long count = ranks.getCardinality();
+        if(count > 0 && BigInteger.valueOf(ranks.select(count - 1)).compareTo(fence) >= 0) {
+            throw new IllegalArgumentException("The bitmap contains ranks greater than or equal to " + fence);
+        }
+        boolean stepping = (valueSupplier instanceof IntArraySupplier) && ((IntArraySupplier)valueSupplier).isComputeNextSupported();
+        return LongIndexedSpliterator.create(0, count, new RankBitmap.RestrictedSupplier<>(ranks, new RankBitmap.BigIntegerAdapter<>(valueSupplier.split()), stepping))
+                .withAdditionalCharacteristics(characteristics);
+    }
+
+    /**
+     * Creates a spliterator over {@code k} distinct elements chosen uniformly at random from the range currently covered by this spliterator.
+     * The value supplier of the new spliterator is obtained by splitting the value supplier of this spliterator, which is not modified.
+     */
+    @Override
+    public LongIndexedSpliterator<T, ?> sample(int k, Random rnd) {
+        BigInteger origin = getIndex();
+        BigInteger[] ranks = Sampler.sampleRanks(fence.subtract(origin), k, rnd);
+        return LongIndexedSpliterator.create(0, k, new Sampler.BigIntegerSampleSupplier<>(origin, ranks, valueSupplier.split()))
+                .withAdditionalCharacteristics(characteristics & ~SORTED);
+    }
+
+    /**
+     * Draws the random elements by unranking random ranks in the range currently covered by this spliterator, as {@link #randomStream(long, long)}.
+     * <br>A spliterator cannot generate its elements directly, because the range it covers may have been restricted (for example, by {@link #skip(long)}).
+     */
+    @Override
+    public Stream<T> randomElements(long size, long seed) {
+        return randomStream(size, seed);
+    }
+
+    /**
+     * Creates a stream of elements with random ranks in the range currently covered by this spliterator.
+     * The value suppliers of the stream are obtained by splitting the value supplier of this spliterator, which is not modified.
+     */
+    @Override
+    public Stream<T> randomStream(long size, long seed) {
+        BigInteger origin = getIndex();
+        return RandomSpliterator.stream(new RandomRanks.BigIntegerGenerator<>(origin, fence.subtract(origin), valueSupplier.split()), size, seed);
+    }
+
+    /**
+     * Computes the rank of the given element, as the start of the range of the elements having the complete element as prefix.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.BigIntegerIndexed}
+     */
+    @Override
+    public BigInteger rankOf(T element) {
+        if(!(valueSupplier instanceof PrefixRange.BigIntegerIndexed) || !(element instanceof int[])) {
+            throw new UnsupportedOperationException("The value supplier does not provide prefix ranges: " + valueSupplier.getClass().getName());
+        }
+        BigInteger[] range = ((PrefixRange.BigIntegerIndexed)valueSupplier).getPrefixRange((int[])element);
+        if(!range[1].subtract(range[0]).equals(BigInteger.ONE)) {
+            throw new IllegalArgumentException("Not an element of this data source: " + Arrays.toString((int[])element));
+        }
+        return range[0];
+    }
+
+    /**
+     * Creates a spliterator over the elements starting with the given prefix.
+     * The new spliterator covers the intersection of the prefix range with the range currently covered by this spliterator, which is not modified.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.BigIntegerIndexed}
+     * @throws IllegalStateException if this spliterator is shuffled
+     */
+    @Override
+    public BigIntegerIndexedSpliterator<T, ?> withPrefix(int... prefix) {
+        BigInteger[] range = getPrefixRanges().getPrefixRange(prefix);
+        return createSubrange(range[0], range[1]);
+    }
+
+    /**
+     * Partitions the elements currently covered by this spliterator in groups of elements sharing the same prefix.
+     * Each group is backed by a new spliterator. This spliterator is not modified.
+     * <br>The groups are found by unranking the first element of each group and computing the range of its prefix.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.BigIntegerIndexed}
+     * @throws IllegalStateException if this spliterator is shuffled
+     */
+    @Override
+    public Stream<PrefixGroup<T>> groupByPrefix(int depth) {
+        PrefixRange.BigIntegerIndexed ranges = getPrefixRanges();
+        if(depth < 0 || depth > ranges.getSequenceLength()) {
+            throw new IllegalArgumentException("Invalid depth " + depth + " for sequences of length " + ranges.getSequenceLength());
+        }
+        Splittable.BigIntegerIndexed<T> supplier = valueSupplier.split();
+        Iterator<PrefixGroup<T>> groups = new Iterator<PrefixGroup<T>>() {
+            private BigInteger next = getIndex();
+
+            @Override
+            public boolean hasNext() {
+                return next.compareTo(fence) < 0;
+            }
+
+            @Override
+            public PrefixGroup<T> next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                int[] prefix = Arrays.copyOf((int[])supplier.apply(next), depth);
+                BigIntegerIndexedSpliterator<T, ?> group = createSubrange(next, ranges.getPrefixRange(prefix)[1]);
+                next = group.fence;
+                return new PrefixGroup<>(prefix, group);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(groups, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Provides a sequential stream of the elements currently covered by this spliterator that are accepted by the predicates created by the given factory.
+     * <br>The stream is backed by a new spliterator, whose value supplier is obtained by splitting the value supplier of this spliterator.
+     * Therefore, this spliterator is not modified.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.BigIntegerIndexed}
+     * @throws IllegalStateException if this spliterator is shuffled
+     */
+    @Override
+    public Stream<T> prunedStream(Supplier<? extends PrefixPredicate> predicateFactory) {
+        return StreamSupport.stream(prunedSpliterator(predicateFactory), false);
+    }
+
+    /**
+     * Provides a possibly parallel stream of the elements currently covered by this spliterator that are accepted by the predicates created by the given factory.
+     * @see #prunedStream(Supplier)
+     */
+    @Override
+    public Stream<T> parallelPrunedStream(Supplier<? extends PrefixPredicate> predicateFactory) {
+        return StreamSupport.stream(prunedSpliterator(predicateFactory), true);
+    }
+
+    private BigIntegerPrunedSpliterator<T> prunedSpliterator(Supplier<? extends PrefixPredicate> predicateFactory) {
+        getPrefixRanges();
+        return new BigIntegerPrunedSpliterator<>(getIndex(), fence, characteristics, valueSupplier.split(), predicateFactory);
+    }
+
+    /**
+     * Estimates the number of elements currently covered by this spliterator that satisfy the given predicate, by sampling their ranks.
+     * The shuffler is not taken into account. The sampling uses value suppliers obtained by splitting the value supplier of this spliterator,
+     * which is not modified.
+     */
+    @Override
+    public Estimate estimateCount(Predicate<? super T> predicate, Estimator estimator) {
+        return estimator.estimate(getIndex(), fence, valueSupplier, val -> predicate.test(val) ? 1 : 0, true);
+    }
+
+    /**
+     * Estimates the mean value of the objective over the elements currently covered by this spliterator, by sampling their ranks.
+     * @see #estimateCount(Predicate, Estimator)
+     */
+    @Override
+    public Estimate estimateMean(ToDoubleFunction<? super T> objective, Estimator estimator) {
+        return estimator.estimate(getIndex(), fence, valueSupplier, objective, false);
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, because packed elements are provided only by data sources with long indexes
+     */
+    @Override
+    public PackedFormat getPackedFormat() {
+        throw new UnsupportedOperationException("Packed elements are not supported by data sources with BigInteger indexes");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, because packed elements are provided only by data sources with long indexes
+     */
+    @Override
+    public LongStream packedStream() {
+        throw new UnsupportedOperationException("Packed streams are not supported by data sources with BigInteger indexes");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, because packed elements are provided only by data sources with long indexes
+     */
+    @Override
+    public LongStream parallelPackedStream() {
+        throw new UnsupportedOperationException("Packed streams are not supported by data sources with BigInteger indexes");
+    }
+
+    private PrefixRange.BigIntegerIndexed getPrefixRanges() {
+        if(!(valueSupplier instanceof PrefixRange.BigIntegerIndexed)) {
+            throw new UnsupportedOperationException("The value supplier does not provide prefix ranges: " + valueSupplier.getClass().getName());
+        }
+        if(shuffler != BigIntegerShuffler.IDENTITY) throw new IllegalStateException("Prefix ranges cannot be used with shuffled streams");
+        return (PrefixRange.BigIntegerIndexed)valueSupplier;
+    }
+
+    private BigIntegerIndexedSpliterator<T, ?> createSubrange(BigInteger from, BigInteger to) {
+        BigInteger origin = getIndex().max(from).min(fence);
+        return create(origin, origin.max(fence.min(to)), valueSupplier.split())
+                .withAdditionalCharacteristics(characteristics);
+    }
+
+    /**
+     * Creates a spliterator over the elements currently covered by this spliterator, transformed by the given mapper.
+     * The value supplier of the new spliterator wraps a value supplier obtained by splitting the value supplier of this spliterator.
+     * This spliterator is not modified.
+     * <br>The new spliterator keeps the shuffler and the characteristics of this spliterator, except {@link Spliterator#DISTINCT} and {@link Spliterator#SORTED}.
+     */
+    @Override
+    public <R> BigIntegerIndexedSpliterator<R, ?> map(Function<? super T, ? extends R> mapper) {
+        return create(getIndex(), fence, new MappedSupplier<T, R>(valueSupplier.split(), mapper))
+                .withAdditionalCharacteristics(characteristics & ~(Spliterator.DISTINCT | Spliterator.SORTED))
+                .withShuffler(shuffler);
+    }
+
+    /**
+     * Provides a sequential stream of the elements currently covered by this spliterator, paired with their positions and ranks.
+     * <br>The stream is backed by a new spliterator, whose value supplier is obtained by splitting the value supplier of this spliterator.
+     * Therefore, this spliterator is not modified.
+     */
+    @Override
+    public Stream<Ranked<T>> indexedStream() {
+        return StreamSupport.stream(rankedSpliterator(), false);
+    }
+
+    /**
+     * Provides a possibly parallel stream of the elements currently covered by this spliterator, paired with their positions and ranks.
+     * @see #indexedStream()
+     */
+    @Override
+    public Stream<Ranked<T>> parallelIndexedStream() {
+        return StreamSupport.stream(rankedSpliterator(), true);
+    }
+
+    /**
+     * Performs the given action for each element currently covered by this spliterator, using a value supplier obtained by splitting
+     * the value supplier of this spliterator. This spliterator is not modified.
+     */
+    @Override
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        if (action == null) throw new NullPointerException();
+        Splittable.BigIntegerIndexed<T> supplier = valueSupplier.split();
+        for(BigInteger i = getIndex(); i.compareTo(fence) < 0; i = i.add(BigInteger.ONE)) {
+            BigInteger rank = shuffler.getShuffledIndex(i);
+            action.accept(i, rank, supplier.apply(rank));
+        }
+    }
+
+    private BigIntegerIndexedSpliterator<Ranked<T>, ?> rankedSpliterator() {
+        return create(getIndex(), fence, new RankedSupplier<>(valueSupplier.split(), shuffler))
+                .withAdditionalCharacteristics(characteristics);
+    }
+
+    /**
+     * Creates a spliterator with the given value supplier.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, S extends BigIntegerIndexedSpliterator<T, S>> S create(BigInteger origin, BigInteger fence, Splittable.BigIntegerIndexed<T> valueSupplier) {
+        S spliterator = (S)new BigIntegerIndexedSpliterator<T, S>(origin, fence);
+        return spliterator.withValueSupplier(valueSupplier);
+    }
+
+    /**
+     * A value supplier that pairs the elements provided by another value supplier with their positions and ranks.
+     * It expects to be called with unshuffled positions and applies the shuffler itself.
+     */
+    private static class RankedSupplier<T> implements Splittable.BigIntegerIndexed<Ranked<T>> {
+        private final Splittable.BigIntegerIndexed<T> valueSupplier;
+        private final BigIntegerShuffler shuffler;
+
+        RankedSupplier(Splittable.BigIntegerIndexed<T> valueSupplier, BigIntegerShuffler shuffler) {
+            this.valueSupplier = valueSupplier;
+            this.shuffler = shuffler;
+        }
+
+        @Override
+        public Ranked<T> apply(BigInteger position) {
+            BigInteger rank = shuffler.getShuffledIndex(position);
+            return new Ranked<>(position, rank, valueSupplier.apply(rank));
+        }
+
+        @Override
+        public Splittable.BigIntegerIndexed<Ranked<T>> split() {
+            return new RankedSupplier<>(valueSupplier.split(), shuffler);
+        }
+    }
+
+    /**
+     * A value supplier that applies a mapper to the elements provided by another value supplier.
+     */
+    private static class MappedSupplier<T, R> implements Splittable.BigIntegerIndexed<R> {
+        private final Splittable.BigIntegerIndexed<T> valueSupplier;
+        private final Function<? super T, ? extends R> mapper;
+
+        MappedSupplier(Splittable.BigIntegerIndexed<T> valueSupplier, Function<? super T, ? extends R> mapper) {
+            this.valueSupplier = valueSupplier;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public R apply(BigInteger index) {
+            return mapper.apply(valueSupplier.apply(index));
+        }
+
+        @Override
+        public R apply(BigInteger base, long offset) {
+            return mapper.apply(valueSupplier.apply(base, offset));
+        }
+
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super R> action) {
+            valueSupplier.forEachInRange(from, to, value -> action.accept(mapper.apply(value)));
+        }
+
+        @Override
+        public Splittable.BigIntegerIndexed<R> split() {
+            return new MappedSupplier<>(valueSupplier.split(), mapper);
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import org.beryx.streamplify.shuffler.BigIntegerShuffler;
+import org.beryx.streamplify.shuffler.BlockBigIntegerShuffler;
+import org.beryx.streamplify.shuffler.DefaultBigIntegerShuffler;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * An immutable, thread-safe {@link Streamable} that creates a new {@link BigIntegerIndexedSpliterator} for each requested stream.
+ * <br>See {@link LongIndexedTemplate} for details.
+ */
+public class BigIntegerIndexedTemplate<T> extends IndexedStreamableProxy<T, BigIntegerIndexedTemplate<T>> {
+    private final BigInteger origin;
+    private final BigInteger fence;
+    private final int characteristics;
+    private final BigIntegerShuffler shuffler;
+    private final Splittable.BigIntegerIndexed<T> valueSupplier;
+
+    BigIntegerIndexedTemplate(BigInteger origin, BigInteger fence, int characteristics, BigIntegerShuffler shuffler, Splittable.BigIntegerIndexed<T> valueSupplier) {
+        this.origin = origin;
+        this.fence = fence;
+        this.characteristics = characteristics;
+        this.shuffler = shuffler;
+        this.valueSupplier = valueSupplier;
+    }
+
+    /**
+     * @return a newly created spliterator covering the elements of this template.
+     */
+    public BigIntegerIndexedSpliterator<T, ?> newSpliterator() {
+        return BigIntegerIndexedSpliterator.create(origin, fence, valueSupplier.split())
+                .withAdditionalCharacteristics(characteristics)
+                .withShuffler(shuffler);
+    }
+
+    /**
+     * @return a newly created spliterator, as returned by {@link #newSpliterator()}
+     */
+    @Override
+    protected IndexedStreamable<T, ?> getDelegate() {
+        return newSpliterator();
+    }
+
+    /**
+     * @return a new template, whose streams have the additional characteristics
+     */
+    @Override
+    public BigIntegerIndexedTemplate<T> withAdditionalCharacteristics(int additionalCharacteristics) {
+        return new BigIntegerIndexedTemplate<>(origin, fence, characteristics | additionalCharacteristics, shuffler, valueSupplier);
+    }
+
+    @Override
+    public long count() {
+        BigInteger size = bigCount();
+        if(size.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) <= 0) {
+            return size.longValueExact();
+        }
+        return -1;
+    }
+
+    @Override
+    public BigInteger bigCount() {
+        return fence.subtract(origin);
+    }
+
+    /**
+     * @return a new template that skips the first {@code n} elements of this template
+     */
+    @Override
+    public <Z extends Streamable<T, ?>> Z skip(long n) {
+        return skip(BigInteger.valueOf(n));
+    }
+
+    /**
+     * @return a new template that skips the first {@code n} elements of this template
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z skip(BigInteger n) {
+        if(n.compareTo(BigInteger.ZERO) < 0) throw new IllegalArgumentException("skip(" + n + ")");
+        BigInteger targetOrigin = origin.add(n);
+        BigInteger newOrigin = (targetOrigin.compareTo(fence) >= 0) ? fence : targetOrigin;
+        return (Z)new BigIntegerIndexedTemplate<>(newOrigin, fence, characteristics, shuffler, valueSupplier);
+    }
+
+    /**
+     * @return a new template that shuffles the elements of this template
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z shuffle(Random rnd) {
+        return (Z)new BigIntegerIndexedTemplate<>(origin, fence, characteristics, new DefaultBigIntegerShuffler(fence, rnd), valueSupplier);
+    }
+
+    /**
+     * @return a new template that shuffles the blocks of this template
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z blockShuffle(long blockSize, Random rnd) {
+        return (Z)new BigIntegerIndexedTemplate<>(origin, fence, characteristics, new BlockBigIntegerShuffler(fence, blockSize, rnd), valueSupplier);
+    }
+
+    /**
+     * @return this instance, since templates are already immutable
+     */
+    @Override
+    public BigIntegerIndexedTemplate<T> asTemplate() {
+        return this;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A spliterator that provides the elements of a lexicographic data source accepted by a {@link PrefixPredicate}.
+ * <br>See {@link LongPrunedSpliterator} for details.
+ */
+class BigIntegerPrunedSpliterator<T> implements Spliterator<T> {
+    private final Splittable.BigIntegerIndexed<T> valueSupplier;
+    private final Supplier<? extends PrefixPredicate> predicateFactory;
+    private final int characteristics;
+    private final PrefixPruner pruner;
+    private BigInteger index;
+    private final BigInteger fence;
+
+    BigIntegerPrunedSpliterator(BigInteger origin, BigInteger fence, int characteristics,
+                                Splittable.BigIntegerIndexed<T> valueSupplier, Supplier<? extends PrefixPredicate> predicateFactory) {
+        this.index = origin;
+        this.fence = fence;
+        this.characteristics = characteristics & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+        this.valueSupplier = valueSupplier;
+        this.predicateFactory = predicateFactory;
+        this.pruner = new PrefixPruner(predicateFactory.get());
+    }
+
+    private BigInteger[] getPrefixRange(int[] sequence, int length) {
+        return ((PrefixRange.BigIntegerIndexed)valueSupplier).getPrefixRange(Arrays.copyOf(sequence, length));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (action == null) throw new NullPointerException();
+        while(index.compareTo(fence) < 0) {
+            T val = valueSupplier.apply(index);
+            int rejectedLength = pruner.getRejectedLength((int[])val);
+            if(rejectedLength == 0) {
+                index = index.add(BigInteger.ONE);
+                action.accept(val);
+                return true;
+            }
+            BigInteger next = ((PrefixRange.BigIntegerIndexed)valueSupplier).skipPrefix(rejectedLength);
+            index = (next != null) ? next : getPrefixRange((int[])val, rejectedLength)[1];
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while(tryAdvance(action));
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        BigInteger mid = index.add(fence).shiftRight(1);
+        if(index.compareTo(mid) >= 0) return null;
+        int[] sequence = (int[])valueSupplier.apply(mid);
+        BigInteger splitIndex = mid;
+        for(int length = 1; length < sequence.length; length++) {
+            BigInteger from = getPrefixRange(sequence, length)[0];
+            if(from.compareTo(index) > 0) {
+                splitIndex = from;
+                break;
+            }
+        }
+        Spliterator<T> spliterator = new BigIntegerPrunedSpliterator<>(index, splitIndex, characteristics, valueSupplier.split(), predicateFactory);
+        index = splitIndex;
+        return spliterator;
+    }
+
+    /**
+     * @return the number of remaining indexes (which is an upper bound of the number of remaining elements),
+     * or {@link Long#MAX_VALUE} if this number does not fit in a long.
+     */
+    @Override
+    public long estimateSize() {
+        BigInteger size = fence.subtract(index);
+        return (size.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) > 0) ? Long.MAX_VALUE : size.longValue();
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
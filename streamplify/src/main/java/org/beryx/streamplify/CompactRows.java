@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * Converts int arrays with small non-negative entries to and from byte and short arrays, which store the entries as unsigned values.
+ * <br>{@link #byteRows(IndexedStreamable)} and {@link #shortRows(IndexedStreamable)} apply these conversions to all elements of a data source.
+ */
+public class CompactRows {
+    private CompactRows() {}
+
+    /**
+     * Creates a Streamable whose elements are byte arrays holding the entries of the elements of the given data source as unsigned values.
+     * <br>The entries must be in the range [0, 255]; otherwise, the traversal of the returned Streamable fails with an {@link IllegalArgumentException}.
+     */
+    public static IndexedStreamable<byte[], ?> byteRows(IndexedStreamable<int[], ?> source) {
+        return source.map(CompactRows::toBytes);
+    }
+
+    /**
+     * Creates a Streamable whose elements are short arrays holding the entries of the elements of the given data source as unsigned values.
+     * <br>The entries must be in the range [0, 65535]; otherwise, the traversal of the returned Streamable fails with an {@link IllegalArgumentException}.
+     */
+    public static IndexedStreamable<short[], ?> shortRows(IndexedStreamable<int[], ?> source) {
+        return source.map(CompactRows::toShorts);
+    }
+
+    /**
+     * @throws IllegalArgumentException if an entry is not in the range [0, 255]
+     */
+    public static byte[] toBytes(int[] sequence) {
+        byte[] row = new byte[sequence.length];
+        for(int i = 0; i < sequence.length; i++) {
+            int val = sequence[i];
+            if((val & ~0xFF) != 0) throw new IllegalArgumentException("Value " + val + " does not fit in an unsigned byte");
+            row[i] = (byte)val;
+        }
+        return row;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an entry is not in the range [0, 65535]
+     */
+    public static short[] toShorts(int[] sequence) {
+        short[] row = new short[sequence.length];
+        for(int i = 0; i < sequence.length; i++) {
+            int val = sequence[i];
+            if((val & ~0xFFFF) != 0) throw new IllegalArgumentException("Value " + val + " does not fit in an unsigned short");
+            row[i] = (short)val;
+        }
+        return row;
+    }
+
+    public static int[] fromBytes(byte[] row) {
+        int[] sequence = new int[row.length];
+        for(int i = 0; i < row.length; i++) {
+            sequence[i] = row[i] & 0xFF;
+        }
+        return sequence;
+    }
+
+    public static int[] fromShorts(short[] row) {
+        int[] sequence = new int[row.length];
+        for(int i = 0; i < row.length; i++) {
+            sequence[i] = row[i] & 0xFFFF;
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * The result of a sampling-based estimation performed by an {@link Estimator}:
+ * the estimated value, its standard error and a confidence interval.
+ */
+public final class Estimate {
+    private final double value;
+    private final double standardError;
+    private final double confidence;
+    private final double halfWidth;
+    private final long sampleSize;
+
+    Estimate(double value, double standardError, double confidence, double halfWidth, long sampleSize) {
+        this.value = value;
+        this.standardError = standardError;
+        this.confidence = confidence;
+        this.halfWidth = halfWidth;
+        this.sampleSize = sampleSize;
+    }
+
+    /** @return the estimated value */
+    public double getValue() {
+        return value;
+    }
+
+    /** @return the estimated standard error of {@link #getValue()} */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    /** @return the confidence level of the interval [{@link #getLowerBound()}, {@link #getUpperBound()}] */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /** @return the lower bound of the confidence interval */
+    public double getLowerBound() {
+        return value - halfWidth;
+    }
+
+    /** @return the upper bound of the confidence interval */
+    public double getUpperBound() {
+        return value + halfWidth;
+    }
+
+    /**
+     * @return the half-width of the confidence interval divided by the absolute value of the estimate,
+     * or {@link Double#POSITIVE_INFINITY} if the estimate is zero and the interval is not empty.
+     */
+    public double getRelativeError() {
+        if(halfWidth == 0) return 0;
+        return (value == 0) ? Double.POSITIVE_INFINITY : halfWidth / Math.abs(value);
+    }
+
+    /** @return the number of sampled elements */
+    public long getSampleSize() {
+        return sampleSize;
+    }
+
+    @Override
+    public String toString() {
+        return value + " +/- " + halfWidth + " (confidence: " + confidence + ", sample size: " + sampleSize + ")";
+    }
+}
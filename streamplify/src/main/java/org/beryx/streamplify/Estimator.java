@@ -0,0 +1,369 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Configures the sampling-based estimations performed by {@link IndexedStreamable#estimateCount(java.util.function.Predicate, Estimator)}
+ * and {@link IndexedStreamable#estimateMean(ToDoubleFunction, Estimator)}.
+ * <br>The estimator draws ranks uniformly at random, unranks them and evaluates the objective in a parallel stream.
+ * The ranks can be stratified by index range ({@link #withStrata(int)}) or by prefix ({@link #withPrefixStrata(int)}).
+ * In this case, the samples are allocated to the strata in round-robin fashion and the estimate is the weighted mean of the stratum means.
+ * <br>Sampling is performed in batches of {@link #withSampleSize(int) sampleSize} elements.
+ * If a {@link #withTargetRelativeError(double) target relative error} is configured, new batches are sampled
+ * until this error or the {@link #withMaxSampleSize(long) maximum sample size} is reached.
+ * <br>The rank of each sample depends only on the seed and on the position of the sample, so the results are reproducible,
+ * regardless of the way the parallel stream is split.
+ */
+public class Estimator {
+    private int sampleSize = 10_000;
+    private long maxSampleSize = 1_000_000;
+    private int strata = 1;
+    private int prefixDepth = -1;
+    private double confidence = 0.95;
+    private double targetRelativeError = 0;
+    private long seed = new Random().nextLong();
+
+    /**
+     * Sets the number of elements sampled in each batch. The default value is 10000.
+     * @return this instance
+     */
+    public Estimator withSampleSize(int sampleSize) {
+        if(sampleSize < 2) throw new IllegalArgumentException("sampleSize: " + sampleSize);
+        this.sampleSize = sampleSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of sampled elements, which is relevant only if a target relative error is configured. The default value is 1000000.
+     * @return this instance
+     */
+    public Estimator withMaxSampleSize(long maxSampleSize) {
+        if(maxSampleSize < 2) throw new IllegalArgumentException("maxSampleSize: " + maxSampleSize);
+        this.maxSampleSize = maxSampleSize;
+        return this;
+    }
+
+    /**
+     * Partitions the index range in the given number of strata of (almost) equal sizes. The default value is 1 (no stratification).
+     * @return this instance
+     */
+    public Estimator withStrata(int strata) {
+        if(strata < 1) throw new IllegalArgumentException("strata: " + strata);
+        this.strata = strata;
+        this.prefixDepth = -1;
+        return this;
+    }
+
+    /**
+     * Uses the groups of elements sharing the same prefix of the given length as strata.
+     * This is supported by the data sources implementing {@link PrefixRange}.
+     * The number of strata must not exceed half of the sample size.
+     * @return this instance
+     */
+    public Estimator withPrefixStrata(int depth) {
+        if(depth < 0) throw new IllegalArgumentException("depth: " + depth);
+        this.prefixDepth = depth;
+        return this;
+    }
+
+    /**
+     * Sets the confidence level of the computed interval. The default value is 0.95.
+     * @return this instance
+     */
+    public Estimator withConfidence(double confidence) {
+        if(!(confidence > 0 && confidence < 1)) throw new IllegalArgumentException("confidence: " + confidence);
+        this.confidence = confidence;
+        return this;
+    }
+
+    /**
+     * Configures the estimator to sample new batches until the relative error of the estimate is not greater than the given value.
+     * A value of 0 (the default) disables this stopping rule, so only one batch is sampled.
+     * @return this instance
+     */
+    public Estimator withTargetRelativeError(double targetRelativeError) {
+        if(!(targetRelativeError >= 0)) throw new IllegalArgumentException("targetRelativeError: " + targetRelativeError);
+        this.targetRelativeError = targetRelativeError;
+        return this;
+    }
+
+    /**
+     * Sets the seed used to draw the sampled ranks. By default, a random seed is used.
+     * @return this instance
+     */
+    public Estimator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Estimates the mean of the objective (or the number of elements, if {@code scaleToCount} is true) over the ranks in [origin, fence).
+     * The given value supplier is not used directly: the sampling uses value suppliers obtained by splitting it.
+     */
+    <T> Estimate estimate(long origin, long fence, Splittable.LongIndexed<T> valueSupplier, ToDoubleFunction<? super T> objective, boolean scaleToCount) {
+        long[] bounds = computeBounds(origin, fence, valueSupplier.split());
+        double size = fence - origin;
+        double[] weights = new double[bounds.length - 1];
+        for(int i = 0; i < weights.length; i++) {
+            weights[i] = (bounds[i + 1] - bounds[i]) / size;
+        }
+        return estimate(weights, scaleToCount ? size : 1, new LongSampleSupplier<>(seed, bounds, valueSupplier.split(), objective));
+    }
+
+    /**
+     * @see #estimate(long, long, Splittable.LongIndexed, ToDoubleFunction, boolean)
+     */
+    <T> Estimate estimate(BigInteger origin, BigInteger fence, Splittable.BigIntegerIndexed<T> valueSupplier, ToDoubleFunction<? super T> objective, boolean scaleToCount) {
+        BigInteger[] bounds = computeBounds(origin, fence, valueSupplier.split());
+        BigDecimal size = new BigDecimal(fence.subtract(origin));
+        double[] weights = new double[bounds.length - 1];
+        for(int i = 0; i < weights.length; i++) {
+            weights[i] = new BigDecimal(bounds[i + 1].subtract(bounds[i])).divide(size, MathContext.DECIMAL64).doubleValue();
+        }
+        return estimate(weights, scaleToCount ? size.doubleValue() : 1, new BigIntegerSampleSupplier<>(seed, bounds, valueSupplier.split(), objective));
+    }
+
+    private Estimate estimate(double[] weights, double scale, Splittable.LongIndexed<Double> samples) {
+        int strataCount = weights.length;
+        if(strataCount == 0) return new Estimate(0, 0, confidence, 0, 0);
+        if(sampleSize < 2 * strataCount) {
+            throw new IllegalArgumentException("The sample size (" + sampleSize + ") must be at least twice the number of strata (" + strataCount + ")");
+        }
+        double z = normalQuantile(0.5 + confidence / 2);
+        long maxSize = Math.max(sampleSize, maxSampleSize);
+        Stats stats = new Stats(strataCount);
+        long position = 0;
+        while(true) {
+            long end = Math.min(position + sampleSize, maxSize);
+            Stats batch = LongIndexedSpliterator.create(position, end, samples.split())
+                    .parallelIndexedStream()
+                    .collect(() -> new Stats(strataCount),
+                            (st, sample) -> st.add((int)(sample.getPosition() % strataCount), sample.getElement()),
+                            Stats::addAll);
+            stats.addAll(batch);
+            position = end;
+            Estimate estimate = stats.toEstimate(weights, scale, z, confidence, position);
+            if(targetRelativeError == 0 || position >= maxSize || estimate.getRelativeError() <= targetRelativeError) {
+                return estimate;
+            }
+        }
+    }
+
+    private long[] computeBounds(long origin, long fence, Splittable.LongIndexed<?> valueSupplier) {
+        long size = fence - origin;
+        if(prefixDepth >= 0) {
+            if(!(valueSupplier instanceof PrefixRange.LongIndexed)) {
+                throw new UnsupportedOperationException("The value supplier does not provide prefix ranges: " + valueSupplier.getClass().getName());
+            }
+            PrefixRange.LongIndexed ranges = (PrefixRange.LongIndexed)valueSupplier;
+            List<Long> bounds = new ArrayList<>();
+            long next = origin;
+            bounds.add(next);
+            while(next < fence) {
+                int[] prefix = Arrays.copyOf((int[])valueSupplier.apply(next), prefixDepth);
+                next = Math.min(fence, ranges.getPrefixRange(prefix)[1]);
+                bounds.add(next);
+                checkPrefixStrataCount(bounds.size() - 1);
+            }
+            return bounds.stream().mapToLong(Long::longValue).toArray();
+        }
+        int count = (int)Math.min(strata, size);
+        if(count == 0) return new long[] {origin};
+        long[] bounds = new long[count + 1];
+        for(int i = 0; i <= count; i++) {
+            bounds[i] = origin + (size / count) * i + (size % count) * i / count;
+        }
+        return bounds;
+    }
+
+    private BigInteger[] computeBounds(BigInteger origin, BigInteger fence, Splittable.BigIntegerIndexed<?> valueSupplier) {
+        BigInteger size = fence.subtract(origin);
+        if(prefixDepth >= 0) {
+            if(!(valueSupplier instanceof PrefixRange.BigIntegerIndexed)) {
+                throw new UnsupportedOperationException("The value supplier does not provide prefix ranges: " + valueSupplier.getClass().getName());
+            }
+            PrefixRange.BigIntegerIndexed ranges = (PrefixRange.BigIntegerIndexed)valueSupplier;
+            List<BigInteger> bounds = new ArrayList<>();
+            BigInteger next = origin;
+            bounds.add(next);
+            while(next.compareTo(fence) < 0) {
+                int[] prefix = Arrays.copyOf((int[])valueSupplier.apply(next), prefixDepth);
+                next = fence.min(ranges.getPrefixRange(prefix)[1]);
+                bounds.add(next);
+                checkPrefixStrataCount(bounds.size() - 1);
+            }
+            return bounds.toArray(new BigInteger[bounds.size()]);
+        }
+        int count = size.min(BigInteger.valueOf(strata)).intValue();
+        if(count == 0) return new BigInteger[] {origin};
+        BigInteger[] bounds = new BigInteger[count + 1];
+        for(int i = 0; i <= count; i++) {
+            bounds[i] = origin.add(size.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count)));
+        }
+        return bounds;
+    }
+
+    private void checkPrefixStrataCount(int count) {
+        if(2 * count > sampleSize) {
+            throw new IllegalArgumentException("Too many prefix strata for the sample size " + sampleSize + ". Use a shorter prefix.");
+        }
+    }
+
+    /**
+     * @return the value of the inverse of the standard normal cumulative distribution function at {@code p},
+     * computed using the rational approximation of Peter J. Acklam (relative error less than 1.15e-9).
+     */
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+        final double pLow = 0.02425;
+        if(p < pLow || p > 1 - pLow) {
+            double q = Math.sqrt(-2 * Math.log(Math.min(p, 1 - p)));
+            double x = (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+            return (p < pLow) ? x : -x;
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    private static SplittableRandom random(long seed, long position) {
+        return new SplittableRandom(seed + position * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Provides the value of the objective for the element with a randomly drawn rank.
+     * The sample with a given position belongs to the stratum {@code position % strataCount}.
+     */
+    private static class LongSampleSupplier<T> implements Splittable.LongIndexed<Double> {
+        private final long seed;
+        private final long[] bounds;
+        private final Splittable.LongIndexed<T> valueSupplier;
+        private final ToDoubleFunction<? super T> objective;
+
+        LongSampleSupplier(long seed, long[] bounds, Splittable.LongIndexed<T> valueSupplier, ToDoubleFunction<? super T> objective) {
+            this.seed = seed;
+            this.bounds = bounds;
+            this.valueSupplier = valueSupplier;
+            this.objective = objective;
+        }
+
+        @Override
+        public Double apply(long position) {
+            int stratum = (int)(position % (bounds.length - 1));
+            long rank = bounds[stratum] + random(seed, position).nextLong(bounds[stratum + 1] - bounds[stratum]);
+            return objective.applyAsDouble(valueSupplier.apply(rank));
+        }
+
+        @Override
+        public Splittable.LongIndexed<Double> split() {
+            return new LongSampleSupplier<>(seed, bounds, valueSupplier.split(), objective);
+        }
+    }
+
+    /**
+     * @see LongSampleSupplier
+     */
+    private static class BigIntegerSampleSupplier<T> implements Splittable.LongIndexed<Double> {
+        private final long seed;
+        private final BigInteger[] bounds;
+        private final Splittable.BigIntegerIndexed<T> valueSupplier;
+        private final ToDoubleFunction<? super T> objective;
+
+        BigIntegerSampleSupplier(long seed, BigInteger[] bounds, Splittable.BigIntegerIndexed<T> valueSupplier, ToDoubleFunction<? super T> objective) {
+            this.seed = seed;
+            this.bounds = bounds;
+            this.valueSupplier = valueSupplier;
+            this.objective = objective;
+        }
+
+        @Override
+        public Double apply(long position) {
+            int stratum = (int)(position % (bounds.length - 1));
+            BigInteger size = bounds[stratum + 1].subtract(bounds[stratum]);
+            Random rnd = new Random(random(seed, position).nextLong());
+            BigInteger offset;
+            do {
+                offset = new BigInteger(size.bitLength(), rnd);
+            } while(offset.compareTo(size) >= 0);
+            return objective.applyAsDouble(valueSupplier.apply(bounds[stratum].add(offset)));
+        }
+
+        @Override
+        public Splittable.LongIndexed<Double> split() {
+            return new BigIntegerSampleSupplier<>(seed, bounds, valueSupplier.split(), objective);
+        }
+    }
+
+    /**
+     * The number of samples, their mean and the sum of squared deviations from the mean for each stratum.
+     * The partial results of the parallel leaves are combined using the formula of Chan et al.
+     */
+    private static class Stats {
+        private final long[] counts;
+        private final double[] means;
+        private final double[] squaredDeviations;
+
+        Stats(int strataCount) {
+            this.counts = new long[strataCount];
+            this.means = new double[strataCount];
+            this.squaredDeviations = new double[strataCount];
+        }
+
+        void add(int stratum, double value) {
+            counts[stratum]++;
+            double delta = value - means[stratum];
+            means[stratum] += delta / counts[stratum];
+            squaredDeviations[stratum] += delta * (value - means[stratum]);
+        }
+
+        void addAll(Stats other) {
+            for(int i = 0; i < counts.length; i++) {
+                long n = counts[i] + other.counts[i];
+                if(n == 0) continue;
+                double delta = other.means[i] - means[i];
+                means[i] += delta * other.counts[i] / n;
+                squaredDeviations[i] += other.squaredDeviations[i] + delta * delta * counts[i] * other.counts[i] / n;
+                counts[i] = n;
+            }
+        }
+
+        Estimate toEstimate(double[] weights, double scale, double z, double confidence, long sampleSize) {
+            double mean = 0;
+            double variance = 0;
+            for(int i = 0; i < counts.length; i++) {
+                mean += weights[i] * means[i];
+                if(counts[i] > 1) {
+                    variance += weights[i] * weights[i] * squaredDeviations[i] / (counts[i] - 1) / counts[i];
+                }
+            }
+            double standardError = Math.sqrt(variance) * scale;
+            return new Estimate(mean * scale, standardError, confidence, z * standardError, sampleSize);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+
+/**
+ * An operation that accepts an element together with its position in the stream and its rank in the data source.
+ * <br>The position and the rank are equal, unless the stream is shuffled.
+ */
+@FunctionalInterface
+public interface IndexedConsumer<T> {
+    /**
+     * Performs this operation on an element provided by a {@link LongIndexedSpliterator}.
+     */
+    void accept(long position, long rank, T element);
+
+    /**
+     * Performs this operation on an element provided by a {@link BigIntegerIndexedSpliterator}.
+     * <br>This default implementation calls {@link #accept(long, long, Object)}.
+     * Override it if the position or the rank may not fit in a long.
+     * @throws ArithmeticException if the position or the rank does not fit in a long and this method is not overridden.
+     */
+    default void accept(BigInteger position, BigInteger rank, T element) {
+        accept(position.longValueExact(), rank.longValueExact(), element);
+    }
+}
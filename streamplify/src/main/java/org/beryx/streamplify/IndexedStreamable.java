@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Streamable} whose elements are identified by their ranks in the data source.
+ * <br>Besides streaming, such a data source can shuffle blocks of elements, create templates, provide ranked, random or sampled elements,
+ * select the elements starting with a given prefix, estimate aggregates by sampling and provide packed elements.
+ * It is implemented by {@link LongIndexedSpliterator}, {@link BigIntegerIndexedSpliterator} and the data sources that delegate to them.
+ */
+public interface IndexedStreamable<T, S extends IndexedStreamable<T,S>> extends Streamable<T, S> {
+    /**
+     * Configure this instance to provide streams that shuffle blocks of consecutive elements in the data source,
+     * while keeping the order of the elements inside each block.
+     * <br>Inside a block, each element is computed from the previous one instead of being unranked,
+     * which makes block-shuffled streams much faster than fully shuffled streams. Larger blocks provide more speed and less randomness.
+     * If the number of elements is not a multiple of {@code blockSize}, the last incomplete block stays at the end.
+     * @param blockSize the number of elements in a block
+     * @param random the random number generator used to shuffle the blocks
+     */
+    <Z extends Streamable<T,?>> Z blockShuffle(long blockSize, Random random);
+
+    /**
+     * Creates an immutable, thread-safe Streamable that provides the same elements as this instance.
+     * <br>Each stream requested from the returned template is backed by a newly created spliterator,
+     * while the tables precomputed by the data source are shared. Calling {@link #skip(long)} or {@link #shuffle(Random)} on a template
+     * returns a new lightweight template and does not affect the original one.
+     * @return an immutable Streamable that can be used to create any number of streams.
+     */
+    IndexedStreamable<T, ?> asTemplate();
+
+    /**
+     * Provides a sequential stream of the elements of the data source, each one paired with its position in the stream and its rank in the data source.
+     * <br>The position and the rank differ only if the data source is shuffled.
+     * Storing the rank of an element allows retrieving it later, while storing the position allows resuming the processing of a (possibly shuffled) stream
+     * by calling {@link #skip(long)} on an identically configured data source.
+     * @return a sequential stream of {@link Ranked} elements.
+     */
+    Stream<Ranked<T>> indexedStream();
+
+    /**
+     * Provides a possibly parallel stream of the elements of the data source, each one paired with its position in the stream and its rank in the data source.
+     * @return a possibly parallel stream of {@link Ranked} elements.
+     * @see #indexedStream()
+     */
+    Stream<Ranked<T>> parallelIndexedStream();
+
+    /**
+     * Performs the given action for each element of the data source, passing also its position in the stream and its rank in the data source.
+     * <br>Unlike {@link #indexedStream()}, this method does not create a {@link Ranked} instance for each element.
+     * @see #indexedStream()
+     */
+    void forEachIndexed(IndexedConsumer<? super T> action);
+
+    /**
+     * Creates a Streamable that provides only the elements whose ranks are contained in the given bitmap, in increasing order of their ranks.
+     * <br>The ranks refer to the unshuffled data source: the skip and shuffle configuration of this instance is not taken into account.
+     * The streams of the returned Streamable are split according to the cardinality of the bitmap.
+     * @param ranks the ranks of the elements to be provided, typically recorded using {@link RankBitmap#collector()}.
+     * @return a Streamable providing {@code ranks.getCardinality()} elements.
+     * @throws IllegalArgumentException if the bitmap contains ranks that are not less than the size of the data source.
+     */
+    IndexedStreamable<T, ?> restrictTo(RankBitmap ranks);
+
+    /**
+     * Creates a Streamable that provides {@code k} distinct elements chosen uniformly at random from the elements of this instance, in random order.
+     * <br>The shuffle configuration of this instance is not taken into account. If {@code k} is at most half of the number of elements,
+     * the ranks of the sampled elements are drawn using Floyd's algorithm, which needs only {@code k} random numbers.
+     * Otherwise, they are selected in a single pass using selection sampling (Knuth's Algorithm S).
+     * The sampled ranks are then shuffled using the Fisher-Yates algorithm.
+     * <br>The streams of the returned Streamable are sized and can be split, so they can be efficiently processed in parallel.
+     * @return a Streamable providing exactly {@code k} elements.
+     * @throws IllegalArgumentException if {@code k} is negative or greater than the number of elements of this instance.
+     */
+    IndexedStreamable<T, ?> sample(int k, Random rnd);
+
+    /**
+     * Creates a stream of {@code size} elements drawn independently and uniformly at random from the data source, with replacement.
+     * <br>If possible, the elements are generated directly (for example, permutations are generated using the Fisher-Yates algorithm),
+     * without drawing and unranking a random index, so the cost of generating an element does not depend on the size of the data source.
+     * The ranks of the elements are not computed. Use {@link #rankOf(Object)} to compute the rank of an element, if needed.
+     * <br>The stream is backed by a {@link RandomSpliterator}, so the elements depend only on the seed, also in parallel streams.
+     * <br>Like {@link #randomStream(long, long)}, this method draws the elements from the elements not skipped by this instance,
+     * while the shuffle configuration is not taken into account. If elements have been skipped, or if the data source cannot generate
+     * its elements directly, the elements are obtained by unranking random ranks, as in {@link #randomStream(long, long)}.
+     * @param size the number of elements to be provided. Use {@link Long#MAX_VALUE} for practically infinite streams.
+     * @throws IllegalStateException if the data source is empty.
+     */
+    Stream<T> randomElements(long size, long seed);
+
+    /**
+     * Creates a practically infinite stream of elements drawn independently and uniformly at random from the elements of this instance, with replacement.
+     * @see #randomStream(long, long)
+     */
+    default Stream<T> randomStream(long seed) {
+        return randomStream(Long.MAX_VALUE, seed);
+    }
+
+    /**
+     * Creates a stream of {@code size} elements drawn independently and uniformly at random from the elements of this instance, with replacement.
+     * <br>The elements are obtained by drawing uniformly distributed ranks and unranking them, so this method is supported by all indexed data sources,
+     * including those with BigInteger indexes. The skip configuration of this instance is taken into account, while its shuffle configuration is not.
+     * <br>The stream is backed by a {@link RandomSpliterator}: each split uses its own {@link java.util.SplittableRandom} and its own value supplier,
+     * without any locking, and the elements depend only on the seed, also in parallel streams.
+     * @param size the number of elements to be provided. Use {@link Long#MAX_VALUE} for practically infinite streams.
+     * @throws IllegalStateException if this instance has no elements.
+     */
+    Stream<T> randomStream(long size, long seed);
+
+    /**
+     * Computes the rank of the given element in the unshuffled data source.
+     * <br>This is supported by data sources that can compute the range of the elements starting with a given prefix
+     * (permutations, combinations and Cartesian products), as well as by power sets, derangements and partial permutations.
+     * @throws IllegalArgumentException if the element does not belong to the data source.
+     * @throws UnsupportedOperationException if the data source cannot compute the rank of its elements.
+     */
+    BigInteger rankOf(T element);
+
+    /**
+     * Creates a Streamable that provides only the elements starting with the given prefix.
+     * <br>This is supported by data sources providing int arrays in lexicographic order, such as permutations, combinations and Cartesian products.
+     * For these data sources, the elements starting with a given prefix have consecutive ranks, so the range of the requested elements
+     * is computed directly, without filtering the other elements.
+     * @return a Streamable providing the elements starting with {@code prefix}.
+     * @throws IllegalStateException if this instance is shuffled.
+     * @throws UnsupportedOperationException if the data source cannot compute the range of the elements starting with a given prefix.
+     */
+    IndexedStreamable<T, ?> withPrefix(int... prefix);
+
+    /**
+     * Partitions the elements of the data source in groups of elements sharing the same prefix of the given length.
+     * <br>The groups are provided lazily, in lexicographic order of their prefixes. Each group is a {@link PrefixGroup}
+     * containing the prefix and a Streamable that provides the elements of the group, which can be processed independently.
+     * @param depth the length of the prefixes
+     * @return a sequential stream of prefix groups.
+     * @throws IllegalStateException if this instance is shuffled.
+     * @see #withPrefix(int...)
+     */
+    Stream<PrefixGroup<T>> groupByPrefix(int depth);
+
+    /**
+     * Provides a sequential stream of the elements accepted by the predicates created by the given factory.
+     * <br>This is supported by data sources providing int arrays in lexicographic order, such as permutations, combinations and Cartesian products.
+     * When a prefix is rejected by the predicate, all elements starting with this prefix are skipped at once, without being generated.
+     * @param predicateFactory provides a {@link PrefixPredicate} for each spliterator backing the stream.
+     * For a stateless predicate, the factory may always return the same instance.
+     * @return a sequential stream of the accepted elements.
+     * @throws IllegalStateException if this instance is shuffled.
+     */
+    Stream<T> prunedStream(Supplier<? extends PrefixPredicate> predicateFactory);
+
+    /**
+     * Provides a possibly parallel stream of the elements accepted by the predicates created by the given factory.
+     * <br>The stream is split at the boundaries of prefix ranges, so that the elements sharing a short prefix are processed by the same leaf.
+     * @return a possibly parallel stream of the accepted elements.
+     * @throws IllegalStateException if this instance is shuffled.
+     * @see #prunedStream(Supplier)
+     */
+    Stream<T> parallelPrunedStream(Supplier<? extends PrefixPredicate> predicateFactory);
+
+    /**
+     * Estimates the number of elements satisfying the given predicate, by evaluating it on a random sample of the data source.
+     * <br>The sampled ranks refer to the unshuffled data source, restricted to the elements not skipped by this instance.
+     * This instance is not modified.
+     * @param estimator the configuration of the sampling (sample size, strata, confidence level, stopping rule and seed).
+     * @return the estimated count, together with its standard error and confidence interval.
+     */
+    Estimate estimateCount(Predicate<? super T> predicate, Estimator estimator);
+
+    /**
+     * Estimates the mean value of the given objective over the elements of the data source, by evaluating it on a random sample.
+     * @return the estimated mean, together with its standard error and confidence interval.
+     * @see #estimateCount(Predicate, Estimator)
+     */
+    Estimate estimateMean(ToDoubleFunction<? super T> objective, Estimator estimator);
+
+    /**
+     * Creates a Streamable whose elements are obtained by applying the given function to the elements of this data source.
+     * <br>Unlike {@link Stream#map(Function)}, the returned Streamable retains the indexing capabilities of this instance:
+     * it knows its exact count and it supports skipping, shuffling and efficient splitting.
+     * <br>The mapper may be called concurrently by the leaves of a parallel stream, therefore it must be thread-safe.
+     * @return a Streamable providing the mapped elements.
+     */
+    <R> IndexedStreamable<R, ?> map(Function<? super T, ? extends R> mapper);
+
+    /**
+     * Collects the elements of the data source into a single flat int array.
+     * <br>Each leaf of a parallel traversal writes directly into its own region of the flat array.
+     * @return an {@link IntMatrix} containing the elements in stream order.
+     * @throws ClassCastException if the elements of this data source are not int arrays
+     * @throws IllegalStateException if the elements do not fit in a single int array
+     */
+    IntMatrix toFlatArray();
+
+    /**
+     * @return the format of the elements provided by {@link #packedStream()}.
+     * @throws UnsupportedOperationException if the data source cannot pack its elements into long values.
+     */
+    PackedFormat getPackedFormat();
+
+    /**
+     * Provides a sequential stream of the elements packed into long values, according to {@link #getPackedFormat()}.
+     * <br>The data sources of sequences that fit in a long (such as permutations of length up to 16) may compute the next element
+     * directly on the packed form of the current one, without allocating an array for each element.
+     */
+    LongStream packedStream();
+
+    /**
+     * Provides a possibly parallel stream of the elements packed into long values, according to {@link #getPackedFormat()}.
+     * @see #packedStream()
+     */
+    LongStream parallelPackedStream();
+}
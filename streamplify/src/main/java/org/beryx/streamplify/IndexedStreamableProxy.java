@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * An {@link IndexedStreamable} that forwards its calls to a delegate
+ */
+public abstract class IndexedStreamableProxy<T,S extends IndexedStreamableProxy<T,S>> extends StreamableProxy<T, S> implements IndexedStreamable<T, S> {
+    /**
+     * @return the delegate to which method calls are forwarded.
+     */
+    @Override
+    protected abstract IndexedStreamable<T, ?> getDelegate();
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T,?>> Z blockShuffle(long blockSize, Random rnd) {
+        return (Z)getDelegate().blockShuffle(blockSize, rnd);
+    }
+
+    @Override
+    public IntMatrix toFlatArray() {
+        return getDelegate().toFlatArray();
+    }
+
+    @Override
+    public IndexedStreamable<T, ?> asTemplate() {
+        return getDelegate().asTemplate();
+    }
+
+    @Override
+    public Stream<Ranked<T>> indexedStream() {
+        return getDelegate().indexedStream();
+    }
+
+    @Override
+    public Stream<Ranked<T>> parallelIndexedStream() {
+        return getDelegate().parallelIndexedStream();
+    }
+
+    @Override
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        getDelegate().forEachIndexed(action);
+    }
+
+    @Override
+    public IndexedStreamable<T, ?> restrictTo(RankBitmap ranks) {
+        return getDelegate().restrictTo(ranks);
+    }
+
+    @Override
+    public IndexedStreamable<T, ?> sample(int k, Random rnd) {
+        return getDelegate().sample(k, rnd);
+    }
+
+    @Override
+    public Stream<T> randomElements(long size, long seed) {
+        return getDelegate().randomElements(size, seed);
+    }
+
+    /**
+     * Provides random elements created directly by the given generator, if the delegate still covers all {@code totalCount} elements of the data source.
+     * Otherwise (for example, after {@link #skip(long)}), the elements are drawn from the remaining elements of the delegate by unranking random ranks.
+     * <br>Used by the proxies that can generate their elements directly, in order to implement {@link #randomElements(long, long)}.
+     */
+    protected Stream<T> randomElements(BigInteger totalCount, RandomElementGenerator<T> generator, long size, long seed) {
+        if(!getDelegate().bigCount().equals(totalCount)) {
+            return getDelegate().randomElements(size, seed);
+        }
+        return RandomSpliterator.stream(generator, size, seed);
+    }
+
+    @Override
+    public Stream<T> randomStream(long size, long seed) {
+        return getDelegate().randomStream(size, seed);
+    }
+
+    @Override
+    public BigInteger rankOf(T element) {
+        return getDelegate().rankOf(element);
+    }
+
+    @Override
+    public IndexedStreamable<T, ?> withPrefix(int... prefix) {
+        return getDelegate().withPrefix(prefix);
+    }
+
+    @Override
+    public Stream<PrefixGroup<T>> groupByPrefix(int depth) {
+        return getDelegate().groupByPrefix(depth);
+    }
+
+    @Override
+    public Stream<T> prunedStream(Supplier<? extends PrefixPredicate> predicateFactory) {
+        return getDelegate().prunedStream(predicateFactory);
+    }
+
+    @Override
+    public Stream<T> parallelPrunedStream(Supplier<? extends PrefixPredicate> predicateFactory) {
+        return getDelegate().parallelPrunedStream(predicateFactory);
+    }
+
+    @Override
+    public Estimate estimateCount(Predicate<? super T> predicate, Estimator estimator) {
+        return getDelegate().estimateCount(predicate, estimator);
+    }
+
+    @Override
+    public Estimate estimateMean(ToDoubleFunction<? super T> objective, Estimator estimator) {
+        return getDelegate().estimateMean(objective, estimator);
+    }
+
+    @Override
+    public <R> IndexedStreamable<R, ?> map(Function<? super T, ? extends R> mapper) {
+        return getDelegate().map(mapper);
+    }
+
+    @Override
+    public PackedFormat getPackedFormat() {
+        return getDelegate().getPackedFormat();
+    }
+
+    @Override
+    public LongStream packedStream() {
+        return getDelegate().packedStream();
+    }
+
+    @Override
+    public LongStream parallelPackedStream() {
+        return getDelegate().parallelPackedStream();
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.beryx.streamplify;
 
+import java.util.function.Consumer;
+
 /**
  * This interface acts as a trait that helps implementing the valueSupplier requested by indexed-spliterators
  * (such as {@link LongIndexedSpliterator} or {@link BigIntegerIndexedSpliterator}) with the type parameter {@code int[]}.
@@ -25,6 +27,22 @@ public interface IntArraySupplier {
     /** @return the current sequence provided by this value supplier */
     int[] getCurrentSequence();
 
+    /**
+     * @return the length of all sequences provided by this value supplier, or -1 if the sequences may have different lengths.
+     * <br>This default implementation returns -1.
+     */
+    default int getSequenceLength() {
+        return -1;
+    }
+
+    /**
+     * @return true, if {@link #computeNext()} is cheaper than {@link #unrank()} and the value supplier uses it whenever consecutive indexes are requested.
+     * <br>This default implementation returns true.
+     */
+    default boolean isComputeNextSupported() {
+        return true;
+    }
+
     /**
      * Computes the value to be supplied next, using the currently supplied value.
      * The next call of {@link #getCurrentSequence()} should return this newly computed value.
@@ -64,4 +82,14 @@ public interface IntArraySupplier {
         }
     }
 
+    /**
+     * Provides the next {@code count} values to the given action, by successively calling {@link #getNextSequence(boolean) getNextSequence(true)}.
+     * <br>Used by the {@code forEachInRange} methods of the value suppliers in order to traverse a range of indexes without unranking.
+     */
+    default void forEachNext(long count, Consumer<? super int[]> action) {
+        for(long i = 0; i < count; i++) {
+            action.accept(getNextSequence(true));
+        }
+    }
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * A batch of consecutive int array elements of the same length, stored in column-major order.
+ * <br>The entry at position {@code pos} of the row {@code row} is stored at {@code getData()[pos * getCapacity() + row]},
+ * so each column is a contiguous range of the data array. This layout lets {@link VectorizedPredicate} and {@link VectorizedScorer}
+ * implementations evaluate a whole batch using simple loops over columns, which the JIT compiler can turn into SIMD instructions.
+ */
+public final class IntBatch {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final int capacity;
+    private final int length;
+    private final int[] data;
+    private final int[][] rows;
+    private int size;
+
+    /**
+     * @param capacity the maximum number of rows
+     * @param length the length of each row
+     */
+    public IntBatch(int capacity, int length) {
+        if(capacity <= 0 || length < 0) throw new IllegalArgumentException("capacity: " + capacity + ", length: " + length);
+        this.capacity = capacity;
+        this.length = length;
+        this.data = new int[capacity * length];
+        this.rows = new int[capacity][];
+    }
+
+    /**
+     * Copies the given row into the next free slot of this batch.
+     * @return false if the batch is full or the row has a different length, in which case the row is not added
+     */
+    public boolean add(int[] row) {
+        if(size == capacity || row.length != length) return false;
+        for(int pos = 0, offset = size; pos < length; pos++, offset += capacity) {
+            data[offset] = row[pos];
+        }
+        rows[size++] = row;
+        return true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /** @return the number of rows added to this batch */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /** @return the column-major data array, whose length is {@code capacity * length} */
+    public int[] getData() {
+        return data;
+    }
+
+    /** @return the start of the column with the given position in the data array */
+    public int getOffset(int pos) {
+        return pos * capacity;
+    }
+
+    public int get(int row, int pos) {
+        if(row >= size) throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        return data[pos * capacity + row];
+    }
+
+    /** @return the element that provided the row with the given index */
+    public int[] getRow(int row) {
+        if(row >= size) throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        return rows[row];
+    }
+}
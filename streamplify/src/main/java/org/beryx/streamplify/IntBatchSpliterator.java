@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator that groups consecutive elements provided by a spliterator of int arrays into {@link IntBatch}es.
+ * <br>A batch ends when it is full or when the next element has a different length.
+ * Splitting is delegated to the underlying spliterator, so each batch contains only elements from the same split.
+ */
+class IntBatchSpliterator implements Spliterator<IntBatch> {
+    private final Spliterator<int[]> source;
+    private final int capacity;
+    private int[] pending;
+
+    IntBatchSpliterator(Spliterator<int[]> source, int capacity) {
+        if(capacity <= 0) throw new IllegalArgumentException("capacity: " + capacity);
+        this.source = source;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super IntBatch> action) {
+        if(pending == null && !source.tryAdvance(row -> pending = row)) return false;
+        IntBatch batch = new IntBatch(capacity, pending.length);
+        batch.add(pending);
+        pending = null;
+        while(!batch.isFull() && source.tryAdvance(row -> pending = row)) {
+            if(!batch.add(pending)) break;
+            pending = null;
+        }
+        action.accept(batch);
+        return true;
+    }
+
+    @Override
+    public Spliterator<IntBatch> trySplit() {
+        if(pending != null) return null;
+        Spliterator<int[]> prefix = source.trySplit();
+        return (prefix == null) ? null : new IntBatchSpliterator(prefix, capacity);
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = source.estimateSize();
+        if(size == Long.MAX_VALUE) return size;
+        return (size + capacity - 1) / capacity + ((pending == null) ? 0 : 1);
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & (Spliterator.ORDERED | Spliterator.IMMUTABLE) | Spliterator.NONNULL;
+    }
+}
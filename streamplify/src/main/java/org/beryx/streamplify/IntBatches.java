@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Batch operations on data sources whose elements are int arrays.
+ * <br>The elements are grouped into column-major {@link IntBatch}es of consecutive elements,
+ * which are evaluated by {@link VectorizedPredicate}s and {@link VectorizedScorer}s.
+ */
+public class IntBatches {
+    private IntBatches() {}
+
+    /**
+     * Provides the elements of the given data source grouped into batches of consecutive elements.
+     * <br>A batch contains only elements with the same length.
+     * @param capacity the maximum number of elements in a batch
+     */
+    public static Stream<IntBatch> stream(Streamable<int[], ?> source, int capacity) {
+        return StreamSupport.stream(new IntBatchSpliterator(source.stream().spliterator(), capacity), false);
+    }
+
+    /**
+     * The parallel version of {@link #stream(Streamable, int)}.
+     * Batches never span split boundaries.
+     */
+    public static Stream<IntBatch> parallelStream(Streamable<int[], ?> source, int capacity) {
+        return StreamSupport.stream(new IntBatchSpliterator(source.parallelStream().spliterator(), capacity), true);
+    }
+
+    /**
+     * Counts the elements of the given data source accepted by the given predicate, evaluating it on batches of {@link IntBatch#DEFAULT_CAPACITY} elements in parallel.
+     */
+    public static long countMatches(Streamable<int[], ?> source, VectorizedPredicate predicate) {
+        return parallelStream(source, IntBatch.DEFAULT_CAPACITY).mapToLong(batch -> {
+            boolean[] matches = new boolean[batch.getCapacity()];
+            predicate.test(batch, matches);
+            long count = 0;
+            for(int row = 0; row < batch.getSize(); row++) {
+                if(matches[row]) count++;
+            }
+            return count;
+        }).sum();
+    }
+
+    /**
+     * Finds the element of the given data source with the highest score, evaluating the scorer on batches of {@link IntBatch#DEFAULT_CAPACITY} elements in parallel.
+     * <br>If several elements have the highest score, the first of them in stream order is returned. To find the lowest score, negate the scores.
+     * @return the best element and its score, or an empty Optional if the data source has no elements
+     */
+    public static Optional<Scored<int[]>> bestScore(Streamable<int[], ?> source, VectorizedScorer scorer) {
+        return parallelStream(source, IntBatch.DEFAULT_CAPACITY).map(batch -> {
+            double[] scores = new double[batch.getCapacity()];
+            scorer.score(batch, scores);
+            int best = 0;
+            for(int row = 1; row < batch.getSize(); row++) {
+                if(scores[row] > scores[best]) best = row;
+            }
+            return new Scored<>(batch.getRow(best), scores[best]);
+        }).reduce((s1, s2) -> (s2.getScore() > s1.getScore()) ? s2 : s1);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A sequence of int arrays (rows) stored in a single flat int array.
+ * <br>If all rows have the same length, the row with index {@code i} occupies the range [i * width, (i + 1) * width) of the flat array.
+ * Otherwise, the start position of each row is given by an offsets array, which has an additional last entry holding the length of the flat array.
+ */
+public class IntMatrix {
+    private final int rowCount;
+    private final int width;
+    private final int[] data;
+    private final int[] offsets;
+
+    /**
+     * Creates a matrix whose rows have all the same length.
+     * @param rowCount the number of rows
+     * @param width the length of each row
+     * @param data the flat array containing the rows; its length must be {@code rowCount * width}
+     */
+    public IntMatrix(int rowCount, int width, int[] data) {
+        if(rowCount < 0 || width < 0 || (long)rowCount * width != data.length) {
+            throw new IllegalArgumentException("rowCount: " + rowCount + ", width: " + width + ", data.length: " + data.length);
+        }
+        this.rowCount = rowCount;
+        this.width = width;
+        this.data = data;
+        this.offsets = null;
+    }
+
+    /**
+     * Creates a matrix whose rows may have different lengths.
+     * @param data the flat array containing the rows
+     * @param offsets the start positions of the rows in {@code data}, followed by the length of {@code data}
+     */
+    public IntMatrix(int[] data, int[] offsets) {
+        if(offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != data.length) {
+            throw new IllegalArgumentException("Invalid offsets for data.length = " + data.length);
+        }
+        this.rowCount = offsets.length - 1;
+        this.width = -1;
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    /** @return the number of rows */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** @return the length of the rows, or -1 if the rows have different lengths. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return the flat array backing this matrix (not a copy). */
+    public int[] getData() {
+        return data;
+    }
+
+    /** @return the array of row offsets, or null if all rows have the same length. */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /** @return the position in the flat array where the given row starts. */
+    public int getOffset(int row) {
+        return (offsets == null) ? row * width : offsets[row];
+    }
+
+    /** @return the length of the given row. */
+    public int getRowLength(int row) {
+        return (offsets == null) ? width : (offsets[row + 1] - offsets[row]);
+    }
+
+    /** @return the value at position {@code col} in the given row. */
+    public int get(int row, int col) {
+        if(col < 0 || col >= getRowLength(row)) throw new IndexOutOfBoundsException("row: " + row + ", col: " + col);
+        return data[getOffset(row) + col];
+    }
+
+    /** @return a copy of the given row. */
+    public int[] getRow(int row) {
+        int offset = getOffset(row);
+        return Arrays.copyOfRange(data, offset, offset + getRowLength(row));
+    }
+
+    /**
+     * Creates a matrix containing the given rows.
+     */
+    public static IntMatrix fromRows(List<int[]> rows) {
+        int rowCount = rows.size();
+        int[] offsets = new int[rowCount + 1];
+        boolean sameLength = true;
+        long total = 0;
+        for(int i = 0; i < rowCount; i++) {
+            int len = rows.get(i).length;
+            if(i > 0 && len != rows.get(i - 1).length) sameLength = false;
+            total += len;
+            if(total > Integer.MAX_VALUE) throw new IllegalStateException("Too many values for a flat array: " + total);
+            offsets[i + 1] = (int)total;
+        }
+        int[] data = new int[(int)total];
+        for(int i = 0; i < rowCount; i++) {
+            int[] row = rows.get(i);
+            System.arraycopy(row, 0, data, offsets[i], row.length);
+        }
+        if(sameLength) {
+            return new IntMatrix(rowCount, (rowCount == 0) ? 0 : rows.get(0).length, data);
+        }
+        return new IntMatrix(data, offsets);
+    }
+
+    /**
+     * Creates a matrix by traversing in parallel the given spliterator.
+     * <br>The spliterator must report its exact size and its {@link Spliterator#trySplit()} must return a spliterator covering
+     * a prefix of its elements, as the indexed spliterators do. This allows each leaf to write directly into its own region of the flat array.
+     * @param width the length of all elements, or -1 if not known in advance
+     */
+    static IntMatrix fromIndexedSpliterator(Spliterator<int[]> spliterator, int width) {
+        long size = spliterator.estimateSize();
+        if(size > Integer.MAX_VALUE) throw new IllegalStateException("Too many elements for a flat array: " + size);
+        int rowCount = (int)size;
+        long threshold = Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * 4L));
+        if(width >= 0) {
+            long total = (long)rowCount * width;
+            if(total > Integer.MAX_VALUE) throw new IllegalStateException("Too many values for a flat array: " + total);
+            int[] data = new int[(int)total];
+            new FixedWidthTask(spliterator, 0, threshold, width, data).invoke();
+            return new IntMatrix(rowCount, width, data);
+        }
+        int[] offsets = new int[rowCount + 1];
+        List<VariableWidthTask> leaves = new ArrayList<>();
+        new VariableWidthTask(spliterator, 0, threshold, offsets, leaves).invoke();
+        long total = 0;
+        for(int i = 0; i < rowCount; i++) {
+            total += offsets[i + 1];
+            if(total > Integer.MAX_VALUE) throw new IllegalStateException("Too many values for a flat array: " + total);
+            offsets[i + 1] = (int)total;
+        }
+        int[] data = new int[(int)total];
+        for(VariableWidthTask leaf : leaves) {
+            System.arraycopy(leaf.buffer, 0, data, offsets[leaf.startRow], leaf.bufferLength);
+        }
+        return new IntMatrix(data, offsets);
+    }
+
+    private static class FixedWidthTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<int[]> spliterator;
+        private final int startRow;
+        private final long threshold;
+        private final int width;
+        private final int[] data;
+
+        FixedWidthTask(Spliterator<int[]> spliterator, int startRow, long threshold, int width, int[] data) {
+            this.spliterator = spliterator;
+            this.startRow = startRow;
+            this.threshold = threshold;
+            this.width = width;
+            this.data = data;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<int[]> prefix;
+            if(spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                int prefixRows = (int)prefix.estimateSize();
+                invokeAll(new FixedWidthTask(prefix, startRow, threshold, width, data),
+                        new FixedWidthTask(spliterator, startRow + prefixRows, threshold, width, data));
+                return;
+            }
+            int[] pos = {startRow * width};
+            spliterator.forEachRemaining(row -> {
+                if(row.length != width) throw new IllegalStateException("Expected length " + width + " but found " + row.length);
+                System.arraycopy(row, 0, data, pos[0], width);
+                pos[0] += width;
+            });
+        }
+    }
+
+    private static class VariableWidthTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<int[]> spliterator;
+        private final int startRow;
+        private final long threshold;
+        private final int[] offsets;
+        private final List<VariableWidthTask> leaves;
+        private int[] buffer;
+        private int bufferLength;
+
+        VariableWidthTask(Spliterator<int[]> spliterator, int startRow, long threshold, int[] offsets, List<VariableWidthTask> leaves) {
+            this.spliterator = spliterator;
+            this.startRow = startRow;
+            this.threshold = threshold;
+            this.offsets = offsets;
+            this.leaves = leaves;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<int[]> prefix;
+            if(spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                int prefixRows = (int)prefix.estimateSize();
+                invokeAll(new VariableWidthTask(prefix, startRow, threshold, offsets, leaves),
+                        new VariableWidthTask(spliterator, startRow + prefixRows, threshold, offsets, leaves));
+                return;
+            }
+            buffer = new int[(int)Math.min(1024, 4 * spliterator.estimateSize() + 1)];
+            int[] row = {startRow};
+            spliterator.forEachRemaining(seq -> {
+                if(bufferLength + seq.length > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, bufferLength + seq.length));
+                }
+                System.arraycopy(seq, 0, buffer, bufferLength, seq.length);
+                bufferLength += seq.length;
+                offsets[++row[0]] = seq.length;
+            });
+            synchronized(leaves) {
+                leaves.add(this);
+            }
+        }
+    }
+}
@@ -18,10 +18,16 @@ package org.beryx.streamplify;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.beryx.streamplify.permutation.LongPermutations;
+import org.beryx.streamplify.shuffler.BlockLongShuffler;
 import org.beryx.streamplify.shuffler.DefaultLongShuffler;
 import org.beryx.streamplify.shuffler.LongShuffler;
 import org.slf4j.Logger;
@@ -30,8 +36,10 @@ import org.slf4j.LoggerFactory;
 /**
  * An indexed-spliterator that uses a long index.
  */
-public class LongIndexedSpliterator<T, S extends LongIndexedSpliterator<T, S>> implements Spliterator<T>, Streamable<T, S> {
+public class LongIndexedSpliterator<T, S extends LongIndexedSpliterator<T, S>> implements Spliterator<T>, IndexedStreamable<T, S> {
     private static final Logger logger =  LoggerFactory.getLogger(LongPermutations.class);
+    /** the number of shuffled indexes computed at once by {@link #forEachRemaining(Consumer)} */
+    private static final int SHUFFLED_CHUNK_SIZE = 256;
 
     private Splittable.LongIndexed<T> valueSupplier;
     private long index;
@@ -161,10 +169,17 @@ public class LongIndexedSpliterator<T, S extends LongIndexedSpliterator<T, S>> i
     public void forEachRemaining(Consumer<? super T> action) {
         if (action == null) throw new NullPointerException();
         if(index >= 0 && index < fence) {
-            for(long i = index; i < fence; i++) {
-                long shuffledIndex = shuffler.getShuffledIndex(i);
-                T val = valueSupplier.apply(shuffledIndex);
-                action.accept(val);
+            if(shuffler == LongShuffler.IDENTITY) {
+                valueSupplier.forEachInRange(index, fence, action);
+            } else {
+                long[] shuffledIndices = new long[(int)Math.min(SHUFFLED_CHUNK_SIZE, fence - index)];
+                for(long i = index; i < fence; i += shuffledIndices.length) {
+                    if(fence - i < shuffledIndices.length) shuffledIndices = new long[(int)(fence - i)];
+                    shuffler.getShuffledIndices(i, shuffledIndices);
+                    for(long shuffledIndex : shuffledIndices) {
+                        action.accept(valueSupplier.apply(shuffledIndex));
+                    }
+                }
             }
             index = fence;
         }
@@ -176,4 +191,350 @@ public class LongIndexedSpliterator<T, S extends LongIndexedSpliterator<T, S>> i
         shuffler = new DefaultLongShuffler(fence, rnd);
         return (S)this;
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z blockShuffle(long blockSize, Random rnd) {
+        shuffler = new BlockLongShuffler(fence, blockSize, rnd);
+        return (Z)this;
+    }
+
+    /**
+     * Creates an immutable template that provides the elements currently covered by this spliterator.
+     * The value supplier of the template is obtained by splitting the value supplier of this spliterator.
+     * <br>Later changes of this spliterator (for example, skipping or traversing elements) do not affect the template.
+     */
+    @Override
+    public LongIndexedTemplate<T> asTemplate() {
+        return new LongIndexedTemplate<>(index, fence, characteristics, shuffler, valueSupplier.split());
+    }
+
+    /**
+     * Collects the remaining elements into a single flat int array, using a parallel traversal.
+     * Each leaf of the traversal writes its elements directly into the region of the flat array corresponding to its index range.
+     * @throws ClassCastException if the elements of this spliterator are not int arrays
+     * @throws IllegalStateException if the elements do not fit in a single int array
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public IntMatrix toFlatArray() {
+        int width = (valueSupplier instanceof IntArraySupplier) ? ((IntArraySupplier)valueSupplier).getSequenceLength() : -1;
+        return IntMatrix.fromIndexedSpliterator((Spliterator<int[]>)this, width);
+    }
+
+    /**
+     * Creates a spliterator over the elements whose ranks are contained in the given bitmap.
+     * The value supplier of the new spliterator is obtained by splitting the value supplier of this spliterator, which is not modified.
+     * <br>The fence of this spliterator is considered the size of the data source.
+     */
+    @Override
+    public LongIndexedSpliterator<T, ?> restrictTo(RankBitmap ranks) {
+        long count = ranks.getCardinality();
+        if(count > 0 && ranks.select(count - 1) >= fence) {
+            throw new IllegalArgumentException("The bitmap contains ranks greater than or equal to " + fence);
+        }
+        boolean stepping = (valueSupplier instanceof IntArraySupplier) && ((IntArraySupplier)valueSupplier).isComputeNextSupported();
+        return LongIndexedSpliterator.create(0, count, new RankBitmap.RestrictedSupplier<>(ranks, valueSupplier.split(), stepping))
+                .withAdditionalCharacteristics(characteristics);
+    }
+
+    /**
+     * Creates a spliterator over {@code k} distinct elements chosen uniformly at random from the range currently covered by this spliterator.
+     * The value supplier of the new spliterator is obtained by splitting the value supplier of this spliterator, which is not modified.
+     */
+    @Override
+    public LongIndexedSpliterator<T, ?> sample(int k, Random rnd) {
+        long[] ranks = Sampler.sampleRanks(fence - index, k, rnd);
+        return LongIndexedSpliterator.create(0, k, new Sampler.LongSampleSupplier<>(index, ranks, valueSupplier.split()))
+                .withAdditionalCharacteristics(characteristics & ~SORTED);
+    }
+
+    /**
+     * Draws the random elements by unranking random ranks in the range currently covered by this spliterator, as {@link #randomStream(long, long)}.
+     * <br>A spliterator cannot generate its elements directly, because the range it covers may have been restricted (for example, by {@link #skip(long)}).
+     */
+    @Override
+    public Stream<T> randomElements(long size, long seed) {
+        return randomStream(size, seed);
+    }
+
+    /**
+     * Creates a stream of elements with random ranks in the range currently covered by this spliterator.
+     * The value suppliers of the stream are obtained by splitting the value supplier of this spliterator, which is not modified.
+     */
+    @Override
+    public Stream<T> randomStream(long size, long seed) {
+        return RandomSpliterator.stream(new RandomRanks.LongGenerator<>(index, fence - index, valueSupplier.split()), size, seed);
+    }
+
+    /**
+     * Computes the rank of the given element, as the start of the range of the elements having the complete element as prefix.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.LongIndexed}
+     */
+    @Override
+    public BigInteger rankOf(T element) {
+        if(!(valueSupplier instanceof PrefixRange.LongIndexed) || !(element instanceof int[])) {
+            throw new UnsupportedOperationException("The value supplier does not provide prefix ranges: " + valueSupplier.getClass().getName());
+        }
+        long[] range = ((PrefixRange.LongIndexed)valueSupplier).getPrefixRange((int[])element);
+        if(range[1] - range[0] != 1) throw new IllegalArgumentException("Not an element of this data source: " + Arrays.toString((int[])element));
+        return BigInteger.valueOf(range[0]);
+    }
+
+    /**
+     * Creates a spliterator over the elements starting with the given prefix.
+     * The new spliterator covers the intersection of the prefix range with the range currently covered by this spliterator, which is not modified.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.LongIndexed}
+     * @throws IllegalStateException if this spliterator is shuffled
+     */
+    @Override
+    public LongIndexedSpliterator<T, ?> withPrefix(int... prefix) {
+        long[] range = getPrefixRanges().getPrefixRange(prefix);
+        return createSubrange(range[0], range[1]);
+    }
+
+    /**
+     * Partitions the elements currently covered by this spliterator in groups of elements sharing the same prefix.
+     * Each group is backed by a new spliterator. This spliterator is not modified.
+     * <br>The groups are found by unranking the first element of each group and computing the range of its prefix.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.LongIndexed}
+     * @throws IllegalStateException if this spliterator is shuffled
+     */
+    @Override
+    public Stream<PrefixGroup<T>> groupByPrefix(int depth) {
+        PrefixRange.LongIndexed ranges = getPrefixRanges();
+        if(depth < 0 || depth > ranges.getSequenceLength()) {
+            throw new IllegalArgumentException("Invalid depth " + depth + " for sequences of length " + ranges.getSequenceLength());
+        }
+        Splittable.LongIndexed<T> supplier = valueSupplier.split();
+        Iterator<PrefixGroup<T>> groups = new Iterator<PrefixGroup<T>>() {
+            private long next = index;
+
+            @Override
+            public boolean hasNext() {
+                return next < fence;
+            }
+
+            @Override
+            public PrefixGroup<T> next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                int[] prefix = Arrays.copyOf((int[])supplier.apply(next), depth);
+                LongIndexedSpliterator<T, ?> group = createSubrange(next, ranges.getPrefixRange(prefix)[1]);
+                next = group.fence;
+                return new PrefixGroup<>(prefix, group);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(groups, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Provides a sequential stream of the elements currently covered by this spliterator that are accepted by the predicates created by the given factory.
+     * <br>The stream is backed by a new spliterator, whose value supplier is obtained by splitting the value supplier of this spliterator.
+     * Therefore, this spliterator is not modified.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link PrefixRange.LongIndexed}
+     * @throws IllegalStateException if this spliterator is shuffled
+     */
+    @Override
+    public Stream<T> prunedStream(Supplier<? extends PrefixPredicate> predicateFactory) {
+        return StreamSupport.stream(prunedSpliterator(predicateFactory), false);
+    }
+
+    /**
+     * Provides a possibly parallel stream of the elements currently covered by this spliterator that are accepted by the predicates created by the given factory.
+     * @see #prunedStream(Supplier)
+     */
+    @Override
+    public Stream<T> parallelPrunedStream(Supplier<? extends PrefixPredicate> predicateFactory) {
+        return StreamSupport.stream(prunedSpliterator(predicateFactory), true);
+    }
+
+    private LongPrunedSpliterator<T> prunedSpliterator(Supplier<? extends PrefixPredicate> predicateFactory) {
+        getPrefixRanges();
+        return new LongPrunedSpliterator<>(index, fence, characteristics, valueSupplier.split(), predicateFactory);
+    }
+
+    /**
+     * Estimates the number of elements currently covered by this spliterator that satisfy the given predicate, by sampling their ranks.
+     * The shuffler is not taken into account. The sampling uses value suppliers obtained by splitting the value supplier of this spliterator,
+     * which is not modified.
+     */
+    @Override
+    public Estimate estimateCount(Predicate<? super T> predicate, Estimator estimator) {
+        return estimator.estimate(index, fence, valueSupplier, val -> predicate.test(val) ? 1 : 0, true);
+    }
+
+    /**
+     * Estimates the mean value of the objective over the elements currently covered by this spliterator, by sampling their ranks.
+     * @see #estimateCount(Predicate, Estimator)
+     */
+    @Override
+    public Estimate estimateMean(ToDoubleFunction<? super T> objective, Estimator estimator) {
+        return estimator.estimate(index, fence, valueSupplier, objective, false);
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link Packable} or if the elements do not fit in a long
+     */
+    @Override
+    public PackedFormat getPackedFormat() {
+        return getPackable().getPackedFormat();
+    }
+
+    /**
+     * Provides a sequential stream of the elements currently covered by this spliterator, packed into long values.
+     * <br>The stream is backed by a new spliterator, whose value supplier is obtained by calling {@link Packable#packed()} on the value supplier of this spliterator.
+     * Therefore, this spliterator is not modified. The new spliterator keeps the shuffler of this spliterator.
+     * @throws UnsupportedOperationException if the value supplier does not implement {@link Packable} or if the elements do not fit in a long
+     */
+    @Override
+    public LongStream packedStream() {
+        return StreamSupport.longStream(packedSpliterator(), false);
+    }
+
+    /**
+     * Provides a possibly parallel stream of the elements currently covered by this spliterator, packed into long values.
+     * @see #packedStream()
+     */
+    @Override
+    public LongStream parallelPackedStream() {
+        return StreamSupport.longStream(packedSpliterator(), true);
+    }
+
+    private LongIndexedToLongSpliterator packedSpliterator() {
+        return new LongIndexedToLongSpliterator(index, fence, characteristics, shuffler, getPackable().packed());
+    }
+
+    private Packable getPackable() {
+        if(!(valueSupplier instanceof Packable)) {
+            throw new UnsupportedOperationException("The value supplier does not provide packed elements: " + valueSupplier.getClass().getName());
+        }
+        return (Packable)valueSupplier;
+    }
+
+    private PrefixRange.LongIndexed getPrefixRanges() {
+        if(!(valueSupplier instanceof PrefixRange.LongIndexed)) {
+            throw new UnsupportedOperationException("The value supplier does not provide prefix ranges: " + valueSupplier.getClass().getName());
+        }
+        if(shuffler != LongShuffler.IDENTITY) throw new IllegalStateException("Prefix ranges cannot be used with shuffled streams");
+        return (PrefixRange.LongIndexed)valueSupplier;
+    }
+
+    private LongIndexedSpliterator<T, ?> createSubrange(long from, long to) {
+        long origin = Math.min(Math.max(index, from), fence);
+        return create(origin, Math.max(origin, Math.min(fence, to)), valueSupplier.split())
+                .withAdditionalCharacteristics(characteristics);
+    }
+
+    /**
+     * Creates a spliterator over the elements currently covered by this spliterator, transformed by the given mapper.
+     * The value supplier of the new spliterator wraps a value supplier obtained by splitting the value supplier of this spliterator.
+     * This spliterator is not modified.
+     * <br>The new spliterator keeps the shuffler and the characteristics of this spliterator, except {@link Spliterator#DISTINCT} and {@link Spliterator#SORTED}.
+     */
+    @Override
+    public <R> LongIndexedSpliterator<R, ?> map(Function<? super T, ? extends R> mapper) {
+        return create(index, fence, new MappedSupplier<T, R>(valueSupplier.split(), mapper))
+                .withAdditionalCharacteristics(characteristics & ~(Spliterator.DISTINCT | Spliterator.SORTED))
+                .withShuffler(shuffler);
+    }
+
+    /**
+     * Provides a sequential stream of the elements currently covered by this spliterator, paired with their positions and ranks.
+     * <br>The stream is backed by a new spliterator, whose value supplier is obtained by splitting the value supplier of this spliterator.
+     * Therefore, this spliterator is not modified.
+     */
+    @Override
+    public Stream<Ranked<T>> indexedStream() {
+        return StreamSupport.stream(rankedSpliterator(), false);
+    }
+
+    /**
+     * Provides a possibly parallel stream of the elements currently covered by this spliterator, paired with their positions and ranks.
+     * @see #indexedStream()
+     */
+    @Override
+    public Stream<Ranked<T>> parallelIndexedStream() {
+        return StreamSupport.stream(rankedSpliterator(), true);
+    }
+
+    /**
+     * Performs the given action for each element currently covered by this spliterator, using a value supplier obtained by splitting
+     * the value supplier of this spliterator. This spliterator is not modified.
+     */
+    @Override
+    public void forEachIndexed(IndexedConsumer<? super T> action) {
+        if (action == null) throw new NullPointerException();
+        Splittable.LongIndexed<T> supplier = valueSupplier.split();
+        for(long i = index; i < fence; i++) {
+            long rank = shuffler.getShuffledIndex(i);
+            action.accept(i, rank, supplier.apply(rank));
+        }
+    }
+
+    private LongIndexedSpliterator<Ranked<T>, ?> rankedSpliterator() {
+        return create(index, fence, new RankedSupplier<>(valueSupplier.split(), shuffler))
+                .withAdditionalCharacteristics(characteristics);
+    }
+
+    /**
+     * Creates a spliterator with the given value supplier.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, S extends LongIndexedSpliterator<T, S>> S create(long origin, long fence, Splittable.LongIndexed<T> valueSupplier) {
+        S spliterator = (S)new LongIndexedSpliterator<T, S>(origin, fence);
+        return spliterator.withValueSupplier(valueSupplier);
+    }
+
+    /**
+     * A value supplier that pairs the elements provided by another value supplier with their positions and ranks.
+     * It expects to be called with unshuffled positions and applies the shuffler itself.
+     */
+    private static class RankedSupplier<T> implements Splittable.LongIndexed<Ranked<T>> {
+        private final Splittable.LongIndexed<T> valueSupplier;
+        private final LongShuffler shuffler;
+
+        RankedSupplier(Splittable.LongIndexed<T> valueSupplier, LongShuffler shuffler) {
+            this.valueSupplier = valueSupplier;
+            this.shuffler = shuffler;
+        }
+
+        @Override
+        public Ranked<T> apply(long position) {
+            long rank = shuffler.getShuffledIndex(position);
+            return new Ranked<>(position, rank, valueSupplier.apply(rank));
+        }
+
+        @Override
+        public Splittable.LongIndexed<Ranked<T>> split() {
+            return new RankedSupplier<>(valueSupplier.split(), shuffler);
+        }
+    }
+
+    /**
+     * A value supplier that applies a mapper to the elements provided by another value supplier.
+     */
+    private static class MappedSupplier<T, R> implements Splittable.LongIndexed<R> {
+        private final Splittable.LongIndexed<T> valueSupplier;
+        private final Function<? super T, ? extends R> mapper;
+
+        MappedSupplier(Splittable.LongIndexed<T> valueSupplier, Function<? super T, ? extends R> mapper) {
+            this.valueSupplier = valueSupplier;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public R apply(long index) {
+            return mapper.apply(valueSupplier.apply(index));
+        }
+
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super R> action) {
+            valueSupplier.forEachInRange(from, to, value -> action.accept(mapper.apply(value)));
+        }
+
+        @Override
+        public Splittable.LongIndexed<R> split() {
+            return new MappedSupplier<>(valueSupplier.split(), mapper);
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import org.beryx.streamplify.shuffler.BlockLongShuffler;
+import org.beryx.streamplify.shuffler.DefaultLongShuffler;
+import org.beryx.streamplify.shuffler.LongShuffler;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * An immutable, thread-safe {@link Streamable} that creates a new {@link LongIndexedSpliterator} for each requested stream.
+ * <br>The value supplier of this template is never used directly: each new spliterator gets a value supplier obtained by calling {@link Splittable#split()}.
+ * Therefore, the tables precomputed by the value supplier are shared by all spliterators created by this template and by all its views.
+ * <br>The {@link #skip(long)}, {@link #shuffle(Random)}, {@link #blockShuffle(long, Random)} and {@link #withAdditionalCharacteristics(int)} methods do not modify this instance.
+ * They return a new template instead.
+ * <br>In order to be safely used by multiple threads, the {@link Splittable#split()} method of the value supplier and the shuffler must be thread-safe,
+ * as is the case for the value suppliers and shufflers provided by Streamplify.
+ */
+public class LongIndexedTemplate<T> extends IndexedStreamableProxy<T, LongIndexedTemplate<T>> {
+    private final long origin;
+    private final long fence;
+    private final int characteristics;
+    private final LongShuffler shuffler;
+    private final Splittable.LongIndexed<T> valueSupplier;
+
+    LongIndexedTemplate(long origin, long fence, int characteristics, LongShuffler shuffler, Splittable.LongIndexed<T> valueSupplier) {
+        this.origin = origin;
+        this.fence = fence;
+        this.characteristics = characteristics;
+        this.shuffler = shuffler;
+        this.valueSupplier = valueSupplier;
+    }
+
+    /**
+     * @return a newly created spliterator covering the elements of this template.
+     */
+    public LongIndexedSpliterator<T, ?> newSpliterator() {
+        return LongIndexedSpliterator.create(origin, fence, valueSupplier.split())
+                .withAdditionalCharacteristics(characteristics)
+                .withShuffler(shuffler);
+    }
+
+    /**
+     * @return a newly created spliterator, as returned by {@link #newSpliterator()}
+     */
+    @Override
+    protected IndexedStreamable<T, ?> getDelegate() {
+        return newSpliterator();
+    }
+
+    /**
+     * @return a new template, whose streams have the additional characteristics
+     */
+    @Override
+    public LongIndexedTemplate<T> withAdditionalCharacteristics(int additionalCharacteristics) {
+        return new LongIndexedTemplate<>(origin, fence, characteristics | additionalCharacteristics, shuffler, valueSupplier);
+    }
+
+    @Override
+    public long count() {
+        return fence - origin;
+    }
+
+    @Override
+    public BigInteger bigCount() {
+        return BigInteger.valueOf(count());
+    }
+
+    /**
+     * @return a new template that skips the first {@code n} elements of this template
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z skip(long n) {
+        if(n < 0) throw new IllegalArgumentException("skip(" + n + ")");
+        long newOrigin = (fence - origin <= n) ? fence : (origin + n);
+        return (Z)new LongIndexedTemplate<>(newOrigin, fence, characteristics, shuffler, valueSupplier);
+    }
+
+    /**
+     * @return a new template that skips the first {@code n} elements of this template
+     */
+    @Override
+    public <Z extends Streamable<T, ?>> Z skip(BigInteger n) {
+        if(n.compareTo(BigInteger.ZERO) < 0) throw new IllegalArgumentException("skip(" + n + ")");
+        return skip(n.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) > 0 ? Long.MAX_VALUE : n.longValueExact());
+    }
+
+    /**
+     * @return a new template that shuffles the elements of this template
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z shuffle(Random rnd) {
+        return (Z)new LongIndexedTemplate<>(origin, fence, characteristics, new DefaultLongShuffler(fence, rnd), valueSupplier);
+    }
+
+    /**
+     * @return a new template that shuffles the blocks of this template
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Z extends Streamable<T, ?>> Z blockShuffle(long blockSize, Random rnd) {
+        return (Z)new LongIndexedTemplate<>(origin, fence, characteristics, new BlockLongShuffler(fence, blockSize, rnd), valueSupplier);
+    }
+
+    /**
+     * @return this instance, since templates are already immutable
+     */
+    @Override
+    public LongIndexedTemplate<T> asTemplate() {
+        return this;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import org.beryx.streamplify.shuffler.LongShuffler;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A primitive spliterator over the long values provided by a {@link Splittable.LongIndexedToLong} value supplier,
+ * such as packed elements or bit masks.
+ * <br>It mirrors {@link LongIndexedSpliterator}: it applies the shuffler to each index and splits its value supplier whenever it splits itself.
+ */
+public class LongIndexedToLongSpliterator implements Spliterator.OfLong {
+    private final Splittable.LongIndexedToLong valueSupplier;
+    private final LongShuffler shuffler;
+    private final int characteristics;
+    private long index;
+    private final long fence;
+
+    /**
+     * @param characteristics the characteristics of the spliterator, except {@link Spliterator#SORTED}, which is always removed
+     */
+    public LongIndexedToLongSpliterator(long origin, long fence, int characteristics, LongShuffler shuffler, Splittable.LongIndexedToLong valueSupplier) {
+        this.index = origin;
+        this.fence = fence;
+        this.characteristics = characteristics & ~Spliterator.SORTED;
+        this.shuffler = shuffler;
+        this.valueSupplier = valueSupplier;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (action == null) throw new NullPointerException();
+        if(index < fence) {
+            long val = valueSupplier.applyAsLong(shuffler.getShuffledIndex(index));
+            index++;
+            action.accept(val);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        if (action == null) throw new NullPointerException();
+        if(index < fence) {
+            if(shuffler == LongShuffler.IDENTITY) {
+                valueSupplier.forEachInRange(index, fence, action);
+            } else {
+                for(long i = index; i < fence; i++) {
+                    action.accept(valueSupplier.applyAsLong(shuffler.getShuffledIndex(i)));
+                }
+            }
+            index = fence;
+        }
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        long mid = (index + fence) >>> 1;
+        if(index >= mid) return null;
+        Spliterator.OfLong spliterator = new LongIndexedToLongSpliterator(index, mid, characteristics, shuffler, valueSupplier.split());
+        index = mid;
+        return spliterator;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A spliterator that provides the elements of a lexicographic data source accepted by a {@link PrefixPredicate}.
+ * <br>When a prefix is rejected, the index jumps past the range of all elements starting with this prefix.
+ * If the value supplier supports {@link PrefixRange.LongIndexed#skipPrefix(int)}, the element following this range is computed without unranking.
+ * The {@link #trySplit()} method splits the index range at the start of a prefix range, so that each half covers entire subtrees.
+ */
+class LongPrunedSpliterator<T> implements Spliterator<T> {
+    private final Splittable.LongIndexed<T> valueSupplier;
+    private final Supplier<? extends PrefixPredicate> predicateFactory;
+    private final int characteristics;
+    private final PrefixPruner pruner;
+    private long index;
+    private final long fence;
+
+    LongPrunedSpliterator(long origin, long fence, int characteristics,
+                          Splittable.LongIndexed<T> valueSupplier, Supplier<? extends PrefixPredicate> predicateFactory) {
+        this.index = origin;
+        this.fence = fence;
+        this.characteristics = characteristics & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+        this.valueSupplier = valueSupplier;
+        this.predicateFactory = predicateFactory;
+        this.pruner = new PrefixPruner(predicateFactory.get());
+    }
+
+    private long[] getPrefixRange(int[] sequence, int length) {
+        return ((PrefixRange.LongIndexed)valueSupplier).getPrefixRange(Arrays.copyOf(sequence, length));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (action == null) throw new NullPointerException();
+        while(index < fence) {
+            T val = valueSupplier.apply(index);
+            int rejectedLength = pruner.getRejectedLength((int[])val);
+            if(rejectedLength == 0) {
+                index++;
+                action.accept(val);
+                return true;
+            }
+            long next = ((PrefixRange.LongIndexed)valueSupplier).skipPrefix(rejectedLength);
+            index = (next >= 0) ? next : getPrefixRange((int[])val, rejectedLength)[1];
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while(tryAdvance(action));
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long mid = (index + fence) >>> 1;
+        if(index >= mid) return null;
+        int[] sequence = (int[])valueSupplier.apply(mid);
+        long splitIndex = mid;
+        for(int length = 1; length < sequence.length; length++) {
+            long from = getPrefixRange(sequence, length)[0];
+            if(from > index) {
+                splitIndex = from;
+                break;
+            }
+        }
+        Spliterator<T> spliterator = new LongPrunedSpliterator<>(index, splitIndex, characteristics, valueSupplier.split(), predicateFactory);
+        index = splitIndex;
+        return spliterator;
+    }
+
+    /**
+     * @return the number of remaining indexes, which is an upper bound of the number of remaining elements.
+     */
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
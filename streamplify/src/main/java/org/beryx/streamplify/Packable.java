@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * Implemented by value suppliers of int arrays whose elements can also be provided packed into long values.
+ * <br>Used by {@link LongIndexedSpliterator#packedStream()}.
+ */
+public interface Packable {
+    /**
+     * @return the format of the packed elements
+     * @throws UnsupportedOperationException if the elements do not fit in a long
+     */
+    PackedFormat getPackedFormat();
+
+    /**
+     * @return a new value supplier providing the packed form of the elements provided by this value supplier for the same indexes.
+     * The state of this value supplier is not affected.
+     * @throws UnsupportedOperationException if the elements do not fit in a long
+     */
+    PackedSupplier packed();
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * Describes how a sequence of non-negative ints with a fixed length is packed into a single long value.
+ * <br>Each entry uses the same number of bits. The first entry occupies the most significant of the used bits,
+ * so the packed values of a lexicographically ordered data source are increasing, when compared as unsigned longs.
+ * <br>For example, the permutations of length 16 use 4 bits per entry.
+ */
+public final class PackedFormat {
+    private final int length;
+    private final int bitsPerEntry;
+    private final long mask;
+
+    private PackedFormat(int length, int bitsPerEntry) {
+        this.length = length;
+        this.bitsPerEntry = bitsPerEntry;
+        this.mask = (1L << bitsPerEntry) - 1;
+    }
+
+    /**
+     * Creates the format of sequences with the given length, using the smallest number of bits that can hold the given maximum value.
+     * @throws UnsupportedOperationException if the sequences do not fit in a long
+     */
+    public static PackedFormat of(int length, int maxValue) {
+        if(length < 0) throw new IllegalArgumentException("length: " + length);
+        int bitsPerEntry = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+        if((long)length * bitsPerEntry > 64) {
+            throw new UnsupportedOperationException("Sequences of length " + length + " with values up to " + maxValue + " do not fit in a long");
+        }
+        return new PackedFormat(length, bitsPerEntry);
+    }
+
+    /** @return the length of the packed sequences */
+    public int getLength() {
+        return length;
+    }
+
+    public int getBitsPerEntry() {
+        return bitsPerEntry;
+    }
+
+    /** @return the entry at the given position of the packed sequence */
+    public int get(long packed, int position) {
+        return (int)((packed >>> shift(position)) & mask);
+    }
+
+    /** @return the packed sequence obtained by replacing the entry at the given position with the given value */
+    public long set(long packed, int position, int value) {
+        int shift = shift(position);
+        return (packed & ~(mask << shift)) | ((long)value << shift);
+    }
+
+    public long pack(int[] sequence) {
+        if(sequence.length != length) throw new IllegalArgumentException("Expected length " + length + ", but found " + sequence.length);
+        long packed = 0;
+        for(int value : sequence) {
+            packed = (packed << bitsPerEntry) | value;
+        }
+        return packed;
+    }
+
+    public int[] unpack(long packed) {
+        int[] sequence = new int[length];
+        for(int i = length - 1; i >= 0; i--) {
+            sequence[i] = (int)(packed & mask);
+            packed >>>= bitsPerEntry;
+        }
+        return sequence;
+    }
+
+    private int shift(int position) {
+        return (length - 1 - position) * bitsPerEntry;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedFormat(length: " + length + ", bitsPerEntry: " + bitsPerEntry + ")";
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A value supplier that provides the elements of another value supplier of int arrays, packed into long values according to a {@link PackedFormat}.
+ * <br>This class obtains each element from the other value supplier and packs it.
+ * Subclasses may override {@link #computeNext(long)} in order to compute the next element directly on its packed form,
+ * in which case the other value supplier is only used for unranking.
+ */
+public class PackedSupplier implements Splittable.LongIndexedToLong {
+    protected final PackedFormat format;
+    protected final Splittable.LongIndexed<int[]> valueSupplier;
+    private long currentIndex = -2;
+    private long current;
+
+    public PackedSupplier(PackedFormat format, Splittable.LongIndexed<int[]> valueSupplier) {
+        this.format = format;
+        this.valueSupplier = valueSupplier;
+    }
+
+    public PackedFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public PackedSupplier split() {
+        return new PackedSupplier(format, valueSupplier.split());
+    }
+
+    /**
+     * @return true, if this supplier uses {@link #computeNext(long)} whenever consecutive indexes are requested.
+     * <br>This default implementation returns false.
+     */
+    protected boolean isComputeNextSupported() {
+        return false;
+    }
+
+    /**
+     * @return the packed element following the given one.
+     * <br>This default implementation throws an {@link UnsupportedOperationException}.
+     */
+    protected long computeNext(long packed) {
+        throw new UnsupportedOperationException("computeNext is not supported by " + getClass().getName());
+    }
+
+    @Override
+    public long applyAsLong(long index) {
+        if(index == currentIndex + 1 && isComputeNextSupported()) {
+            current = computeNext(current);
+        } else {
+            current = format.pack(valueSupplier.apply(index));
+        }
+        currentIndex = index;
+        return current;
+    }
+
+    @Override
+    public void forEachInRange(long from, long to, LongConsumer action) {
+        if(from >= to) return;
+        if(!isComputeNextSupported()) {
+            Splittable.LongIndexedToLong.super.forEachInRange(from, to, action);
+            return;
+        }
+        long packed = applyAsLong(from);
+        action.accept(packed);
+        for(long i = from + 1; i < to; i++) {
+            packed = computeNext(packed);
+            action.accept(packed);
+        }
+        current = packed;
+        currentIndex = to - 1;
+    }
+}
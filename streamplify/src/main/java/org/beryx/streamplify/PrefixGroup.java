@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.Arrays;
+
+/**
+ * A group of elements sharing the same prefix, as provided by {@link IndexedStreamable#groupByPrefix(int)}.
+ */
+public class PrefixGroup<T> {
+    private final int[] prefix;
+    private final IndexedStreamable<T, ?> streamable;
+
+    public PrefixGroup(int[] prefix, IndexedStreamable<T, ?> streamable) {
+        this.prefix = prefix;
+        this.streamable = streamable;
+    }
+
+    /** @return the prefix shared by all elements of this group */
+    public int[] getPrefix() {
+        return prefix;
+    }
+
+    /** @return a Streamable providing the elements of this group */
+    public IndexedStreamable<T, ?> getStreamable() {
+        return streamable;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(prefix) + ": " + streamable.bigCount() + " elements";
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * A predicate used by {@link IndexedStreamable#prunedStream(java.util.function.Supplier)} to reject entire groups of elements sharing a common prefix.
+ * <br>For a given element, the predicate is called with increasing prefix lengths, and {@code test(sequence, length)} is called only if
+ * the prefix of length {@code length - 1} has already been accepted. Therefore, the predicate usually needs to check only
+ * the value at position {@code length - 1} against the values preceding it.
+ * <br>Since all calls for lengths less than {@code length} refer to the same prefix as the current call, a predicate may keep incremental state
+ * indexed by the prefix length (for example, the columns and diagonals already occupied in an N-Queens problem).
+ * Such stateful predicates are not thread-safe: each spliterator gets its own instance from the factory passed to {@code prunedStream}.
+ */
+@FunctionalInterface
+public interface PrefixPredicate {
+    /**
+     * @param sequence an element of the data source. The predicate should not modify it.
+     * @param length the length of the prefix to be tested. The value {@code sequence.length} refers to the entire element.
+     * @return false, if no element starting with the first {@code length} values of {@code sequence} is acceptable.
+     */
+    boolean test(int[] sequence, int length);
+}
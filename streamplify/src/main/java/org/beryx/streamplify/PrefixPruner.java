@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * Checks the prefixes of successive elements using a {@link PrefixPredicate}.
+ * <br>It remembers the last checked element and the number of its leading positions accepted by the predicate,
+ * so that the predicate is not called again for the prefix shared with the next element.
+ */
+class PrefixPruner {
+    private final PrefixPredicate predicate;
+    private int[] previous;
+    private int acceptedLength;
+
+    PrefixPruner(PrefixPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * @return the length of the shortest prefix of the sequence rejected by the predicate, or 0 if the entire sequence is accepted.
+     */
+    int getRejectedLength(int[] sequence) {
+        int start = 0;
+        if(previous != null) {
+            int limit = Math.min(acceptedLength, sequence.length);
+            while(start < limit && previous[start] == sequence[start]) start++;
+        }
+        previous = sequence;
+        for(int length = start + 1; length <= sequence.length; length++) {
+            if(!predicate.test(sequence, length)) {
+                acceptedLength = length - 1;
+                return length;
+            }
+        }
+        acceptedLength = sequence.length;
+        return 0;
+    }
+}
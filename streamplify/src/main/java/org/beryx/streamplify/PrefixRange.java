@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+
+/**
+ * Implemented by value suppliers that provide int arrays in lexicographic order.
+ * In this case, the elements starting with a given prefix have consecutive ranks.
+ * <br>Used by indexed-spliterators (such as {@link LongIndexedSpliterator} or {@link BigIntegerIndexedSpliterator})
+ * in order to implement {@link IndexedStreamable#withPrefix(int...)}, {@link IndexedStreamable#groupByPrefix(int)} and {@link IndexedStreamable#prunedStream(java.util.function.Supplier)}.
+ */
+public interface PrefixRange {
+    interface LongIndexed {
+        /**
+         * @return a two-element array containing the range [from, to) of the ranks of the elements starting with the given prefix.
+         * If no element starts with the given prefix, the range is empty.
+         * @throws IllegalArgumentException if the prefix is longer than the elements.
+         */
+        long[] getPrefixRange(int[] prefix);
+
+        /**
+         * @return the length of the elements, which is the maximum length of a prefix.
+         */
+        int getSequenceLength();
+
+        /**
+         * Moves this value supplier to the last element starting with the first {@code length} values of the last supplied element,
+         * so that the next element can be obtained from it without unranking.
+         * <br>Used by pruned streams in order to skip all elements starting with a rejected prefix.
+         * <br>This default implementation does not modify the value supplier and returns -1.
+         * @return the rank of the first element following those starting with the prefix, or -1 if this operation is not supported.
+         */
+        default long skipPrefix(int length) {
+            return -1;
+        }
+    }
+
+    interface BigIntegerIndexed {
+        /**
+         * @return a two-element array containing the range [from, to) of the ranks of the elements starting with the given prefix.
+         * If no element starts with the given prefix, the range is empty.
+         * @throws IllegalArgumentException if the prefix is longer than the elements.
+         */
+        BigInteger[] getPrefixRange(int[] prefix);
+
+        /**
+         * @return the length of the elements, which is the maximum length of a prefix.
+         */
+        int getSequenceLength();
+
+        /**
+         * Moves this value supplier to the last element starting with the first {@code length} values of the last supplied element.
+         * <br>This default implementation does not modify the value supplier and returns null.
+         * @return the rank of the first element following those starting with the prefix, or null if this operation is not supported.
+         * @see LongIndexed#skipPrefix(int)
+         */
+        default BigInteger skipPrefix(int length) {
+            return null;
+        }
+    }
+}
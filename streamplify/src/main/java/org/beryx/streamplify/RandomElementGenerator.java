@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates random elements of a data source, using a {@link SplittableRandom} provided by the caller.
+ * <br>Used by {@link RandomSpliterator}. Generators holding mutable state should override {@link #split()},
+ * which is called whenever the spliterator is split.
+ */
+@FunctionalInterface
+public interface RandomElementGenerator<T> extends Splittable<RandomElementGenerator<T>> {
+    T next(SplittableRandom rnd);
+
+    /**
+     * This default implementation returns this instance, which is appropriate for stateless generators.
+     */
+    @Override
+    default RandomElementGenerator<T> split() {
+        return this;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import org.beryx.streamplify.shared.Limbs;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+/**
+ * Random element generators that draw uniformly distributed ranks and unrank them using the value supplier of an indexed spliterator.
+ * <br>Used by {@link IndexedStreamable#randomStream(long, long)}. Each generator uses its own split of the value supplier.
+ */
+class RandomRanks {
+    private RandomRanks() {}
+
+    /**
+     * Draws ranks in the range [origin, origin + count) of a data source with long indexes.
+     */
+    static class LongGenerator<T> implements RandomElementGenerator<T> {
+        private final long origin;
+        private final long count;
+        private final Splittable.LongIndexed<T> valueSupplier;
+
+        LongGenerator(long origin, long count, Splittable.LongIndexed<T> valueSupplier) {
+            if(count <= 0) throw new IllegalStateException("The data source is empty");
+            this.origin = origin;
+            this.count = count;
+            this.valueSupplier = valueSupplier;
+        }
+
+        @Override
+        public T next(SplittableRandom rnd) {
+            return valueSupplier.apply(origin + rnd.nextLong(count));
+        }
+
+        @Override
+        public RandomElementGenerator<T> split() {
+            return new LongGenerator<>(origin, count, valueSupplier.split());
+        }
+    }
+
+    /**
+     * Draws ranks in the range [origin, origin + count) of a data source with BigInteger indexes.
+     * <br>The ranks are drawn into reusable limbs by rejection sampling: random words are masked to the bit length of {@code count}
+     * and rejected if they are not less than {@code count}, which happens with a probability smaller than 1/2.
+     * The limbs are passed to {@link Splittable.BigIntegerIndexed#apply(Limbs)}, so suppliers that unrank limbs directly
+     * do not create BigInteger objects.
+     */
+    static class BigIntegerGenerator<T> implements RandomElementGenerator<T> {
+        private final BigInteger origin;
+        private final BigInteger count;
+        private final Limbs countLimbs;
+        private final Limbs rank;
+        private final long topMask;
+        private final Splittable.BigIntegerIndexed<T> valueSupplier;
+
+        BigIntegerGenerator(BigInteger origin, BigInteger count, Splittable.BigIntegerIndexed<T> valueSupplier) {
+            if(count.signum() <= 0) throw new IllegalStateException("The data source is empty");
+            this.origin = origin;
+            this.count = count;
+            this.countLimbs = Limbs.of(count);
+            this.rank = new Limbs(count.bitLength());
+            int topBits = count.bitLength() & 63;
+            this.topMask = (topBits == 0) ? -1L : (1L << topBits) - 1;
+            this.valueSupplier = valueSupplier;
+        }
+
+        @Override
+        public T next(SplittableRandom rnd) {
+            long[] words = rank.getWords();
+            do {
+                for(int i = 0; i < words.length; i++) {
+                    words[i] = rnd.nextLong();
+                }
+                words[words.length - 1] &= topMask;
+            } while(rank.compareTo(countLimbs) >= 0);
+            if(origin.signum() == 0) {
+                return valueSupplier.apply(rank);
+            }
+            return valueSupplier.apply(origin.add(rank.toBigInteger()));
+        }
+
+        @Override
+        public RandomElementGenerator<T> split() {
+            return new BigIntegerGenerator<>(origin, count, valueSupplier.split());
+        }
+    }
+}
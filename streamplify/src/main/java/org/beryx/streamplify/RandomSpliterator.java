@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A spliterator providing a given number of elements produced by a {@link RandomElementGenerator}.
+ * <br>The positions are grouped in blocks of {@value #BLOCK_SIZE}, and each block uses its own {@link SplittableRandom},
+ * whose seed is derived from the seed of the spliterator and the index of the block.
+ * The spliterator is only split at block boundaries, therefore the element at a given position depends only on the seed,
+ * no matter how the stream is split. Sequential and parallel streams provide the same elements, without any locking.
+ */
+public class RandomSpliterator<T> implements Spliterator<T> {
+    public static final int BLOCK_SIZE = 1024;
+    private static final int CHARACTERISTICS = Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED;
+
+    private final RandomElementGenerator<T> generator;
+    private final long seed;
+    private long index;
+    private final long fence;
+    private SplittableRandom rnd;
+
+    /**
+     * @param size the number of elements to be provided. Use {@link Long#MAX_VALUE} for practically infinite streams.
+     */
+    public RandomSpliterator(RandomElementGenerator<T> generator, long size, long seed) {
+        this(generator, seed, 0, size);
+        if(size < 0) throw new IllegalArgumentException("Invalid size: " + size);
+    }
+
+    private RandomSpliterator(RandomElementGenerator<T> generator, long seed, long origin, long fence) {
+        this.generator = generator;
+        this.seed = seed;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    /**
+     * @return a sequential stream of {@code size} elements produced by the given generator
+     */
+    public static <T> Stream<T> stream(RandomElementGenerator<T> generator, long size, long seed) {
+        return StreamSupport.stream(new RandomSpliterator<>(generator, size, seed), false);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if(action == null) throw new NullPointerException();
+        if(index >= fence) return false;
+        action.accept(nextElement());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if(action == null) throw new NullPointerException();
+        while(index < fence) {
+            action.accept(nextElement());
+        }
+    }
+
+    private T nextElement() {
+        if(rnd == null || index % BLOCK_SIZE == 0) {
+            rnd = new SplittableRandom(blockSeed(seed, index / BLOCK_SIZE));
+        }
+        T element = generator.next(rnd);
+        index++;
+        return element;
+    }
+
+    /**
+     * @return the seed of the given block, obtained by applying the finalizer of MurmurHash3 to a combination of the two arguments.
+     */
+    static long blockSeed(long seed, long block) {
+        long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long mid = index + ((fence - index) >>> 1);
+        mid -= mid % BLOCK_SIZE;
+        if(mid <= index) return null;
+        Spliterator<T> prefix = new RandomSpliterator<>(generator.split(), seed, index, mid);
+        index = mid;
+        rnd = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
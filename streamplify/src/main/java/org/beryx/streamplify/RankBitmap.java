@@ -0,0 +1,691 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collector;
+
+/**
+ * A compressed set of ranks, which allows storing the ranks of selected elements of a data source and streaming these elements later
+ * via {@link IndexedStreamable#restrictTo(RankBitmap)}.
+ * <br>The ranks are partitioned into chunks of 65536 consecutive values, in the manner of <a href="https://roaringbitmap.org/">Roaring bitmaps</a>.
+ * The values of each chunk are stored in a container, which is a sorted array for sparse chunks, a bitmap for dense chunks,
+ * or a list of runs (after calling {@link #runOptimize()}) for chunks containing long sequences of consecutive ranks.
+ * <br>This class is not thread-safe for modifications, but it can be safely read by multiple threads once it is no longer modified.
+ */
+public class RankBitmap {
+    private static final int ARRAY_MAX_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private long[] keys;
+    private Container[] containers;
+    private int size;
+    private volatile long[] cumulativeCardinalities;
+
+    public RankBitmap() {
+        this(new long[4], new Container[4], 0);
+    }
+
+    private RankBitmap(long[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * @return a bitmap containing the given ranks.
+     */
+    public static RankBitmap of(long... ranks) {
+        RankBitmap bitmap = new RankBitmap();
+        for(long rank : ranks) {
+            bitmap.add(rank);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return a collector that records the ranks of {@link Ranked} elements into a bitmap.
+     * The bitmaps of parallel substreams are merged, so the collector can be used with {@link IndexedStreamable#parallelIndexedStream()}.
+     * @throws ArithmeticException if a rank does not fit in a long.
+     */
+    public static Collector<Ranked<?>, RankBitmap, RankBitmap> collector() {
+        return Collector.of(RankBitmap::new, (bitmap, ranked) -> bitmap.add(ranked.getRank()), RankBitmap::or,
+                RankBitmap::runOptimize, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Adds a rank to this bitmap.
+     * @return this instance
+     */
+    public RankBitmap add(long rank) {
+        if(rank < 0) throw new IllegalArgumentException("rank: " + rank);
+        long key = rank >>> 16;
+        int pos;
+        if(size > 0 && keys[size - 1] == key) {
+            pos = size - 1;
+        } else {
+            pos = Arrays.binarySearch(keys, 0, size, key);
+            if(pos < 0) {
+                pos = -pos - 1;
+                insertContainer(pos, key, new ArrayContainer());
+            }
+        }
+        containers[pos] = containers[pos].add((int)(rank & 0xFFFF));
+        cumulativeCardinalities = null;
+        return this;
+    }
+
+    /**
+     * @return true, if this bitmap contains the given rank.
+     */
+    public boolean contains(long rank) {
+        if(rank < 0) return false;
+        int pos = Arrays.binarySearch(keys, 0, size, rank >>> 16);
+        return pos >= 0 && containers[pos].contains((int)(rank & 0xFFFF));
+    }
+
+    /** @return the number of ranks in this bitmap. */
+    public long getCardinality() {
+        return (size == 0) ? 0 : getCumulativeCardinalities()[size];
+    }
+
+    /** @return true, if this bitmap contains no ranks. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the rank with the given index in the sorted sequence of ranks contained in this bitmap.
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #getCardinality()}.
+     */
+    public long select(long index) {
+        long[] cumulative = getCumulativeCardinalities();
+        if(index < 0 || index >= cumulative[size]) throw new IndexOutOfBoundsException("index: " + index + ", cardinality: " + cumulative[size]);
+        int pos = Arrays.binarySearch(cumulative, 0, size + 1, index);
+        if(pos < 0) {
+            pos = -pos - 2;
+        } else {
+            while(cumulative[pos + 1] == index) pos++;
+        }
+        return (keys[pos] << 16) | containers[pos].select((int)(index - cumulative[pos]));
+    }
+
+    /**
+     * @return the smallest rank in this bitmap that is greater than or equal to {@code fromRank}, or -1 if no such rank exists.
+     */
+    public long nextRank(long fromRank) {
+        if(fromRank < 0) fromRank = 0;
+        long key = fromRank >>> 16;
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if(pos >= 0) {
+            int low = containers[pos].nextValue((int)(fromRank & 0xFFFF));
+            if(low >= 0) return (key << 16) | low;
+            pos++;
+        } else {
+            pos = -pos - 1;
+        }
+        return (pos < size) ? ((keys[pos] << 16) | containers[pos].nextValue(0)) : -1;
+    }
+
+    /**
+     * Performs the given action for each rank in this bitmap, in increasing order.
+     */
+    public void forEach(LongConsumer action) {
+        for(int i = 0; i < size; i++) {
+            long base = keys[i] << 16;
+            containers[i].forEachValue(low -> action.accept(base | low));
+        }
+    }
+
+    /** @return the ranks contained in this bitmap, in increasing order. */
+    public long[] toArray() {
+        long cardinality = getCardinality();
+        if(cardinality > Integer.MAX_VALUE) throw new IllegalStateException("Too many ranks for an array: " + cardinality);
+        long[] ranks = new long[(int)cardinality];
+        int[] pos = {0};
+        forEach(rank -> ranks[pos[0]++] = rank);
+        return ranks;
+    }
+
+    /**
+     * @return a new bitmap containing the ranks present in this bitmap or in the {@code other} bitmap.
+     */
+    public RankBitmap or(RankBitmap other) {
+        RankBitmap result = new RankBitmap(new long[size + other.size], new Container[size + other.size], 0);
+        int i = 0, j = 0;
+        while(i < size || j < other.size) {
+            if(j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendContainer(keys[i], containers[i++].copy());
+            } else if(i >= size || other.keys[j] < keys[i]) {
+                result.appendContainer(other.keys[j], other.containers[j++].copy());
+            } else {
+                result.appendContainer(keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap containing the ranks present in both this bitmap and the {@code other} bitmap.
+     */
+    public RankBitmap and(RankBitmap other) {
+        RankBitmap result = new RankBitmap(new long[Math.min(size, other.size)], new Container[Math.min(size, other.size)], 0);
+        int i = 0, j = 0;
+        while(i < size && j < other.size) {
+            if(keys[i] < other.keys[j]) {
+                i++;
+            } else if(other.keys[j] < keys[i]) {
+                j++;
+            } else {
+                result.appendContainer(keys[i], containers[i++].and(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap containing the ranks present in this bitmap, but not in the {@code other} bitmap.
+     */
+    public RankBitmap andNot(RankBitmap other) {
+        RankBitmap result = new RankBitmap(new long[size], new Container[size], 0);
+        int j = 0;
+        for(int i = 0; i < size; i++) {
+            while(j < other.size && other.keys[j] < keys[i]) j++;
+            if(j < other.size && other.keys[j] == keys[i]) {
+                result.appendContainer(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendContainer(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts each container to the representation requiring the least memory, including run containers.
+     * @return this instance
+     */
+    public RankBitmap runOptimize() {
+        for(int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof RankBitmap)) return false;
+        RankBitmap other = (RankBitmap)o;
+        if(size != other.size) return false;
+        for(int i = 0; i < size; i++) {
+            if(keys[i] != other.keys[i]) return false;
+            if(!Arrays.equals(containers[i].toWords(), other.containers[i].toWords())) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for(int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(keys[i]);
+            hash = 31 * hash + Arrays.hashCode(containers[i].toWords());
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "RankBitmap(cardinality: " + getCardinality() + ", containers: " + size + ")";
+    }
+
+    private long[] getCumulativeCardinalities() {
+        long[] cumulative = cumulativeCardinalities;
+        if(cumulative == null) {
+            cumulative = new long[size + 1];
+            for(int i = 0; i < size; i++) {
+                cumulative[i + 1] = cumulative[i] + containers[i].cardinality();
+            }
+            cumulativeCardinalities = cumulative;
+        }
+        return cumulative;
+    }
+
+    private void insertContainer(int pos, long key, Container container) {
+        if(size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size + 1);
+            containers = Arrays.copyOf(containers, 2 * size + 1);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+        keys[pos] = key;
+        containers[pos] = container;
+        size++;
+    }
+
+    private void appendContainer(long key, Container container) {
+        if(container.cardinality() > 0) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    /**
+     * A value supplier that provides the elements whose ranks are contained in a bitmap.
+     * The index passed to {@link #apply(long)} is the position of the rank in the bitmap.
+     * <br>Consecutive positions are resolved by {@link RankBitmap#nextRank(long)} instead of {@link RankBitmap#select(long)}.
+     * If the next rank is close to the previous one and the underlying value supplier computes successors efficiently,
+     * the ranks in between are stepped through instead of unranking the next element.
+     */
+    static class RestrictedSupplier<T> implements Splittable.LongIndexed<T> {
+        static final int MAX_STEP = 4;
+
+        private final RankBitmap ranks;
+        private final Splittable.LongIndexed<T> valueSupplier;
+        private final boolean stepping;
+        private long lastPosition = -2;
+        private long lastRank = -2;
+
+        RestrictedSupplier(RankBitmap ranks, Splittable.LongIndexed<T> valueSupplier, boolean stepping) {
+            this.ranks = ranks;
+            this.valueSupplier = valueSupplier;
+            this.stepping = stepping;
+        }
+
+        @Override
+        public T apply(long position) {
+            boolean consecutive = (position == lastPosition + 1);
+            long rank = consecutive ? ranks.nextRank(lastRank + 1) : ranks.select(position);
+            if(stepping && consecutive && rank - lastRank <= MAX_STEP) {
+                for(long r = lastRank + 1; r < rank; r++) {
+                    valueSupplier.apply(r);
+                }
+            }
+            lastPosition = position;
+            lastRank = rank;
+            return valueSupplier.apply(rank);
+        }
+
+        @Override
+        public Splittable.LongIndexed<T> split() {
+            return new RestrictedSupplier<>(ranks, valueSupplier.split(), stepping);
+        }
+    }
+
+    /**
+     * Adapts a value supplier with BigInteger indexes, in order to be used with the long ranks of a bitmap.
+     */
+    static class BigIntegerAdapter<T> implements Splittable.LongIndexed<T> {
+        private final Splittable.BigIntegerIndexed<T> valueSupplier;
+
+        BigIntegerAdapter(Splittable.BigIntegerIndexed<T> valueSupplier) {
+            this.valueSupplier = valueSupplier;
+        }
+
+        @Override
+        public T apply(long rank) {
+            return valueSupplier.apply(BigInteger.ZERO, rank);
+        }
+
+        @Override
+        public Splittable.LongIndexed<T> split() {
+            return new BigIntegerAdapter<>(valueSupplier.split());
+        }
+    }
+
+    /**
+     * Holds the 16-bit low parts of the ranks sharing the same high part.
+     */
+    private abstract static class Container {
+        /** @return this container or a new one containing also the given value. */
+        abstract Container add(int value);
+        abstract boolean contains(int value);
+        abstract int cardinality();
+        /** @return the value with the given index in the sorted sequence of values. */
+        abstract int select(int index);
+        /** @return the smallest value greater than or equal to {@code from}, or -1. */
+        abstract int nextValue(int from);
+        abstract void forEachValue(IntConsumer action);
+        abstract Container copy();
+
+        /** @return a new array of 1024 words holding the bitmap representation of this container. */
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            forEachValue(value -> words[value >>> 6] |= 1L << value);
+            return words;
+        }
+
+        Container or(Container other) {
+            if(this instanceof ArrayContainer && other instanceof ArrayContainer
+                    && cardinality() + other.cardinality() <= ARRAY_MAX_SIZE) {
+                return ((ArrayContainer)this).merge((ArrayContainer)other);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for(int i = 0; i < BITMAP_WORDS; i++) words[i] |= otherWords[i];
+            return fromWords(words);
+        }
+
+        Container and(Container other) {
+            if(this instanceof ArrayContainer) return ((ArrayContainer)this).filter(other, true);
+            if(other instanceof ArrayContainer) return ((ArrayContainer)other).filter(this, true);
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for(int i = 0; i < BITMAP_WORDS; i++) words[i] &= otherWords[i];
+            return fromWords(words);
+        }
+
+        Container andNot(Container other) {
+            if(this instanceof ArrayContainer) return ((ArrayContainer)this).filter(other, false);
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for(int i = 0; i < BITMAP_WORDS; i++) words[i] &= ~otherWords[i];
+            return fromWords(words);
+        }
+
+        /** @return an equivalent container with the smallest memory footprint. */
+        Container optimize() {
+            long[] words = toWords();
+            int runCount = 0;
+            long carry = 0;
+            for(long word : words) {
+                runCount += Long.bitCount(word & ~((word << 1) | carry));
+                carry = word >>> 63;
+            }
+            int card = cardinality();
+            int runBytes = 4 * runCount;
+            if(runBytes < Math.min(2 * card, 8 * BITMAP_WORDS)) {
+                return (this instanceof RunContainer) ? this : RunContainer.fromWords(words, runCount, card);
+            }
+            return fromWords(words);
+        }
+
+        static Container fromWords(long[] words) {
+            int card = 0;
+            for(long word : words) card += Long.bitCount(word);
+            if(card > ARRAY_MAX_SIZE) return new BitmapContainer(words, card);
+            char[] values = new char[Math.max(card, 4)];
+            int pos = 0;
+            for(int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while(word != 0) {
+                    values[pos++] = (char)((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, card);
+        }
+    }
+
+    private static class ArrayContainer extends Container {
+        private char[] values;
+        private int card;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int card) {
+            this.values = values;
+            this.card = card;
+        }
+
+        @Override
+        Container add(int value) {
+            int pos = (card > 0 && values[card - 1] < value) ? -card - 1 : Arrays.binarySearch(values, 0, card, (char)value);
+            if(pos >= 0) return this;
+            if(card == ARRAY_MAX_SIZE) {
+                return new BitmapContainer(toWords(), card).add(value);
+            }
+            pos = -pos - 1;
+            if(card == values.length) values = Arrays.copyOf(values, Math.min(2 * card, ARRAY_MAX_SIZE));
+            System.arraycopy(values, pos, values, pos + 1, card - pos);
+            values[pos] = (char)value;
+            card++;
+            return this;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, card, (char)value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int select(int index) {
+            return values[index];
+        }
+
+        @Override
+        int nextValue(int from) {
+            int pos = Arrays.binarySearch(values, 0, card, (char)from);
+            if(pos < 0) pos = -pos - 1;
+            return (pos < card) ? values[pos] : -1;
+        }
+
+        @Override
+        void forEachValue(IntConsumer action) {
+            for(int i = 0; i < card; i++) action.accept(values[i]);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(card, 4)), card);
+        }
+
+        ArrayContainer merge(ArrayContainer other) {
+            char[] merged = new char[Math.max(card + other.card, 4)];
+            int i = 0, j = 0, k = 0;
+            while(i < card && j < other.card) {
+                char a = values[i], b = other.values[j];
+                if(a <= b) i++;
+                if(b <= a) j++;
+                merged[k++] = (a <= b) ? a : b;
+            }
+            while(i < card) merged[k++] = values[i++];
+            while(j < other.card) merged[k++] = other.values[j++];
+            return new ArrayContainer(merged, k);
+        }
+
+        ArrayContainer filter(Container other, boolean keepContained) {
+            char[] filtered = new char[Math.max(card, 4)];
+            int k = 0;
+            for(int i = 0; i < card; i++) {
+                if(other.contains(values[i]) == keepContained) filtered[k++] = values[i];
+            }
+            return new ArrayContainer(filtered, k);
+        }
+    }
+
+    private static class BitmapContainer extends Container {
+        private final long[] words;
+        private int card;
+
+        BitmapContainer(long[] words, int card) {
+            this.words = words;
+            this.card = card;
+        }
+
+        @Override
+        Container add(int value) {
+            long mask = 1L << value;
+            if((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                card++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int select(int index) {
+            for(int i = 0; i < BITMAP_WORDS; i++) {
+                int count = Long.bitCount(words[i]);
+                if(index < count) {
+                    long word = words[i];
+                    for(int k = 0; k < index; k++) word &= word - 1;
+                    return (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+                index -= count;
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        int nextValue(int from) {
+            int i = from >>> 6;
+            long word = words[i] & (-1L << from);
+            while(word == 0) {
+                if(++i == BITMAP_WORDS) return -1;
+                word = words[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        void forEachValue(IntConsumer action) {
+            for(int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while(word != 0) {
+                    action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), card);
+        }
+    }
+
+    private static class RunContainer extends Container {
+        private final char[] starts;
+        private final char[] lengths;
+        private final int runCount;
+        private final int card;
+
+        private RunContainer(char[] starts, char[] lengths, int runCount, int card) {
+            this.starts = starts;
+            this.lengths = lengths;
+            this.runCount = runCount;
+            this.card = card;
+        }
+
+        static RunContainer fromWords(long[] words, int runCount, int card) {
+            char[] starts = new char[runCount];
+            char[] lengths = new char[runCount];
+            int run = -1;
+            int prev = -2;
+            for(int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while(word != 0) {
+                    int value = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if(value == prev + 1) {
+                        lengths[run]++;
+                    } else {
+                        starts[++run] = (char)value;
+                    }
+                    prev = value;
+                }
+            }
+            return new RunContainer(starts, lengths, runCount, card);
+        }
+
+        /** @return the index of the last run starting at or before the given value, or -1. */
+        private int findRun(int value) {
+            int pos = Arrays.binarySearch(starts, 0, runCount, (char)value);
+            return (pos >= 0) ? pos : (-pos - 2);
+        }
+
+        @Override
+        Container add(int value) {
+            return contains(value) ? this : fromWords(toWords()).add(value);
+        }
+
+        @Override
+        boolean contains(int value) {
+            int run = findRun(value);
+            return run >= 0 && value <= starts[run] + lengths[run];
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int select(int index) {
+            for(int i = 0; i < runCount; i++) {
+                int runLength = lengths[i] + 1;
+                if(index < runLength) return starts[i] + index;
+                index -= runLength;
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        int nextValue(int from) {
+            int run = findRun(from);
+            if(run >= 0 && from <= starts[run] + lengths[run]) return from;
+            return (run + 1 < runCount) ? starts[run + 1] : -1;
+        }
+
+        @Override
+        void forEachValue(IntConsumer action) {
+            for(int i = 0; i < runCount; i++) {
+                int end = starts[i] + lengths[i];
+                for(int value = starts[i]; value <= end; value++) action.accept(value);
+            }
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            for(int i = 0; i < runCount; i++) {
+                int end = starts[i] + lengths[i];
+                for(int value = starts[i]; value <= end; value++) words[value >>> 6] |= 1L << value;
+            }
+            return words;
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+    }
+}
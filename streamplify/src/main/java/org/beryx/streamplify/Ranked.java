@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+
+/**
+ * An element of a data source, together with its position in the stream and its rank in the data source.
+ * <br>The position and the rank are equal, unless the stream is shuffled.
+ * <br>Elements provided by a {@link LongIndexedSpliterator} carry primitive long values.
+ * Elements provided by a {@link BigIntegerIndexedSpliterator} carry BigInteger values.
+ */
+public final class Ranked<T> {
+    private final long position;
+    private final long rank;
+    private final BigInteger bigPosition;
+    private final BigInteger bigRank;
+    private final T element;
+
+    public Ranked(long position, long rank, T element) {
+        this.position = position;
+        this.rank = rank;
+        this.bigPosition = null;
+        this.bigRank = null;
+        this.element = element;
+    }
+
+    public Ranked(BigInteger position, BigInteger rank, T element) {
+        this.position = -1;
+        this.rank = -1;
+        this.bigPosition = position;
+        this.bigRank = rank;
+        this.element = element;
+    }
+
+    /** @return the element */
+    public T getElement() {
+        return element;
+    }
+
+    /**
+     * @return the position of the element in the (possibly shuffled) stream.
+     * @throws ArithmeticException if the position does not fit in a long.
+     */
+    public long getPosition() {
+        return (bigPosition == null) ? position : bigPosition.longValueExact();
+    }
+
+    /** @return the position of the element in the (possibly shuffled) stream, as BigInteger. */
+    public BigInteger getBigPosition() {
+        return (bigPosition == null) ? BigInteger.valueOf(position) : bigPosition;
+    }
+
+    /**
+     * @return the rank of the element in the unshuffled data source.
+     * @throws ArithmeticException if the rank does not fit in a long.
+     */
+    public long getRank() {
+        return (bigRank == null) ? rank : bigRank.longValueExact();
+    }
+
+    /** @return the rank of the element in the unshuffled data source, as BigInteger. */
+    public BigInteger getBigRank() {
+        return (bigRank == null) ? BigInteger.valueOf(rank) : bigRank;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + getBigPosition() + " (rank " + getBigRank() + "): " + element;
+    }
+}
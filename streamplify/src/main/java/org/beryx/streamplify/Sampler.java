@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Draws distinct ranks uniformly at random, for {@link IndexedStreamable#sample(int, Random)}.
+ * <br>If the sample is small compared to the data source, the ranks are drawn using Floyd's algorithm, which needs only {@code k} random numbers.
+ * If the sample covers more than half of the data source, the ranks are selected in increasing order using selection sampling (Knuth's Algorithm S),
+ * which avoids the hash set. In both cases, the sampled ranks are then shuffled, so that each ordered sample is equally likely.
+ */
+class Sampler {
+    private Sampler() {}
+
+    /**
+     * @return {@code k} distinct random numbers in the range [0, n), in random order
+     */
+    static long[] sampleRanks(long n, int k, Random rnd) {
+        checkSampleSize(k, BigInteger.valueOf(n));
+        long[] ranks = new long[k];
+        if(k > n / 2) {
+            selectRanks(n, ranks, rnd);
+        } else {
+            Set<Long> drawn = new HashSet<>(2 * k);
+            int count = 0;
+            for(long j = n - k; j < n; j++) {
+                long rank = nextLong(rnd, j + 1);
+                if(!drawn.add(rank)) {
+                    rank = j;
+                    drawn.add(rank);
+                }
+                ranks[count++] = rank;
+            }
+        }
+        for(int i = k - 1; i > 0; i--) {
+            int pos = rnd.nextInt(i + 1);
+            long tmp = ranks[i];
+            ranks[i] = ranks[pos];
+            ranks[pos] = tmp;
+        }
+        return ranks;
+    }
+
+    /**
+     * @return {@code k} distinct random numbers in the range [0, n), in random order
+     */
+    static BigInteger[] sampleRanks(BigInteger n, int k, Random rnd) {
+        checkSampleSize(k, n);
+        BigInteger[] ranks = new BigInteger[k];
+        if(BigInteger.valueOf(k).shiftLeft(1).compareTo(n) > 0) {
+            // n < 2k, so it fits into a long
+            long[] longRanks = sampleRanks(n.longValue(), k, rnd);
+            for(int i = 0; i < k; i++) {
+                ranks[i] = BigInteger.valueOf(longRanks[i]);
+            }
+            return ranks;
+        }
+        Set<BigInteger> drawn = new HashSet<>(2 * k);
+        int count = 0;
+        for(BigInteger j = n.subtract(BigInteger.valueOf(k)); j.compareTo(n) < 0; j = j.add(BigInteger.ONE)) {
+            BigInteger rank = nextBigInteger(rnd, j.add(BigInteger.ONE));
+            if(!drawn.add(rank)) {
+                rank = j;
+                drawn.add(rank);
+            }
+            ranks[count++] = rank;
+        }
+        for(int i = k - 1; i > 0; i--) {
+            int pos = rnd.nextInt(i + 1);
+            BigInteger tmp = ranks[i];
+            ranks[i] = ranks[pos];
+            ranks[pos] = tmp;
+        }
+        return ranks;
+    }
+
+    /**
+     * Fills {@code ranks} with distinct random numbers in the range [0, n), in increasing order, using selection sampling (Knuth's Algorithm S).
+     * <br>Each number is selected with probability (remaining to select) / (remaining to examine), so all subsets are equally likely. This needs at most n random numbers.
+     */
+    private static void selectRanks(long n, long[] ranks, Random rnd) {
+        int selected = 0;
+        for(long t = 0; selected < ranks.length; t++) {
+            if(nextLong(rnd, n - t) < ranks.length - selected) {
+                ranks[selected++] = t;
+            }
+        }
+    }
+
+    private static void checkSampleSize(int k, BigInteger n) {
+        if(k < 0 || BigInteger.valueOf(k).compareTo(n) > 0) {
+            throw new IllegalArgumentException("Cannot sample " + k + " elements from " + n + " elements");
+        }
+    }
+
+    /**
+     * @return a uniformly distributed random number in the range [0, bound)
+     */
+    static long nextLong(Random rnd, long bound) {
+        long bits, val;
+        do {
+            bits = rnd.nextLong() >>> 1;
+            val = bits % bound;
+        } while(bits - val + (bound - 1) < 0);
+        return val;
+    }
+
+    /**
+     * @return a uniformly distributed random number in the range [0, bound)
+     */
+    static BigInteger nextBigInteger(Random rnd, BigInteger bound) {
+        BigInteger val;
+        do {
+            val = new BigInteger(bound.bitLength(), rnd);
+        } while(val.compareTo(bound) >= 0);
+        return val;
+    }
+
+    /**
+     * Provides the elements with the sampled ranks of a data source with long indexes.
+     */
+    static class LongSampleSupplier<T> implements Splittable.LongIndexed<T> {
+        private final long origin;
+        private final long[] ranks;
+        private final Splittable.LongIndexed<T> valueSupplier;
+
+        LongSampleSupplier(long origin, long[] ranks, Splittable.LongIndexed<T> valueSupplier) {
+            this.origin = origin;
+            this.ranks = ranks;
+            this.valueSupplier = valueSupplier;
+        }
+
+        @Override
+        public T apply(long position) {
+            return valueSupplier.apply(origin + ranks[(int)position]);
+        }
+
+        @Override
+        public Splittable.LongIndexed<T> split() {
+            return new LongSampleSupplier<>(origin, ranks, valueSupplier.split());
+        }
+    }
+
+    /**
+     * Provides the elements with the sampled ranks of a data source with BigInteger indexes.
+     */
+    static class BigIntegerSampleSupplier<T> implements Splittable.LongIndexed<T> {
+        private final BigInteger origin;
+        private final BigInteger[] ranks;
+        private final Splittable.BigIntegerIndexed<T> valueSupplier;
+
+        BigIntegerSampleSupplier(BigInteger origin, BigInteger[] ranks, Splittable.BigIntegerIndexed<T> valueSupplier) {
+            this.origin = origin;
+            this.ranks = ranks;
+            this.valueSupplier = valueSupplier;
+        }
+
+        @Override
+        public T apply(long position) {
+            return valueSupplier.apply(origin.add(ranks[(int)position]));
+        }
+
+        @Override
+        public Splittable.LongIndexed<T> split() {
+            return new BigIntegerSampleSupplier<>(origin, ranks, valueSupplier.split());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+/**
+ * An element together with its score.
+ * <br>Returned by {@link IntBatches#bestScore(Streamable, VectorizedScorer)}.
+ */
+public final class Scored<T> {
+    private final T element;
+    private final double score;
+
+    public Scored(T element, double score) {
+        this.element = element;
+        this.score = score;
+    }
+
+    public T getElement() {
+        return element;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return score + ": " + element;
+    }
+}
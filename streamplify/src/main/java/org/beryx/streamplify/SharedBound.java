@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe holder of the best value found so far and of its associated solution, to be shared by the leaves of a parallel stream.
+ * <br>Lower values are better. For maximization problems, offer the negated values.
+ * <br>Typically used by a {@link PrefixPredicate} in a branch-and-bound search, in order to reject the prefixes
+ * whose lower bound is not better than {@link #getValue()}.
+ */
+public class SharedBound<T> {
+    private static class Entry<T> {
+        final double value;
+        final T solution;
+
+        Entry(double value, T solution) {
+            this.value = value;
+            this.solution = solution;
+        }
+    }
+
+    private final AtomicReference<Entry<T>> best;
+
+    /**
+     * Creates a bound with the value {@link Double#POSITIVE_INFINITY} and no solution.
+     */
+    public SharedBound() {
+        this(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Creates a bound with the given initial value (for example, the value of a solution found by a heuristic) and no solution.
+     */
+    public SharedBound(double initialValue) {
+        this.best = new AtomicReference<>(new Entry<>(initialValue, null));
+    }
+
+    /** @return the best value found so far */
+    public double getValue() {
+        return best.get().value;
+    }
+
+    /** @return the solution associated with the best value found so far, or null if no solution has been accepted by {@link #offer(double, Object)} */
+    public T getSolution() {
+        return best.get().solution;
+    }
+
+    /**
+     * Replaces the current best value and solution if the given value is lower than the current best value.
+     * @return true, if the given solution has been accepted
+     */
+    public boolean offer(double value, T solution) {
+        Entry<T> entry = null;
+        while(true) {
+            Entry<T> current = best.get();
+            if(!(value < current.value)) return false;
+            if(entry == null) entry = new Entry<>(value, solution);
+            if(best.compareAndSet(current, entry)) return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        Entry<T> entry = best.get();
+        return entry.value + ": " + entry.solution;
+    }
+}
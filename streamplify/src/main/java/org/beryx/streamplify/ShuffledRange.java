@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import org.beryx.streamplify.shuffler.DefaultLongShuffler;
+import org.beryx.streamplify.shuffler.LongShuffler;
+
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A non-repeating shuffled permutation of the indexes in the range [0, count), which can be streamed as primitive values.
+ * <br>Typical usage: processing database rows or files in a random order, as in {@code ShuffledRange.of(rowCount, seed).parallelLongStream().forEach(...)}.
+ * <br>Instances are immutable and can provide any number of streams. The streams can be split at any position without precomputing the permutation.
+ * The permutation is the one used by a {@link LongIndexedSpliterator} with the same count, shuffled with {@code new Random(seed)}.
+ */
+public class ShuffledRange {
+    private static final int CHARACTERISTICS = Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.ORDERED;
+
+    private final long origin;
+    private final long count;
+    private final LongShuffler shuffler;
+
+    private ShuffledRange(long origin, long count, LongShuffler shuffler) {
+        this.origin = origin;
+        this.count = count;
+        this.shuffler = shuffler;
+    }
+
+    /**
+     * @return a shuffled permutation of the indexes in the range [0, count), generated using a random number generator with the given seed
+     */
+    public static ShuffledRange of(long count, long seed) {
+        return of(count, new Random(seed));
+    }
+
+    /**
+     * @return a shuffled permutation of the indexes in the range [0, count), generated using the given random number generator
+     */
+    public static ShuffledRange of(long count, Random rnd) {
+        if(count < 0) throw new IllegalArgumentException("Invalid count: " + count);
+        return new ShuffledRange(0, count, new DefaultLongShuffler(count, rnd));
+    }
+
+    /**
+     * @return the number of indexes provided by this range
+     */
+    public long getCount() {
+        return count - origin;
+    }
+
+    /**
+     * @return the index at the given position in the shuffled order, counted from the start of this range
+     */
+    public long get(long position) {
+        if(position < 0 || position >= count - origin) throw new IndexOutOfBoundsException("position: " + position);
+        return shuffler.getShuffledIndex(origin + position);
+    }
+
+    /**
+     * @return a range providing the same indexes as this one, without the first {@code n} of them.
+     * Useful for resuming an interrupted processing.
+     */
+    public ShuffledRange skip(long n) {
+        if(n < 0) throw new IllegalArgumentException("Invalid skip: " + n);
+        return new ShuffledRange(Math.min(count, origin + n), count, shuffler);
+    }
+
+    public LongStream longStream() {
+        return StreamSupport.longStream(new LongIndexedToLongSpliterator(origin, count, CHARACTERISTICS | Spliterator.DISTINCT,
+                shuffler, Splittable.LongIndexedToLong.IDENTITY), false);
+    }
+
+    public LongStream parallelLongStream() {
+        return longStream().parallel();
+    }
+
+    /**
+     * @return a sequential stream of the values provided by the given value supplier for the indexes of this range, in shuffled order
+     */
+    public LongStream longStream(Splittable.LongIndexedToLong valueSupplier) {
+        return StreamSupport.longStream(new LongIndexedToLongSpliterator(origin, count, CHARACTERISTICS, shuffler, valueSupplier), false);
+    }
+
+    /**
+     * @return a sequential stream of the values provided by the given value supplier for the indexes of this range, in shuffled order
+     */
+    public IntStream intStream(Splittable.LongIndexedToInt valueSupplier) {
+        return StreamSupport.intStream(new LongIndexedToIntSpliterator(origin, count, CHARACTERISTICS, shuffler, valueSupplier), false);
+    }
+
+    /**
+     * @return a sequential stream of the values provided by the given value supplier for the indexes of this range, in shuffled order
+     */
+    public DoubleStream doubleStream(Splittable.LongIndexedToDouble valueSupplier) {
+        return StreamSupport.doubleStream(new LongIndexedToDoubleSpliterator(origin, count, CHARACTERISTICS, shuffler, valueSupplier), false);
+    }
+}
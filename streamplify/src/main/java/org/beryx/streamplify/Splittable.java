@@ -15,10 +15,19 @@
  */
 package org.beryx.streamplify;
 
+import org.beryx.streamplify.shared.Limbs;
+
 import java.math.BigInteger;
 import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
 
 /**
  * A functional interface providing a method for splitting this instance.
@@ -29,6 +38,19 @@ import java.util.function.LongFunction;
 @FunctionalInterface
 public interface Splittable<S extends Splittable<S>> {
     interface LongIndexed<T> extends LongFunction<T>, Splittable<LongIndexed<T>> {
+        /**
+         * Performs the given action for the values corresponding to the indexes in the range [from, to), in increasing order of the indexes.
+         * <br>Called by {@link LongIndexedSpliterator#forEachRemaining(Consumer)} for unshuffled traversals.
+         * Implementations may override this method in order to traverse the range in a loop specialized for their type,
+         * without re-checking at each step whether the next value can be computed from the current one.
+         * <br>This default implementation calls {@link #apply(long)} for each index.
+         */
+        default void forEachInRange(long from, long to, Consumer<? super T> action) {
+            for(long i = from; i < to; i++) {
+                action.accept(apply(i));
+            }
+        }
+
         LongIndexed<Long> IDENTITY = new LongIndexed<Long>() {
             @Override
             public LongIndexed<Long> split() {
@@ -42,7 +64,108 @@ public interface Splittable<S extends Splittable<S>> {
         };
     }
 
+    /**
+     * A value supplier that provides primitive long values, such as the packed elements of a {@link PackedSupplier}.
+     */
+    interface LongIndexedToLong extends LongUnaryOperator, Splittable<LongIndexedToLong> {
+        /**
+         * Performs the given action for the values corresponding to the indexes in the range [from, to), in increasing order of the indexes.
+         * <br>This default implementation calls {@link #applyAsLong(long)} for each index.
+         * @see LongIndexed#forEachInRange(long, long, Consumer)
+         */
+        default void forEachInRange(long from, long to, LongConsumer action) {
+            for(long i = from; i < to; i++) {
+                action.accept(applyAsLong(i));
+            }
+        }
+
+        LongIndexedToLong IDENTITY = new LongIndexedToLong() {
+            @Override
+            public LongIndexedToLong split() {
+                return this;
+            }
+
+            @Override
+            public long applyAsLong(long index) {
+                return index;
+            }
+
+            @Override
+            public void forEachInRange(long from, long to, LongConsumer action) {
+                for(long i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            }
+        };
+    }
+
+    /**
+     * A value supplier that provides primitive int values.
+     */
+    interface LongIndexedToInt extends LongToIntFunction, Splittable<LongIndexedToInt> {
+        /**
+         * Performs the given action for the values corresponding to the indexes in the range [from, to), in increasing order of the indexes.
+         * <br>This default implementation calls {@link #applyAsInt(long)} for each index.
+         * @see LongIndexed#forEachInRange(long, long, Consumer)
+         */
+        default void forEachInRange(long from, long to, IntConsumer action) {
+            for(long i = from; i < to; i++) {
+                action.accept(applyAsInt(i));
+            }
+        }
+    }
+
+    /**
+     * A value supplier that provides primitive double values.
+     */
+    interface LongIndexedToDouble extends LongToDoubleFunction, Splittable<LongIndexedToDouble> {
+        /**
+         * Performs the given action for the values corresponding to the indexes in the range [from, to), in increasing order of the indexes.
+         * <br>This default implementation calls {@link #applyAsDouble(long)} for each index.
+         * @see LongIndexed#forEachInRange(long, long, Consumer)
+         */
+        default void forEachInRange(long from, long to, DoubleConsumer action) {
+            for(long i = from; i < to; i++) {
+                action.accept(applyAsDouble(i));
+            }
+        }
+    }
+
     interface BigIntegerIndexed<T> extends Function<BigInteger, T>, Splittable<BigIntegerIndexed<T>> {
+        /**
+         * Performs the given action for the values corresponding to the indexes in the range [from, to), in increasing order of the indexes.
+         * <br>This default implementation calls {@link #apply(BigInteger, long)} for each index, using a new base only every {@link Long#MAX_VALUE} indexes.
+         * @see LongIndexed#forEachInRange(long, long, Consumer)
+         */
+        default void forEachInRange(BigInteger from, BigInteger to, Consumer<? super T> action) {
+            for(BigInteger base = from; base.compareTo(to) < 0; ) {
+                long count = to.subtract(base).min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
+                for(long offset = 0; offset < count; offset++) {
+                    action.accept(apply(base, offset));
+                }
+                base = base.add(BigInteger.valueOf(count));
+            }
+        }
+
+        /**
+         * Retrieves the value corresponding to the index {@code base + offset}.
+         * <br>Callers traversing a range pass the same base with consecutive offsets, which allows implementations
+         * to keep track of their current index using primitive arithmetic (see {@link org.beryx.streamplify.shared.HybridIndex}).
+         * This default implementation calls {@link #apply(Object)} with the sum of the arguments.
+         */
+        default T apply(BigInteger base, long offset) {
+            return apply(base.add(BigInteger.valueOf(offset)));
+        }
+
+        /**
+         * Retrieves the value corresponding to an index stored in mutable limbs.
+         * <br>Used with shuffled indexes, which are computed into reusable buffers. Implementations may destroy the content of {@code index}.
+         * This default implementation calls {@link #apply(Object)} with the BigInteger value of the index.
+         */
+        default T apply(Limbs index) {
+            return apply(index.toBigInteger());
+        }
+
         BigIntegerIndexed<BigInteger> IDENTITY = new BigIntegerIndexed<BigInteger>() {
             @Override
             public BigIntegerIndexed<BigInteger> split() {
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.function.Predicate;
+
+/**
+ * A predicate evaluated on a whole {@link IntBatch} at once.
+ * <br>Implementations typically loop over the columns of the batch and update the results of all rows in the inner loop,
+ * which allows the JIT compiler to use SIMD instructions.
+ * Used by {@link IntBatches#countMatches(Streamable, VectorizedPredicate)}.
+ */
+@FunctionalInterface
+public interface VectorizedPredicate {
+    /**
+     * Evaluates this predicate for the rows of the given batch.
+     * @param matches an array of length at least {@link IntBatch#getCapacity()}, whose first {@link IntBatch#getSize()} entries must be set by this method
+     */
+    void test(IntBatch batch, boolean[] matches);
+
+    /**
+     * @return a vectorized predicate that evaluates the given predicate for each row, as a scalar fallback
+     */
+    static VectorizedPredicate of(Predicate<int[]> predicate) {
+        return (batch, matches) -> {
+            for(int row = 0; row < batch.getSize(); row++) {
+                matches[row] = predicate.test(batch.getRow(row));
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A scoring function evaluated on a whole {@link IntBatch} at once.
+ * <br>Used by {@link IntBatches#bestScore(Streamable, VectorizedScorer)}.
+ * @see VectorizedPredicate
+ */
+@FunctionalInterface
+public interface VectorizedScorer {
+    /**
+     * Computes the scores of the rows of the given batch.
+     * @param scores an array of length at least {@link IntBatch#getCapacity()}, whose first {@link IntBatch#getSize()} entries must be set by this method
+     */
+    void score(IntBatch batch, double[] scores);
+
+    /**
+     * @return a vectorized scorer that evaluates the given function for each row, as a scalar fallback
+     */
+    static VectorizedScorer of(ToDoubleFunction<int[]> scorer) {
+        return (batch, scores) -> {
+            for(int row = 0; row < batch.getSize(); row++) {
+                scores[row] = scorer.applyAsDouble(batch.getRow(row));
+            }
+        };
+    }
+}
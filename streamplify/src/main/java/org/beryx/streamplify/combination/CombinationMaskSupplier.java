@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.combination;
+
+import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.BitMasks;
+import org.beryx.streamplify.shared.HybridIndex;
+
+import java.math.BigInteger;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Value suppliers for the bit masks of the {@code k}-subsets of a set with {@code n} elements, in colexicographic order.
+ * <br>In this order, the masks are increasing when interpreted as unsigned numbers.
+ * The next mask is computed using Gosper's hack, and the masks are unranked using the combinatorial number system.
+ * Note that this order differs from the lexicographic order of the combinations provided by {@link Combinations}.
+ */
+public abstract class CombinationMaskSupplier {
+    protected final int n;
+    protected final int k;
+
+    CombinationMaskSupplier(int n, int k) {
+        if(n < 0 || k < 0 || n < k) throw new IllegalArgumentException("Invalid (n,k): (" + n + "," + k + ")");
+        this.n = n;
+        this.k = k;
+    }
+
+    /**
+     * Unranks the mask with the given rank in the combinatorial number system:
+     * {@code rank = C(c[k], k) + ... + C(c[1], 1)}, with {@code c[k] > ... > c[1] >= 0}.
+     * @param topBinomial the binomial coefficient C(n - 1, k)
+     */
+    static long[] unrankWords(int n, int k, BigInteger topBinomial, BigInteger rank) {
+        long[] words = new long[BitMasks.wordCount(n)];
+        int c = n - 1;
+        BigInteger binomial = topBinomial;
+        for(int i = k; i > 0; i--) {
+            while(binomial.compareTo(rank) > 0) {
+                // C(c - 1, i) = C(c, i) * (c - i) / c
+                binomial = binomial.multiply(BigInteger.valueOf(c - i)).divide(BigInteger.valueOf(c));
+                c--;
+            }
+            BitMasks.setBit(words, c);
+            rank = rank.subtract(binomial);
+            if(i > 1) {
+                // C(c - 1, i - 1) = C(c, i) * i / c
+                binomial = binomial.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(c));
+                c--;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Provides masks that fit in a long (that is, {@code n <= 64}).
+     */
+    public static class Long extends CombinationMaskSupplier implements Splittable.LongIndexedToLong {
+        /** binomials[c][i] = C(c, i), saturated at {@link java.lang.Long#MAX_VALUE} */
+        private final long[][] binomials;
+        private long currentIndex = -2;
+        private long currentMask;
+
+        public Long(int n, int k) {
+            this(n, k, computeBinomials(n, k));
+        }
+
+        private Long(int n, int k, long[][] binomials) {
+            super(n, k);
+            if(n > 64) throw new IllegalArgumentException("Masks of " + n + " bits do not fit in a long");
+            this.binomials = binomials;
+        }
+
+        @Override
+        public Long split() {
+            return new Long(n, k, binomials);
+        }
+
+        @Override
+        public long applyAsLong(long index) {
+            currentMask = (index == currentIndex + 1) ? BitMasks.nextCombination(currentMask) : unrank(index);
+            currentIndex = index;
+            return currentMask;
+        }
+
+        @Override
+        public void forEachInRange(long from, long to, LongConsumer action) {
+            if(from >= to) return;
+            long mask = applyAsLong(from);
+            action.accept(mask);
+            for(long i = from + 1; i < to; i++) {
+                mask = BitMasks.nextCombination(mask);
+                action.accept(mask);
+            }
+            currentMask = mask;
+            currentIndex = to - 1;
+        }
+
+        private long unrank(long rank) {
+            long mask = 0;
+            int c = n;
+            for(int i = k; i > 0; i--) {
+                do {
+                    c--;
+                } while(binomials[c][i] > rank);
+                mask |= 1L << c;
+                rank -= binomials[c][i];
+            }
+            return mask;
+        }
+
+        private static long[][] computeBinomials(int n, int k) {
+            if(n < 0 || k < 0 || n < k || n > 64) return null;
+            long[][] binomials = new long[n + 1][k + 1];
+            for(int c = 0; c <= n; c++) {
+                binomials[c][0] = 1;
+                for(int i = 1; i <= Math.min(c, k); i++) {
+                    long sum = binomials[c - 1][i - 1] + binomials[c - 1][i];
+                    binomials[c][i] = (sum < 0) ? java.lang.Long.MAX_VALUE : sum;
+                }
+            }
+            return binomials;
+        }
+    }
+
+    /**
+     * Provides masks as arrays of long words, for combinations with long indexes.
+     */
+    public static class LongWords extends CombinationMaskSupplier implements Splittable.LongIndexed<long[]> {
+        private final BigInteger topBinomial;
+        private long currentIndex = -2;
+        private long[] currentWords;
+
+        public LongWords(int n, int k) {
+            this(n, k, (n > 0) ? BigIntegerCombinations.count(n - 1, k) : BigInteger.ZERO);
+        }
+
+        private LongWords(int n, int k, BigInteger topBinomial) {
+            super(n, k);
+            this.topBinomial = topBinomial;
+        }
+
+        @Override
+        public LongWords split() {
+            return new LongWords(n, k, topBinomial);
+        }
+
+        @Override
+        public long[] apply(long index) {
+            if(index == currentIndex + 1) {
+                BitMasks.nextCombination(currentWords);
+            } else {
+                currentWords = unrankWords(n, k, topBinomial, BigInteger.valueOf(index));
+            }
+            currentIndex = index;
+            return currentWords.clone();
+        }
+
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super long[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            for(long i = from + 1; i < to; i++) {
+                BitMasks.nextCombination(currentWords);
+                action.accept(currentWords.clone());
+            }
+            currentIndex = to - 1;
+        }
+    }
+
+    /**
+     * Provides masks as arrays of long words, for combinations with BigInteger indexes.
+     */
+    public static class BigIntWords extends CombinationMaskSupplier implements Splittable.BigIntegerIndexed<long[]> {
+        private final BigInteger topBinomial;
+        private final HybridIndex currentIndex = new HybridIndex(BigInteger.valueOf(-2));
+        private long[] currentWords;
+
+        public BigIntWords(int n, int k) {
+            this(n, k, (n > 0) ? BigIntegerCombinations.count(n - 1, k) : BigInteger.ZERO);
+        }
+
+        private BigIntWords(int n, int k, BigInteger topBinomial) {
+            super(n, k);
+            this.topBinomial = topBinomial;
+        }
+
+        @Override
+        public BigIntWords split() {
+            return new BigIntWords(n, k, topBinomial);
+        }
+
+        @Override
+        public long[] apply(BigInteger index) {
+            return apply(index, 0);
+        }
+
+        @Override
+        public long[] apply(BigInteger base, long offset) {
+            if(currentIndex.moveTo(base, offset)) {
+                BitMasks.nextCombination(currentWords);
+            } else {
+                currentWords = unrankWords(n, k, topBinomial, currentIndex.get());
+            }
+            return currentWords.clone();
+        }
+    }
+}
@@ -16,10 +16,17 @@
 package org.beryx.streamplify.combination;
 
 import org.beryx.streamplify.IntArraySupplier;
+import org.beryx.streamplify.Packable;
+import org.beryx.streamplify.PackedFormat;
+import org.beryx.streamplify.PackedSupplier;
+import org.beryx.streamplify.PrefixRange;
 import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.HybridIndex;
 import org.beryx.streamplify.shared.Unranking;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * A value supplier for combinations.
@@ -41,6 +48,11 @@ public abstract class CombinationSupplier implements IntArraySupplier {
         return currentCombination;
     }
 
+    @Override
+    public int getSequenceLength() {
+        return k;
+    }
+
     public void computeNext() {
         int pos = k - 1;
         while(pos >= 0 && currentCombination[pos] >= n - k + pos) pos--;
@@ -51,7 +63,38 @@ public abstract class CombinationSupplier implements IntArraySupplier {
         }
     }
 
-    public static class Long extends CombinationSupplier implements Splittable.LongIndexed<int[]> {
+    /**
+     * @return the range [from, to) of the ranks of the combinations starting with the given prefix.
+     */
+    protected BigInteger[] computePrefixRange(int[] prefix) {
+        if(prefix.length > k) throw new IllegalArgumentException("Prefix too long: " + prefix.length);
+        BigInteger from = BigInteger.ZERO;
+        int prev = -1;
+        for(int i = 0; i < prefix.length; i++) {
+            int val = prefix[i];
+            if(val <= prev || val > n - k + i) return new BigInteger[] {BigInteger.ZERO, BigInteger.ZERO};
+            // the combinations having prefix[0..i-1] followed by a value in (prev, val)
+            from = from.add(binomial(n - prev - 1, k - i)).subtract(binomial(n - val, k - i));
+            prev = val;
+        }
+        return new BigInteger[] {from, from.add(binomial(n - prev - 1, k - prefix.length))};
+    }
+
+    private static BigInteger binomial(int n, int k) {
+        return (k < 0 || n < k) ? BigInteger.ZERO : BigIntegerCombinations.count(n, k);
+    }
+
+    /**
+     * Replaces the values following the first {@code prefixLength} positions of the current combination with the largest possible values,
+     * making it the last combination starting with its first {@code prefixLength} values.
+     */
+    protected void moveToLastWithPrefix(int prefixLength) {
+        for(int i = prefixLength; i < k; i++) {
+            currentCombination[i] = n - k + i;
+        }
+    }
+
+    public static class Long extends CombinationSupplier implements Splittable.LongIndexed<int[]>, PrefixRange.LongIndexed, Packable {
         private final long count;
         private long currentIndex = -2;
 
@@ -72,15 +115,83 @@ public abstract class CombinationSupplier implements IntArraySupplier {
             return getNextSequence(useNext);
         }
 
+        @Override
+        public PackedFormat getPackedFormat() {
+            return PackedFormat.of(k, n - 1);
+        }
+
+        @Override
+        public PackedSupplier packed() {
+            return new Packed(getPackedFormat(), n, split());
+        }
+
+        @Override
+        public long[] getPrefixRange(int[] prefix) {
+            BigInteger[] range = computePrefixRange(prefix);
+            return new long[] {range[0].longValueExact(), range[1].longValueExact()};
+        }
+
+        @Override
+        public long skipPrefix(int prefixLength) {
+            long end = computePrefixRange(Arrays.copyOf(currentCombination, prefixLength))[1].longValueExact();
+            moveToLastWithPrefix(prefixLength);
+            currentIndex = end - 1;
+            return end;
+        }
+
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super int[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            forEachNext(to - from - 1, action);
+            currentIndex = to - 1;
+        }
+
         @Override
         public int[] unrank() {
             return Unranking.unrankCombination(n, k, count, currentIndex);
         }
     }
 
-    public static class BigInt extends CombinationSupplier implements Splittable.BigIntegerIndexed<int[]> {
+    /**
+     * A value supplier for packed combinations.
+     * <br>It computes the next combination directly on the packed form of the current one.
+     */
+    public static class Packed extends PackedSupplier {
+        private final int n;
+
+        public Packed(PackedFormat format, int n, Splittable.LongIndexed<int[]> unranker) {
+            super(format, unranker);
+            this.n = n;
+        }
+
+        @Override
+        public Packed split() {
+            return new Packed(format, n, valueSupplier.split());
+        }
+
+        @Override
+        protected boolean isComputeNextSupported() {
+            return true;
+        }
+
+        @Override
+        protected long computeNext(long combi) {
+            int k = format.getLength();
+            int pos = k - 1;
+            while(pos >= 0 && format.get(combi, pos) >= n - k + pos) pos--;
+            if(pos < 0) return combi;
+            int val = format.get(combi, pos);
+            for(int i = pos; i < k; i++) {
+                combi = format.set(combi, i, ++val);
+            }
+            return combi;
+        }
+    }
+
+    public static class BigInt extends CombinationSupplier implements Splittable.BigIntegerIndexed<int[]>, PrefixRange.BigIntegerIndexed {
         private final BigInteger count;
-        private BigInteger currentIndex = BigInteger.valueOf(-2);
+        private final HybridIndex currentIndex = new HybridIndex(BigInteger.valueOf(-2));
 
         public BigInt(BigInteger count, int n, int k) {
             super(n, k);
@@ -94,14 +205,42 @@ public abstract class CombinationSupplier implements IntArraySupplier {
 
         @Override
         public int[] apply(BigInteger index) {
-            boolean useNext = index.equals(currentIndex.add(BigInteger.ONE));
-            currentIndex = index;
-            return getNextSequence(useNext);
+            return getNextSequence(currentIndex.moveTo(index));
+        }
+
+        @Override
+        public int[] apply(BigInteger base, long offset) {
+            return getNextSequence(currentIndex.moveTo(base, offset));
+        }
+
+        @Override
+        public BigInteger[] getPrefixRange(int[] prefix) {
+            return computePrefixRange(prefix);
+        }
+
+        @Override
+        public BigInteger skipPrefix(int prefixLength) {
+            BigInteger end = computePrefixRange(Arrays.copyOf(currentCombination, prefixLength))[1];
+            moveToLastWithPrefix(prefixLength);
+            currentIndex.set(end.subtract(BigInteger.ONE));
+            return end;
+        }
+
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super int[]> action) {
+            if(from.compareTo(to) >= 0) return;
+            action.accept(apply(from));
+            BigInteger last = to.subtract(BigInteger.ONE);
+            while(currentIndex.get().compareTo(last) < 0) {
+                long count = last.subtract(currentIndex.get()).min(BigInteger.valueOf(java.lang.Long.MAX_VALUE)).longValue();
+                forEachNext(count, action);
+                currentIndex.add(count);
+            }
         }
 
         @Override
         public int[] unrank() {
-            return Unranking.unrankCombination(n, k, count, currentIndex);
+            return Unranking.unrankCombination(n, k, count, currentIndex.get());
         }
     }
 }
@@ -15,25 +15,40 @@
  */
 package org.beryx.streamplify.combination;
 
+import org.beryx.streamplify.BigIntegerIndexedSpliterator;
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
+import org.beryx.streamplify.LongIndexedSpliterator;
+import org.beryx.streamplify.LongIndexedToLongSpliterator;
 import org.beryx.streamplify.Streamable;
-import org.beryx.streamplify.StreamableProxy;
+import org.beryx.streamplify.shared.RandomElements;
+import org.beryx.streamplify.shuffler.LongShuffler;
 
 import java.math.BigInteger;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A {@link Streamable} providing streams of combinations.
  * <br>This class is a proxy that delegates to either {@link LongCombinations} or {@link BigIntegerCombinations}, depending on the values of {@code n} and {@code k}.
  */
-public class Combinations extends StreamableProxy<int[], Combinations> {
+public class Combinations extends IndexedStreamableProxy<int[], Combinations> {
     public static final int MAX_N = 50_000;
 
-    private final Streamable<int[], ?> delegate;
+    private final int n;
+    private final int k;
+    private final BigInteger count;
+    private final IndexedStreamable<int[], ?> delegate;
 
     /**
      * {@code k}-combinations from a set of {@code n} elements
      */
     public Combinations(int n, int k) {
-        BigInteger count = BigIntegerCombinations.count(n, k);
+        this.n = n;
+        this.k = k;
+        this.count = BigIntegerCombinations.count(n, k);
         BigInteger maxVal = count.multiply(BigInteger.valueOf(n - 1));
         if(maxVal.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) < 0) {
             delegate = new LongCombinations(count.longValueExact(), n, k);
@@ -43,7 +58,43 @@ public class Combinations extends StreamableProxy<int[], Combinations> {
     }
 
     @Override
-    protected Streamable<int[], ?> getDelegate() {
+    protected IndexedStreamable<int[], ?> getDelegate() {
         return delegate;
     }
+
+    /**
+     * Generates the random combinations using Floyd's algorithm or selection sampling, in O(min(k log k, n)) time.
+     */
+    @Override
+    public Stream<int[]> randomElements(long size, long seed) {
+        return randomElements(count, rnd -> RandomElements.combination(n, k, rnd), size, seed);
+    }
+
+    /**
+     * Provides the combinations as bit masks, in colexicographic order (that is, in increasing order of the masks).
+     * <br>Note that this order differs from the order of the combinations provided by {@link #stream()}.
+     * Consecutive masks are computed using Gosper's hack and the first mask of each split is unranked using the combinatorial number system.
+     * The skip and shuffle settings of this instance are not taken into account.
+     * @throws UnsupportedOperationException if {@code n > 64}. Use {@link #wordMasks()} in this case.
+     */
+    public LongStream masks() {
+        if(n > 64) throw new UnsupportedOperationException("Masks of " + n + " bits do not fit in a long");
+        int characteristics = Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.DISTINCT | Spliterator.ORDERED;
+        return StreamSupport.longStream(new LongIndexedToLongSpliterator(0, count.longValueExact(), characteristics,
+                LongShuffler.IDENTITY, new CombinationMaskSupplier.Long(n, k)), false);
+    }
+
+    /**
+     * Provides the combinations as bit masks stored in arrays of long words, in the same order as {@link #masks()}.
+     * <br>Bit {@code i} is stored in {@code words[i / 64]}, as in {@link java.util.BitSet#valueOf(long[])}.
+     * The skip and shuffle settings of this instance are not taken into account.
+     */
+    public Streamable<long[], ?> wordMasks() {
+        if(count.bitLength() < 64) {
+            return LongIndexedSpliterator.create(0, count.longValue(), new CombinationMaskSupplier.LongWords(n, k))
+                    .withAdditionalCharacteristics(Spliterator.DISTINCT);
+        }
+        return BigIntegerIndexedSpliterator.create(BigInteger.ZERO, count, new CombinationMaskSupplier.BigIntWords(n, k))
+                .withAdditionalCharacteristics(Spliterator.DISTINCT);
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.combination;
+
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
+import org.beryx.streamplify.Streamable;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/**
+ * A {@link Streamable} providing streams of combinations that contain all elements of a given set and none of the elements of another set.
+ * <br>Instead of filtering all {@code k}-combinations from a set of {@code n} elements, this class enumerates the
+ * ({@code k - mustInclude.length})-combinations of the remaining free elements and inserts the mandatory elements into each of them.
+ * Therefore, the number of generated combinations is equal to the number of results.
+ * <br>The combinations are provided in lexicographic order.
+ */
+public class ConstrainedCombinations extends IndexedStreamableProxy<int[], ConstrainedCombinations> {
+    private final IndexedStreamable<int[], ?> delegate;
+
+    /**
+     * {@code k}-combinations from a set of {@code n} elements, which contain all elements in {@code mustInclude} and no elements in {@code mustExclude}.
+     * @throws IllegalArgumentException if the constraints contain invalid or duplicate values, or if no combination satisfies them.
+     */
+    public ConstrainedCombinations(int n, int k, int[] mustInclude, int[] mustExclude) {
+        if(n < 0 || k < 0 || n < k) throw new IllegalArgumentException("Invalid (n,k): (" + n + "," + k + ")");
+        int[] included = mustInclude.clone();
+        Arrays.sort(included);
+        boolean[] constrained = new boolean[n];
+        for(int[] values : new int[][] {mustInclude, mustExclude}) {
+            for(int val : values) {
+                if(val < 0 || val >= n) throw new IllegalArgumentException("Invalid element: " + val);
+                if(constrained[val]) throw new IllegalArgumentException("Element constrained more than once: " + val);
+                constrained[val] = true;
+            }
+        }
+        int[] freeElements = new int[n - mustInclude.length - mustExclude.length];
+        for(int val = 0, pos = 0; val < n; val++) {
+            if(!constrained[val]) freeElements[pos++] = val;
+        }
+        int freeK = k - included.length;
+        if(freeK < 0 || freeK > freeElements.length) {
+            throw new IllegalArgumentException("No " + k + "-combination of " + n + " elements satisfies the constraints");
+        }
+        delegate = new Combinations(freeElements.length, freeK)
+                .map(combination -> merge(included, freeElements, combination))
+                .withAdditionalCharacteristics(Spliterator.DISTINCT);
+    }
+
+    /**
+     * Merges the included elements with the free elements selected by the given combination, preserving the increasing order.
+     */
+    private static int[] merge(int[] included, int[] freeElements, int[] combination) {
+        int[] merged = new int[included.length + combination.length];
+        int i = 0, j = 0;
+        for(int pos = 0; pos < merged.length; pos++) {
+            if(j >= combination.length || (i < included.length && included[i] < freeElements[combination[j]])) {
+                merged[pos] = included[i++];
+            } else {
+                merged[pos] = freeElements[combination[j++]];
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    protected IndexedStreamable<int[], ?> getDelegate() {
+        return delegate;
+    }
+}
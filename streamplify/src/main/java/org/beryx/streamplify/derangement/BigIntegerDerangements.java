@@ -27,15 +27,23 @@ import java.math.BigInteger;
 public class BigIntegerDerangements extends BigIntegerIndexedSpliterator<int[], BigIntegerDerangements> {
     public static final int MAX_LENGTH = 20_000;
 
+    private final DerangementSupplier.BigInt supplier;
+
     /**
      * Constructs derangements of {@code length} elements
      */
     public BigIntegerDerangements(int length) {
         super(BigInteger.ZERO, subfactorial(length));
-        this.withValueSupplier(new DerangementSupplier.BigInt(length));
+        this.supplier = new DerangementSupplier.BigInt(length);
+        this.withValueSupplier(supplier);
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
+    @Override
+    public BigInteger rankOf(int[] element) {
+        return supplier.split().rankOf(element);
+    }
+
     /**
      * @throws IllegalArgumentException if {@code n} is negative or too big (> {@value #MAX_LENGTH})
      */
@@ -16,27 +16,67 @@
 package org.beryx.streamplify.derangement;
 
 import org.beryx.streamplify.IntArraySupplier;
+import org.beryx.streamplify.Packable;
+import org.beryx.streamplify.PackedFormat;
+import org.beryx.streamplify.PackedSupplier;
 import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.HybridIndex;
+import org.beryx.streamplify.shared.OrderStatisticSet;
 
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * A value supplier for derangements.
- * <br>Computes the next derangement based on an index.
+ * <br>The derangements are ordered by a sequence of decisions, one for each position that is still unfilled when all previous positions have been processed:
+ * the value placed at this position (chosen among the remaining values, except the one it must avoid) and whether the two positions involved are swapped.
+ * A derangement is unranked by taking these decisions based on its index, and the next derangement is computed by revising the last decisions
+ * that can still be revised, which requires constant amortized time.
  */
 public abstract class DerangementSupplier implements IntArraySupplier {
     protected final int length;
     protected final int[] currentSequence;
 
+    /** the value that must not be placed at each unfilled position */
+    private final int[] avoid;
+    /** the unfilled position at which each remaining value must not be placed (the inverse of {@link #avoid}) */
+    private final int[] reverse;
+    /** circular doubly linked list of the remaining values, in increasing order, using {@link #length} as sentinel */
+    private final int[] nextFree;
+    private final int[] prevFree;
+    /** the remaining values, used for selecting values by rank while unranking; {@link #computeNext()} does not update it */
+    private final OrderStatisticSet remainingValues;
+
+    /** the decision stack: for each level, the position and the value placed at it, whether the positions are swapped and the number of unfilled positions before the decision */
+    private final int[] levelPos;
+    private final int[] levelValue;
+    private final boolean[] levelSwap;
+    private final int[] levelRemaining;
+    private int depth;
+    private int remaining;
+
     DerangementSupplier(int length) {
         this.length = length;
         this.currentSequence = new int[length];
+        int size = Math.max(length, 0);
+        this.avoid = new int[size];
+        this.reverse = new int[size];
+        this.nextFree = new int[size + 1];
+        this.prevFree = new int[size + 1];
+        this.remainingValues = new OrderStatisticSet(size);
+        this.levelPos = new int[size];
+        this.levelValue = new int[size];
+        this.levelSwap = new boolean[size];
+        this.levelRemaining = new int[size];
     }
 
+    /**
+     * Sets the current sequence to the first derangement and prepares the decision stack used by {@link #computeNext()}.
+     */
     public void init() {
-        int[] tmp = new DerangementSupplier.Long(length).apply(0);
-        System.arraycopy(tmp, 0, currentSequence, 0, length);
+        reset();
+        fillFirst(0);
     }
 
     @Override
@@ -44,11 +84,191 @@ public abstract class DerangementSupplier implements IntArraySupplier {
         return currentSequence;
     }
 
+    @Override
+    public int getSequenceLength() {
+        return length;
+    }
+
+    @Override
     public void computeNext() {
-        throw new UnsupportedOperationException("computeNext is not supported");
+        while(depth > 0) {
+            int level = depth - 1;
+            int pos = levelPos[level];
+            int value = levelValue[level];
+            int prevRemaining = levelRemaining[level];
+            boolean swap = levelSwap[level];
+            undo();
+            if(!swap && prevRemaining != 3) {
+                place(pos, value, true);
+                fillFirst(pos + 1);
+                return;
+            }
+            int next = nextCandidate(value, avoid[pos]);
+            if(next < length) {
+                place(pos, next, prevRemaining == 2);
+                fillFirst(pos + 1);
+                return;
+            }
+        }
+        fillFirst(0);
     }
 
-    public static class Long extends DerangementSupplier implements Splittable.LongIndexed<int[]> {
+    /**
+     * Clears all positions, making all values available for the decisions taken by {@link #unrank()}.
+     */
+    protected void reset() {
+        for(int i = 0; i < length; i++) {
+            currentSequence[i] = -1;
+            avoid[i] = i;
+            reverse[i] = i;
+            nextFree[i] = i + 1;
+            prevFree[i + 1] = i;
+        }
+        nextFree[length] = 0;
+        prevFree[0] = length;
+        remainingValues.fill();
+        depth = 0;
+        remaining = length;
+    }
+
+    protected int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return the first unfilled position, starting with {@code pos}
+     */
+    protected int nextUnfilled(int pos) {
+        while(currentSequence[pos] >= 0) pos++;
+        return pos;
+    }
+
+    /**
+     * Places at the given position the value with the given rank among the values that can be placed there, as in {@link #place(int, int, boolean)}.
+     * The value is selected in O(log n) time.
+     */
+    protected void placeByRank(int pos, int rank, boolean swap) {
+        int avoided = avoid[pos];
+        if(rank >= remainingValues.rank(avoided)) rank++;
+        int value = remainingValues.select(rank);
+        remainingValues.remove(value);
+        if(swap) remainingValues.remove(avoided);
+        place(pos, value, swap);
+    }
+
+    /**
+     * Replays the decisions that lead to the given derangement, which is the inverse of {@link #unrank()}.
+     * <br>Each decision is encoded as {@code 2 * rank + (swap ? 1 : 0)}, where {@code rank} is the rank of the placed value
+     * among the values that can be placed at its position, as in {@link #placeByRank(int, int, boolean)}.
+     * The current sequence is modified, so {@link #unrank()} must be used for computing the next sequence.
+     * @throws IllegalArgumentException if the given sequence is not a derangement of {@link #length} elements
+     */
+    protected int[] decisionsOf(int[] derangement) {
+        if(derangement.length != length) {
+            throw new IllegalArgumentException("Not a derangement of length " + length + ": " + Arrays.toString(derangement));
+        }
+        boolean[] used = new boolean[length];
+        for(int value : derangement) {
+            if(value < 0 || value >= length || used[value]) throw new IllegalArgumentException("Not a permutation: " + Arrays.toString(derangement));
+            used[value] = true;
+        }
+        reset();
+        int[] decisions = new int[length];
+        int level = 0;
+        int pos = 0;
+        while(remaining > 0) {
+            pos = nextUnfilled(pos);
+            int value = derangement[pos];
+            int avoided = avoid[pos];
+            if(value == avoided) throw new IllegalArgumentException("Not a derangement: " + Arrays.toString(derangement));
+            int rank = remainingValues.rank(value);
+            if(rank > remainingValues.rank(avoided)) rank--;
+            boolean swap = (derangement[reverse[value]] == avoided);
+            decisions[level++] = 2 * rank + (swap ? 1 : 0);
+            placeByRank(pos, rank, swap);
+            pos++;
+        }
+        return Arrays.copyOf(decisions, level);
+    }
+
+    /**
+     * @return the smallest remaining value greater than {@code value} that differs from {@code avoided}, or {@link #length} if there is no such value.
+     * The value {@link #length} stands for the position before the first remaining value.
+     */
+    private int nextCandidate(int value, int avoided) {
+        int next = nextFree[value];
+        return (next == avoided) ? nextFree[next] : next;
+    }
+
+    /**
+     * Places the given value at the given position and pushes this decision on the stack.
+     * If {@code swap} is true, the value avoided by the position is placed at the position that avoids the given value.
+     * Otherwise, this position inherits the value avoided by the given position.
+     */
+    private void place(int pos, int value, boolean swap) {
+        int level = depth++;
+        levelPos[level] = pos;
+        levelValue[level] = value;
+        levelSwap[level] = swap;
+        levelRemaining[level] = remaining;
+        int avoided = avoid[pos];
+        int peerPos = reverse[value];
+        currentSequence[pos] = value;
+        unlink(value);
+        if(swap) {
+            currentSequence[peerPos] = avoided;
+            unlink(avoided);
+            remaining -= 2;
+        } else {
+            avoid[peerPos] = avoided;
+            reverse[avoided] = peerPos;
+            remaining--;
+        }
+    }
+
+    /**
+     * Pops the last decision from the stack and reverts its effects.
+     */
+    private void undo() {
+        int level = --depth;
+        int pos = levelPos[level];
+        int value = levelValue[level];
+        int avoided = avoid[pos];
+        int peerPos = reverse[value];
+        if(levelSwap[level]) {
+            currentSequence[peerPos] = -1;
+            relink(avoided);
+        } else {
+            avoid[peerPos] = value;
+            reverse[avoided] = pos;
+        }
+        relink(value);
+        currentSequence[pos] = -1;
+        remaining = levelRemaining[level];
+    }
+
+    /**
+     * Fills the unfilled positions, starting with {@code pos}, by taking the first possible decision for each of them.
+     */
+    private void fillFirst(int pos) {
+        while(remaining > 0) {
+            pos = nextUnfilled(pos);
+            place(pos, nextCandidate(length, avoid[pos]), remaining == 2);
+            pos++;
+        }
+    }
+
+    private void unlink(int value) {
+        nextFree[prevFree[value]] = nextFree[value];
+        prevFree[nextFree[value]] = prevFree[value];
+    }
+
+    private void relink(int value) {
+        nextFree[prevFree[value]] = value;
+        prevFree[nextFree[value]] = value;
+    }
+
+    public static class Long extends DerangementSupplier implements Splittable.LongIndexed<int[]>, Packable {
         private final long[] subfactorial;
 
         private long currentIndex = -2;
@@ -69,51 +289,66 @@ public abstract class DerangementSupplier implements IntArraySupplier {
 
         @Override
         public int[] apply(long index) {
+            boolean useNext = (index == currentIndex + 1);
             currentIndex = index;
-            return getNextSequence(false);
+            return getNextSequence(useNext);
         }
 
         @Override
-        public int[] unrank() {
-            int[] seq = new int[length];
-            Arrays.fill(seq, -1);
-            int[] avoid = new int[length];
-            for (int i = 0; i < length; ++i) {
-                avoid[i] = i;
-            }
-            int[] reverse = new int[length];
-            System.arraycopy(avoid, 0, reverse, 0, length);
-            boolean[] taken = new boolean[length];
-            long index = currentIndex;
+        public void forEachInRange(long from, long to, Consumer<? super int[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            forEachNext(to - from - 1, action);
+            currentIndex = to - 1;
+        }
+
+        /**
+         * @return the index of the given derangement
+         * @throws IllegalArgumentException if the given sequence is not a derangement of {@link #length} elements
+         */
+        public long rankOf(int[] derangement) {
+            long rank = 0;
             int remaining = length;
-            for (int i = 0; i < length; ++i) {
-                if (seq[i] == -1) {
-                    int peer = 0;
-                    if (remaining > 1) {
-                        long comb = subfactorial[remaining - 1] + subfactorial[remaining - 2];
-                        peer = (int) (index/comb);
-                        index -= peer*comb;
-                    }
-                    int j = 0;
-                    while (taken[j] || j == avoid[i] || peer > 0) {
-                        if (!taken[j] && j != avoid[i]) --peer;
-                        ++j;
-                    }
-                    seq[i] = j;
-                    taken[j] = true;
-                    if (index < subfactorial[remaining - 1]) {
-                        avoid[reverse[j]] = avoid[i];
-                        reverse[avoid[i]] = reverse[j];
-                        --remaining;
-                    } else {
-                        seq[reverse[j]] = avoid[i];
-                        taken[avoid[i]] = true;
-                        index -= subfactorial[remaining - 1];
-                        remaining -= 2;
-                    }
+            for(int decision : decisionsOf(derangement)) {
+                rank += (decision >> 1) * (subfactorial[remaining - 1] + subfactorial[remaining - 2]);
+                if((decision & 1) == 0) {
+                    remaining--;
+                } else {
+                    rank += subfactorial[remaining - 1];
+                    remaining -= 2;
                 }
             }
-            return seq;
+            currentIndex = -2;
+            return rank;
+        }
+
+        @Override
+        public PackedFormat getPackedFormat() {
+            return PackedFormat.of(length, length - 1);
+        }
+
+        @Override
+        public PackedSupplier packed() {
+            return new PackedSupplier(getPackedFormat(), split());
+        }
+
+        @Override
+        public int[] unrank() {
+            reset();
+            long index = currentIndex;
+            int pos = 0;
+            while(getRemaining() > 0) {
+                pos = nextUnfilled(pos);
+                int remaining = getRemaining();
+                long comb = subfactorial[remaining - 1] + subfactorial[remaining - 2];
+                int peer = (int)(index / comb);
+                index -= peer * comb;
+                boolean swap = (index >= subfactorial[remaining - 1]);
+                if(swap) index -= subfactorial[remaining - 1];
+                placeByRank(pos, peer, swap);
+                pos++;
+            }
+            return currentSequence.clone();
         }
 
         private static long[] computeSubfactorial(int len) {
@@ -135,7 +370,7 @@ public abstract class DerangementSupplier implements IntArraySupplier {
 
     public static class BigInt extends DerangementSupplier implements Splittable.BigIntegerIndexed<int[]> {
         private final BigInteger[] subfactorial;
-        private BigInteger currentIndex = BigInteger.valueOf(-2);
+        private final HybridIndex currentIndex = new HybridIndex(BigInteger.valueOf(-2));
 
         public BigInt(int length) {
             this(length, computeSubfactorial(length));
@@ -153,51 +388,62 @@ public abstract class DerangementSupplier implements IntArraySupplier {
 
         @Override
         public int[] apply(BigInteger index) {
-            currentIndex = index;
-            return getNextSequence(false);
+            return getNextSequence(currentIndex.moveTo(index));
+        }
+
+        @Override
+        public int[] apply(BigInteger base, long offset) {
+            return getNextSequence(currentIndex.moveTo(base, offset));
+        }
+
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super int[]> action) {
+            if(from.compareTo(to) >= 0) return;
+            action.accept(apply(from));
+            BigInteger last = to.subtract(BigInteger.ONE);
+            while(currentIndex.get().compareTo(last) < 0) {
+                long count = last.subtract(currentIndex.get()).min(BigInteger.valueOf(java.lang.Long.MAX_VALUE)).longValue();
+                forEachNext(count, action);
+                currentIndex.add(count);
+            }
         }
 
         @Override
         public int[] unrank() {
-            int[] seq = new int[length];
-            Arrays.fill(seq, -1);
-            int[] avoid = new int[length];
-            for (int i = 0; i < length; ++i) {
-                avoid[i] = i;
+            reset();
+            BigInteger index = currentIndex.get();
+            int pos = 0;
+            while(getRemaining() > 0) {
+                pos = nextUnfilled(pos);
+                int remaining = getRemaining();
+                BigInteger[] peerAndRest = index.divideAndRemainder(subfactorial[remaining - 1].add(subfactorial[remaining - 2]));
+                index = peerAndRest[1];
+                boolean swap = (index.compareTo(subfactorial[remaining - 1]) >= 0);
+                if(swap) index = index.subtract(subfactorial[remaining - 1]);
+                placeByRank(pos, peerAndRest[0].intValue(), swap);
+                pos++;
             }
-            int[] reverse = new int[length];
-            System.arraycopy(avoid, 0, reverse, 0, length);
-            boolean[] taken = new boolean[length];
-            BigInteger index = currentIndex;
+            return currentSequence.clone();
+        }
+
+        /**
+         * @return the index of the given derangement
+         * @throws IllegalArgumentException if the given sequence is not a derangement of {@link #length} elements
+         */
+        public BigInteger rankOf(int[] derangement) {
+            BigInteger rank = BigInteger.ZERO;
             int remaining = length;
-            for (int i = 0; i < length; ++i) {
-                if (seq[i] == -1) {
-                    int peer = 0;
-                    if (remaining > 1) {
-                        BigInteger comb = subfactorial[remaining - 1].add(subfactorial[remaining - 2]);
-                        peer = index.divide(comb).intValue();
-                        index = index.subtract(BigInteger.valueOf(peer).multiply(comb));
-                    }
-                    int j = 0;
-                    while (taken[j] || j == avoid[i] || peer > 0) {
-                        if (!taken[j] && j != avoid[i]) --peer;
-                        ++j;
-                    }
-                    seq[i] = j;
-                    taken[j] = true;
-                    if (index.compareTo(subfactorial[remaining - 1]) == -1) {
-                        avoid[reverse[j]] = avoid[i];
-                        reverse[avoid[i]] = reverse[j];
-                        --remaining;
-                    } else {
-                        seq[reverse[j]] = avoid[i];
-                        taken[avoid[i]] = true;
-                        index = index.subtract(subfactorial[remaining - 1]);
-                        remaining -= 2;
-                    }
+            for(int decision : decisionsOf(derangement)) {
+                rank = rank.add(subfactorial[remaining - 1].add(subfactorial[remaining - 2]).multiply(BigInteger.valueOf(decision >> 1)));
+                if((decision & 1) == 0) {
+                    remaining--;
+                } else {
+                    rank = rank.add(subfactorial[remaining - 1]);
+                    remaining -= 2;
                 }
             }
-            return seq;
+            currentIndex.set(BigInteger.valueOf(-2));
+            return rank;
         }
 
         private static BigInteger[] computeSubfactorial(int len) {
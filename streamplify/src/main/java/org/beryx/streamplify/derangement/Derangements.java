@@ -15,30 +15,49 @@
  */
 package org.beryx.streamplify.derangement;
 
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
 import org.beryx.streamplify.Streamable;
-import org.beryx.streamplify.StreamableProxy;
+import org.beryx.streamplify.shared.RandomElements;
+
+import java.math.BigInteger;
+import java.util.stream.Stream;
 
 /**
  * A {@link Streamable} providing streams of derangements.
  * <br>This class is a proxy that delegates to either {@link LongDerangements} or {@link BigIntegerDerangements}, depending on the derangement length.
  */
-public class Derangements extends StreamableProxy<int[], Derangements> {
+public class Derangements extends IndexedStreamableProxy<int[], Derangements> {
 
-    private final Streamable<int[], ?> delegate;
+    private final int length;
+    private final IndexedStreamable<int[], ?> delegate;
+    private final BigInteger totalCount;
 
     /**
      * @param length the derangement length
      */
     public Derangements(int length) {
+        this.length = length;
         if (length <= LongDerangements.MAX_LENGTH) {
             delegate = new LongDerangements(length);
         } else {
             delegate = new BigIntegerDerangements(length);
         }
+        totalCount = delegate.bigCount();
     }
 
     @Override
-    public Streamable<int[], ?> getDelegate() {
+    public IndexedStreamable<int[], ?> getDelegate() {
         return delegate;
     }
+
+    /**
+     * Generates the random derangements by rejecting the random permutations that have fixed points.
+     * The expected number of generated permutations is about {@code e} for each derangement.
+     */
+    @Override
+    public Stream<int[]> randomElements(long size, long seed) {
+        if(length == 1) throw new IllegalStateException("There are no derangements of length 1");
+        return randomElements(totalCount, rnd -> RandomElements.derangement(length, rnd), size, seed);
+    }
 }
@@ -17,6 +17,8 @@ package org.beryx.streamplify.derangement;
 
 import org.beryx.streamplify.LongIndexedSpliterator;
 
+import java.math.BigInteger;
+
 /**
  * Provides streams of derangements.
  * <br>Can be used for derangements with a maximum length of {@value #MAX_LENGTH}.
@@ -26,15 +28,23 @@ import org.beryx.streamplify.LongIndexedSpliterator;
 public class LongDerangements extends LongIndexedSpliterator<int[], LongDerangements> {
     public static final int MAX_LENGTH = 21;
 
+    private final DerangementSupplier.Long supplier;
+
     /**
      * Constructs derangements of {@code length} elements
      */
     public LongDerangements(int length) {
         super(0, subfactorial(length));
-        this.withValueSupplier(new DerangementSupplier.Long(length));
+        this.supplier = new DerangementSupplier.Long(length);
+        this.withValueSupplier(supplier);
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
+    @Override
+    public BigInteger rankOf(int[] element) {
+        return BigInteger.valueOf(supplier.split().rankOf(element));
+    }
+
     /**
      * @throws IllegalArgumentException if {@code n} is negative or the result does not fit in a long (that is, {@code n} > {@value #MAX_LENGTH})
      */
@@ -26,15 +26,23 @@ import java.math.BigInteger;
 public class BigIntegerPartialPermutations extends BigIntegerIndexedSpliterator<int[], BigIntegerPartialPermutations> {
     public static final int MAX_LENGTH = 10_000;
 
+    private final int length;
+
     /**
      * Constructs partial permutations of {@code length} elements
      */
     public BigIntegerPartialPermutations(int length) {
         super(BigInteger.ZERO, numberOfPermutations(length));
+        this.length = length;
         this.withValueSupplier(new PartialPermutationSupplier.BigInt(length));
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
+    @Override
+    public BigInteger rankOf(int[] element) {
+        return PartialPermutationSupplier.rankOf(length, element);
+    }
+
     /**
      * @throws IllegalArgumentException if {@code n} is negative or too big (> {@value #MAX_LENGTH})
      */
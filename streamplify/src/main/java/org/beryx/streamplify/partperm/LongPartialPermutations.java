@@ -17,6 +17,8 @@ package org.beryx.streamplify.partperm;
 
 import org.beryx.streamplify.LongIndexedSpliterator;
 
+import java.math.BigInteger;
+
 /**
  * Provides streams of partial permutations.
  * <br>Can be used for partial permutations with a maximum length of {@value #MAX_LENGTH}.
@@ -25,15 +27,23 @@ import org.beryx.streamplify.LongIndexedSpliterator;
 public class LongPartialPermutations extends LongIndexedSpliterator<int[], LongPartialPermutations> {
     public static final int MAX_LENGTH = 18;
 
+    private final int length;
+
     /**
      * Constructs partial permutations of {@code length} elements
      */
     public LongPartialPermutations(int length) {
         super(0, numberOfPermutations(length));
+        this.length = length;
         this.withValueSupplier(new PartialPermutationSupplier.Long(length));
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
+    @Override
+    public BigInteger rankOf(int[] element) {
+        return PartialPermutationSupplier.rankOf(length, element);
+    }
+
     /**
      * @throws IllegalArgumentException if {@code n} is negative or the result does not fit in a long (that is, {@code n} > {@value #MAX_LENGTH})
      */
@@ -17,11 +17,16 @@ package org.beryx.streamplify.partperm;
 
 import org.beryx.streamplify.IntArraySupplier;
 import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.combination.BigIntegerCombinations;
 import org.beryx.streamplify.combination.CombinationSupplier;
+import org.beryx.streamplify.shared.HybridIndex;
+import org.beryx.streamplify.shared.OrderStatisticSet;
 import org.beryx.streamplify.shared.Unranking;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.stream.IntStream;
+import java.util.function.Consumer;
 
 /**
  * A value supplier for partial permutations.
@@ -43,6 +48,11 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
         return currentPartialPermutation;
     }
 
+    @Override
+    public int getSequenceLength() {
+        return length;
+    }
+
     public void computeNext() {
         if (!nextPermutation(currentPartialPermutation)) {
             int[] currentCombination = extractCurrentCombination(currentPartialPermutation);
@@ -135,6 +145,67 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
         return true;
     }
 
+    /**
+     * Computes the rank of a partial permutation of {@code length} elements.
+     * <br>The partial permutations are ordered by their number of values, then by the combination of their values
+     * and then lexicographically, with {@link #HOLE} preceding all values.
+     * @throws IllegalArgumentException if the given sequence is not a partial permutation of {@code length} elements
+     */
+    public static BigInteger rankOf(int length, int[] partialPermutation) {
+        if(partialPermutation.length != length) {
+            throw new IllegalArgumentException("Not a partial permutation of length " + length + ": " + Arrays.toString(partialPermutation));
+        }
+        OrderStatisticSet remainingValues = new OrderStatisticSet(length);
+        remainingValues.fill();
+        boolean[] used = new boolean[length];
+        for(int value : partialPermutation) {
+            if(value == HOLE) continue;
+            if(value < 0 || value >= length || used[value]) {
+                throw new IllegalArgumentException("Not a partial permutation: " + Arrays.toString(partialPermutation));
+            }
+            used[value] = true;
+        }
+        int[] values = IntStream.range(0, length).filter(value -> used[value]).toArray();
+        for(int value = 0; value < length; value++) {
+            if(!used[value]) remainingValues.remove(value);
+        }
+        int holes = length - values.length;
+
+        // the partial permutations with fewer values
+        BigInteger rank = BigInteger.ZERO;
+        BigInteger binomial = BigInteger.ONE;
+        BigInteger factorial = BigInteger.ONE;
+        for(int i = 0; i < values.length; i++) {
+            rank = rank.add(binomial.pow(2).multiply(factorial));
+            binomial = binomial.multiply(BigInteger.valueOf(length - i)).divide(BigInteger.valueOf(i + 1));
+            factorial = factorial.multiply(BigInteger.valueOf(i + 1));
+        }
+
+        // the arrangements of the holes and of the values of the preceding combinations
+        BigInteger arrangements = BigInteger.ONE;
+        for(int i = holes + 1; i <= length; i++) {
+            arrangements = arrangements.multiply(BigInteger.valueOf(i));
+        }
+        BigInteger combinationRank = new BigIntegerCombinations(length, values.length).rankOf(values);
+        rank = rank.add(combinationRank.multiply(arrangements));
+
+        // the arrangements of the same holes and values that precede the given one lexicographically
+        for(int pos = 0, remaining = length; remaining > holes; pos++, remaining--) {
+            BigInteger suffixes = arrangements.divide(BigInteger.valueOf(remaining));
+            int value = partialPermutation[pos];
+            if(value == HOLE) {
+                arrangements = suffixes.multiply(BigInteger.valueOf(holes));
+                holes--;
+            } else {
+                // each hole precedes (remaining - 1)! / (holes - 1)! = suffixes * holes arrangements
+                rank = rank.add(suffixes.multiply(BigInteger.valueOf(remainingValues.rank(value) + holes)));
+                remainingValues.remove(value);
+                arrangements = suffixes;
+            }
+        }
+        return rank;
+    }
+
     public static class Long extends PartialPermutationSupplier implements Splittable.LongIndexed<int[]> {
         private final long[] divisors;
         private long currentIndex = -2;
@@ -160,6 +231,14 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
             return getNextSequence(useNext);
         }
 
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super int[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            forEachNext(to - from - 1, action);
+            currentIndex = to - 1;
+        }
+
         @Override
         public int[] unrank() {
             if (length == 0) return new int[0];
@@ -249,7 +328,7 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
 
     public static class BigInt extends PartialPermutationSupplier implements Splittable.BigIntegerIndexed<int[]> {
         private final BigInteger[] divisors;
-        private BigInteger currentIndex = BigInteger.valueOf(-2);
+        private final HybridIndex currentIndex = new HybridIndex(BigInteger.valueOf(-2));
 
         public BigInt(int length) {
             this(length, BigIntegerPartialPermutations.computeFactorials(length));
@@ -267,9 +346,24 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
 
         @Override
         public int[] apply(BigInteger index) {
-            boolean useNext = index.equals(currentIndex.add(BigInteger.ONE));
-            currentIndex = index;
-            return getNextSequence(useNext);
+            return getNextSequence(currentIndex.moveTo(index));
+        }
+
+        @Override
+        public int[] apply(BigInteger base, long offset) {
+            return getNextSequence(currentIndex.moveTo(base, offset));
+        }
+
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super int[]> action) {
+            if(from.compareTo(to) >= 0) return;
+            action.accept(apply(from));
+            BigInteger last = to.subtract(BigInteger.ONE);
+            while(currentIndex.get().compareTo(last) < 0) {
+                long count = last.subtract(currentIndex.get()).min(BigInteger.valueOf(java.lang.Long.MAX_VALUE)).longValue();
+                forEachNext(count, action);
+                currentIndex.add(count);
+            }
         }
 
         @Override
@@ -281,7 +375,7 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
             BigInteger nCk = BigInteger.ONE;
 
             int subsetSize = 1;
-            while (permutationCounter.compareTo(currentIndex) == -1) {
+            while (permutationCounter.compareTo(currentIndex.get()) == -1) {
                 prevPermutationCounter = permutationCounter;
                 nCk = computeNextNchooseK(nCk, length, subsetSize - 1);
                 permutationCounter = permutationCounter.add(divisors[subsetSize].multiply(nCk.pow(2)));
@@ -289,7 +383,7 @@ public abstract class PartialPermutationSupplier implements IntArraySupplier {
                 subsetSize++;
             }
             subsetSize--;
-            BigInteger partialPermutationIndex = currentIndex.subtract(prevPermutationCounter);
+            BigInteger partialPermutationIndex = currentIndex.get().subtract(prevPermutationCounter);
 
             return unrankPartialPermutation(partialPermutationIndex, nCk, subsetSize);
         }
@@ -15,29 +15,48 @@
  */
 package org.beryx.streamplify.partperm;
 
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
 import org.beryx.streamplify.Streamable;
-import org.beryx.streamplify.StreamableProxy;
+import org.beryx.streamplify.shared.RandomElements;
+
+import java.math.BigInteger;
+import java.util.stream.Stream;
 
 /**
  * A {@link Streamable} providing streams of permutations.
  * <br>This class is a proxy that delegates to either {@link LongPartialPermutations} or {@link BigIntegerPartialPermutations}, depending on the permutation length.
  */
-public class PartialPermutations extends StreamableProxy<int[], PartialPermutations> {
-    private final Streamable<int[], ?> delegate;
+public class PartialPermutations extends IndexedStreamableProxy<int[], PartialPermutations> {
+    private final int length;
+    private final IndexedStreamable<int[], ?> delegate;
+    private final BigInteger totalCount;
 
     /**
      * @param length the partial permutation length
      */
     public PartialPermutations(int length) {
+        this.length = length;
         if (length <= LongPartialPermutations.MAX_LENGTH) {
             delegate = new LongPartialPermutations(length);
         } else {
             delegate = new BigIntegerPartialPermutations(length);
         }
+        totalCount = delegate.bigCount();
     }
 
     @Override
-    public Streamable<int[], ?> getDelegate() {
+    public IndexedStreamable<int[], ?> getDelegate() {
         return delegate;
     }
+
+    /**
+     * Generates the random partial permutations by choosing the number of values according to its distribution,
+     * choosing the values using {@link RandomElements#combination(int, int, java.util.SplittableRandom)} and shuffling them together with the holes.
+     */
+    @Override
+    public Stream<int[]> randomElements(long size, long seed) {
+        double[] sizeDistribution = RandomElements.partialPermutationSizeDistribution(length);
+        return randomElements(totalCount, rnd -> RandomElements.partialPermutation(length, sizeDistribution, rnd), size, seed);
+    }
 }
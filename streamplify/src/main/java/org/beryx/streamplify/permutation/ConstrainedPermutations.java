@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.permutation;
+
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
+import org.beryx.streamplify.Streamable;
+
+import java.util.Spliterator;
+
+/**
+ * A {@link Streamable} providing streams of permutations in which some positions hold fixed values.
+ * <br>Instead of filtering all permutations of {@code length} elements, this class enumerates the permutations of the free values
+ * and inserts them into the free positions. Therefore, the number of generated permutations is equal to the number of results.
+ * <br>The permutations are provided in lexicographic order.
+ */
+public class ConstrainedPermutations extends IndexedStreamableProxy<int[], ConstrainedPermutations> {
+    /** Marks a position that is not pinned to a value. */
+    public static final int FREE = -1;
+
+    private final IndexedStreamable<int[], ?> delegate;
+
+    /**
+     * Permutations of the values 0 to {@code pinned.length - 1}, in which each position {@code i} with {@code pinned[i] != FREE} holds the value {@code pinned[i]}.
+     * @throws IllegalArgumentException if the pinned values are invalid or not distinct.
+     */
+    public ConstrainedPermutations(int... pinned) {
+        int length = pinned.length;
+        boolean[] used = new boolean[length];
+        int freeCount = 0;
+        for(int val : pinned) {
+            if(val == FREE) {
+                freeCount++;
+                continue;
+            }
+            if(val < 0 || val >= length) throw new IllegalArgumentException("Invalid pinned value: " + val);
+            if(used[val]) throw new IllegalArgumentException("Value pinned more than once: " + val);
+            used[val] = true;
+        }
+        int[] freePositions = new int[freeCount];
+        int[] freeValues = new int[freeCount];
+        for(int i = 0, posCount = 0, valCount = 0; i < length; i++) {
+            if(pinned[i] == FREE) freePositions[posCount++] = i;
+            if(!used[i]) freeValues[valCount++] = i;
+        }
+        int[] template = pinned.clone();
+        delegate = new Permutations(freeCount)
+                .map(perm -> {
+                    int[] result = template.clone();
+                    for(int i = 0; i < perm.length; i++) {
+                        result[freePositions[i]] = freeValues[perm[i]];
+                    }
+                    return result;
+                })
+                .withAdditionalCharacteristics(Spliterator.DISTINCT);
+    }
+
+    @Override
+    protected IndexedStreamable<int[], ?> getDelegate() {
+        return delegate;
+    }
+}
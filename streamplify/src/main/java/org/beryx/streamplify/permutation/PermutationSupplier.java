@@ -16,9 +16,17 @@
 package org.beryx.streamplify.permutation;
 
 import org.beryx.streamplify.IntArraySupplier;
+import org.beryx.streamplify.Packable;
+import org.beryx.streamplify.PackedFormat;
+import org.beryx.streamplify.PackedSupplier;
+import org.beryx.streamplify.PrefixRange;
 import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.HybridIndex;
+import org.beryx.streamplify.shared.Limbs;
+import org.beryx.streamplify.shared.OrderStatisticSet;
 
 import java.math.BigInteger;
+import java.util.function.Consumer;
 
 /**
  * A value supplier for permutations.
@@ -38,6 +46,11 @@ public abstract class PermutationSupplier implements IntArraySupplier {
         return currentPermutation;
     }
 
+    @Override
+    public int getSequenceLength() {
+        return length;
+    }
+
     public void computeNext() {
         int pos = length - 1;
         while(pos > 0 && currentPermutation[pos] <= currentPermutation[pos - 1]) pos--;
@@ -55,7 +68,53 @@ public abstract class PermutationSupplier implements IntArraySupplier {
         }
     }
 
-    public static class Long extends PermutationSupplier implements Splittable.LongIndexed<int[]> {
+    /**
+     * @return for each value in the prefix, the number of smaller values not occurring before it in the prefix,
+     * or null if the prefix contains invalid or repeated values.
+     */
+    protected int[] countSmallerUnused(int[] prefix) {
+        if(prefix.length > length) throw new IllegalArgumentException("Prefix too long: " + prefix.length);
+        boolean[] used = new boolean[length];
+        int[] counts = new int[prefix.length];
+        for(int i = 0; i < prefix.length; i++) {
+            int val = prefix[i];
+            if(val < 0 || val >= length || used[val]) return null;
+            used[val] = true;
+            for(int v = 0; v < val; v++) {
+                if(!used[v]) counts[i]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Sorts the values following the first {@code prefixLength} positions of the current permutation in descending order,
+     * making it the last permutation starting with its first {@code prefixLength} values.
+     */
+    protected void moveToLastWithPrefix(int prefixLength) {
+        for(int i = prefixLength + 1; i < length; i++) {
+            int val = currentPermutation[i];
+            int j = i;
+            while(j > prefixLength && currentPermutation[j - 1] < val) {
+                currentPermutation[j] = currentPermutation[j - 1];
+                j--;
+            }
+            currentPermutation[j] = val;
+        }
+    }
+
+    /**
+     * @return the number of values smaller than the one at position {@code pos} that follow it in the current permutation.
+     */
+    protected int countSmallerFollowing(int pos) {
+        int count = 0;
+        for(int i = pos + 1; i < length; i++) {
+            if(currentPermutation[i] < currentPermutation[pos]) count++;
+        }
+        return count;
+    }
+
+    public static class Long extends PermutationSupplier implements Splittable.LongIndexed<int[]>, PrefixRange.LongIndexed, Packable {
         private final long[] divisors;
 
         private long currentIndex = -2;
@@ -81,6 +140,14 @@ public abstract class PermutationSupplier implements IntArraySupplier {
             return getNextSequence(useNext);
         }
 
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super int[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            forEachNext(to - from - 1, action);
+            currentIndex = to - 1;
+        }
+
         @Override
         public int[] unrank() {
             int[] perm = new int[length];
@@ -100,6 +167,46 @@ public abstract class PermutationSupplier implements IntArraySupplier {
             return perm;
         }
 
+        @Override
+        public PackedFormat getPackedFormat() {
+            return PackedFormat.of(length, length - 1);
+        }
+
+        @Override
+        public PackedSupplier packed() {
+            return new Packed(getPackedFormat(), split());
+        }
+
+        @Override
+        public long[] getPrefixRange(int[] prefix) {
+            int[] counts = countSmallerUnused(prefix);
+            if(counts == null) return new long[] {0, 0};
+            long from = 0;
+            for(int i = 0; i < counts.length; i++) {
+                from += counts[i] * remainingFactorial(i);
+            }
+            int depth = prefix.length;
+            long size = (depth > 0) ? remainingFactorial(depth - 1) : (length * remainingFactorial(0));
+            return new long[] {from, from + size};
+        }
+
+        @Override
+        public long skipPrefix(int prefixLength) {
+            long offset = 0;
+            for(int i = prefixLength; i < length - 1; i++) {
+                offset += countSmallerFollowing(i) * remainingFactorial(i);
+            }
+            long end = currentIndex - offset + remainingFactorial(prefixLength - 1);
+            moveToLastWithPrefix(prefixLength);
+            currentIndex = end - 1;
+            return end;
+        }
+
+        /** @return the factorial of {@code length - 1 - step} */
+        private long remainingFactorial(int step) {
+            return (step < length - 1) ? divisors[step] : 1;
+        }
+
         private static long[] computeDivisors(int len) {
             if(len < 1) return null;
             long[] divs = new long[len - 1];
@@ -112,9 +219,64 @@ public abstract class PermutationSupplier implements IntArraySupplier {
         }
     }
 
-    public static class BigInt extends PermutationSupplier implements Splittable.BigIntegerIndexed<int[]> {
+    /**
+     * A value supplier for packed permutations.
+     * <br>It computes the next permutation directly on the packed form of the current one.
+     */
+    public static class Packed extends PackedSupplier {
+        public Packed(PackedFormat format, Splittable.LongIndexed<int[]> unranker) {
+            super(format, unranker);
+        }
+
+        @Override
+        public Packed split() {
+            return new Packed(format, valueSupplier.split());
+        }
+
+        @Override
+        protected boolean isComputeNextSupported() {
+            return true;
+        }
+
+        @Override
+        protected long computeNext(long perm) {
+            int bits = format.getBitsPerEntry();
+            int usedBits = format.getLength() * bits;
+            long mask = (1L << bits) - 1;
+            int next = (int)(perm & mask);
+            int pivotShift = bits;
+            while(pivotShift < usedBits && ((perm >>> pivotShift) & mask) > next) {
+                next = (int)((perm >>> pivotShift) & mask);
+                pivotShift += bits;
+            }
+            if(pivotShift >= usedBits) return perm;
+            long pivotVal = (perm >>> pivotShift) & mask;
+            int swapShift = 0;
+            while(((perm >>> swapShift) & mask) < pivotVal) swapShift += bits;
+            long swapVal = (perm >>> swapShift) & mask;
+            perm = (perm & ~(mask << pivotShift)) | (swapVal << pivotShift);
+            perm = (perm & ~(mask << swapShift)) | (pivotVal << swapShift);
+            long suffix = perm;
+            long reversed = 0;
+            for(int shift = 0; shift < pivotShift; shift += bits) {
+                reversed = (reversed << bits) | (suffix & mask);
+                suffix >>>= bits;
+            }
+            return ((perm >>> pivotShift) << pivotShift) | reversed;
+        }
+    }
+
+    public static class BigInt extends PermutationSupplier implements Splittable.BigIntegerIndexed<int[]>, PrefixRange.BigIntegerIndexed {
+        private static final BigInteger UNKNOWN_INDEX = BigInteger.valueOf(-2);
+        /** The minimum length for which the factoradic digits are computed by {@link #computeDigits(BigInteger)} */
+        private static final int SPLIT_DIGITS_LENGTH = 400;
+
         private final BigInteger[] divisors;
-        private BigInteger currentIndex = BigInteger.valueOf(-2);
+        private final HybridIndex currentIndex = new HybridIndex(UNKNOWN_INDEX);
+        /** Buffer for the factoradic digits of the unranked index */
+        private int[] digits;
+        /** The values not yet placed by {@link #placeDigits()} */
+        private OrderStatisticSet remainingValues;
 
         public BigInt(int length) {
             this(length, computeDivisors(length));
@@ -132,29 +294,163 @@ public abstract class PermutationSupplier implements IntArraySupplier {
 
         @Override
         public int[] apply(BigInteger index) {
-            boolean useNext = index.equals(currentIndex.add(BigInteger.ONE));
-            currentIndex = index;
-            return getNextSequence(useNext);
+            return getNextSequence(currentIndex.moveTo(index));
         }
 
         @Override
-        public int[] unrank() {
-            int[] perm = new int[length];
-            for(int i = 0; i < length; i++)
-                perm[i] = i;
+        public int[] apply(BigInteger base, long offset) {
+            return getNextSequence(currentIndex.moveTo(base, offset));
+        }
 
-            BigInteger dividend = currentIndex;
-            for(int step = 0; step < length - 1; step++) {
-                BigInteger[] quotientAndRemainder = dividend.divideAndRemainder(divisors[step]);
-                int idx = quotientAndRemainder[0].intValueExact();
-                if(idx > 0) {
-                    int val = perm[step + idx];
-                    System.arraycopy(perm, step, perm, step + 1, idx);
-                    perm[step] = val;
+        @Override
+        public int[] apply(Limbs index) {
+            currentIndex.set(UNKNOWN_INDEX);
+            if(length < SPLIT_DIGITS_LENGTH) {
+                computeDigits(index);
+            } else {
+                computeDigits(index.toBigInteger());
+            }
+            return placeDigits();
+        }
+
+        /**
+         * Computes the factoradic digits of the given index by successively dividing it by 2, 3, ..., {@code length}, which requires only primitive arithmetic.
+         * The remainders are the factoradic digits of the index, starting with the least significant one.
+         * Several consecutive radices are combined into a single int divisor, in order to reduce the number of passes over the limbs.
+         */
+        private void computeDigits(Limbs index) {
+            ensureBuffers();
+            int step = length - 2;
+            while(step >= 0) {
+                int first = step;
+                int divisor = 1;
+                while(step >= 0 && (long)divisor * (length - step) <= Integer.MAX_VALUE) {
+                    divisor *= length - step;
+                    step--;
+                }
+                int rem = index.divideBy(divisor);
+                for(int i = first; i > step; i--) {
+                    digits[i] = rem % (length - i);
+                    rem /= length - i;
                 }
-                dividend = quotientAndRemainder[1];
             }
-            return perm;
+        }
+
+        /**
+         * Computes the factoradic digits of the given index by recursively splitting it into a low and a high part.
+         * Each step divides the index by the product of the radices of its lower half of digits,
+         * which takes advantage of the subquadratic division of large BigIntegers.
+         */
+        private void computeDigits(BigInteger index) {
+            ensureBuffers();
+            computeDigits(index, 2, length + 1);
+        }
+
+        /**
+         * Computes the digits with the radices in the range [fromRadix, toRadix). The digit with radix {@code r} is stored at position {@code length - r}.
+         */
+        private void computeDigits(BigInteger value, int fromRadix, int toRadix) {
+            if(value.bitLength() < 63) {
+                long val = value.longValue();
+                for(int radix = fromRadix; radix < toRadix; radix++) {
+                    digits[length - radix] = (int)(val % radix);
+                    val /= radix;
+                }
+                return;
+            }
+            int mid = (fromRadix + toRadix) >>> 1;
+            BigInteger[] quotientAndRemainder = value.divideAndRemainder(product(fromRadix, mid));
+            computeDigits(quotientAndRemainder[1], fromRadix, mid);
+            computeDigits(quotientAndRemainder[0], mid, toRadix);
+        }
+
+        /** @return the product of the integers in the range [from, to) */
+        private static BigInteger product(int from, int to) {
+            if(to - from <= 16) {
+                BigInteger prod = BigInteger.ONE;
+                long partial = 1;
+                for(int i = from; i < to; i++) {
+                    if(partial > java.lang.Long.MAX_VALUE / i) {
+                        prod = prod.multiply(BigInteger.valueOf(partial));
+                        partial = 1;
+                    }
+                    partial *= i;
+                }
+                return prod.multiply(BigInteger.valueOf(partial));
+            }
+            int mid = (from + to) >>> 1;
+            return product(from, mid).multiply(product(mid, to));
+        }
+
+        private void ensureBuffers() {
+            if(digits == null) {
+                digits = new int[length];
+                remainingValues = new OrderStatisticSet(length);
+            }
+        }
+
+        /**
+         * Builds the permutation with the previously computed factoradic digits.
+         * Each digit is the rank of the next value among the values not yet placed, which is selected in O(log n) time.
+         */
+        private int[] placeDigits() {
+            remainingValues.fill();
+            for(int i = 0; i < length; i++) {
+                currentPermutation[i] = remainingValues.removeAt(digits[i]);
+            }
+            return currentPermutation.clone();
+        }
+
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super int[]> action) {
+            if(from.compareTo(to) >= 0) return;
+            action.accept(apply(from));
+            BigInteger last = to.subtract(BigInteger.ONE);
+            while(currentIndex.get().compareTo(last) < 0) {
+                long count = last.subtract(currentIndex.get()).min(BigInteger.valueOf(java.lang.Long.MAX_VALUE)).longValue();
+                forEachNext(count, action);
+                currentIndex.add(count);
+            }
+        }
+
+        @Override
+        public int[] unrank() {
+            if(length < SPLIT_DIGITS_LENGTH) {
+                computeDigits(Limbs.of(currentIndex.get()));
+            } else {
+                computeDigits(currentIndex.get());
+            }
+            return placeDigits();
+        }
+
+        @Override
+        public BigInteger[] getPrefixRange(int[] prefix) {
+            int[] counts = countSmallerUnused(prefix);
+            if(counts == null) return new BigInteger[] {BigInteger.ZERO, BigInteger.ZERO};
+            BigInteger from = BigInteger.ZERO;
+            for(int i = 0; i < counts.length; i++) {
+                from = from.add(remainingFactorial(i).multiply(BigInteger.valueOf(counts[i])));
+            }
+            int depth = prefix.length;
+            BigInteger size = (depth > 0) ? remainingFactorial(depth - 1) : remainingFactorial(0).multiply(BigInteger.valueOf(length));
+            return new BigInteger[] {from, from.add(size)};
+        }
+
+        @Override
+        public BigInteger skipPrefix(int prefixLength) {
+            BigInteger offset = BigInteger.ZERO;
+            for(int i = prefixLength; i < length - 1; i++) {
+                offset = offset.add(remainingFactorial(i).multiply(BigInteger.valueOf(countSmallerFollowing(i))));
+            }
+            BigInteger end = currentIndex.get().subtract(offset).add(remainingFactorial(prefixLength - 1));
+            moveToLastWithPrefix(prefixLength);
+            currentIndex.set(end.subtract(BigInteger.ONE));
+            return end;
+        }
+
+        /** @return the factorial of {@code length - 1 - step} */
+        private BigInteger remainingFactorial(int step) {
+            return (step < length - 1) ? divisors[step] : BigInteger.ONE;
         }
 
         private static BigInteger[] computeDivisors(int len) {
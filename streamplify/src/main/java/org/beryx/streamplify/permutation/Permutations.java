@@ -15,30 +15,47 @@
  */
 package org.beryx.streamplify.permutation;
 
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
 import org.beryx.streamplify.Streamable;
-import org.beryx.streamplify.StreamableProxy;
+import org.beryx.streamplify.shared.RandomElements;
+
+import java.math.BigInteger;
+import java.util.stream.Stream;
 
 /**
  * A {@link Streamable} providing streams of permutations.
  * <br>This class is a proxy that delegates to either {@link LongPermutations} or {@link BigIntegerPermutations}, depending on the permutation length.
  */
-public class Permutations extends StreamableProxy<int[], Permutations> {
+public class Permutations extends IndexedStreamableProxy<int[], Permutations> {
 
-    private final Streamable<int[], ?> delegate;
+    private final int length;
+    private final IndexedStreamable<int[], ?> delegate;
+    private final BigInteger totalCount;
 
     /**
      * @param length the permutation length
      */
     public Permutations(int length) {
+        this.length = length;
         if(length <= LongPermutations.MAX_LENGTH) {
             delegate = new LongPermutations(length);
         } else {
             delegate = new BigIntegerPermutations(length);
         }
+        totalCount = delegate.bigCount();
     }
 
     @Override
-    public Streamable<int[], ?> getDelegate() {
+    public IndexedStreamable<int[], ?> getDelegate() {
         return delegate;
     }
+
+    /**
+     * Generates the random permutations using the Fisher-Yates algorithm, in O(length) time.
+     */
+    @Override
+    public Stream<int[]> randomElements(long size, long seed) {
+        return randomElements(totalCount, rnd -> RandomElements.permutation(length, rnd), size, seed);
+    }
 }
@@ -28,15 +28,23 @@ public class BigIntegerPowerSet extends BigIntegerIndexedSpliterator<int[], BigI
 
     private static final int MAX_LENGTH = 512;
 
+    private final int length;
+
     /**
      * Constructs power set for {@code length} number of elements.
      */
     public BigIntegerPowerSet(int length) {
         super(BigInteger.ZERO, powerOfTwo(length));
+        this.length = length;
         this.withValueSupplier(new PowerSetSupplier.BigInt(length));
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
+    @Override
+    public BigInteger rankOf(int[] element) {
+        return PowerSetSupplier.rankOf(length, element);
+    }
+
     /**
      * Calculates 2 ^ length.
      * 
@@ -17,6 +17,8 @@ package org.beryx.streamplify.powerset;
 
 import org.beryx.streamplify.LongIndexedSpliterator;
 
+import java.math.BigInteger;
+
 /**
  * Provides stream of power set.
  * <br>Can be used for permutations with a maximum length of {@value #MAX_LENGTH}.
@@ -27,15 +29,23 @@ public class LongPowerSet extends LongIndexedSpliterator<int[], LongPowerSet> {
 
     public static final int MAX_LENGTH = 63;
 
+    private final int length;
+
     /**
      * Constructs power set for {@code length} number of elements.
      */
     public LongPowerSet(int length) {
         super(0, powerOfTwo(length));
+        this.length = length;
         this.withValueSupplier(new PowerSetSupplier.Long(length));
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
+    @Override
+    public BigInteger rankOf(int[] element) {
+        return PowerSetSupplier.rankOf(length, element);
+    }
+
     /**
      * Calculates 2 ^ length.
      * 
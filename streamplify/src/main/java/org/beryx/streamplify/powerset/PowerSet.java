@@ -15,27 +15,73 @@
  */
 package org.beryx.streamplify.powerset;
 
+import org.beryx.streamplify.BigIntegerIndexedSpliterator;
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
+import org.beryx.streamplify.LongIndexedSpliterator;
 import org.beryx.streamplify.Streamable;
-import org.beryx.streamplify.StreamableProxy;
+import org.beryx.streamplify.shared.RandomElements;
+
+import java.math.BigInteger;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * A {@link Streamable} providing streams of power set.
  * <br>This class is a proxy that delegates to either {@link LongPowerSet} or {@link BigIntegerPowerSet}, depending on the length.
  */
-public class PowerSet extends StreamableProxy<int[], PowerSet> {
+public class PowerSet extends IndexedStreamableProxy<int[], PowerSet> {
 
-    private final Streamable<int[], ?> delegate;
+    private final int length;
+    private final IndexedStreamable<int[], ?> delegate;
+    private final BigInteger totalCount;
 
     public PowerSet(int length) {
+        this.length = length;
         if (length < LongPowerSet.MAX_LENGTH) {
             delegate = new LongPowerSet(length);
         } else {
             delegate = new BigIntegerPowerSet(length);
         }
+        totalCount = delegate.bigCount();
     }
 
     @Override
-    protected Streamable<int[], ?> getDelegate() {
+    protected IndexedStreamable<int[], ?> getDelegate() {
         return delegate;
     }
+
+    /**
+     * Generates the random subsets by including each value with probability 1/2.
+     */
+    @Override
+    public Stream<int[]> randomElements(long size, long seed) {
+        return randomElements(totalCount, rnd -> RandomElements.subset(length, rnd), size, seed);
+    }
+
+    /**
+     * Provides the subsets as bit masks: the mask of the subset with index {@code i} is {@code i} itself,
+     * so this stream is a plain counter and it is as splittable as {@link LongStream#range(long, long)}.
+     * <br>The skip and shuffle settings of this instance are not taken into account.
+     * @throws UnsupportedOperationException if the masks do not fit in a long. Use {@link #wordMasks()} in this case.
+     */
+    public LongStream masks() {
+        if(length >= LongPowerSet.MAX_LENGTH) throw new UnsupportedOperationException("The masks of a power set of length " + length + " do not fit in a long");
+        return LongStream.range(0, 1L << length);
+    }
+
+    /**
+     * Provides the subsets as bit masks stored in arrays of long words, in the same order as {@link #masks()}.
+     * <br>Bit {@code i} is stored in {@code words[i / 64]}, as in {@link java.util.BitSet#valueOf(long[])}.
+     * The skip and shuffle settings of this instance are not taken into account.
+     */
+    public Streamable<long[], ?> wordMasks() {
+        if(length < LongPowerSet.MAX_LENGTH) {
+            return LongIndexedSpliterator.create(0, 1L << length, new PowerSetMaskSupplier.Long(length))
+                    .withAdditionalCharacteristics(Spliterator.DISTINCT);
+        }
+        return BigIntegerIndexedSpliterator.create(BigInteger.ZERO, BigInteger.ONE.shiftLeft(length), new PowerSetMaskSupplier.BigInt(length))
+                .withAdditionalCharacteristics(Spliterator.DISTINCT);
+    }
 }
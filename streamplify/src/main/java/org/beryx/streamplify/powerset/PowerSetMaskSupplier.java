@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.powerset;
+
+import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.BitMasks;
+import org.beryx.streamplify.shared.HybridIndex;
+
+import java.math.BigInteger;
+
+/**
+ * Value suppliers for the bit masks of the subsets provided by a power set, as arrays of long words.
+ * <br>The mask of the subset with a given index is the binary representation of the index.
+ */
+public abstract class PowerSetMaskSupplier {
+    protected final int length;
+
+    PowerSetMaskSupplier(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Provides the masks of a power set with long indexes.
+     */
+    public static class Long extends PowerSetMaskSupplier implements Splittable.LongIndexed<long[]> {
+        public Long(int length) {
+            super(length);
+        }
+
+        @Override
+        public Long split() {
+            return new Long(length);
+        }
+
+        @Override
+        public long[] apply(long index) {
+            long[] words = new long[BitMasks.wordCount(length)];
+            if(words.length > 0) words[0] = index;
+            return words;
+        }
+    }
+
+    /**
+     * Provides the masks of a power set with BigInteger indexes.
+     * Consecutive masks are obtained by incrementing the current mask.
+     */
+    public static class BigInt extends PowerSetMaskSupplier implements Splittable.BigIntegerIndexed<long[]> {
+        private final HybridIndex currentIndex = new HybridIndex(BigInteger.valueOf(-2));
+        private long[] currentWords;
+
+        public BigInt(int length) {
+            super(length);
+        }
+
+        @Override
+        public BigInt split() {
+            return new BigInt(length);
+        }
+
+        @Override
+        public long[] apply(BigInteger index) {
+            return apply(index, 0);
+        }
+
+        @Override
+        public long[] apply(BigInteger base, long offset) {
+            if(currentIndex.moveTo(base, offset)) {
+                BitMasks.increment(currentWords);
+            } else {
+                currentWords = BitMasks.toWords(currentIndex.get(), BitMasks.wordCount(length));
+            }
+            return currentWords.clone();
+        }
+    }
+}
@@ -19,9 +19,11 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.beryx.streamplify.IntArraySupplier;
 import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.HybridIndex;
 
 /**
  * A value supplier for power sets.
@@ -57,13 +59,18 @@ public abstract class PowerSetSupplier implements IntArraySupplier {
         while (++index < length) {
             binaryCounter[index] = 0;
         }
-        List<Integer> powerSetList = new ArrayList<>();
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            size += binaryCounter[i];
+        }
+        int[] powerSet = new int[size];
+        int pos = 0;
         for (int i = length - 1; i >= 0; i--) {
             if (binaryCounter[i] == 1) {
-                powerSetList.add(length - i - 1);
+                powerSet[pos++] = length - i - 1;
             }
         }
-        currentPowerSet = powerSetList.stream().mapToInt(element -> element.intValue()).toArray();
+        currentPowerSet = powerSet;
     }
 
     @Override
@@ -82,8 +89,24 @@ public abstract class PowerSetSupplier implements IntArraySupplier {
     private void updateBinaryCounter() {
         Arrays.fill(binaryCounter, 0);
         for (int element : currentPowerSet) {
-            binaryCounter[element] = 1;
+            binaryCounter[length - element - 1] = 1;
+        }
+    }
+
+    /**
+     * @return the rank of the given subset, which is the mask of its values
+     * @throws IllegalArgumentException if the values of the subset are not strictly increasing values less than {@code length}
+     */
+    public static BigInteger rankOf(int length, int[] subset) {
+        BigInteger rank = BigInteger.ZERO;
+        for(int i = 0; i < subset.length; i++) {
+            int val = subset[i];
+            if(val < 0 || val >= length || (i > 0 && val <= subset[i - 1])) {
+                throw new IllegalArgumentException("Not an element of this power set: " + Arrays.toString(subset));
+            }
+            rank = rank.setBit(val);
         }
+        return rank;
     }
 
     public static class Long extends PowerSetSupplier implements Splittable.LongIndexed<int[]> {
@@ -106,6 +129,14 @@ public abstract class PowerSetSupplier implements IntArraySupplier {
             return new Long(length);
         }
 
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super int[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            forEachNext(to - from - 1, action);
+            currentIndex = to - 1;
+        }
+
         @Override
         public int[] unrank() {
             List<Integer> powerSetList = new ArrayList<>();
@@ -126,7 +157,7 @@ public abstract class PowerSetSupplier implements IntArraySupplier {
 
     public static class BigInt extends PowerSetSupplier implements Splittable.BigIntegerIndexed<int[]> {
 
-        private BigInteger currentIndex = BigInteger.valueOf(-2);
+        private final HybridIndex currentIndex = new HybridIndex(BigInteger.valueOf(-2));
 
         public BigInt(int length) {
             super(length);
@@ -134,9 +165,12 @@ public abstract class PowerSetSupplier implements IntArraySupplier {
 
         @Override
         public int[] apply(BigInteger index) {
-            boolean useNext = index.equals(currentIndex.add(BigInteger.ONE));
-            currentIndex = index;
-            return getNextSequence(useNext);
+            return getNextSequence(currentIndex.moveTo(index));
+        }
+
+        @Override
+        public int[] apply(BigInteger base, long offset) {
+            return getNextSequence(currentIndex.moveTo(base, offset));
         }
 
         @Override
@@ -144,10 +178,22 @@ public abstract class PowerSetSupplier implements IntArraySupplier {
             return new BigInt(length);
         }
 
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super int[]> action) {
+            if(from.compareTo(to) >= 0) return;
+            action.accept(apply(from));
+            BigInteger last = to.subtract(BigInteger.ONE);
+            while(currentIndex.get().compareTo(last) < 0) {
+                long count = last.subtract(currentIndex.get()).min(BigInteger.valueOf(java.lang.Long.MAX_VALUE)).longValue();
+                forEachNext(count, action);
+                currentIndex.add(count);
+            }
+        }
+
         @Override
         public int[] unrank() {
             List<Integer> powerSetList = new ArrayList<>();
-            BigInteger dividend = currentIndex;
+            BigInteger dividend = currentIndex.get();
             int setElement = 0;
             while(!dividend.equals(BigInteger.ZERO)) {
                 BigInteger reminder = dividend.remainder(BigInteger.valueOf(2));
@@ -34,9 +34,17 @@ public class BigIntegerCartesianProduct extends BigIntegerIndexedSpliterator<int
     }
 
     BigIntegerCartesianProduct(BigInteger count, int... dimensions) {
+        this(count, dimensions, null);
+    }
+
+    /**
+     * @param dimensions the number of allowed values in each dimension
+     * @param allowedValues the sorted allowed values for each dimension, or null for dimensions that are not restricted
+     */
+    BigIntegerCartesianProduct(BigInteger count, int[] dimensions, int[][] allowedValues) {
         super(BigInteger.ZERO, count);
         if(Arrays.stream(dimensions).anyMatch(dim -> dim < 0)) throw new IllegalArgumentException("Invalid dimensions: " + Arrays.toString(dimensions));
-        this.withValueSupplier(new CartesianProductSupplier.BigInt(dimensions, count));
+        this.withValueSupplier(new CartesianProductSupplier.BigInt(dimensions, allowedValues, count));
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
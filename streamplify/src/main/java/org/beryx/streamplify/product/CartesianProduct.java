@@ -15,32 +15,102 @@
  */
 package org.beryx.streamplify.product;
 
+import org.beryx.streamplify.IndexedStreamable;
+import org.beryx.streamplify.IndexedStreamableProxy;
 import org.beryx.streamplify.Streamable;
-import org.beryx.streamplify.StreamableProxy;
+import org.beryx.streamplify.shared.RandomElements;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A {@link Streamable} providing streams of cartesian product tuples.
  * <br>This class is a proxy that delegates to either {@link LongCartesianProduct} or {@link BigIntegerCartesianProduct}, depending on the cardinalities of the input sets.
  */
-public class CartesianProduct extends StreamableProxy<int[], CartesianProduct> {
-    private final Streamable<int[], ?> delegate;
+public class CartesianProduct extends IndexedStreamableProxy<int[], CartesianProduct> {
+    private final int[] dimensions;
+    private final int[][] allowedValues;
+    private final int[] radixes;
+    private final IndexedStreamable<int[], ?> delegate;
+    private final BigInteger totalCount;
 
     /**
      * @param dimensions the cardinalities of the input sets.
      */
     public CartesianProduct(int... dimensions) {
-        BigInteger count = BigIntegerCartesianProduct.count(dimensions);
+        this(dimensions, null);
+    }
+
+    private CartesianProduct(int[] dimensions, int[][] allowedValues) {
+        this.dimensions = dimensions;
+        this.allowedValues = allowedValues;
+        int[] radixes = dimensions;
+        if(allowedValues != null) {
+            radixes = new int[dimensions.length];
+            for(int i = 0; i < dimensions.length; i++) {
+                radixes[i] = (allowedValues[i] == null) ? dimensions[i] : allowedValues[i].length;
+            }
+        }
+        this.radixes = radixes;
+        BigInteger count = BigIntegerCartesianProduct.count(radixes);
+        this.totalCount = count;
         if(count.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) < 0) {
-            delegate = new LongCartesianProduct(count.longValueExact(), dimensions);
+            delegate = new LongCartesianProduct(count.longValueExact(), radixes, allowedValues);
         } else {
-            delegate = new BigIntegerCartesianProduct(count, dimensions);
+            delegate = new BigIntegerCartesianProduct(count, radixes, allowedValues);
+        }
+    }
+
+    /**
+     * Restricts the values allowed in the given dimension.
+     * <br>The returned instance enumerates only the tuples made of allowed values, in the same order as this instance.
+     * Since the restrictions are independent for each dimension, the allowed tuples form themselves a cartesian product,
+     * so counting, skipping, shuffling and splitting work directly on the allowed tuples.
+     * <br>The skip and shuffle configuration of this instance is not transferred to the returned instance.
+     * @param dim the index of the dimension
+     * @param values the allowed values. Values already excluded from this dimension by a previous restriction remain excluded.
+     * @return a new CartesianProduct
+     * @throws IllegalArgumentException if {@code dim} or one of the values is not valid
+     */
+    public CartesianProduct withAllowed(int dim, int... values) {
+        if(dim < 0 || dim >= dimensions.length) throw new IllegalArgumentException("Invalid dimension: " + dim);
+        for(int val : values) {
+            if(val < 0 || val >= dimensions[dim]) throw new IllegalArgumentException("Invalid value for dimension " + dim + ": " + val);
+        }
+        int[][] newAllowedValues = (allowedValues == null) ? new int[dimensions.length][] : allowedValues.clone();
+        IntStream allowed = Arrays.stream(values).sorted().distinct();
+        if(allowedValues != null && allowedValues[dim] != null) {
+            int[] previous = allowedValues[dim];
+            allowed = allowed.filter(val -> Arrays.binarySearch(previous, val) >= 0);
         }
+        newAllowedValues[dim] = allowed.toArray();
+        return new CartesianProduct(dimensions, newAllowedValues);
+    }
+
+    /**
+     * Restricts the values allowed in the given dimension to those matching the given predicate.
+     * @return a new CartesianProduct
+     * @see #withAllowed(int, int...)
+     */
+    public CartesianProduct withAllowed(int dim, IntPredicate predicate) {
+        if(dim < 0 || dim >= dimensions.length) throw new IllegalArgumentException("Invalid dimension: " + dim);
+        return withAllowed(dim, IntStream.range(0, dimensions[dim]).filter(predicate).toArray());
     }
 
     @Override
-    protected Streamable<int[], ?> getDelegate() {
+    protected IndexedStreamable<int[], ?> getDelegate() {
         return delegate;
     }
+
+    /**
+     * Generates the random tuples by choosing an allowed value independently in each dimension.
+     */
+    @Override
+    public Stream<int[]> randomElements(long size, long seed) {
+        if(Arrays.stream(radixes).anyMatch(radix -> radix == 0)) throw new IllegalStateException("The Cartesian product is empty");
+        return randomElements(totalCount, rnd -> RandomElements.tuple(radixes, allowedValues, rnd), size, seed);
+    }
 }
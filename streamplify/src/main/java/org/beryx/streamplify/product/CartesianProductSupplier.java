@@ -16,20 +16,33 @@
 package org.beryx.streamplify.product;
 
 import org.beryx.streamplify.IntArraySupplier;
+import org.beryx.streamplify.Packable;
+import org.beryx.streamplify.PackedFormat;
+import org.beryx.streamplify.PackedSupplier;
+import org.beryx.streamplify.PrefixRange;
 import org.beryx.streamplify.Splittable;
+import org.beryx.streamplify.shared.HybridIndex;
+import org.beryx.streamplify.shared.Limbs;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * A value supplier for cartesian product.
  * <br>It may compute the next tuple based on the current one, or by unranking an index.
+ * <br>If the values allowed in some dimensions are restricted, the supplier enumerates the tuples of positions in the arrays of allowed values
+ * (so {@code dimensions} holds the number of allowed values in each dimension) and remaps these positions to the allowed values
+ * when providing a tuple. In this case, {@link #getCurrentSequence()} returns the current tuple of positions.
  */
 public abstract class CartesianProductSupplier implements IntArraySupplier {
     protected final int[] dimensions;
+    protected final int[][] allowedValues;
     protected final int[] currentProduct;
 
-    CartesianProductSupplier(int[] dimensions) {
+    CartesianProductSupplier(int[] dimensions, int[][] allowedValues) {
         this.dimensions = dimensions;
+        this.allowedValues = allowedValues;
         this.currentProduct = new int[dimensions.length];
     }
 
@@ -38,6 +51,11 @@ public abstract class CartesianProductSupplier implements IntArraySupplier {
         return currentProduct;
     }
 
+    @Override
+    public int getSequenceLength() {
+        return dimensions.length;
+    }
+
     @Override
     public void computeNext() {
         int pos = dimensions.length - 1;
@@ -49,18 +67,72 @@ public abstract class CartesianProductSupplier implements IntArraySupplier {
         }
     }
 
-    public static class Long extends CartesianProductSupplier implements Splittable.LongIndexed<int[]> {
+    @Override
+    public int[] getNextSequence(boolean useNext) {
+        return remap(IntArraySupplier.super.getNextSequence(useNext));
+    }
+
+    /**
+     * Replaces the positions in the given tuple with the corresponding allowed values.
+     * @return the given array
+     */
+    protected int[] remap(int[] seq) {
+        if(allowedValues != null) {
+            for(int i = 0; i < seq.length; i++) {
+                if(allowedValues[i] != null) seq[i] = allowedValues[i][seq[i]];
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * @return the positions of the prefix values in the arrays of allowed values, or null if the prefix contains values that are not allowed.
+     */
+    protected int[] toPositions(int[] prefix) {
+        if(prefix.length > dimensions.length) throw new IllegalArgumentException("Prefix too long: " + prefix.length);
+        int[] positions = new int[prefix.length];
+        for(int i = 0; i < prefix.length; i++) {
+            if(allowedValues != null && allowedValues[i] != null) {
+                positions[i] = Arrays.binarySearch(allowedValues[i], prefix[i]);
+                if(positions[i] < 0) return null;
+            } else {
+                if(prefix[i] < 0 || prefix[i] >= dimensions[i]) return null;
+                positions[i] = prefix[i];
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Replaces the positions following the first {@code prefixLength} dimensions of the current tuple with the last positions,
+     * making it the last tuple starting with its first {@code prefixLength} values.
+     */
+    protected void moveToLastWithPrefix(int prefixLength) {
+        for(int i = prefixLength; i < dimensions.length; i++) {
+            currentProduct[i] = dimensions[i] - 1;
+        }
+    }
+
+    public static class Long extends CartesianProductSupplier implements Splittable.LongIndexed<int[]>, PrefixRange.LongIndexed, Packable {
         private final long count;
         private long currentIndex = -2;
 
         public Long(long count, int[] dimensions) {
-            super(dimensions);
+            this(count, dimensions, null);
+        }
+
+        /**
+         * @param allowedValues the sorted allowed values for each dimension, or null for dimensions that are not restricted.
+         * The {@code dimensions} contain the number of allowed values in each dimension.
+         */
+        public Long(long count, int[] dimensions, int[][] allowedValues) {
+            super(dimensions, allowedValues);
             this.count = count;
         }
 
         @Override
         public Long split() {
-            return new Long(count, dimensions);
+            return new Long(count, dimensions, allowedValues);
         }
 
         @Override
@@ -70,6 +142,68 @@ public abstract class CartesianProductSupplier implements IntArraySupplier {
             return getNextSequence(useNext);
         }
 
+        @Override
+        public PackedFormat getPackedFormat() {
+            int maxValue = 0;
+            for(int i = 0; i < dimensions.length; i++) {
+                int[] allowed = (allowedValues == null) ? null : allowedValues[i];
+                if(allowed == null) {
+                    maxValue = Math.max(maxValue, dimensions[i] - 1);
+                } else if(allowed.length > 0) {
+                    maxValue = Math.max(maxValue, allowed[allowed.length - 1]);
+                }
+            }
+            return PackedFormat.of(dimensions.length, maxValue);
+        }
+
+        /**
+         * @return a value supplier that computes the next tuple directly on its packed form, unless the allowed values are restricted.
+         */
+        @Override
+        public PackedSupplier packed() {
+            PackedFormat format = getPackedFormat();
+            return (allowedValues == null) ? new Packed(format, dimensions, split()) : new PackedSupplier(format, split());
+        }
+
+        @Override
+        public long[] getPrefixRange(int[] prefix) {
+            int[] positions = toPositions(prefix);
+            if(positions == null) return new long[] {0, 0};
+            long stride = 1;
+            for(int k = dimensions.length - 1; k >= prefix.length; k--) {
+                stride *= dimensions[k];
+            }
+            long size = stride;
+            long from = 0;
+            for(int k = prefix.length - 1; k >= 0; k--) {
+                from += positions[k] * stride;
+                stride *= dimensions[k];
+            }
+            return new long[] {from, from + size};
+        }
+
+        @Override
+        public long skipPrefix(int prefixLength) {
+            long offset = 0;
+            long stride = 1;
+            for(int k = dimensions.length - 1; k >= prefixLength; k--) {
+                offset += currentProduct[k] * stride;
+                stride *= dimensions[k];
+            }
+            long end = currentIndex - offset + stride;
+            moveToLastWithPrefix(prefixLength);
+            currentIndex = end - 1;
+            return end;
+        }
+
+        @Override
+        public void forEachInRange(long from, long to, Consumer<? super int[]> action) {
+            if(from >= to) return;
+            action.accept(apply(from));
+            forEachNext(to - from - 1, action);
+            currentIndex = to - 1;
+        }
+
         @Override
         public int[] unrank() {
             int[] product = new int[dimensions.length];
@@ -82,31 +216,146 @@ public abstract class CartesianProductSupplier implements IntArraySupplier {
         }
     }
 
-    public static class BigInt extends CartesianProductSupplier implements Splittable.BigIntegerIndexed<int[]> {
+    /**
+     * A value supplier for packed tuples with unrestricted values.
+     * <br>It computes the next tuple directly on the packed form of the current one.
+     */
+    public static class Packed extends PackedSupplier {
+        private final int[] dimensions;
+
+        public Packed(PackedFormat format, int[] dimensions, Splittable.LongIndexed<int[]> unranker) {
+            super(format, unranker);
+            this.dimensions = dimensions;
+        }
+
+        @Override
+        public Packed split() {
+            return new Packed(format, dimensions, valueSupplier.split());
+        }
+
+        @Override
+        protected boolean isComputeNextSupported() {
+            return true;
+        }
+
+        @Override
+        protected long computeNext(long product) {
+            int pos = dimensions.length - 1;
+            while(pos >= 0 && format.get(product, pos) >= dimensions[pos] - 1) pos--;
+            if(pos < 0) return product;
+            product = format.set(product, pos, format.get(product, pos) + 1);
+            for(int i = pos + 1; i < dimensions.length; i++) {
+                product = format.set(product, i, 0);
+            }
+            return product;
+        }
+    }
+
+    public static class BigInt extends CartesianProductSupplier implements Splittable.BigIntegerIndexed<int[]>, PrefixRange.BigIntegerIndexed {
+        private static final BigInteger UNKNOWN_INDEX = BigInteger.valueOf(-2);
+
         private final BigInteger count;
-        private BigInteger currentIndex = BigInteger.valueOf(-2);
+        private final HybridIndex currentIndex = new HybridIndex(UNKNOWN_INDEX);
 
         public BigInt(int[] dimensions, BigInteger count) {
-            super(dimensions);
+            this(dimensions, null, count);
+        }
+
+        /**
+         * @param allowedValues the sorted allowed values for each dimension, or null for dimensions that are not restricted.
+         * The {@code dimensions} contain the number of allowed values in each dimension.
+         */
+        public BigInt(int[] dimensions, int[][] allowedValues, BigInteger count) {
+            super(dimensions, allowedValues);
             this.count = count;
         }
 
         @Override
         public BigInt split() {
-            return new BigInt(dimensions, count);
+            return new BigInt(dimensions, allowedValues, count);
         }
 
         @Override
         public int[] apply(BigInteger index) {
-            boolean useNext = index.equals(currentIndex.add(BigInteger.ONE));
-            currentIndex = index;
-            return getNextSequence(useNext);
+            return getNextSequence(currentIndex.moveTo(index));
+        }
+
+        @Override
+        public int[] apply(BigInteger base, long offset) {
+            return getNextSequence(currentIndex.moveTo(base, offset));
+        }
+
+        /**
+         * Unranks the given index by successively dividing it by the dimensions, which requires only primitive arithmetic.
+         * Several consecutive dimensions are combined into a single int divisor, in order to reduce the number of passes over the limbs.
+         */
+        @Override
+        public int[] apply(Limbs index) {
+            currentIndex.set(UNKNOWN_INDEX);
+            int k = dimensions.length - 1;
+            while(k >= 0) {
+                int first = k;
+                int divisor = 1;
+                while(k >= 0 && (long)divisor * dimensions[k] <= Integer.MAX_VALUE) {
+                    divisor *= dimensions[k];
+                    k--;
+                }
+                int rem = index.divideBy(divisor);
+                for(int i = first; i > k; i--) {
+                    currentProduct[i] = rem % dimensions[i];
+                    rem /= dimensions[i];
+                }
+            }
+            return remap(currentProduct.clone());
+        }
+
+        @Override
+        public BigInteger[] getPrefixRange(int[] prefix) {
+            int[] positions = toPositions(prefix);
+            if(positions == null) return new BigInteger[] {BigInteger.ZERO, BigInteger.ZERO};
+            BigInteger stride = BigInteger.ONE;
+            for(int k = dimensions.length - 1; k >= prefix.length; k--) {
+                stride = stride.multiply(BigInteger.valueOf(dimensions[k]));
+            }
+            BigInteger size = stride;
+            BigInteger from = BigInteger.ZERO;
+            for(int k = prefix.length - 1; k >= 0; k--) {
+                from = from.add(stride.multiply(BigInteger.valueOf(positions[k])));
+                stride = stride.multiply(BigInteger.valueOf(dimensions[k]));
+            }
+            return new BigInteger[] {from, from.add(size)};
+        }
+
+        @Override
+        public BigInteger skipPrefix(int prefixLength) {
+            BigInteger offset = BigInteger.ZERO;
+            BigInteger stride = BigInteger.ONE;
+            for(int k = dimensions.length - 1; k >= prefixLength; k--) {
+                offset = offset.add(stride.multiply(BigInteger.valueOf(currentProduct[k])));
+                stride = stride.multiply(BigInteger.valueOf(dimensions[k]));
+            }
+            BigInteger end = currentIndex.get().subtract(offset).add(stride);
+            moveToLastWithPrefix(prefixLength);
+            currentIndex.set(end.subtract(BigInteger.ONE));
+            return end;
+        }
+
+        @Override
+        public void forEachInRange(BigInteger from, BigInteger to, Consumer<? super int[]> action) {
+            if(from.compareTo(to) >= 0) return;
+            action.accept(apply(from));
+            BigInteger last = to.subtract(BigInteger.ONE);
+            while(currentIndex.get().compareTo(last) < 0) {
+                long count = last.subtract(currentIndex.get()).min(BigInteger.valueOf(java.lang.Long.MAX_VALUE)).longValue();
+                forEachNext(count, action);
+                currentIndex.add(count);
+            }
         }
 
         @Override
         public int[] unrank() {
             int[] product = new int[dimensions.length];
-            BigInteger dividend = currentIndex;
+            BigInteger dividend = currentIndex.get();
             for(int k = dimensions.length - 1; k >= 0; k--) {
                 BigInteger[] quotientAndRemainder = dividend.divideAndRemainder(BigInteger.valueOf(dimensions[k]));
                 product[k] = quotientAndRemainder[1].intValueExact();
@@ -35,9 +35,17 @@ public class LongCartesianProduct extends LongIndexedSpliterator<int[], LongCart
     }
 
     public LongCartesianProduct(long count, int... dimensions) {
+        this(count, dimensions, null);
+    }
+
+    /**
+     * @param dimensions the number of allowed values in each dimension
+     * @param allowedValues the sorted allowed values for each dimension, or null for dimensions that are not restricted
+     */
+    LongCartesianProduct(long count, int[] dimensions, int[][] allowedValues) {
         super(0, count);
         if(Arrays.stream(dimensions).anyMatch(dim -> dim < 0)) throw new IllegalArgumentException("Invalid dimensions: " + Arrays.toString(dimensions));
-        this.withValueSupplier(new CartesianProductSupplier.Long(count, dimensions));
+        this.withValueSupplier(new CartesianProductSupplier.Long(count, dimensions, allowedValues));
         this.withAdditionalCharacteristics(DISTINCT);
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shared;
+
+import java.math.BigInteger;
+
+/**
+ * Operations on bit masks stored in a long or in an array of long words.
+ * <br>In an array of words, bit {@code i} is stored in {@code words[i / 64]} at position {@code i % 64}, as in {@link java.util.BitSet#toLongArray()}.
+ */
+public class BitMasks {
+    private BitMasks() {}
+
+    /**
+     * @return the next mask with the same number of set bits, in increasing numerical order (Gosper's hack).
+     * The mask is treated as an unsigned value.
+     */
+    public static long nextCombination(long mask) {
+        long lowest = mask & -mask;
+        long ripple = mask + lowest;
+        return ripple | (((ripple ^ mask) >>> 2) >>> Long.numberOfTrailingZeros(lowest));
+    }
+
+    /**
+     * Replaces the given mask with the next mask with the same number of set bits, in increasing numerical order.
+     * <br>This is the multi-word version of {@link #nextCombination(long)}: the lowest run of set bits is moved one position up
+     * and all its bits except the top one are moved to the bottom of the mask.
+     */
+    public static void nextCombination(long[] words) {
+        int lowest = nextSetBit(words, 0);
+        if(lowest < 0) return;
+        int runEnd = nextClearBit(words, lowest);
+        if(runEnd == words.length << 6) return;
+        setBit(words, runEnd);
+        clearRange(words, lowest, runEnd);
+        setRange(words, 0, runEnd - lowest - 1);
+    }
+
+    /**
+     * Adds one to the given mask, interpreted as an unsigned number.
+     */
+    public static void increment(long[] words) {
+        for(int i = 0; i < words.length; i++) {
+            if(++words[i] != 0) return;
+        }
+    }
+
+    /**
+     * @return the words of the given non-negative number.
+     */
+    public static long[] toWords(BigInteger value, int wordCount) {
+        long[] words = new long[wordCount];
+        for(int i = 0; i < wordCount; i++) {
+            words[i] = value.shiftRight(64 * i).longValue();
+        }
+        return words;
+    }
+
+    /** @return the number of words needed for a mask with the given number of bits */
+    public static int wordCount(int bitCount) {
+        return (bitCount + 63) >>> 6;
+    }
+
+    public static void setBit(long[] words, int bit) {
+        words[bit >>> 6] |= 1L << bit;
+    }
+
+    private static int nextSetBit(long[] words, int from) {
+        int i = from >>> 6;
+        if(i >= words.length) return -1;
+        long word = words[i] & (-1L << from);
+        while(word == 0) {
+            if(++i == words.length) return -1;
+            word = words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static int nextClearBit(long[] words, int from) {
+        int i = from >>> 6;
+        if(i >= words.length) return from;
+        long word = ~words[i] & (-1L << from);
+        while(word == 0) {
+            if(++i == words.length) return words.length << 6;
+            word = ~words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /** Sets the bits in the range [from, to). */
+    private static void setRange(long[] words, int from, int to) {
+        for(int i = from >>> 6; from < to; i++) {
+            int end = Math.min(to, (i + 1) << 6);
+            words[i] |= rangeMask(from, end);
+            from = end;
+        }
+    }
+
+    /** Clears the bits in the range [from, to). */
+    private static void clearRange(long[] words, int from, int to) {
+        for(int i = from >>> 6; from < to; i++) {
+            int end = Math.min(to, (i + 1) << 6);
+            words[i] &= ~rangeMask(from, end);
+            from = end;
+        }
+    }
+
+    /** @return the mask of the bits in the range [from, to), which must be part of the same word */
+    private static long rangeMask(int from, int to) {
+        long upper = ((to & 63) == 0) ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+}
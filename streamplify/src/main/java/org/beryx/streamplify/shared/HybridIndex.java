@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shared;
+
+import java.math.BigInteger;
+
+/**
+ * A mutable BigInteger index, represented as a BigInteger base plus a long offset.
+ * <br>Value suppliers with BigInteger indexes use it to keep track of their current index.
+ * As long as they are called with the same base and consecutive offsets, moving to the next index
+ * and checking whether an index is the successor of the current one require only primitive arithmetic.
+ */
+public final class HybridIndex {
+    private BigInteger base;
+    private long offset;
+
+    public HybridIndex(BigInteger value) {
+        set(value);
+    }
+
+    /**
+     * Moves to the index {@code base + offset}.
+     * @return true, if the new index is the successor of the previous one
+     */
+    public boolean moveTo(BigInteger base, long offset) {
+        boolean successor;
+        if(base == this.base) {
+            successor = (offset == this.offset + 1);
+        } else {
+            successor = base.add(BigInteger.valueOf(offset)).equals(get().add(BigInteger.ONE));
+        }
+        this.base = base;
+        this.offset = offset;
+        return successor;
+    }
+
+    /**
+     * Moves to the given index.
+     * @return true, if the new index is the successor of the previous one
+     */
+    public boolean moveTo(BigInteger index) {
+        return moveTo(index, 0);
+    }
+
+    /**
+     * Adds the given non-negative value to this index.
+     */
+    public void add(long n) {
+        if(offset > Long.MAX_VALUE - n) get();
+        offset += n;
+    }
+
+    /**
+     * @return the value of this index. The offset is folded into the base, which requires a BigInteger addition only if the offset is not zero.
+     */
+    public BigInteger get() {
+        if(offset != 0) {
+            base = base.add(BigInteger.valueOf(offset));
+            offset = 0;
+        }
+        return base;
+    }
+
+    public void set(BigInteger value) {
+        this.base = value;
+        this.offset = 0;
+    }
+
+    @Override
+    public String toString() {
+        return base.add(BigInteger.valueOf(offset)).toString();
+    }
+}
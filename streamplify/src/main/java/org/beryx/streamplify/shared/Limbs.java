@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shared;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A mutable non-negative integer stored in an array of long limbs, with the least significant limb first.
+ * <br>Used for shuffling and unranking BigInteger indexes without creating BigInteger objects for each index.
+ * The limbs are interpreted as unsigned values. Instances have a fixed capacity and are not thread-safe.
+ */
+public final class Limbs {
+    private final long[] words;
+
+    /**
+     * Creates an instance with value zero, able to store values with the given number of bits.
+     */
+    public Limbs(int bitCount) {
+        this.words = new long[Math.max(1, BitMasks.wordCount(bitCount))];
+    }
+
+    public static Limbs of(BigInteger value) {
+        Limbs limbs = new Limbs(value.bitLength());
+        limbs.set(value);
+        return limbs;
+    }
+
+    /**
+     * @return the array of limbs, which is not copied. Modifying it modifies this instance.
+     */
+    public long[] getWords() {
+        return words;
+    }
+
+    public int getCapacity() {
+        return words.length;
+    }
+
+    public void set(BigInteger value) {
+        if(value.signum() < 0 || value.bitLength() > words.length << 6) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in " + words.length + " limbs");
+        }
+        Arrays.fill(words, 0);
+        byte[] bytes = value.toByteArray();
+        int byteCount = Math.min(bytes.length, words.length << 3);
+        for(int i = 0; i < byteCount; i++) {
+            words[i >>> 3] |= (bytes[bytes.length - 1 - i] & 0xFFL) << ((i & 7) << 3);
+        }
+    }
+
+    public void set(Limbs other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Sets this instance to {@code base + offset}, where {@code offset} is non-negative. The result must fit in the capacity of this instance.
+     */
+    public void set(Limbs base, long offset) {
+        long carry = offset;
+        for(int i = 0; i < words.length; i++) {
+            long sum = base.words[i] + carry;
+            carry = (Long.compareUnsigned(sum, carry) < 0) ? 1 : 0;
+            words[i] = sum;
+        }
+    }
+
+    /**
+     * Divides this instance by the given positive divisor.
+     * @return the remainder of the division
+     */
+    public int divideBy(int divisor) {
+        int top = words.length - 1;
+        while(top > 0 && words[top] == 0) top--;
+        long rem = 0;
+        for(int i = top; i >= 0; i--) {
+            long word = words[i];
+            long hi = (rem << 32) | (word >>> 32);
+            long qHi = hi / divisor;
+            rem = hi - qHi * divisor;
+            long lo = (rem << 32) | (word & 0xFFFFFFFFL);
+            long qLo = lo / divisor;
+            rem = lo - qLo * divisor;
+            words[i] = (qHi << 32) | qLo;
+        }
+        return (int)rem;
+    }
+
+    /**
+     * @return a negative value, zero or a positive value, if this instance is less than, equal to, or greater than {@code other}.
+     */
+    public int compareTo(Limbs other) {
+        return compare(words, other.words);
+    }
+
+    /**
+     * Compares two unsigned integers stored in long limbs, with the least significant limb first. The arrays may have different lengths.
+     */
+    public static int compare(long[] words1, long[] words2) {
+        for(int i = Math.max(words1.length, words2.length) - 1; i >= 0; i--) {
+            long w1 = (i < words1.length) ? words1[i] : 0;
+            long w2 = (i < words2.length) ? words2[i] : 0;
+            if(w1 != w2) return Long.compareUnsigned(w1, w2);
+        }
+        return 0;
+    }
+
+    public BigInteger toBigInteger() {
+        byte[] bytes = new byte[words.length << 3];
+        for(int i = 0; i < words.length; i++) {
+            long word = words[i];
+            int pos = bytes.length - 1 - (i << 3);
+            for(int j = 0; j < 8; j++) {
+                bytes[pos - j] = (byte)(word >>> (j << 3));
+            }
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    @Override
+    public String toString() {
+        return toBigInteger().toString();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shared;
+
+/**
+ * A set of values in the range [0, capacity), backed by a Fenwick tree.
+ * <br>Used by unranking algorithms that repeatedly pick the k-th smallest of the remaining values:
+ * selecting, removing and ranking a value take O(log capacity) time, instead of the O(capacity) time required by shifting or scanning an array.
+ * <br>Instances are meant to be reused: {@link #fill()} restores all values in O(capacity) time without allocating objects. They are not thread-safe.
+ */
+public final class OrderStatisticSet {
+    private final int capacity;
+    /** tree[i] = the number of values in the range [i - lowbit(i), i) contained in this set */
+    private final int[] tree;
+    private final int topStep;
+    private int size;
+
+    /**
+     * Creates a set containing all values in the range [0, capacity).
+     */
+    public OrderStatisticSet(int capacity) {
+        if(capacity < 0) throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        this.capacity = capacity;
+        this.tree = new int[capacity + 1];
+        this.topStep = (capacity == 0) ? 0 : Integer.highestOneBit(capacity);
+        fill();
+    }
+
+    /**
+     * Adds all values in the range [0, capacity) to this set.
+     */
+    public void fill() {
+        for(int i = 1; i <= capacity; i++) {
+            tree[i] = i & -i;
+        }
+        size = capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the value with the given rank (starting with 0) among the values of this set, in increasing order
+     */
+    public int select(int rank) {
+        if(rank < 0 || rank >= size) throw new IndexOutOfBoundsException("rank: " + rank);
+        int pos = 0;
+        for(int step = topStep; step > 0; step >>>= 1) {
+            int next = pos + step;
+            if(next <= capacity && tree[next] <= rank) {
+                pos = next;
+                rank -= tree[next];
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * @return the number of values of this set that are smaller than the given value
+     */
+    public int rank(int value) {
+        int count = 0;
+        for(int i = value; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Removes the given value, which must be contained in this set.
+     */
+    public void remove(int value) {
+        for(int i = value + 1; i <= capacity; i += i & -i) {
+            tree[i]--;
+        }
+        size--;
+    }
+
+    /**
+     * Removes and returns the value with the given rank.
+     */
+    public int removeAt(int rank) {
+        int value = select(rank);
+        remove(value);
+        return value;
+    }
+}
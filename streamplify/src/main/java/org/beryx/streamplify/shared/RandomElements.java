@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shared;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Algorithms for generating uniformly distributed random combinatorial objects directly, without drawing and unranking a random index.
+ * <br>Their running time depends only on the size of the generated objects, not on the cardinality of the set they are drawn from.
+ */
+public class RandomElements {
+    private static final int HOLE = -1;
+
+    private RandomElements() {}
+
+    /**
+     * @return a random permutation of the values 0 to {@code n - 1}, generated using the inside-out Fisher-Yates algorithm.
+     */
+    public static int[] permutation(int n, SplittableRandom rnd) {
+        int[] perm = new int[n];
+        for(int i = 0; i < n; i++) {
+            int j = rnd.nextInt(i + 1);
+            perm[i] = perm[j];
+            perm[j] = i;
+        }
+        return perm;
+    }
+
+    /**
+     * @return a random derangement of the values 0 to {@code n - 1}, generated by rejecting the random permutations that have fixed points.
+     * The expected number of attempts is about {@code e}.
+     * @throws IllegalArgumentException if {@code n == 1}
+     */
+    public static int[] derangement(int n, SplittableRandom rnd) {
+        if(n == 1) throw new IllegalArgumentException("There are no derangements of length 1");
+        while(true) {
+            int[] perm = permutation(n, rnd);
+            if(!hasFixedPoint(perm)) return perm;
+        }
+    }
+
+    private static boolean hasFixedPoint(int[] perm) {
+        for(int i = 0; i < perm.length; i++) {
+            if(perm[i] == i) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return a random {@code k}-subset of the values 0 to {@code n - 1}, in increasing order.
+     * Small subsets are generated using Floyd's algorithm, while large subsets are generated by selection sampling.
+     */
+    public static int[] combination(int n, int k, SplittableRandom rnd) {
+        int[] comb = new int[k];
+        if(k > n / 8) {
+            int selected = 0;
+            for(int i = 0; selected < k; i++) {
+                if(rnd.nextInt(n - i) < k - selected) {
+                    comb[selected++] = i;
+                }
+            }
+        } else {
+            Set<Integer> drawn = new HashSet<>(2 * k);
+            int count = 0;
+            for(int j = n - k; j < n; j++) {
+                int val = rnd.nextInt(j + 1);
+                if(!drawn.add(val)) {
+                    val = j;
+                    drawn.add(val);
+                }
+                comb[count++] = val;
+            }
+            Arrays.sort(comb);
+        }
+        return comb;
+    }
+
+    /**
+     * @return a random subset of the values 0 to {@code n - 1}, in increasing order. Each value is included with probability 1/2.
+     */
+    public static int[] subset(int n, SplittableRandom rnd) {
+        long[] words = new long[BitMasks.wordCount(n)];
+        int size = 0;
+        for(int i = 0; i < words.length; i++) {
+            long word = rnd.nextLong();
+            if(i == words.length - 1 && (n & 63) != 0) word &= (1L << n) - 1;
+            words[i] = word;
+            size += Long.bitCount(word);
+        }
+        int[] subset = new int[size];
+        int pos = 0;
+        for(int i = 0; i < words.length; i++) {
+            for(long word = words[i]; word != 0; word &= word - 1) {
+                subset[pos++] = (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return subset;
+    }
+
+    /**
+     * @param radixes the number of allowed values in each dimension
+     * @param allowedValues the sorted allowed values for each dimension, or null for dimensions that are not restricted
+     * @return a random tuple of a Cartesian product
+     */
+    public static int[] tuple(int[] radixes, int[][] allowedValues, SplittableRandom rnd) {
+        int[] tuple = new int[radixes.length];
+        for(int i = 0; i < radixes.length; i++) {
+            int pos = rnd.nextInt(radixes[i]);
+            tuple[i] = (allowedValues == null || allowedValues[i] == null) ? pos : allowedValues[i][pos];
+        }
+        return tuple;
+    }
+
+    /**
+     * @param sizeDistribution the cumulative distribution of the number of values, as computed by {@link #partialPermutationSizeDistribution(int)}
+     * @return a random partial permutation of length {@code n}, in which the unused positions hold
+     * {@link org.beryx.streamplify.partperm.PartialPermutationSupplier#HOLE}
+     */
+    public static int[] partialPermutation(int n, double[] sizeDistribution, SplittableRandom rnd) {
+        int k = Arrays.binarySearch(sizeDistribution, rnd.nextDouble());
+        k = Math.min((k >= 0) ? k + 1 : -k - 1, n);
+        int[] values = combination(n, k, rnd);
+        int[] partPerm = new int[n];
+        Arrays.fill(partPerm, HOLE);
+        System.arraycopy(values, 0, partPerm, 0, k);
+        for(int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = partPerm[i];
+            partPerm[i] = partPerm[j];
+            partPerm[j] = tmp;
+        }
+        return partPerm;
+    }
+
+    /**
+     * Computes the cumulative distribution of the number of values in a uniformly distributed partial permutation of length {@code n}.
+     * <br>There are {@code C(n, k)^2 * k!} partial permutations with {@code k} values. The weights are computed in logarithmic form,
+     * so the distribution is exact up to the precision of double values.
+     * @return an array whose element {@code k} is the probability that a random partial permutation has at most {@code k} values
+     */
+    public static double[] partialPermutationSizeDistribution(int n) {
+        double[] logWeights = new double[n + 1];
+        double maxLogWeight = 0;
+        for(int k = 1; k <= n; k++) {
+            // w(k) / w(k - 1) = (n - k + 1)^2 / k
+            logWeights[k] = logWeights[k - 1] + 2 * Math.log(n - k + 1) - Math.log(k);
+            maxLogWeight = Math.max(maxLogWeight, logWeights[k]);
+        }
+        double[] distribution = new double[n + 1];
+        double sum = 0;
+        for(int k = 0; k <= n; k++) {
+            sum += Math.exp(logWeights[k] - maxLogWeight);
+            distribution[k] = sum;
+        }
+        for(int k = 0; k <= n; k++) {
+            distribution[k] /= sum;
+        }
+        return distribution;
+    }
+}
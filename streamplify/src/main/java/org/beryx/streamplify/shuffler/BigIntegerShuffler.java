@@ -29,4 +29,12 @@ public interface BigIntegerShuffler {
      * Retrieves the value corresponding to {@code index} in the permutation associated with this shuffler.
      */
     BigInteger getShuffledIndex(BigInteger index);
+
+    /**
+     * Retrieves the value corresponding to the index {@code base + offset} in the permutation associated with this shuffler.
+     * <br>This default implementation calls {@link #getShuffledIndex(BigInteger)} with the sum of the arguments.
+     */
+    default BigInteger getShuffledIndex(BigInteger base, long offset) {
+        return getShuffledIndex(base.add(BigInteger.valueOf(offset)));
+    }
 }
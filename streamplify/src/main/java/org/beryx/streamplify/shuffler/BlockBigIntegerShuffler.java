@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shuffler;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * A {@link BigIntegerShuffler} that shuffles blocks of consecutive indices, while keeping the order of the indices inside each block.
+ * <br>This is the BigInteger version of {@link BlockLongShuffler}.
+ */
+public class BlockBigIntegerShuffler implements BigIntegerShuffler {
+    private final BigInteger blockSize;
+    private final BigInteger fullBlocksEnd;
+    private final BigIntegerShuffler blockShuffler;
+
+    /**
+     * Constructs a shuffler for indices in the range [0 .. {@code count} - 1], whose blocks are shuffled by a {@link DefaultBigIntegerShuffler}.
+     * @param count the number of indices in the range
+     * @param blockSize the number of indices in a block
+     * @param rnd the random number generator used to shuffle the blocks
+     */
+    public BlockBigIntegerShuffler(BigInteger count, long blockSize, Random rnd) {
+        if(blockSize < 1) throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        this.blockSize = BigInteger.valueOf(blockSize);
+        BigInteger[] qr = count.divideAndRemainder(this.blockSize);
+        this.fullBlocksEnd = count.subtract(qr[1]);
+        this.blockShuffler = new DefaultBigIntegerShuffler(qr[0], rnd);
+    }
+
+    @Override
+    public BigInteger getShuffledIndex(BigInteger index) {
+        if(index.compareTo(fullBlocksEnd) >= 0) return index;
+        BigInteger[] qr = index.divideAndRemainder(blockSize);
+        return blockShuffler.getShuffledIndex(qr[0]).multiply(blockSize).add(qr[1]);
+    }
+}
@@ -15,14 +15,18 @@
  */
 package org.beryx.streamplify.shuffler;
 
+import org.beryx.streamplify.shared.Limbs;
+
 import java.math.BigInteger;
 import java.util.Random;
 
 /**
  * An implementation of {@link BigIntegerShuffler} based on {@link ShufflerImpl}.
  */
-public class DefaultBigIntegerShuffler implements BigIntegerShuffler {
+public class DefaultBigIntegerShuffler implements LimbsShuffler {
     private final BigInteger count;
+    private final Limbs countLimbs;
+    private final int bitCount;
     private final ShufflerImpl shufflerImpl;
 
     /**
@@ -40,6 +44,8 @@ public class DefaultBigIntegerShuffler implements BigIntegerShuffler {
      */
     public DefaultBigIntegerShuffler(BigInteger count, Random rnd) {
         this.count = count;
+        this.countLimbs = Limbs.of(count);
+        this.bitCount = count.subtract(BigInteger.ONE).bitLength();
         this.shufflerImpl = new ShufflerImpl(rnd);
     }
 
@@ -56,4 +62,14 @@ public class DefaultBigIntegerShuffler implements BigIntegerShuffler {
     public BigInteger getShuffledIndex(BigInteger index) {
         return shufflerImpl.getShuffledIndex(index, count);
     }
+
+    @Override
+    public BigInteger getCount() {
+        return count;
+    }
+
+    @Override
+    public void getShuffledIndex(Limbs index, Limbs out) {
+        shufflerImpl.getShuffledIndex(index, out, countLimbs, bitCount);
+    }
 }
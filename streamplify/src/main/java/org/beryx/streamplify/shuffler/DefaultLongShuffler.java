@@ -55,4 +55,9 @@ public class DefaultLongShuffler implements LongShuffler {
     public long getShuffledIndex(long index) {
         return shufflerImpl.getShuffledIndex(index, count);
     }
+
+    @Override
+    public void getShuffledIndices(long from, long[] out) {
+        shufflerImpl.getShuffledIndices(from, out, count);
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shuffler;
+
+import org.beryx.streamplify.shared.BitMasks;
+import org.beryx.streamplify.shared.Limbs;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An invertible {@link BigIntegerShuffler} based on a keyed Feistel network.
+ * <br>This is the BigInteger version of {@link FeistelLongShuffler}.
+ * If {@code count} fits in a long, the indices are shuffled by a {@link FeistelLongShuffler} with the same round keys.
+ * Otherwise, the half-blocks are stored in long limbs and the round function hashes the 64-bit words of a half-block
+ * and expands the hash to the size of a half-block.
+ * <br>The {@link Limbs} methods do not allocate objects: the two half-blocks are stored in the buffers provided by the caller.
+ * The BigInteger methods allocate only the buffers needed for converting their argument and their result.
+ * Their throughput is of the same order as that of {@link DefaultBigIntegerShuffler}.
+ */
+public class FeistelBigIntegerShuffler implements LimbsShuffler {
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final BigInteger count;
+    private final Limbs countLimbs;
+    private final FeistelLongShuffler longShuffler;
+    private final int halfBits;
+    private final int halfWords;
+    /** the mask of the most significant word of a half-block */
+    private final long topMask;
+    private final long[] keys;
+
+    /**
+     * Constructs a shuffler for indices in the range [0 .. {@code count} - 1], using {@link FeistelLongShuffler#DEFAULT_ROUNDS} rounds.
+     * @param count the number of indices in the range
+     * @param seed the seed used to generate the round keys
+     */
+    public FeistelBigIntegerShuffler(BigInteger count, long seed) {
+        this(count, new Random(seed), FeistelLongShuffler.DEFAULT_ROUNDS);
+    }
+
+    /**
+     * Constructs a shuffler for indices in the range [0 .. {@code count} - 1].
+     * @param count the number of indices in the range
+     * @param rnd the random number generator used to generate the round keys
+     * @param rounds the number of rounds of the Feistel network
+     */
+    public FeistelBigIntegerShuffler(BigInteger count, Random rnd, int rounds) {
+        if(count.signum() < 0) throw new IllegalArgumentException("Invalid count: " + count);
+        this.count = count;
+        this.countLimbs = Limbs.of(count);
+        this.keys = FeistelLongShuffler.generateKeys(rnd, rounds);
+        if(count.compareTo(MAX_LONG) <= 0) {
+            this.longShuffler = new FeistelLongShuffler(count.longValue(), keys);
+            this.halfBits = 0;
+            this.halfWords = 0;
+            this.topMask = 0;
+        } else {
+            this.longShuffler = null;
+            int bitCount = count.subtract(BigInteger.ONE).bitLength();
+            this.halfBits = (bitCount + 1) >>> 1;
+            this.halfWords = BitMasks.wordCount(halfBits);
+            this.topMask = ((halfBits & 63) == 0) ? -1L : (1L << (halfBits & 63)) - 1;
+        }
+    }
+
+    @Override
+    public BigInteger getCount() {
+        return count;
+    }
+
+    @Override
+    public BigInteger getShuffledIndex(BigInteger index) {
+        if(longShuffler != null) return BigInteger.valueOf(longShuffler.getShuffledIndex(index.longValueExact()));
+        Limbs out = new Limbs(count.bitLength());
+        getShuffledIndex(toLimbs(index), out);
+        return out.toBigInteger();
+    }
+
+    @Override
+    public void getShuffledIndex(Limbs index, Limbs out) {
+        if(longShuffler != null) {
+            setWord(out, longShuffler.getShuffledIndex(index.getWords()[0]));
+        } else {
+            walk(index.getWords(), out.getWords(), true);
+        }
+    }
+
+    /**
+     * Retrieves the position of {@code shuffledIndex} in the permutation associated with this shuffler.
+     * <br>This is the inverse of {@link #getShuffledIndex(BigInteger)}.
+     */
+    public BigInteger getOriginalIndex(BigInteger shuffledIndex) {
+        if(longShuffler != null) return BigInteger.valueOf(longShuffler.getOriginalIndex(shuffledIndex.longValueExact()));
+        Limbs out = new Limbs(count.bitLength());
+        getOriginalIndex(toLimbs(shuffledIndex), out);
+        return out.toBigInteger();
+    }
+
+    /**
+     * Stores into {@code out} the position of {@code shuffledIndex} in the permutation associated with this shuffler, without allocating objects.
+     * <br>This is the inverse of {@link #getShuffledIndex(Limbs, Limbs)}. The content of {@code shuffledIndex} is destroyed.
+     * Both buffers must have the same capacity and be able to store {@link #getCount()}.
+     */
+    public void getOriginalIndex(Limbs shuffledIndex, Limbs out) {
+        if(longShuffler != null) {
+            setWord(out, longShuffler.getOriginalIndex(shuffledIndex.getWords()[0]));
+        } else {
+            walk(shuffledIndex.getWords(), out.getWords(), false);
+        }
+    }
+
+    private Limbs toLimbs(BigInteger value) {
+        Limbs limbs = new Limbs(count.bitLength());
+        limbs.set(value);
+        return limbs;
+    }
+
+    private static void setWord(Limbs limbs, long value) {
+        long[] words = limbs.getWords();
+        Arrays.fill(words, 0);
+        words[0] = value;
+    }
+
+    /**
+     * Encrypts (or decrypts) the value stored in {@code src} until the result is less than {@code count} (cycle-walking) and stores the result into {@code dst}.
+     * <br>During the rounds, each of the two arrays holds one half-block. The arrays are swapped instead of copying the half-blocks.
+     */
+    private void walk(long[] src, long[] dst, boolean encrypt) {
+        long[] value = src;
+        long[] free = dst;
+        do {
+            long[] left = free;
+            long[] right = value;
+            split(value, left);
+            for(int i = 0; i < keys.length; i++) {
+                if(encrypt) {
+                    xorRoundFunction(right, left, keys[i]);
+                } else {
+                    xorRoundFunction(left, right, keys[keys.length - 1 - i]);
+                }
+                long[] tmp = left;
+                left = right;
+                right = tmp;
+            }
+            join(left, right);
+            value = right;
+            free = left;
+        } while(Limbs.compare(value, countLimbs.getWords()) >= 0);
+        if(value != dst) {
+            System.arraycopy(value, 0, dst, 0, dst.length);
+        }
+    }
+
+    /**
+     * Moves the upper half-block of {@code value} into {@code high}, leaving only the lower half-block in {@code value}.
+     */
+    private void split(long[] value, long[] high) {
+        int shiftWords = halfBits >>> 6;
+        int shiftBits = halfBits & 63;
+        for(int i = 0; i < halfWords; i++) {
+            int j = i + shiftWords;
+            long word = (j < value.length) ? (value[j] >>> shiftBits) : 0;
+            if(shiftBits != 0 && j + 1 < value.length) word |= value[j + 1] << (64 - shiftBits);
+            high[i] = word;
+        }
+        high[halfWords - 1] &= topMask;
+        Arrays.fill(high, halfWords, high.length, 0);
+        value[halfWords - 1] &= topMask;
+        Arrays.fill(value, halfWords, value.length, 0);
+    }
+
+    /**
+     * Adds the half-block {@code high} as upper half-block to {@code low}, which contains the lower half-block.
+     */
+    private void join(long[] high, long[] low) {
+        int shiftWords = halfBits >>> 6;
+        int shiftBits = halfBits & 63;
+        for(int i = 0; i < halfWords; i++) {
+            long word = high[i];
+            int j = i + shiftWords;
+            low[j] |= word << shiftBits;
+            if(shiftBits != 0 && j + 1 < low.length) low[j + 1] |= word >>> (64 - shiftBits);
+        }
+    }
+
+    /**
+     * Xors the round function of the half-block {@code half} into the half-block {@code target}.
+     */
+    private void xorRoundFunction(long[] half, long[] target, long key) {
+        long hash = key;
+        for(int i = 0; i < halfWords; i++) {
+            hash = mix(hash ^ half[i]) + GOLDEN_GAMMA;
+        }
+        for(int i = 0; i < halfWords; i++) {
+            target[i] ^= mix(hash + i * GOLDEN_GAMMA);
+        }
+        target[halfWords - 1] &= topMask;
+    }
+
+    /** A 64-bit finalizer with good avalanche properties (from SplitMix64). */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify.shuffler;
+
+import org.beryx.streamplify.shared.Limbs;
+
+import java.math.BigInteger;
+
+/**
+ * A {@link BigIntegerShuffler} that is also able to shuffle indices stored in {@link Limbs}, without allocating objects.
+ * <br>Indexed spliterators use this variant for traversing shuffled data sources with BigInteger indexes.
+ */
+public interface LimbsShuffler extends BigIntegerShuffler {
+    /**
+     * @return the number of indices in the range shuffled by this instance
+     */
+    BigInteger getCount();
+
+    /**
+     * Stores into {@code out} the value corresponding to {@code index}, without allocating objects.
+     * <br>The content of {@code index} is destroyed. Both buffers must have the same capacity and be able to store {@link #getCount()}.
+     */
+    void getShuffledIndex(Limbs index, Limbs out);
+}
@@ -27,4 +27,14 @@ public interface LongShuffler {
      * Retrieves the value corresponding to {@code index} in the permutation associated with this shuffler.
      */
     long getShuffledIndex(long index);
+
+    /**
+     * Fills the given array with the values corresponding to the indexes {@code from, from + 1, ..., from + out.length - 1}.
+     * <br>This default implementation calls {@link #getShuffledIndex(long)} for each index.
+     */
+    default void getShuffledIndices(long from, long[] out) {
+        for(int i = 0; i < out.length; i++) {
+            out[i] = getShuffledIndex(from + i);
+        }
+    }
 }
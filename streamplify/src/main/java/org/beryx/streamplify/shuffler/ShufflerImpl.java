@@ -15,6 +15,8 @@
  */
 package org.beryx.streamplify.shuffler;
 
+import org.beryx.streamplify.shared.Limbs;
+
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Random;
@@ -58,12 +60,127 @@ public class ShufflerImpl {
 
     /**
      * Retrieves the long value corresponding to {@code index} in a permutation with {@code count} elements.
+     * <br>This method returns the same values as {@link #getShuffledIndex(BigInteger, BigInteger)}, but it uses only primitive arithmetic and does not allocate objects.
      */
     public long getShuffledIndex(long index, long count) {
-        BigInteger bigIndex = BigInteger.valueOf(index);
-        BigInteger bigCount = BigInteger.valueOf(count);
-        BigInteger bigShuffled = getShuffledIndex(bigIndex, bigCount);
-        return bigShuffled.longValueExact();
+        int bitCount = 64 - Long.numberOfLeadingZeros(count - 1);
+        do {
+            index = shuffleBits(index, bitCount);
+        } while(index >= count);
+        return index;
+    }
+
+    /**
+     * Fills the given array with the values corresponding to the indexes {@code from, from + 1, ...} in a permutation with {@code count} elements.
+     */
+    public void getShuffledIndices(long from, long[] out, long count) {
+        int bitCount = 64 - Long.numberOfLeadingZeros(count - 1);
+        for(int i = 0; i < out.length; i++) {
+            long index = from + i;
+            do {
+                index = shuffleBits(index, bitCount);
+            } while(index >= count);
+            out[i] = index;
+        }
+    }
+
+    /**
+     * Performs one shuffling round of {@link #getShuffledIndex(BigInteger, BigInteger)} on an index with at most 63 bits.
+     * <br>The byte with position {@code j} in the big-endian byte array of the BigInteger implementation is stored here
+     * in the byte with position {@code bytesLen - 1 - j} of a long.
+     */
+    private long shuffleBits(long index, int bitCount) {
+        int wholeBytes = bitCount >>> 3;
+        int restBits = bitCount & 7;
+        int bytesLen = (bitCount + 7) >>> 3;
+
+        long shuffled = 0;
+        int idx = 0;
+        for(int i = 0; i < wholeBytes; i++) {
+            idx = (int)((index >>> (i << 3)) ^ idx) & 0xFF;
+            shuffled |= (long)bytePermutations[i % BYTE_PERMUTATIONS_COUNT][idx] << ((bytesLen - 1 - i) << 3);
+        }
+        if(restBits > 0) {
+            idx = (int)((index >>> (wholeBytes << 3)) ^ idx) & ((1 << restBits) - 1);
+            shuffled |= (bitPermutations[restBits][idx] << (8 - restBits)) & 0xFF;
+        }
+
+        // each byte is xor-ed with all bytes below it
+        shuffled ^= shuffled << 8;
+        shuffled ^= shuffled << 16;
+        shuffled ^= shuffled << 32;
+        if(bytesLen < 8) shuffled &= (1L << (bytesLen << 3)) - 1;
+
+        if(restBits > 0) {
+            shuffled >>>= 8 - restBits;
+        }
+        return shuffled;
+    }
+
+    /**
+     * Stores into {@code out} the value corresponding to {@code index} in a permutation with {@code count} elements.
+     * <br>This method returns the same values as {@link #getShuffledIndex(BigInteger, BigInteger)}, but it operates on mutable limbs
+     * and does not allocate objects. The content of {@code index} is destroyed. {@code index} and {@code out} must have the same capacity.
+     * @param bitCount the bit length of {@code count - 1}
+     */
+    public void getShuffledIndex(Limbs index, Limbs out, Limbs count, int bitCount) {
+        long[] src = index.getWords();
+        long[] dst = out.getWords();
+        while(true) {
+            shuffleBits(src, dst, bitCount);
+            if(Limbs.compare(dst, count.getWords()) < 0) break;
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if(dst != out.getWords()) {
+            System.arraycopy(dst, 0, out.getWords(), 0, dst.length);
+        }
+    }
+
+    /**
+     * Performs one shuffling round of {@link #getShuffledIndex(BigInteger, BigInteger)} on an index stored in long limbs.
+     * <br>The byte with position {@code j} in the big-endian byte array of the BigInteger implementation is stored here
+     * in the byte with position {@code bytesLen - 1 - j} of the limbs, counting from the least significant byte.
+     */
+    private void shuffleBits(long[] src, long[] dst, int bitCount) {
+        int wholeBytes = bitCount >>> 3;
+        int restBits = bitCount & 7;
+        int bytesLen = (bitCount + 7) >>> 3;
+
+        Arrays.fill(dst, 0);
+        int idx = 0;
+        for(int i = 0; i < wholeBytes; i++) {
+            idx = (int)((src[i >>> 3] >>> ((i & 7) << 3)) ^ idx) & 0xFF;
+            int pos = bytesLen - 1 - i;
+            dst[pos >>> 3] |= (long)bytePermutations[i % BYTE_PERMUTATIONS_COUNT][idx] << ((pos & 7) << 3);
+        }
+        if(restBits > 0) {
+            idx = (int)((src[wholeBytes >>> 3] >>> ((wholeBytes & 7) << 3)) ^ idx) & ((1 << restBits) - 1);
+            dst[0] |= (bitPermutations[restBits][idx] << (8 - restBits)) & 0xFF;
+        }
+
+        // each byte is xor-ed with all bytes below it
+        int wordsLen = (bytesLen + 7) >>> 3;
+        long carry = 0;
+        for(int w = 0; w < wordsLen; w++) {
+            long word = dst[w];
+            word ^= word << 8;
+            word ^= word << 16;
+            word ^= word << 32;
+            word ^= carry * 0x0101010101010101L;
+            dst[w] = word;
+            carry = word >>> 56;
+        }
+        if((bytesLen & 7) != 0) dst[wordsLen - 1] &= (1L << ((bytesLen & 7) << 3)) - 1;
+
+        if(restBits > 0) {
+            int shift = 8 - restBits;
+            for(int w = 0; w < wordsLen; w++) {
+                long next = (w + 1 < wordsLen) ? dst[w + 1] : 0;
+                dst[w] = (dst[w] >>> shift) | (next << (64 - shift));
+            }
+        }
     }
 
     /**
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.powerset.PowerSet
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Predicate
+import java.util.function.ToDoubleFunction
+import java.util.stream.Collectors
+
+@Unroll
+class BatchSpec extends Specification {
+    def "IntBatches.stream(#capacity) of #description should provide all elements in column-major batches"() {
+        given:
+        def expected = streamableSupplier.call().stream().map { it as List }.collect(Collectors.toList())
+
+        when:
+        def batches = IntBatches.stream(streamableSupplier.call(), capacity).collect(Collectors.toList())
+        def parallelBatches = IntBatches.parallelStream(streamableSupplier.call(), capacity).collect(Collectors.toList())
+
+        then:
+        [batches, parallelBatches].every { list ->
+            list.collectMany { IntBatch batch -> (0..<batch.size).collect { row -> (0..<batch.length).collect { pos -> batch.get(row, pos) } } } == expected
+        }
+        batches.every { it.size > 0 && it.size <= capacity }
+        batches.every { IntBatch batch -> (0..<batch.size).every { row -> batch.getRow(row).length == batch.length } }
+
+        where:
+        description                 | streamableSupplier                                | capacity
+        'Permutations(5)'           | { -> new Permutations(5) }                        | 16
+        'Combinations(9, 4)'        | { -> new Combinations(9, 4) }                     | 8
+        'CartesianProduct(3, 5, 7)' | { -> new CartesianProduct(3, 5, 7) }              | 1
+        'PowerSet(6)'               | { -> new PowerSet(6) }                            | 4
+        'shuffled Permutations(6)'  | { -> new Permutations(6).shuffle(new Random(3)) } | 16
+    }
+
+    def "countMatches with the scalar fallback should count the elements accepted by the predicate"() {
+        given:
+        Predicate<int[]> predicate = { int[] perm -> perm[0] < perm[perm.length - 1] }
+
+        expect:
+        IntBatches.countMatches(new Permutations(7), VectorizedPredicate.of(predicate)) == 2520
+        IntBatches.countMatches(new PowerSet(10), VectorizedPredicate.of({ int[] set -> set.length == 3 } as Predicate)) == 120
+    }
+
+    def "bestScore should return the first element with the highest score"() {
+        given:
+        ToDoubleFunction<int[]> scorer = { int[] seq -> (double)(seq[0] * 10 + seq[1] - seq[2]) }
+        VectorizedScorer columnScorer = { IntBatch batch, double[] scores ->
+            int[] data = batch.data
+            for(int row = 0; row < batch.size; row++) {
+                scores[row] = data[batch.getOffset(0) + row] * 10 + data[batch.getOffset(1) + row] - data[batch.getOffset(2) + row]
+            }
+        }
+
+        when:
+        def best = IntBatches.bestScore(new Permutations(8), VectorizedScorer.of(scorer)).get()
+        def columnBest = IntBatches.bestScore(new Permutations(8), columnScorer).get()
+
+        then:
+        best.score == 76.0d
+        best.element as List == [7, 6, 0, 1, 2, 3, 4, 5]
+        columnBest.score == best.score
+        columnBest.element as List == best.element as List
+        !IntBatches.bestScore(new Permutations(8).skip(40320), VectorizedScorer.of(scorer)).isPresent()
+    }
+
+    def "an IntBatch should reject rows with a different length and rows exceeding its capacity"() {
+        given:
+        def batch = new IntBatch(2, 3)
+
+        expect:
+        batch.add([1, 2, 3] as int[])
+        !batch.add([1, 2] as int[])
+        batch.add([4, 5, 6] as int[])
+        !batch.add([7, 8, 9] as int[])
+        batch.full
+        batch.data as List == [1, 4, 2, 5, 3, 6]
+    }
+}
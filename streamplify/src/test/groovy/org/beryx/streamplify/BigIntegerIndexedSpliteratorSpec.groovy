@@ -15,6 +15,14 @@
  */
 package org.beryx.streamplify
 
+import org.beryx.streamplify.derangement.BigIntegerDerangements
+import org.beryx.streamplify.derangement.DerangementSupplier
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.PermutationSupplier
+import org.beryx.streamplify.product.BigIntegerCartesianProduct
+import org.beryx.streamplify.product.CartesianProductSupplier
+import org.beryx.streamplify.shared.HybridIndex
+import org.beryx.streamplify.shuffler.DefaultBigIntegerShuffler
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -173,4 +181,56 @@ class BigIntegerIndexedSpliteratorSpec extends Specification {
         "10000000000000000000000" | "99999999999999999999999" | "20000000000000000000000" | "30000000000000000000000"
         "10000000000000000000000" | "20000000000000000000000" | "30000000000000000000000" | "20000000000000000000000"
     }
+
+    def "the traversal of #description should provide the same elements as the unranking of each index"() {
+        given:
+        def streamable = streamableSupplier.call()
+        def origin = streamable.getIndex()
+        def shuffler = shuffled ? new DefaultBigIntegerShuffler(streamable.getFence(), new Random(seed)) : null
+        if(shuffled) streamable.shuffle(new Random(seed))
+        def values = []
+        def consumer = { values << (it as List) }
+
+        when:
+        5.times { streamable.tryAdvance(consumer) }
+        streamable.skip(3)
+        2.times { streamable.tryAdvance(consumer) }
+        def prefix = streamable.trySplit()
+        3.times { prefix.tryAdvance(consumer) }
+        def mid = streamable.getIndex()
+        3.times { streamable.tryAdvance(consumer) }
+
+        then:
+        def indexes = [0, 1, 2, 3, 4, 8, 9, 10, 11, 12].collect { origin + it } + (0..2).collect { mid + it }
+        values == indexes.collect { index -> supplierFactory.call().apply(shuffled ? shuffler.getShuffledIndex(index) : index) as List }
+
+        where:
+        description                                    | streamableSupplier                                                                              | supplierFactory                                                           | shuffled | seed
+        'BigIntegerPermutations(22) near the end'      | { -> new BigIntegerPermutations(22).skip(new BigInteger('1124000727777607680000') - 100) }      | { -> new PermutationSupplier.BigInt(22) }                                 | false    | 0
+        'BigIntegerPermutations(22) shuffled'          | { -> new BigIntegerPermutations(22).skip(new BigInteger('1000000000000000000000')) }            | { -> new PermutationSupplier.BigInt(22) }                                 | true     | 3
+        'BigIntegerDerangements(23)'                   | { -> new BigIntegerDerangements(23).skip(new BigInteger('9510425341068837596611')) }            | { -> new DerangementSupplier.BigInt(23) }                                 | false    | 0
+        'BigIntegerCartesianProduct(20 x 10)'          | { -> new BigIntegerCartesianProduct([10] * 20 as int[]).skip(new BigInteger('9' * 18 + '00')) } | { -> new CartesianProductSupplier.BigInt([10] * 20 as int[], 10G ** 20) } | false    | 0
+        'BigIntegerCartesianProduct(20 x 10) shuffled' | { -> new BigIntegerCartesianProduct([10] * 20 as int[]) }                                       | { -> new CartesianProductSupplier.BigInt([10] * 20 as int[], 10G ** 20) } | true     | 5
+    }
+
+    def "a hybrid index at offset 5 should detect whether #description is its successor"() {
+        given:
+        def base1 = new BigInteger('12345678901234567890')
+        def hybridIndex = new HybridIndex(base1)
+        hybridIndex.moveTo(base1, 5)
+
+        expect:
+        hybridIndex.moveTo(base.call(base1), offset) == successor
+        hybridIndex.get() == base1 + expected
+
+        where:
+        description                   | base                                     | offset | successor | expected
+        'the same base with offset 6' | { BigInteger b -> b }                    | 6      | true      | 6
+        'the same base with offset 7' | { BigInteger b -> b }                    | 7      | false     | 7
+        'the same base with offset 5' | { BigInteger b -> b }                    | 5      | false     | 5
+        'an equal base with offset 6' | { BigInteger b -> new BigInteger("$b") } | 6      | true      | 6
+        'base + 4 with offset 2'      | { BigInteger b -> b + 4 }                | 2      | true      | 6
+        'base + 6 with offset 0'      | { BigInteger b -> b + 6 }                | 0      | true      | 6
+        'base + 6 with offset 1'      | { BigInteger b -> b + 6 }                | 1      | false     | 7
+    }
 }
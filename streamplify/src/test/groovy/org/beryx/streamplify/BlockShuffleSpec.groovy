@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.product.CartesianProduct
+import org.beryx.streamplify.shuffler.BlockLongShuffler
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class BlockShuffleSpec extends Specification {
+    def "blockShuffle(#blockSize) of #description should keep the elements of each block in order"() {
+        given:
+        def sorted = asList(streamableSupplier.call().stream())
+        def shuffled = asList(streamableSupplier.call().blockShuffle(blockSize, new Random(seed)).stream())
+        def ranks = asList(streamableSupplier.call().blockShuffle(blockSize, new Random(seed)).indexedStream().map { it.rank })
+        int fullEnd = sorted.size() - sorted.size() % blockSize
+
+        expect:
+        new HashSet(shuffled) == new HashSet(sorted)
+        (0..<shuffled.size()).every { int i -> shuffled[i] == sorted[(int)ranks[i]] }
+        (0..<fullEnd).every { int i -> (i % blockSize == 0) ? ranks[i] % blockSize == 0 : ranks[i] == ranks[i - 1] + 1 }
+        (fullEnd..<sorted.size()).every { int i -> ranks[i] == i }
+        shuffled != sorted
+        asList(streamableSupplier.call().blockShuffle(blockSize, new Random(seed)).parallelStream()) == shuffled
+        asList(streamableSupplier.call().asTemplate().blockShuffle(blockSize, new Random(seed)).parallelStream()) == shuffled
+        asList(streamableSupplier.call().blockShuffle(blockSize, new Random(seed)).skip(17).stream()) == shuffled.subList(17, shuffled.size())
+
+        where:
+        description                 | streamableSupplier                   | blockSize | seed
+        'Permutations(6)'           | { -> new Permutations(6) }           | 10        | 1
+        'Permutations(7)'           | { -> new Permutations(7) }           | 64        | 2
+        'Combinations(12, 5)'       | { -> new Combinations(12, 5) }       | 7         | 3
+        'Derangements(6)'           | { -> new Derangements(6) }           | 5         | 4
+        'CartesianProduct(4, 5, 6)' | { -> new CartesianProduct(4, 5, 6) } | 8         | 5
+    }
+
+    def "blockShuffle with block size 1 should provide the same order as shuffle"() {
+        expect:
+        asList(new Permutations(6).blockShuffle(1, new Random(11)).stream()) == asList(new Permutations(6).shuffle(new Random(11)).stream())
+    }
+
+    def "blockShuffle of a BigInteger-indexed data source should keep the elements of each block in order"() {
+        given:
+        def count = new BigInteger('1124000727777607680000')
+        def ranked = new Permutations(22).blockShuffle(1000, new Random(7)).indexedStream().limit(3000).collect(Collectors.toList())
+
+        expect:
+        (0..<3000).every { int i -> (i % 1000 == 0) ? ranked[i].bigRank.mod(1000G) == 0 : ranked[i].bigRank == ranked[i - 1].bigRank + 1 }
+        ranked.collect { it.bigRank.divide(1000G) }.toSet().size() == 3
+        ranked.every { it.bigRank < count }
+        [0, 999, 1000, 2500].every { int i -> ranked[i].element == new Permutations(22).skip(ranked[i].bigRank).stream().findFirst().get() }
+    }
+
+    def "BlockLongShuffler should shuffle all #count indexes with block size #blockSize"() {
+        given:
+        def shuffler = new BlockLongShuffler(count, blockSize, new Random(count))
+        def bulk = new long[count - 3]
+        shuffler.getShuffledIndices(3, bulk)
+
+        expect:
+        (0L..<count).collect { shuffler.getShuffledIndex(it) }.toSet() == (0L..<count).toSet()
+        (0..<bulk.length).every { int i -> bulk[i] == shuffler.getShuffledIndex(3 + i) }
+
+        where:
+        count | blockSize
+        10    | 3
+        100   | 10
+        1000  | 1
+        1003  | 7
+        50    | 64
+    }
+
+    def "blockShuffle should fail for block size #blockSize"() {
+        when:
+        new Permutations(5).blockShuffle(blockSize, new Random())
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        blockSize << [0, -1]
+    }
+
+    private static List asList(java.util.stream.Stream stream) {
+        stream.map { it.getClass().isArray() ? it as List : it }.collect(Collectors.toList())
+    }
+}
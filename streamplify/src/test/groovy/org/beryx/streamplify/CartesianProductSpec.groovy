@@ -21,6 +21,7 @@ import org.beryx.streamplify.product.LongCartesianProduct
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.function.IntPredicate
 import java.util.stream.Collectors
 
 @Unroll
@@ -138,4 +139,56 @@ class CartesianProductSpec extends Specification {
         [3, 4]     | ['[0, 0]', '[0, 1]', '[0, 2]', '[0, 3]', '[1, 0]', '[1, 1]', '[1, 2]', '[1, 3]', '[2, 0]', '[2, 1]', '[2, 2]', '[2, 3]']
         [2, 3, 2]  | ['[0, 0, 0]', '[0, 0, 1]', '[0, 1, 0]', '[0, 1, 1]', '[0, 2, 0]', '[0, 2, 1]', '[1, 0, 0]', '[1, 0, 1]', '[1, 1, 0]', '[1, 1, 1]', '[1, 2, 0]', '[1, 2, 1]']
     }
+
+    def "withAllowed should provide only the tuples made of allowed values"() {
+        given:
+        def expected = new CartesianProduct(4, 5, 6).stream()
+                .filter { int[] t -> t[0] in [1, 3] && t[2] % 2 == 1 && t[2] != 3 }
+                .map { (it as List).toString() }.collect(Collectors.toList())
+
+        when:
+        def product = new CartesianProduct(4, 5, 6).withAllowed(0, 3, 1, 3).withAllowed(2, { it % 2 == 1 } as IntPredicate).withAllowed(2, 1, 5, 0)
+
+        then:
+        product.count() == expected.size()
+        product.withPrefix().stream().map { (it as List).toString() }.collect(Collectors.toList()) == expected
+        product.withPrefix(3).stream().map { (it as List).toString() }.collect(Collectors.toList()) == expected.findAll { it.startsWith('[3') }
+        product.withPrefix(2).count() == 0
+    }
+
+    def "withAllowed should support skipping, shuffling and splitting over the allowed tuples"() {
+        given:
+        def product = { -> new CartesianProduct(10, 10, 10, 10).withAllowed(1, 2, 4, 8).withAllowed(3, 9) }
+        def all = product().stream().map { (it as List).toString() }.collect(Collectors.toList())
+
+        expect:
+        all.size() == 300
+        product().skip(250).stream().map { (it as List).toString() }.collect(Collectors.toList()) == all.subList(250, 300)
+        product().parallelStream().map { (it as List).toString() }.collect(Collectors.toList()) == all
+        product().shuffle(new Random(1)).stream().map { (it as List).toString() }.collect(Collectors.toSet()) == all as Set
+    }
+
+    def "withAllowed should use BigInteger indexes when needed"() {
+        when:
+        def product = new CartesianProduct((1..20).collect { 100 } as int[]).withAllowed(19, 7, 99)
+        def count = product.bigCount()
+        def tuples = product.skip(count - 3).stream().map { it[17..19] }.collect(Collectors.toList())
+
+        then:
+        count == BigInteger.valueOf(100).pow(19) * 2
+        tuples == [[99, 98, 99], [99, 99, 7], [99, 99, 99]]
+    }
+
+    def "withAllowed should reject #description"() {
+        when:
+        new CartesianProduct(3, 4).withAllowed(dim, values as int[])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        description       | dim | values
+        'invalid dims'    | 2   | [0]
+        'invalid values'  | 1   | [4]
+    }
 }
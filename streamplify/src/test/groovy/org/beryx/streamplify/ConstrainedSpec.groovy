@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.combination.ConstrainedCombinations
+import org.beryx.streamplify.permutation.ConstrainedPermutations
+import org.beryx.streamplify.permutation.Permutations
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+import static org.beryx.streamplify.permutation.ConstrainedPermutations.FREE
+
+@Unroll
+class ConstrainedSpec extends Specification {
+    static List<List<Integer>> asList(Streamable streamable) {
+        streamable.stream().map { int[] arr -> arr as List }.collect(Collectors.toList())
+    }
+
+    def "ConstrainedCombinations(#n, #k, #include, #exclude) should provide the matching combinations in lexicographic order"() {
+        given:
+        def expected = asList(new Combinations(n, k)).findAll { c -> c.containsAll(include) && !exclude.any { c.contains(it) } }
+
+        when:
+        def combinations = new ConstrainedCombinations(n, k, include as int[], exclude as int[])
+
+        then:
+        combinations.count() == expected.size()
+        asList(new ConstrainedCombinations(n, k, include as int[], exclude as int[])) == expected
+        new ConstrainedCombinations(n, k, include as int[], exclude as int[]).parallelStream().map { it as List }.collect(Collectors.toList()) == expected
+
+        where:
+        n  | k | include   | exclude
+        10 | 4 | [3, 7]    | [1]
+        10 | 4 | []        | []
+        10 | 4 | [9, 0]    | [5, 6, 7]
+        8  | 3 | [1, 2, 3] | [0]
+        6  | 2 | []        | [0, 1, 2, 3]
+    }
+
+    def "ConstrainedCombinations should support skipping"() {
+        expect:
+        asList(new ConstrainedCombinations(40, 5, [3, 7] as int[], [11] as int[]).skip(6000)) ==
+                asList(new ConstrainedCombinations(40, 5, [3, 7] as int[], [11] as int[])).subList(6000, 7770)
+    }
+
+    def "ConstrainedCombinations should reject #description"() {
+        when:
+        new ConstrainedCombinations(n, k, include as int[], exclude as int[])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        description              | n  | k | include         | exclude
+        'overlapping constraints'| 10 | 3 | [1, 2]          | [2]
+        'invalid elements'       | 10 | 3 | [10]            | []
+        'too many inclusions'    | 10 | 2 | [1, 2, 3]       | []
+        'too many exclusions'    | 5  | 3 | []              | [0, 1, 2]
+    }
+
+    def "ConstrainedPermutations(#pinned) should provide the matching permutations in lexicographic order"() {
+        given:
+        def expected = asList(new Permutations(pinned.size())).findAll { p -> (0..<pinned.size()).every { pinned[it] == FREE || p[it] == pinned[it] } }
+
+        when:
+        def perms = new ConstrainedPermutations(pinned as int[])
+
+        then:
+        perms.count() == expected.size()
+        asList(new ConstrainedPermutations(pinned as int[])) == expected
+        new ConstrainedPermutations(pinned as int[]).parallelStream().map { it as List }.collect(Collectors.toList()) == expected
+
+        where:
+        pinned << [
+                [0, FREE, FREE, FREE, FREE, FREE],
+                [FREE, FREE, 2, FREE, 5, FREE],
+                [FREE, FREE, FREE, FREE],
+                [3, 2, 1, 0],
+        ]
+    }
+
+    def "ConstrainedPermutations should support shuffling"() {
+        when:
+        def shuffled = asList(new ConstrainedPermutations(FREE, 4, FREE, FREE, 0, FREE).shuffle(new Random(5)))
+
+        then:
+        shuffled.size() == 24
+        shuffled as Set == asList(new ConstrainedPermutations(FREE, 4, FREE, FREE, 0, FREE)) as Set
+        shuffled != asList(new ConstrainedPermutations(FREE, 4, FREE, FREE, 0, FREE))
+    }
+
+    def "ConstrainedPermutations should reject #description"() {
+        when:
+        new ConstrainedPermutations(pinned as int[])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        description        | pinned
+        'repeated values'  | [1, FREE, 1]
+        'invalid values'   | [FREE, 3, FREE]
+    }
+
+    def "map should keep the indexing capabilities"() {
+        when:
+        def mapped = new Permutations(6).map { int[] p -> p[0] * 10 + p[1] }
+
+        then:
+        mapped.count() == 720
+        mapped.skip(700).stream().collect(Collectors.toList()) ==
+                new Permutations(6).stream().skip(700).map { int[] p -> p[0] * 10 + p[1] }.collect(Collectors.toList())
+    }
+}
@@ -16,6 +16,7 @@
 package org.beryx.streamplify
 
 import org.beryx.streamplify.derangement.BigIntegerDerangements
+import org.beryx.streamplify.derangement.DerangementSupplier
 import org.beryx.streamplify.derangement.LongDerangements
 import org.beryx.streamplify.derangement.Derangements
 import spock.lang.Specification
@@ -142,4 +143,63 @@ class DerangementsSpec extends Specification {
         25     | (new BigInteger('1234567890123456789012345'))  | '[6, 5, 17, 0, 23, 2, 10, 3, 11, 16, 4, 7, 13, 14, 15, 20, 21, 8, 22, 9, 1, 19, 12, 24, 18]'
         25     | (new BigInteger('12345678901234567890123456')) | ''
     }
+
+    def "consecutive derangements of #description should match the unranked derangements"() {
+        given:
+        def unranked = (0..<count).collect { (supplierFactory.call().apply(skip + it) as List) }
+
+        when:
+        def derangements = new Derangements(length).skip(skip).stream().limit(count).map { it as List }.collect(Collectors.toList())
+
+        then:
+        derangements == unranked
+        derangements.every { d -> (0..<length).every { d[it] != it } }
+        derangements.toSet().size() == count
+
+        where:
+        description              | length | skip                    | count | supplierFactory
+        'length 9'               | 9      | 0                       | 5000  | { -> new DerangementSupplier.Long(9) }
+        'length 9 after a skip'  | 9      | 128_000                 | 5496  | { -> new DerangementSupplier.Long(9) }
+        'length 21 after a skip' | 21     | 10_000_000_000_000_000G | 3000  | { -> new DerangementSupplier.BigInt(21) }
+        'length 30 after a skip' | 30     | 10G ** 30               | 3000  | { -> new DerangementSupplier.BigInt(30) }
+    }
+
+    def "init() followed by computeNext() should provide the derangements of length #length in order"() {
+        given:
+        def supplier = supplierFactory.call()
+        def expected = (1..count).collect { (supplierFactory.call().apply(it) as List) }
+
+        when:
+        supplier.init()
+        def first = supplier.currentSequence as List
+        def next = (1..count).collect {
+            supplier.computeNext()
+            supplier.currentSequence as List
+        }
+
+        then:
+        first == supplierFactory.call().apply(0) as List
+        next == expected
+
+        where:
+        length | count | supplierFactory
+        4      | 8     | { -> new DerangementSupplier.Long(4) }
+        9      | 2000  | { -> new DerangementSupplier.Long(9) }
+        22     | 2000  | { -> new DerangementSupplier.BigInt(22) }
+    }
+
+    def "init() followed by computeNext() should provide [1, 2, 3, 0] and then [1, 3, 0, 2] for length 4"() {
+        given:
+        def supplier = new DerangementSupplier.Long(4)
+
+        when:
+        supplier.init()
+        def first = supplier.currentSequence as List
+        supplier.computeNext()
+        def second = supplier.currentSequence as List
+
+        then:
+        first == [1, 2, 3, 0]
+        second == [1, 3, 0, 2]
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.partperm.PartialPermutations
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Predicate
+import java.util.function.ToDoubleFunction
+
+@Unroll
+class EstimatorSpec extends Specification {
+    static final Predicate<int[]> FIRST_LESS_THAN_SECOND = { int[] seq -> seq[0] < seq[1] } as Predicate<int[]>
+
+    def "the confidence interval of the count estimate for #description should contain the exact count"() {
+        when:
+        def estimate = streamableSupplier.call().estimateCount(FIRST_LESS_THAN_SECOND, new Estimator().withSeed(42))
+
+        then:
+        estimate.sampleSize == 10000
+        estimate.lowerBound <= exactCount
+        estimate.upperBound >= exactCount
+        Math.abs(estimate.value - exactCount) / exactCount < 0.05
+
+        where:
+        description                  | streamableSupplier                              | exactCount
+        'Permutations(8)'            | { -> new Permutations(8) }                      | 20160.0
+        'Permutations(8).skip(5040)' | { -> new Permutations(8).skip(5040) }           | 20160.0 - 5040
+        'BigIntegerPermutations(8)'  | { -> new BigIntegerPermutations(8) }            | 20160.0
+        'Permutations(25)'           | { -> new Permutations(25) }                     | new BigInteger('15511210043330985984000000').doubleValue() / 2
+    }
+
+    def "the same seed should produce the same estimate"() {
+        given:
+        def estimator = new Estimator().withSeed(7).withSampleSize(5000).withStrata(10)
+
+        when:
+        def estimate1 = new Permutations(10).estimateCount(FIRST_LESS_THAN_SECOND, estimator)
+        def estimate2 = new Permutations(10).asTemplate().estimateCount(FIRST_LESS_THAN_SECOND, estimator)
+
+        then:
+        estimate1.value == estimate2.value
+        estimate1.standardError == estimate2.standardError
+    }
+
+    def "sampling should continue until the target relative error is reached"() {
+        when:
+        def estimate = new Permutations(9).estimateCount({ int[] seq -> seq[0] == 0 } as Predicate<int[]>,
+                new Estimator().withSeed(1).withSampleSize(1000).withTargetRelativeError(0.05))
+
+        then:
+        estimate.sampleSize > 1000
+        estimate.sampleSize % 1000 == 0
+        estimate.relativeError <= 0.05
+        estimate.lowerBound <= 40320
+        estimate.upperBound >= 40320
+    }
+
+    def "sampling should stop at the maximum sample size"() {
+        when:
+        def estimate = new Permutations(9).estimateCount({ int[] seq -> seq[0] == 0 && seq[1] == 1 } as Predicate<int[]>,
+                new Estimator().withSeed(1).withSampleSize(1000).withMaxSampleSize(2500).withTargetRelativeError(0.001))
+
+        then:
+        estimate.sampleSize == 2500
+        estimate.relativeError > 0.001
+    }
+
+    def "strata matching the predicate should produce exact estimates for #description"() {
+        when:
+        def estimate = streamableSupplier.call().estimateCount(predicate, estimator)
+
+        then:
+        estimate.value == exactCount
+        estimate.standardError == 0
+
+        where:
+        description           | streamableSupplier             | predicate                                        | estimator                                               | exactCount
+        'Permutations(8)'     | { -> new Permutations(8) }     | { int[] seq -> seq[0] < 4 } as Predicate<int[]>  | new Estimator().withSampleSize(100).withStrata(8)       | 20160.0
+        'Combinations(10, 4)' | { -> new Combinations(10, 4) } | { int[] seq -> seq[0] == 0 } as Predicate<int[]> | new Estimator().withSampleSize(100).withPrefixStrata(1) | 84.0
+    }
+
+    def "estimateMean should estimate the mean value of an objective"() {
+        when:
+        def estimate = new CartesianProduct(10, 10, 10).estimateMean({ int[] seq -> (double)(seq[0] + seq[1] + seq[2]) } as ToDoubleFunction<int[]>,
+                new Estimator().withSeed(3).withConfidence(0.99).withStrata(10))
+
+        then:
+        estimate.confidence == 0.99
+        estimate.lowerBound <= 13.5
+        estimate.upperBound >= 13.5
+        estimate.standardError > 0
+    }
+
+    def "the estimate of an empty data source should be zero"() {
+        when:
+        def estimate = new Permutations(5).skip(200).estimateCount(FIRST_LESS_THAN_SECOND, new Estimator())
+
+        then:
+        estimate.value == 0
+        estimate.sampleSize == 0
+    }
+
+    def "the estimation should fail for #description"() {
+        when:
+        action.call()
+
+        then:
+        thrown(exception)
+
+        where:
+        description                             | action                                                                                                                    | exception
+        'prefix strata of partial permutations' | { -> new PartialPermutations(5).estimateCount(FIRST_LESS_THAN_SECOND, new Estimator().withPrefixStrata(1)) }              | UnsupportedOperationException
+        'too many strata'                       | { -> new Permutations(8).estimateCount(FIRST_LESS_THAN_SECOND, new Estimator().withSampleSize(100).withPrefixStrata(2)) } | IllegalArgumentException
+        'an invalid confidence level'           | { -> new Estimator().withConfidence(1) }                                                                                  | IllegalArgumentException
+    }
+
+    def "normalQuantile(#p) should be #expected"() {
+        expect:
+        Math.abs(Estimator.normalQuantile(p) - expected) < 1e-6
+
+        where:
+        p      | expected
+        0.5    | 0
+        0.975  | 1.959964
+        0.995  | 2.575829
+        0.01   | -2.326348
+    }
+}
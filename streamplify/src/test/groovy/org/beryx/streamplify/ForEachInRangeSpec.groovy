@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.CombinationSupplier
+import org.beryx.streamplify.derangement.DerangementSupplier
+import org.beryx.streamplify.partperm.PartialPermutationSupplier
+import org.beryx.streamplify.permutation.PermutationSupplier
+import org.beryx.streamplify.powerset.PowerSetSupplier
+import org.beryx.streamplify.product.CartesianProductSupplier
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Consumer
+
+@Unroll
+class ForEachInRangeSpec extends Specification {
+    def "forEachInRange(#from, #to) of #description should provide the same values as apply"() {
+        given:
+        def expected = (from..<to).collect { (supplierFactory.call().apply(it) as List) }
+        def actual = []
+        def supplier = supplierFactory.call()
+
+        when:
+        supplier.forEachInRange(from, to, { actual << (it as List) } as Consumer)
+
+        then:
+        actual == expected
+        (supplier.apply(to) as List) == (supplierFactory.call().apply(to) as List)
+
+        where:
+        description                    | supplierFactory                                                        | from | to
+        'PermutationSupplier.Long'     | { -> new PermutationSupplier.Long(5) }                                 | 0    | 119
+        'PermutationSupplier.Long'     | { -> new PermutationSupplier.Long(5) }                                 | 37   | 38
+        'PermutationSupplier.BigInt'   | { -> new PermutationSupplier.BigInt(5) }                               | 17G  | 90G
+        'CombinationSupplier.Long'     | { -> new CombinationSupplier.Long(210, 10, 4) }                        | 5    | 200
+        'CombinationSupplier.BigInt'   | { -> new CombinationSupplier.BigInt(210G, 10, 4) }                     | 100G | 209G
+        'CartesianProductSupplier'     | { -> new CartesianProductSupplier.Long(60, [3, 4, 5] as int[]) }       | 3    | 59
+        'restricted CartesianProduct'  | { -> new CartesianProductSupplier.Long(12, [2, 3, 2] as int[], [[1, 4], null, [0, 7]] as int[][]) } | 1 | 11
+        'PartialPermutationSupplier'   | { -> new PartialPermutationSupplier.Long(4) }                          | 10   | 200
+        'PowerSetSupplier.Long'        | { -> new PowerSetSupplier.Long(6) }                                    | 2    | 63
+        'PowerSetSupplier.BigInt'      | { -> new PowerSetSupplier.BigInt(6) }                                  | 2G   | 63G
+        'DerangementSupplier.Long'     | { -> new DerangementSupplier.Long(5) }                                 | 3    | 43
+        'DerangementSupplier.Long'     | { -> new DerangementSupplier.Long(8) }                                 | 0    | 14832
+        'DerangementSupplier.BigInt'   | { -> new DerangementSupplier.BigInt(7) }                               | 100G | 1853G
+    }
+
+    def "forEachInRange should do nothing for empty ranges"() {
+        given:
+        def actual = []
+
+        when:
+        new PermutationSupplier.Long(4).forEachInRange(5, 5, { actual << it } as Consumer)
+
+        then:
+        actual.empty
+    }
+}
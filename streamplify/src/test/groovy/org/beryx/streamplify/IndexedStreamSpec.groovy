@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.Permutations
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class IndexedStreamSpec extends Specification {
+    static List<String> asList(Streamable streamable) {
+        streamable.stream().map { int[] arr -> (arr as List).toString() }.collect(Collectors.toList())
+    }
+
+    def "indexedStream of #description should provide the elements of the stream together with their positions and ranks"() {
+        when:
+        def ranked = streamableSupplier.call().indexedStream().collect(Collectors.toList())
+
+        then:
+        ranked.collect { (it.element as List).toString() } == asList(streamableSupplier.call())
+        ranked.collect { it.position } == (skipped..<(skipped + ranked.size())).collect { it as long }
+        ranked.every { it.rank == it.position }
+
+        where:
+        description                   | streamableSupplier                               | skipped
+        'Permutations(5)'             | { -> new Permutations(5) }                       | 0
+        'Permutations(6).skip(700)'   | { -> new Permutations(6).skip(700) }             | 700
+        'Combinations(9, 4)'          | { -> new Combinations(9, 4) }                    | 0
+        'BigIntegerPermutations(5)'   | { -> new BigIntegerPermutations(5) }             | 0
+    }
+
+    def "indexedStream of a shuffled #description should expose the positions and the underlying ranks"() {
+        when:
+        def ranked = streamableSupplier.call().shuffle(new Random(7)).indexedStream().collect(Collectors.toList())
+        def all = asList(streamableSupplier.call())
+
+        then:
+        ranked.collect { (it.element as List).toString() } == asList(streamableSupplier.call().shuffle(new Random(7)))
+        ranked.collect { it.position } == (0..<all.size()).collect { it as long }
+        ranked.collect { it.rank } as Set == (0..<all.size()).collect { it as long } as Set
+        ranked.every { (it.element as List).toString() == all[it.rank as int] }
+
+        where:
+        description                 | streamableSupplier
+        'Permutations(6)'           | { -> new Permutations(6) }
+        'BigIntegerPermutations(5)' | { -> new BigIntegerPermutations(5) }
+    }
+
+    def "parallelIndexedStream should provide the same pairs as indexedStream"() {
+        given:
+        def perms = new Permutations(8).shuffle(new Random(3))
+
+        expect:
+        perms.parallelIndexedStream().map { [it.position, it.rank, it.element as List] }.collect(Collectors.toList()) ==
+                perms.indexedStream().map { [it.position, it.rank, it.element as List] }.collect(Collectors.toList())
+    }
+
+    def "indexedStream should provide BigInteger positions and ranks for large sources"() {
+        given:
+        def start = new BigInteger('1124000727777607680000') - 3
+
+        when:
+        def ranked = new Permutations(22).skip(start).indexedStream().collect(Collectors.toList())
+
+        then:
+        ranked.size() == 3
+        ranked.collect { it.bigPosition } == [start, start + 1, start + 2]
+        ranked.collect { it.bigRank } == [start, start + 1, start + 2]
+
+        when:
+        ranked[0].position
+
+        then:
+        thrown(ArithmeticException)
+    }
+
+    def "forEachIndexed should pass the same values as indexedStream"() {
+        given:
+        def perms = new Permutations(5).shuffle(new Random(11)).skip(20)
+        def expected = perms.indexedStream().collect(Collectors.toList())
+        def actual = []
+
+        when:
+        perms.forEachIndexed({ long position, long rank, int[] perm ->
+            actual << [position, rank, perm as List]
+        } as IndexedConsumer)
+
+        then:
+        actual == expected.collect { [it.position, it.rank, it.element as List] }
+    }
+
+    def "forEachIndexed should pass BigInteger values to the BigInteger variant"() {
+        given:
+        def start = new BigInteger('1124000727777607680000') - 2
+        def positions = []
+        def consumer = new IndexedConsumer<int[]>() {
+            void accept(long position, long rank, int[] element) { throw new IllegalStateException() }
+            void accept(BigInteger position, BigInteger rank, int[] element) { positions << position }
+        }
+
+        when:
+        new Permutations(22).skip(start).forEachIndexed(consumer)
+
+        then:
+        positions == [start, start + 1]
+    }
+}
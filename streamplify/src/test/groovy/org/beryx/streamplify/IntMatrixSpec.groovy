@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.partperm.PartialPermutations
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.powerset.BigIntegerPowerSet
+import org.beryx.streamplify.powerset.PowerSet
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class IntMatrixSpec extends Specification {
+
+    def "toFlatArray() should contain the stream elements in order for #description"() {
+        given:
+        def expected = streamableSupplier.call().stream().map { int[] arr -> (arr as List) }.collect(Collectors.toList())
+
+        when:
+        IntMatrix matrix = streamableSupplier.call().toFlatArray()
+
+        then:
+        matrix.rowCount == expected.size()
+        matrix.width == width
+        (0..<matrix.rowCount).collect { matrix.getRow(it) as List } == expected
+
+        where:
+        description                    | streamableSupplier                           | width
+        'Permutations(7)'              | { -> new Permutations(7) }                   | 7
+        'BigIntegerPermutations(6)'    | { -> new BigIntegerPermutations(6) }         | 6
+        'Combinations(12, 5)'          | { -> new Combinations(12, 5) }               | 5
+        'CartesianProduct(3, 4, 5, 6)' | { -> new CartesianProduct(3, 4, 5, 6) }      | 4
+        'Derangements(7)'              | { -> new Derangements(7) }                   | 7
+        'PartialPermutations(5)'       | { -> new PartialPermutations(5) }            | 5
+        'PowerSet(11)'                 | { -> new PowerSet(11) }                      | -1
+        'BigIntegerPowerSet(9)'        | { -> new BigIntegerPowerSet(9) }             | -1
+        'Permutations(8).skip(1234)'   | { -> new Permutations(8).skip(1234) }        | 8
+        'Permutations(0)'              | { -> new Permutations(0) }                   | 0
+    }
+
+    def "toFlatArray() should preserve the order of a shuffled stream"() {
+        when:
+        def expected = new Permutations(7).shuffle(new Random(42)).stream().map { int[] arr -> (arr as List) }.collect(Collectors.toList())
+        IntMatrix matrix = new Permutations(7).shuffle(new Random(42)).toFlatArray()
+
+        then:
+        (0..<matrix.rowCount).collect { matrix.getRow(it) as List } == expected
+    }
+
+    def "variable-width matrix should provide correct offsets"() {
+        when:
+        IntMatrix matrix = new PowerSet(3).toFlatArray()
+
+        then:
+        matrix.offsets as List == [0, 0, 1, 2, 4, 5, 7, 9, 12]
+        matrix.data as List == [0, 1, 0, 1, 2, 0, 2, 1, 2, 0, 1, 2]
+        matrix.getRowLength(7) == 3
+        matrix.get(7, 2) == 2
+    }
+
+    def "fromRows should detect rows with the same length"() {
+        when:
+        IntMatrix matrix = IntMatrix.fromRows([[1, 2] as int[], [3, 4] as int[]])
+
+        then:
+        matrix.width == 2
+        matrix.offsets == null
+        matrix.data as List == [1, 2, 3, 4]
+    }
+}
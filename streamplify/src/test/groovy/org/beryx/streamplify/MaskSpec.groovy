@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.CombinationMaskSupplier
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.powerset.PowerSet
+import org.beryx.streamplify.shared.BitMasks
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class MaskSpec extends Specification {
+    static long toMask(int[] subset) {
+        long mask = 0
+        subset.each { mask |= 1L << it }
+        mask
+    }
+
+    static List<Integer> toSubset(long[] words) {
+        BitSet.valueOf(words).stream().boxed().collect(Collectors.toList())
+    }
+
+    def "masks of PowerSet(#length) should match the subsets provided by stream()"() {
+        given:
+        def expected = new PowerSet(length).stream().map { toMask(it) }.collect(Collectors.toList())
+
+        expect:
+        new PowerSet(length).masks().boxed().collect(Collectors.toList()) == expected
+        new PowerSet(length).masks().parallel().boxed().collect(Collectors.toList()) == expected
+        new PowerSet(length).wordMasks().parallelStream().map { firstWord(it) }.collect(Collectors.toList()) == expected
+
+        where:
+        length << [0, 1, 5, 12]
+    }
+
+    def "masks of Combinations(#n, #k) should be the increasing masks of the combinations provided by stream()"() {
+        given:
+        def expected = new Combinations(n, k).stream().map { toMask(it) }.sorted { a, b -> Long.compareUnsigned(a, b) }.collect(Collectors.toList())
+
+        expect:
+        new Combinations(n, k).masks().boxed().collect(Collectors.toList()) == expected
+        new Combinations(n, k).masks().parallel().boxed().collect(Collectors.toList()) == expected
+        new Combinations(n, k).wordMasks().parallelStream().map { firstWord(it) }.collect(Collectors.toList()) == expected
+
+        where:
+        n  | k
+        0  | 0
+        5  | 0
+        5  | 5
+        10 | 3
+        20 | 7
+        64 | 2
+        64 | 63
+    }
+
+    def "the mask supplier of Combinations(64, 32) should unrank index #index consistently with the successor"() {
+        given:
+        def supplier = new CombinationMaskSupplier.Long(64, 32)
+        def masks = (index..index + 2).collect { supplier.applyAsLong(it) }
+
+        expect:
+        masks.every { Long.bitCount(it) == 32 }
+        masks[1] == BitMasks.nextCombination(masks[0])
+        masks[2] == BitMasks.nextCombination(masks[1])
+        new CombinationMaskSupplier.Long(64, 32).applyAsLong(index + 2) == masks[2]
+        new CombinationMaskSupplier.Long(64, 32).applyAsLong(index) == firstMask
+
+        where:
+        index                      | firstMask
+        0L                         | 0xFFFFFFFFL
+        1L                         | 0x17FFFFFFFL
+        1_832_624_140_942_590_531L | 0xFFFFFFFE40000000L
+    }
+
+    def "word masks of #description should match the long masks of the same combinations"() {
+        given:
+        def wordMasks = streamableSupplier.call().wordMasks().parallelStream().map { toSubset(it) }.collect(Collectors.toList())
+
+        expect:
+        wordMasks.size() == count
+        wordMasks.every { it.size() == k && it.every { bit -> bit < n } }
+        (1..<wordMasks.size()).every { colexCompare(wordMasks[it - 1], wordMasks[it]) < 0 }
+        new HashSet(wordMasks) == new HashSet(new Combinations(n, k).stream().map { it as List }.collect(Collectors.toList()))
+
+        where:
+        description           | streamableSupplier              | n   | k | count
+        'Combinations(70,3)'  | { -> new Combinations(70, 3) }  | 70  | 3 | 54740
+        'Combinations(130,2)' | { -> new Combinations(130, 2) } | 130 | 2 | 8385
+    }
+
+    def "word masks of Combinations(200, 100) should be unranked consistently with the successor"() {
+        given:
+        def skip = new BigInteger('12345678901234567890123456789')
+        def combinations = new Combinations(200, 100)
+        def masks = combinations.wordMasks().skip(skip).stream().limit(50).collect(Collectors.toList())
+        def splitMasks = new Combinations(200, 100).wordMasks().skip(skip + 49).stream().limit(1).collect(Collectors.toList())
+
+        expect:
+        masks.every { BitSet.valueOf(it).cardinality() == 100 }
+        (1..<masks.size()).every { colexCompare(toSubset(masks[it - 1]), toSubset(masks[it])) < 0 }
+        masks[49] == splitMasks[0]
+    }
+
+    def "word masks of PowerSet(#length) should be correct after skipping #skip elements"() {
+        given:
+        def masks = new PowerSet(length).wordMasks().skip(skip).stream().limit(3).collect(Collectors.toList())
+
+        expect:
+        masks.collect { toBigInteger(it) } == [skip, skip + 1, skip + 2]
+
+        where:
+        length | skip
+        62     | new BigInteger('1234567890123')
+        70     | new BigInteger('18446744073709551615')
+        200    | BigInteger.ONE.shiftLeft(128) - 2
+    }
+
+    def "nextCombination of #words should be #next"() {
+        given:
+        def mask = words as long[]
+
+        when:
+        BitMasks.nextCombination(mask)
+
+        then:
+        mask as List == next
+
+        where:
+        words                   | next
+        [0b1011L, 0L]           | [0b1101L, 0L]
+        [0b0111L << 61, 0L]     | [0b0011L, 1L]
+        [-1L, 0L]               | [(-1L >>> 1), 1L]
+        [0L, 0b0110L]           | [1L, 0b1000L]
+        [1L << 63, 0L]          | [0L, 1L]
+    }
+
+    def "masks of #description should fail"() {
+        when:
+        action.call()
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        description          | action
+        'PowerSet(63)'       | { -> new PowerSet(63).masks() }
+        'Combinations(65,1)' | { -> new Combinations(65, 1).masks() }
+    }
+
+    static int colexCompare(List<Integer> a, List<Integer> b) {
+        for(int i = a.size() - 1; i >= 0; i--) {
+            if(a[i] != b[i]) return a[i] <=> b[i]
+        }
+        0
+    }
+
+    static long firstWord(long[] words) {
+        (words.length > 0) ? words[0] : 0L
+    }
+
+    static BigInteger toBigInteger(long[] words) {
+        def value = BigInteger.ZERO
+        words.eachWithIndex { long word, int i -> value += new BigInteger(Long.toUnsignedString(word)).shiftLeft(64 * i) }
+        value
+    }
+}
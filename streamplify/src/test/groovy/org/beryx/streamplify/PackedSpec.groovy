@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.powerset.PowerSet
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class PackedSpec extends Specification {
+    def "packedStream of #description should provide the packed elements in stream order"() {
+        given:
+        def format = streamableSupplier.call().packedFormat
+        def expected = streamableSupplier.call().stream().map { int[] seq -> format.pack(seq) }.collect(Collectors.toList())
+
+        expect:
+        format.bitsPerEntry == bitsPerEntry
+        streamableSupplier.call().packedStream().boxed().collect(Collectors.toList()) == expected
+        streamableSupplier.call().parallelPackedStream().boxed().collect(Collectors.toList()) == expected
+        streamableSupplier.call().asTemplate().parallelPackedStream().count() == expected.size()
+
+        where:
+        description                               | streamableSupplier                                                          | bitsPerEntry
+        'Permutations(5)'                         | { -> new Permutations(5) }                                                  | 3
+        'Permutations(16).withPrefix(...)'        | { -> new Permutations(16).withPrefix(3, 1, 4, 15, 9, 2, 6, 5) }             | 4
+        'Combinations(10, 4)'                     | { -> new Combinations(10, 4) }                                              | 4
+        'Combinations(64, 2)'                     | { -> new Combinations(64, 2) }                                              | 6
+        'Derangements(6)'                         | { -> new Derangements(6) }                                                  | 3
+        'CartesianProduct(3, 4, 5)'               | { -> new CartesianProduct(3, 4, 5) }                                        | 3
+        'CartesianProduct(3, 8).withAllowed(...)' | { -> new CartesianProduct(3, 8).withAllowed(0, 0, 2).withAllowed(1, 1, 7) } | 3
+        'shuffled Permutations(6)'                | { -> new Permutations(6).shuffle(new Random(7)) }                           | 3
+    }
+
+    def "the packed elements of #description should be increasing"() {
+        given:
+        def packed = streamableSupplier.call().packedStream().toArray()
+
+        expect:
+        (1..<packed.length).every { Long.compareUnsigned(packed[it - 1], packed[it]) < 0 }
+
+        where:
+        description                                 | streamableSupplier
+        'Permutations(6)'                           | { -> new Permutations(6) }
+        'Combinations(16, 16)'                      | { -> new Combinations(16, 16) }
+        'Combinations(12, 5)'                       | { -> new Combinations(12, 5) }
+        'CartesianProduct(16 x 15).withPrefix(...)' | { -> new CartesianProduct([16] * 15 as int[]).withPrefix(7, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10) }
+    }
+
+    def "a packed format should unpack the packed sequences"() {
+        given:
+        def format = PackedFormat.of(16, 15)
+        def seq = (15..0) as int[]
+
+        when:
+        def packed = format.pack(seq)
+
+        then:
+        packed == 0xFEDCBA9876543210L
+        format.unpack(packed) == seq
+        format.get(packed, 1) == 14
+        format.get(format.set(packed, 1, 3), 1) == 3
+        format.unpack(format.set(packed, 1, 3))[0] == 15
+    }
+
+    def "#description should fail"() {
+        when:
+        action.call()
+
+        then:
+        thrown(exception)
+
+        where:
+        description                             | action                                                                                   | exception
+        'packedStream of Permutations(17)'      | { -> new Permutations(17).packedStream() }                                               | UnsupportedOperationException
+        'packedStream of Combinations(100, 20)' | { -> new Combinations(100, 20).packedStream() }                                          | UnsupportedOperationException
+        'packedStream of a power set'           | { -> new PowerSet(5).packedStream() }                                                    | UnsupportedOperationException
+        'toBytes with values greater than 255'  | { -> CompactRows.toBytes([1, 256] as int[]) }                                            | IllegalArgumentException
+        'toShorts with negative values'         | { -> CompactRows.toShorts([-1] as int[]) }                                               | IllegalArgumentException
+        'byteRows with values greater than 255' | { -> CompactRows.byteRows(new Permutations(300).skip(10G ** 600)).stream().findFirst() } | IllegalArgumentException
+    }
+
+    def "byteRows and shortRows of #description should provide the entries as unsigned values"() {
+        given:
+        def expected = streamableSupplier.call().stream().map { it as List }.collect(Collectors.toList())
+
+        expect:
+        CompactRows.byteRows(streamableSupplier.call()).stream().map { CompactRows.fromBytes(it) as List }.collect(Collectors.toList()) == expected
+        CompactRows.shortRows(streamableSupplier.call()).parallelStream().map { CompactRows.fromShorts(it) as List }.collect(Collectors.toList()) == expected
+
+        where:
+        description                  | streamableSupplier
+        'Permutations(5)'            | { -> new Permutations(5) }
+        'Combinations(256, 2)'       | { -> new Combinations(256, 2).skip(32000) }
+        'CartesianProduct(200, 256)' | { -> new CartesianProduct(200, 256).skip(50000) }
+    }
+}
@@ -132,4 +132,30 @@ class PermutationsSpec extends Specification {
         25     | (new BigInteger('12345678901234567890123456'))  | '[19, 22, 12, 16, 5, 3, 2, 7, 17, 21, 10, 4, 8, 24, 6, 18, 20, 23, 9, 11, 15, 0, 1, 13, 14]'
         25     | (new BigInteger('123456789012345678901234567')) | ''
     }
+
+    def "the permutation of length #length with the index #description should match its factoradic digits"() {
+        given:
+        def factorial = BigIntegerPermutations.factorial(length)
+        def index = (description == 'last') ? factorial - 1G : new BigInteger(factorial.bitLength() + 8, new Random(length)).mod(factorial)
+        def digits = new int[length]
+        def rest = index
+        (1..length).each { int radix ->
+            def quotientAndRemainder = rest.divideAndRemainder(BigInteger.valueOf(radix))
+            digits[length - radix] = quotientAndRemainder[1].intValueExact()
+            rest = quotientAndRemainder[0]
+        }
+        def values = (0..<length).collect { it }
+        def expected = digits.collect { values.remove(it) }
+
+        expect:
+        (new Permutations(length).skip(index).stream().findFirst().get() as List) == expected
+
+        where:
+        length | description
+        21     | 'random'
+        100    | 'random'
+        2000   | 'random'
+        2000   | 'last'
+        20000  | 'random'
+    }
 }
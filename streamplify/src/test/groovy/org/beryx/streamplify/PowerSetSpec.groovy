@@ -108,4 +108,16 @@ class PowerSetSpec extends Specification {
         2         | ['[]', '[0]', '[1]', '[0, 1]']
         3         | ['[]', '[0]', '[1]', '[0, 1]', '[2]', '[0, 2]', '[1, 2]', '[0, 1, 2]']
     }
+
+    def "parallel stream should produce the same power set as the sequential stream for length #length"() {
+        when:
+        def sequential = new PowerSet(length).stream().map { int[] arr -> (arr as List).toString() }.collect(Collectors.toList())
+        def parallel = new PowerSet(length).parallelStream().map { int[] arr -> (arr as List).toString() }.collect(Collectors.toList())
+
+        then:
+        parallel == sequential
+
+        where:
+        length << [1, 4, 10, 16]
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.BigIntegerCombinations
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.partperm.PartialPermutations
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.product.BigIntegerCartesianProduct
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class PrefixSpec extends Specification {
+    static List<List<Integer>> asList(Streamable streamable) {
+        streamable.stream().map { int[] arr -> arr as List }.collect(Collectors.toList())
+    }
+
+    def "withPrefix(#prefix) of #description should provide the elements starting with the prefix"() {
+        given:
+        def expected = asList(streamableSupplier.call()).findAll { it.size() >= prefix.size() && it.subList(0, prefix.size()) == prefix }
+
+        when:
+        def streamable = streamableSupplier.call().withPrefix(prefix as int[])
+
+        then:
+        streamable.count() == expected.size()
+        asList(streamable) == expected
+
+        where:
+        description                          | streamableSupplier                                     | prefix
+        'Permutations(6)'                    | { -> new Permutations(6) }                             | []
+        'Permutations(6)'                    | { -> new Permutations(6) }                             | [2]
+        'Permutations(6)'                    | { -> new Permutations(6) }                             | [3, 1]
+        'Permutations(6)'                    | { -> new Permutations(6) }                             | [3, 3]
+        'Permutations(6)'                    | { -> new Permutations(6) }                             | [5, 4, 3, 2, 1, 0]
+        'Permutations(6)'                    | { -> new Permutations(6) }                             | [6]
+        'Permutations(1)'                    | { -> new Permutations(1) }                             | [0]
+        'Permutations(6).skip(250)'          | { -> new Permutations(6).skip(250) }                   | [2]
+        'BigIntegerPermutations(6)'          | { -> new BigIntegerPermutations(6) }                   | [4, 0]
+        'BigIntegerPermutations(6)'          | { -> new BigIntegerPermutations(6) }                   | []
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | []
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | [1]
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | [1, 5]
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | [6, 7, 8]
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | [7]
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | [3, 2]
+        'Combinations(10, 4)'                | { -> new Combinations(10, 4) }                         | [2, 3, 4, 9]
+        'BigIntegerCombinations(9, 3)'       | { -> new BigIntegerCombinations(9, 3) }                | [2, 6]
+        'CartesianProduct(3, 4, 5)'          | { -> new CartesianProduct(3, 4, 5) }                   | [2]
+        'CartesianProduct(3, 4, 5)'          | { -> new CartesianProduct(3, 4, 5) }                   | [1, 3]
+        'CartesianProduct(3, 4, 5)'          | { -> new CartesianProduct(3, 4, 5) }                   | [2, 3, 4]
+        'CartesianProduct(3, 4, 5)'          | { -> new CartesianProduct(3, 4, 5) }                   | [1, 4]
+        'BigIntegerCartesianProduct(3, 4, 5)'| { -> new BigIntegerCartesianProduct(3, 4, 5) }         | [1, 2]
+    }
+
+    def "withPrefix should compute the range of huge data sources directly"() {
+        when:
+        def streamable = new Permutations(30).withPrefix((29..3).toList() as int[])
+
+        then:
+        streamable.count() == 6
+        asList(streamable).collect { it.subList(27, 30) } == [[0, 1, 2], [0, 2, 1], [1, 0, 2], [1, 2, 0], [2, 0, 1], [2, 1, 0]]
+    }
+
+    def "groupByPrefix(#depth) of #description should partition the elements by their prefixes"() {
+        when:
+        def groups = streamableSupplier.call().groupByPrefix(depth).collect(Collectors.toList())
+        def all = asList(streamableSupplier.call())
+
+        then:
+        groups.size() == groupCount
+        groups.collectMany { asList(it.streamable) } == all
+        groups.every { group -> asList(group.streamable).every { it.subList(0, depth) == group.prefix as List } }
+
+        where:
+        description                 | streamableSupplier                            | depth | groupCount
+        'Permutations(5)'           | { -> new Permutations(5) }                    | 2     | 20
+        'Permutations(5)'           | { -> new Permutations(5) }                    | 0     | 1
+        'Permutations(5).skip(30)'  | { -> new Permutations(5).skip(30) }           | 1     | 4
+        'BigIntegerPermutations(4)' | { -> new BigIntegerPermutations(4) }          | 3     | 24
+        'Combinations(8, 3)'        | { -> new Combinations(8, 3) }                 | 1     | 6
+        'Combinations(5, 3)'        | { -> new Combinations(5, 3) }                 | 3     | 10
+        'CartesianProduct(2, 3, 4)' | { -> new CartesianProduct(2, 3, 4) }          | 2     | 6
+    }
+
+    def "groups should be processable in parallel"() {
+        when:
+        def counts = new Permutations(7).groupByPrefix(1).parallel()
+                .collect { group -> group.streamable.parallelStream().filter { int[] p -> p[1] < p[2] }.count() }
+
+        then:
+        counts == (0..6).collect { 360L }
+    }
+
+    def "groupByPrefix(#depth) should fail for #description"() {
+        when:
+        streamableSupplier.call().groupByPrefix(depth)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains('depth')
+
+        where:
+        description                    | streamableSupplier                   | depth
+        'a negative depth'             | { -> new Permutations(5) }           | -1
+        'a depth longer than elements' | { -> new Combinations(5, 2) }        | 3
+        'a BigInteger data source'     | { -> new BigIntegerPermutations(4) } | 5
+    }
+
+    def "withPrefix should fail for #description"() {
+        when:
+        streamableSupplier.call().withPrefix(prefix as int[])
+
+        then:
+        thrown(exception)
+
+        where:
+        description                   | streamableSupplier                                 | prefix        | exception
+        'shuffled permutations'       | { -> new Permutations(5).shuffle() }               | [1]           | IllegalStateException
+        'too long prefixes'           | { -> new Combinations(5, 2) }                      | [1, 2, 3]     | IllegalArgumentException
+        'partial permutations'        | { -> new PartialPermutations(4) }                  | [1]           | UnsupportedOperationException
+    }
+}
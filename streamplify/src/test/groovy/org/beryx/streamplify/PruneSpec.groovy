@@ -0,0 +1,204 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.BigIntegerCombinations
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.partperm.PartialPermutations
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.PermutationSupplier
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.product.BigIntegerCartesianProduct
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Supplier
+import java.util.stream.Collectors
+import java.util.stream.Stream
+
+@Unroll
+class PruneSpec extends Specification {
+    static final PrefixPredicate NO_CONSECUTIVE_NEIGHBORS = { int[] seq, int len -> len < 2 || Math.abs(seq[len - 1] - seq[len - 2]) != 1 } as PrefixPredicate
+    static final PrefixPredicate SMALL_SUM = { int[] seq, int len -> (0..<len).sum { seq[it] } <= 12 } as PrefixPredicate
+    static final PrefixPredicate NO_EQUAL_NEIGHBORS = { int[] seq, int len -> len < 2 || seq[len - 1] != seq[len - 2] } as PrefixPredicate
+
+    static List<List<Integer>> asList(Stream<int[]> stream) {
+        stream.map { int[] arr -> arr as List }.collect(Collectors.toList())
+    }
+
+    static Supplier<PrefixPredicate> factory(PrefixPredicate predicate) {
+        { -> predicate } as Supplier<PrefixPredicate>
+    }
+
+    /**
+     * Accepts a prefix if its last queen does not share a diagonal with the previous ones, keeping the occupied diagonals per prefix length.
+     */
+    static class QueensPredicate implements PrefixPredicate {
+        final long[] diagonals
+        final long[] antiDiagonals
+
+        QueensPredicate(int size) {
+            diagonals = new long[size + 1]
+            antiDiagonals = new long[size + 1]
+        }
+
+        @Override
+        boolean test(int[] perm, int length) {
+            int row = length - 1
+            long diagonal = 1L << (row + perm[row])
+            long antiDiagonal = 1L << (row - perm[row] + perm.length - 1)
+            if((diagonals[row] & diagonal) != 0 || (antiDiagonals[row] & antiDiagonal) != 0) return false
+            diagonals[length] = diagonals[row] | diagonal
+            antiDiagonals[length] = antiDiagonals[row] | antiDiagonal
+            return true
+        }
+    }
+
+    def "prunedStream of #description should provide the elements whose prefixes are all accepted"() {
+        given:
+        def expected = asList(streamableSupplier.call().stream()).findAll { seq ->
+            (1..seq.size()).every { predicate.test(seq as int[], it) }
+        }
+
+        expect:
+        asList(streamableSupplier.call().prunedStream(factory(predicate))) == expected
+        asList(streamableSupplier.call().parallelPrunedStream(factory(predicate))) == expected
+        streamableSupplier.call().asTemplate().parallelPrunedStream(factory(predicate)).count() == expected.size()
+
+        where:
+        description                                      | streamableSupplier                                        | predicate
+        'Permutations(7)'                                | { -> new Permutations(7) }                                | NO_CONSECUTIVE_NEIGHBORS
+        'Permutations(7).skip(1000)'                     | { -> new Permutations(7).skip(1000) }                     | NO_CONSECUTIVE_NEIGHBORS
+        'BigIntegerPermutations(6)'                      | { -> new BigIntegerPermutations(6) }                      | NO_CONSECUTIVE_NEIGHBORS
+        'BigIntegerPermutations(6).skip(100)'            | { -> new BigIntegerPermutations(6).skip(100) }            | NO_CONSECUTIVE_NEIGHBORS
+        'Combinations(12, 4)'                            | { -> new Combinations(12, 4) }                            | SMALL_SUM
+        'BigIntegerCombinations(10, 3)'                  | { -> new BigIntegerCombinations(10, 3) }                  | SMALL_SUM
+        'CartesianProduct(3, 4, 5, 3)'                   | { -> new CartesianProduct(3, 4, 5, 3) }                   | NO_EQUAL_NEIGHBORS
+        'CartesianProduct(3, 4, 5).withAllowed(1, 1, 3)' | { -> new CartesianProduct(3, 4, 5).withAllowed(1, 1, 3) } | NO_EQUAL_NEIGHBORS
+        'BigIntegerCartesianProduct(3, 4, 5)'            | { -> new BigIntegerCartesianProduct(3, 4, 5) }            | SMALL_SUM
+    }
+
+    def "a stateful predicate should find the #count solutions of the #size-queens problem"() {
+        given:
+        def queensFactory = { -> new QueensPredicate(size) } as Supplier<PrefixPredicate>
+
+        expect:
+        new Permutations(size).prunedStream(queensFactory).count() == count
+        new Permutations(size).parallelPrunedStream(queensFactory).count() == count
+        new BigIntegerPermutations(size).parallelPrunedStream(queensFactory).count() == count
+
+        where:
+        size | count
+        1    | 1
+        4    | 2
+        6    | 4
+        8    | 92
+        10   | 724
+    }
+
+    def "pruning should skip huge subtrees without generating them"() {
+        given:
+        def predicate = { int[] seq, int len -> len > 20 || seq[len - 1] == len - 1 } as PrefixPredicate
+
+        expect:
+        new Permutations(25).prunedStream(factory(predicate)).count() == 120
+        new Permutations(25).parallelPrunedStream(factory(predicate)).count() == 120
+        asList(new Permutations(25).prunedStream(factory(predicate)).limit(2)).collect { it.subList(20, 25) } == [[20, 21, 22, 23, 24], [20, 21, 22, 24, 23]]
+    }
+
+    def "pruning should also work with value suppliers that cannot skip prefixes"() {
+        given:
+        def supplier = new PrefixOnlySupplier(new PermutationSupplier.Long(6))
+        def spliterator = LongIndexedSpliterator.create(0, 720, supplier)
+        def expected = asList(new Permutations(6).prunedStream(factory(NO_CONSECUTIVE_NEIGHBORS)))
+
+        expect:
+        asList(spliterator.prunedStream(factory(NO_CONSECUTIVE_NEIGHBORS))) == expected
+    }
+
+    static class PrefixOnlySupplier implements Splittable.LongIndexed<int[]>, PrefixRange.LongIndexed {
+        final PermutationSupplier.Long delegate
+
+        PrefixOnlySupplier(PermutationSupplier.Long delegate) {
+            this.delegate = delegate
+        }
+
+        @Override
+        int[] apply(long index) {
+            delegate.apply(index)
+        }
+
+        @Override
+        Splittable.LongIndexed<int[]> split() {
+            new PrefixOnlySupplier(delegate.split())
+        }
+
+        @Override
+        long[] getPrefixRange(int[] prefix) {
+            delegate.getPrefixRange(prefix)
+        }
+
+        @Override
+        int getSequenceLength() {
+            delegate.sequenceLength
+        }
+    }
+
+    def "a shared bound should support branch-and-bound searches in parallel streams"() {
+        given:
+        def weights = [7, 3, 9, 1, 8, 2, 6, 4]
+        def cost = { int[] seq, int len -> (0..<len).sum(0) { i -> weights[i] * seq[i] + ((i > 0 && seq[i] == seq[i - 1] + 1) ? 5 : 0) } }
+        def bound = new SharedBound<List<Integer>>()
+        def predicate = { int[] seq, int len -> cost(seq, len) < bound.value } as PrefixPredicate
+        def bruteForceMin = new Permutations(8).stream().mapToInt { int[] seq -> cost(seq, 8) }.min().asInt
+
+        when:
+        new Permutations(8).parallelPrunedStream(factory(predicate)).forEach { int[] seq -> bound.offer(cost(seq, 8), seq as List) }
+
+        then:
+        bound.value == bruteForceMin
+        cost(bound.solution as int[], 8) == bruteForceMin
+    }
+
+    def "a shared bound should accept only improvements"() {
+        given:
+        def bound = new SharedBound<String>(10)
+
+        expect:
+        !bound.offer(10, 'a')
+        bound.solution == null
+        bound.offer(7.5, 'b')
+        !bound.offer(8, 'c')
+        bound.value == 7.5
+        bound.solution == 'b'
+    }
+
+    def "prunedStream should fail for #description"() {
+        when:
+        streamableSupplier.call().prunedStream(factory(NO_EQUAL_NEIGHBORS))
+
+        then:
+        thrown(exception)
+
+        where:
+        description             | streamableSupplier                         | exception
+        'shuffled permutations' | { -> new Permutations(5).shuffle() }       | IllegalStateException
+        'partial permutations'  | { -> new PartialPermutations(4) }          | UnsupportedOperationException
+        'derangements'          | { -> new Derangements(4) }                 | UnsupportedOperationException
+    }
+}
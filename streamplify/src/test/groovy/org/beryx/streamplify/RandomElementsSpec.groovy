@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.partperm.PartialPermutations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.powerset.PowerSet
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class RandomElementsSpec extends Specification {
+    def "randomElements of #description should be uniformly distributed over the elements of the data source"() {
+        given:
+        def all = streamableSupplier.call().stream().map { it as List }.collect(Collectors.toSet())
+        int drawCount = 1000 * all.size()
+
+        when:
+        def counts = streamableSupplier.call().randomElements(drawCount, 42).map { it as List }
+                .collect(Collectors.groupingBy({ it }, Collectors.counting()))
+
+        then:
+        counts.keySet() == all
+        counts.values().every { Math.abs(it - 1000) < 150 }
+
+        where:
+        description                                  | streamableSupplier
+        'Permutations(4)'                            | { -> new Permutations(4) }
+        'Derangements(4)'                            | { -> new Derangements(4) }
+        'Derangements(0)'                            | { -> new Derangements(0) }
+        'Combinations(6, 3)'                         | { -> new Combinations(6, 3) }
+        'Combinations(40, 2)'                        | { -> new Combinations(40, 2) }
+        'Combinations(5, 0)'                         | { -> new Combinations(5, 0) }
+        'PartialPermutations(3)'                     | { -> new PartialPermutations(3) }
+        'PowerSet(4)'                                | { -> new PowerSet(4) }
+        'CartesianProduct(3, 4).withAllowed(1, ...)' | { -> new CartesianProduct(3, 4).withAllowed(1, 0, 2, 3) }
+    }
+
+    def "randomElements of #description should depend only on the seed, also in parallel streams"() {
+        given:
+        def sequential = streamableSupplier.call().randomElements(5000, 7).map { it as List }.collect(Collectors.toList())
+        def parallel = streamableSupplier.call().randomElements(5000, 7).parallel().map { it as List }.collect(Collectors.toList())
+        def other = streamableSupplier.call().randomElements(5000, 8).map { it as List }.collect(Collectors.toList())
+
+        expect:
+        sequential.size() == 5000
+        parallel == sequential
+        other != sequential
+        streamableSupplier.call().randomElements(Long.MAX_VALUE, 7).limit(3000).map { it as List }.collect(Collectors.toList()) == sequential.subList(0, 3000)
+
+        where:
+        description              | streamableSupplier
+        'Permutations(10)'       | { -> new Permutations(10) }
+        'Combinations(100, 10)'  | { -> new Combinations(100, 10) }
+        'PowerSet(70)'           | { -> new PowerSet(70) }
+        'CartesianProduct(5, 9)' | { -> new CartesianProduct(5, 9) }
+    }
+
+    def "randomElements of #description should provide valid elements"() {
+        expect:
+        streamableSupplier.call().randomElements(20, 3).parallel().allMatch { int[] elem -> isValid.call(elem) }
+
+        where:
+        description               | streamableSupplier                 | isValid
+        'Permutations(20000)'     | { -> new Permutations(20000) }     | { int[] p -> (p as List).toSet().size() == 20000 && p.every { it >= 0 && it < 20000 } }
+        'Derangements(52)'        | { -> new Derangements(52) }        | { int[] d -> (d as List).toSet().size() == 52 && (0..<52).every { d[it] != it } }
+        'Combinations(50000, 5)'  | { -> new Combinations(50000, 5) }  | { int[] c -> c.length == 5 && (1..<5).every { c[it - 1] < c[it] } && c[4] < 50000 }
+        'Combinations(200, 150)'  | { -> new Combinations(200, 150) }  | { int[] c -> c.length == 150 && (1..<150).every { c[it - 1] < c[it] } && c[149] < 200 }
+        'PartialPermutations(50)' | { -> new PartialPermutations(50) } | { int[] p -> p.length == 50 && (p as List).findAll { it >= 0 }.toSet().size() == (p as List).count { it >= 0 } }
+        'PowerSet(130)'           | { -> new PowerSet(130) }           | { int[] s -> (1..<s.length).every { s[it - 1] < s[it] } && s.every { it < 130 } }
+    }
+
+    def "randomElements of #description should be drawn from the elements not skipped"() {
+        given:
+        def remaining = streamableSupplier.call().stream().map { it as List }.collect(Collectors.toSet())
+
+        when:
+        def elements = streamableSupplier.call().randomElements(2000, 5).map { it as List }.collect(Collectors.toSet())
+
+        then:
+        remaining.containsAll(elements)
+        elements.size() == remaining.size()
+
+        where:
+        description                        | streamableSupplier
+        'Permutations(6).skip(700)'        | { -> new Permutations(6).skip(700) }
+        'Combinations(8, 3).skip(50)'      | { -> new Combinations(8, 3).skip(50) }
+        'PowerSet(6).skip(BigInteger(60))' | { -> new PowerSet(6).skip(BigInteger.valueOf(60)) }
+        'CartesianProduct(4, 5).skip(15)'  | { -> new CartesianProduct(4, 5).skip(15) }
+        'Derangements(5).skip(40)'         | { -> new Derangements(5).skip(40) }
+        'PartialPermutations(3).skip(30)'  | { -> new PartialPermutations(3).skip(30) }
+        'Permutations(5).withPrefix(2, 0)' | { -> new Permutations(5).withPrefix(2, 0) }
+    }
+
+    def "randomElements of a proxy skipped in place should be drawn from the elements not skipped"() {
+        given:
+        def permutations = new Permutations(5)
+        permutations.skip(110)
+
+        expect:
+        permutations.randomElements(500, 9).allMatch { int[] p -> p[0] == 4 && p[1] >= 2 }
+    }
+
+    def "rankOf should provide the rank of each element of #description"() {
+        given:
+        def elements = streamableSupplier.call().stream().collect(Collectors.toList())
+
+        expect:
+        (0..<elements.size()).every { int i -> streamableSupplier.call().rankOf(elements[i]) == BigInteger.valueOf(i) }
+
+        where:
+        description                                  | streamableSupplier
+        'Permutations(5)'                            | { -> new Permutations(5) }
+        'Combinations(7, 3)'                         | { -> new Combinations(7, 3) }
+        'CartesianProduct(3, 4, 2)'                  | { -> new CartesianProduct(3, 4, 2) }
+        'CartesianProduct(3, 5).withAllowed(1, ...)' | { -> new CartesianProduct(3, 5).withAllowed(1, 1, 4) }
+        'PowerSet(5)'                                | { -> new PowerSet(5) }
+        'Derangements(0)'                            | { -> new Derangements(0) }
+        'Derangements(5)'                            | { -> new Derangements(5) }
+        'Derangements(6)'                            | { -> new Derangements(6) }
+        'PartialPermutations(0)'                     | { -> new PartialPermutations(0) }
+        'PartialPermutations(1)'                     | { -> new PartialPermutations(1) }
+        'PartialPermutations(4)'                     | { -> new PartialPermutations(4) }
+    }
+
+    def "rankOf should provide the rank of an element of #description with BigInteger indexes"() {
+        given:
+        def rank = new BigInteger(rankString)
+        def element = streamableSupplier.call().skip(rank).stream().findFirst().get()
+
+        expect:
+        streamableSupplier.call().rankOf(element) == rank
+        streamableSupplier.call().shuffle(new Random(1)).rankOf(element) == rank
+
+        where:
+        description               | streamableSupplier                 | rankString
+        'Permutations(30)'        | { -> new Permutations(30) }        | '123456789012345678901234567890'
+        'Combinations(200, 50)'   | { -> new Combinations(200, 50) }   | '98765432109876543210987654321'
+        'PowerSet(100)'           | { -> new PowerSet(100) }           | '1000000000000000000000000000'
+        'Derangements(40)'        | { -> new Derangements(40) }        | '123456789012345678901234567890'
+        'PartialPermutations(25)' | { -> new PartialPermutations(25) } | '123456789012345678901234567'
+    }
+
+    def "#description should fail"() {
+        when:
+        action.call()
+
+        then:
+        thrown(exception)
+
+        where:
+        description                          | action                                                            | exception
+        'randomElements of Derangements(1)'  | { -> new Derangements(1).randomElements(10, 1) }                  | IllegalStateException
+        'randomElements of an empty product' | { -> new CartesianProduct(3, 0).randomElements(10, 1) }           | IllegalStateException
+        'randomElements with negative size'  | { -> new Permutations(3).randomElements(-1, 1) }                  | IllegalArgumentException
+        'rankOf a non-permutation'           | { -> new Permutations(3).rankOf([0, 0, 1] as int[]) }             | IllegalArgumentException
+        'rankOf a prefix'                    | { -> new Combinations(5, 3).rankOf([0, 1] as int[]) }             | IllegalArgumentException
+        'rankOf an unsorted subset'          | { -> new PowerSet(5).rankOf([3, 1] as int[]) }                    | IllegalArgumentException
+        'rankOf a fixed point'               | { -> new Derangements(4).rankOf([1, 0, 2, 3] as int[]) }          | IllegalArgumentException
+        'rankOf a non-derangement'           | { -> new Derangements(4).rankOf([1, 1, 3, 2] as int[]) }          | IllegalArgumentException
+        'rankOf a repeated value'            | { -> new PartialPermutations(4).rankOf([-1, 2, 2, -1] as int[]) } | IllegalArgumentException
+        'rankOf a short partial permutation' | { -> new PartialPermutations(4).rankOf([-1, 2, 0] as int[]) }     | IllegalArgumentException
+    }
+}
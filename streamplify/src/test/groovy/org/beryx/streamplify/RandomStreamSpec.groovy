@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class RandomStreamSpec extends Specification {
+    def "randomStream of #description should be uniformly distributed over the remaining elements"() {
+        given:
+        def all = streamableSupplier.call().stream().map { it as List }.collect(Collectors.toSet())
+        int drawCount = 1000 * all.size()
+
+        when:
+        def counts = streamableSupplier.call().randomStream(drawCount, 42).parallel().map { it as List }
+                .collect(Collectors.groupingBy({ it }, Collectors.counting()))
+
+        then:
+        counts.keySet() == all
+        counts.values().every { Math.abs(it - 1000) < 150 }
+
+        where:
+        description                        | streamableSupplier
+        'Permutations(4)'                  | { -> new Permutations(4) }
+        'Permutations(5).skip(100)'        | { -> new Permutations(5).skip(100) }
+        'Derangements(5)'                  | { -> new Derangements(5) }
+        'Combinations(7, 3)'               | { -> new Combinations(7, 3) }
+        'shuffled CartesianProduct(3, 4)'  | { -> new CartesianProduct(3, 4).shuffle(new Random(5)) }
+        'Permutations(21).withPrefix(...)' | { -> new Permutations(21).withPrefix((0..17) as int[]) }
+        'Permutations(22).skip(...)'       | { -> new Permutations(22).skip(BigIntegerPermutations.factorial(22) - 24G) }
+    }
+
+    def "randomStream of #description should draw uniformly distributed BigInteger ranks"() {
+        given:
+        def counts = new int[length]
+
+        when:
+        streamableSupplier.call().randomStream(1000 * length, 11).forEach { int[] elem -> counts[elem[0]]++ }
+
+        then:
+        counts.every { Math.abs(it - 1000) < 150 }
+
+        where:
+        description             | streamableSupplier                              | length
+        'Permutations(30)'      | { -> new Permutations(30) }                     | 30
+        'CartesianProduct(...)' | { -> new CartesianProduct([13] * 40 as int[]) } | 13
+        'Permutations(200)'     | { -> new Permutations(200) }                    | 200
+    }
+
+    def "randomStream of #description should depend only on the seed"() {
+        given:
+        def sequential = streamableSupplier.call().randomStream(5000, 3).map { it as List }.collect(Collectors.toList())
+
+        expect:
+        streamableSupplier.call().randomStream(5000, 3).parallel().map { it as List }.collect(Collectors.toList()) == sequential
+        streamableSupplier.call().randomStream(3).limit(2500).map { it as List }.collect(Collectors.toList()) == sequential.subList(0, 2500)
+        streamableSupplier.call().randomStream(5000, 4).map { it as List }.collect(Collectors.toList()) != sequential
+        
+        where:
+        description             | streamableSupplier
+        'Permutations(12)'      | { -> new Permutations(12) }
+        'Permutations(100)'     | { -> new Permutations(100) }
+        'Combinations(300, 40)' | { -> new Combinations(300, 40) }
+    }
+
+    def "randomStream of #description should fail"() {
+        when:
+        streamableSupplier.call().randomStream(10, 1)
+        
+        then:
+        thrown(IllegalStateException)
+
+        where:
+        description                  | streamableSupplier
+        'Derangements(1)'            | { -> new Derangements(1) }
+        'Permutations(4).skip(24)'   | { -> new Permutations(4).skip(24) }
+        'Permutations(30).skip(...)' | { -> new Permutations(30).skip(BigIntegerPermutations.factorial(30)) }
+    }
+}
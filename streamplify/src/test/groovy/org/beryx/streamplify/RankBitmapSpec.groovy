@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.Permutations
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class RankBitmapSpec extends Specification {
+    static List<Long> randomRanks(Random rnd, int count, long bound) {
+        (1..count).collect { (rnd.nextDouble() * bound) as long }
+    }
+
+    def "a bitmap with #description should behave like a sorted set"() {
+        given:
+        def expected = new TreeSet<Long>(ranks)
+        def bitmap = RankBitmap.of(ranks as long[])
+        def sorted = expected as List
+
+        expect:
+        bitmap.cardinality == expected.size()
+        bitmap.toArray() as List == sorted
+        sorted.every { bitmap.contains(it) }
+        !bitmap.contains(sorted.last() + 1) || expected.contains(sorted.last() + 1)
+        (0..<sorted.size()).step(7).every { bitmap.select(it) == sorted[it] }
+        sorted.every { bitmap.nextRank(it) == it }
+        sorted.last() == Long.MAX_VALUE || bitmap.nextRank(sorted.last() + 1) == -1
+        bitmap.nextRank(sorted[0] - 1 < 0 ? 0 : sorted[0] - 1) == sorted[0]
+        bitmap.runOptimize().toArray() as List == sorted
+        bitmap.runOptimize().cardinality == expected.size()
+        (0..<sorted.size()).step(7).every { bitmap.select(it) == sorted[it] }
+        sorted.every { bitmap.contains(it) }
+
+        where:
+        description                 | ranks
+        'a few ranks'               | [5L, 3L, 1000000L, 65536L, 65535L]
+        'sparse random ranks'       | randomRanks(new Random(1), 3000, 10_000_000L)
+        'dense random ranks'        | randomRanks(new Random(2), 20000, 70000L)
+        'long runs'                 | (100_000L..<130_000L).toList() + (200_000L..<200_100L).toList()
+        'large ranks'               | [Long.MAX_VALUE, Long.MAX_VALUE - 70000, 1L << 40]
+    }
+
+    def "or, and and andNot should behave like set operations for #description"() {
+        given:
+        def rnd = new Random(seed)
+        def ranks1 = randomRanks(rnd, count1, bound)
+        def ranks2 = randomRanks(rnd, count2, bound)
+        def bitmap1 = RankBitmap.of(ranks1 as long[])
+        def bitmap2 = RankBitmap.of(ranks2 as long[])
+        if(optimize) { bitmap1.runOptimize(); bitmap2.runOptimize() }
+        def set1 = new TreeSet<Long>(ranks1)
+        def set2 = new TreeSet<Long>(ranks2)
+
+        expect:
+        bitmap1.or(bitmap2).toArray() as List == (new TreeSet<Long>(set1 + set2) as List)
+        bitmap1.and(bitmap2).toArray() as List == (new TreeSet<Long>(set1.intersect(set2)) as List)
+        bitmap1.andNot(bitmap2).toArray() as List == (new TreeSet<Long>(set1 - set2) as List)
+        bitmap1.or(bitmap2) == RankBitmap.of((set1 + set2) as long[])
+
+        where:
+        description           | seed | count1 | count2 | bound     | optimize
+        'sparse bitmaps'      | 1    | 2000   | 3000   | 1_000_000 | false
+        'dense bitmaps'       | 2    | 30000  | 40000  | 100_000   | false
+        'mixed bitmaps'       | 3    | 300    | 50000  | 100_000   | false
+        'optimized bitmaps'   | 4    | 60000  | 50000  | 70_000    | true
+    }
+
+    def "the collector should record the ranks of the matching elements of a parallel stream"() {
+        given:
+        def filter = { int[] perm -> perm[0] < perm[1] && perm[3] % 2 == 0 }
+
+        when:
+        RankBitmap bitmap = new Permutations(8).parallelIndexedStream().filter { filter(it.element) }.collect(RankBitmap.collector())
+        def expected = new Permutations(8).indexedStream().filter { filter(it.element) }.map { it.rank }.collect(Collectors.toList())
+
+        then:
+        bitmap.toArray() as List == expected
+    }
+
+    def "restrictTo should provide the elements with the given ranks for #description"() {
+        given:
+        def ranks = RankBitmap.of(rankList as long[])
+        def all = streamableSupplier.call().stream().map { (it as List).toString() }.collect(Collectors.toList())
+        def expected = (new TreeSet<Long>(rankList) as List).collect { all[it as int] }
+
+        when:
+        def restricted = streamableSupplier.call().restrictTo(ranks)
+
+        then:
+        restricted.count() == expected.size()
+        restricted.stream().map { (it as List).toString() }.collect(Collectors.toList()) == expected
+        streamableSupplier.call().restrictTo(ranks).parallelStream().map { (it as List).toString() }.collect(Collectors.toList()) == expected
+
+        where:
+        description                 | streamableSupplier                          | rankList
+        'Permutations(7)'           | { -> new Permutations(7) }                  | [0L, 1L, 2L, 4L, 7L, 100L, 101L, 5039L]
+        'Permutations(7), 2000'     | { -> new Permutations(7) }                  | randomRanks(new Random(5), 2000, 5040)
+        'BigIntegerPermutations(6)' | { -> new BigIntegerPermutations(6) }        | randomRanks(new Random(6), 300, 720)
+        'Derangements(7)'           | { -> new Derangements(7) }                  | randomRanks(new Random(7), 1000, 1854)
+        'an empty bitmap'           | { -> new Permutations(5) }                  | []
+    }
+
+    def "restrictTo should ignore the skip and shuffle configuration"() {
+        given:
+        def ranks = RankBitmap.of(randomRanks(new Random(8), 500, 5040) as long[])
+
+        expect:
+        new Permutations(7).shuffle(new Random(9)).skip(1000).restrictTo(ranks).stream().map { (it as List).toString() }.collect(Collectors.toList()) ==
+                new Permutations(7).restrictTo(ranks).stream().map { (it as List).toString() }.collect(Collectors.toList())
+    }
+
+    def "restrictTo should reject ranks outside the data source"() {
+        when:
+        new Permutations(5).restrictTo(RankBitmap.of(3, 120))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.powerset.PowerSet
+import org.beryx.streamplify.product.CartesianProduct
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+
+@Unroll
+class SampleSpec extends Specification {
+    def "sample(#k) of #description should provide #k distinct elements of the data source"() {
+        given:
+        def all = streamableSupplier.call().stream().map { it as List }.collect(Collectors.toSet())
+
+        when:
+        def sample = streamableSupplier.call().sample(k, new Random(seed)).stream().map { it as List }.collect(Collectors.toList())
+
+        then:
+        sample.size() == k
+        sample.toSet().size() == k
+        all.containsAll(sample)
+
+        where:
+        description                   | streamableSupplier                                   | k   | seed
+        'Permutations(6)'             | { -> new Permutations(6) }                           | 10  | 1
+        'Permutations(6)'             | { -> new Permutations(6) }                           | 700 | 2
+        'Permutations(6)'             | { -> new Permutations(6) }                           | 720 | 3
+        'Permutations(6)'             | { -> new Permutations(6) }                           | 0   | 4
+        'Combinations(10, 4)'         | { -> new Combinations(10, 4) }                       | 50  | 5
+        'CartesianProduct(3, 4, 5)'   | { -> new CartesianProduct(3, 4, 5) }                 | 60  | 6
+        'PowerSet(5)'                 | { -> new PowerSet(5) }                               | 17  | 7
+        'Permutations(7).skip(5000)'  | { -> new Permutations(7).skip(5000) }                | 30  | 8
+        'shuffled Combinations(8, 3)' | { -> new Combinations(8, 3).shuffle(new Random(9)) } | 40  | 9
+    }
+
+    def "sample of #description should depend only on the seed, also when processed in parallel"() {
+        given:
+        def sample1 = streamableSupplier.call().sample(k, new Random(42)).stream().map { it as List }.collect(Collectors.toList())
+        def sample2 = streamableSupplier.call().sample(k, new Random(42)).parallelStream().map { it as List }.collect(Collectors.toList())
+        def sample3 = streamableSupplier.call().sample(k, new Random(43)).stream().map { it as List }.collect(Collectors.toList())
+
+        expect:
+        sample1 == sample2
+        sample1 != sample3
+        streamableSupplier.call().sample(k, new Random(42)).count() == k
+
+        where:
+        description          | streamableSupplier            | k
+        'Permutations(10)'   | { -> new Permutations(10) }   | 1000
+        'Permutations(30)'   | { -> new Permutations(30) }   | 500
+        'Combinations(6, 3)' | { -> new Combinations(6, 3) } | 15
+        'PowerSet(100)'      | { -> new PowerSet(100) }      | 200
+    }
+
+    def "sample of #description should provide elements of the data source"() {
+        given:
+        def source = streamableSupplier.call()
+
+        when:
+        def sample = source.sample(k, new Random(13)).stream().collect(Collectors.toList())
+
+        then:
+        sample.size() == k
+        sample.collect { it as List }.toSet().size() == k
+        sample.every { elem -> isValid.call(elem) }
+
+        where:
+        description               | streamableSupplier                 | k   | isValid
+        'Permutations(30)'        | { -> new Permutations(30) }        | 100 | { int[] p -> (p as List).toSet() == (0..<30).toSet() }
+        'Combinations(100, 50)'   | { -> new Combinations(100, 50) }   | 100 | { int[] c -> c.length == 50 && (1..<50).every { c[it - 1] < c[it] } }
+        'Permutations(3).skip(4)' | { -> new Permutations(3).skip(4) } | 2   | { int[] p -> (p as List) in [[2, 0, 1], [2, 1, 0]] }
+    }
+
+    def "the sampled ranks should be uniformly distributed"() {
+        given:
+        def counts = new int[10]
+        def rnd = new Random(17)
+
+        when:
+        10000.times {
+            Sampler.sampleRanks(10L, 3, rnd).each { counts[(int)it]++ }
+        }
+
+        then:
+        counts.every { Math.abs(it - 3000) < 200 }
+    }
+
+    def "samples of #k of #count #description ranks should be uniformly distributed over the #subsetCount subsets"() {
+        given:
+        def trials = 1000 * subsetCount
+        def counts = [:].withDefault { 0 }
+        def rnd = new Random(21)
+
+        when:
+        trials.times {
+            counts[(Sampler.sampleRanks(count, k, rnd) as List).collect { it as int }.sort()]++
+        }
+        def chiSquare = counts.values().sum { (it - 1000) ** 2 / 1000 }
+
+        then:
+        counts.size() == subsetCount
+        chiSquare < chiSquareLimit
+
+        where:
+        description  | count | k | subsetCount | chiSquareLimit
+        'long'       | 8L    | 5 | 56          | 100
+        'BigInteger' | 8G    | 5 | 56          | 100
+        'long'       | 8L    | 2 | 28          | 60
+    }
+
+    def "#description should fail"() {
+        when:
+        action.call()
+
+        then:
+        thrown(exception)
+
+        where:
+        description                       | action                                                                                            | exception
+        'sampling more than count'        | { -> new Permutations(4).sample(25, new Random()) }                                               | IllegalArgumentException
+        'sampling a negative count'       | { -> new Combinations(5, 2).sample(-1, new Random()) }                                            | IllegalArgumentException
+        'sampling skipped elements'       | { -> new Permutations(4).skip(20).sample(5, new Random()) }                                       | IllegalArgumentException
+        'sampling more than BigInt count' | { -> new Permutations(30).skip((1G..30G).inject { a, b -> a * b } - 3G).sample(4, new Random()) } | IllegalArgumentException
+    }
+}
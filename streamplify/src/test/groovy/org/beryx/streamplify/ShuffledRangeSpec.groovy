@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.shuffler.LongShuffler
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Collectors
+import java.util.stream.StreamSupport
+
+@Unroll
+class ShuffledRangeSpec extends Specification {
+    def "ShuffledRange.of(#count, #seed) should provide a permutation of [0, #count)"() {
+        given:
+        def range = ShuffledRange.of(count, seed)
+        def values = range.longStream().toArray() as List
+
+        expect:
+        range.count == count
+        values.size() == count
+        new HashSet(values) == new HashSet((0L..<count).toList())
+        range.parallelLongStream().toArray() as List == values
+        (0..<count).every { range.get(it) == values[(int)it] }
+
+        where:
+        count  | seed
+        0L     | 1L
+        1L     | 2L
+        10L    | 3L
+        1000L  | 4L
+        65537L | 5L
+    }
+
+    def "ShuffledRange should use the same permutation as a shuffled indexed spliterator"() {
+        given:
+        def expected = LongIndexedSpliterator.create(0, 5000, Splittable.LongIndexed.IDENTITY).shuffle(new Random(42)).stream().collect(Collectors.toList())
+
+        expect:
+        ShuffledRange.of(5000, 42).longStream().boxed().collect(Collectors.toList()) == expected
+    }
+
+    def "a skipped ShuffledRange should resume the processing"() {
+        given:
+        def range = ShuffledRange.of(300, 11)
+        def all = range.longStream().toArray() as List
+
+        expect:
+        range.skip(120).longStream().toArray() as List == all.subList(120, 300)
+        range.skip(120).count == 180
+        range.skip(500).longStream().count() == 0
+    }
+
+    def "mapped streams of a ShuffledRange should apply the value supplier to the shuffled indexes"() {
+        given:
+        def range = ShuffledRange.of(2000, 7)
+        def indexes = range.longStream().toArray() as List
+        Splittable.LongIndexedToInt intSupplier = new Splittable.LongIndexedToInt() {
+            Splittable.LongIndexedToInt split() { this }
+            int applyAsInt(long index) { (int)(index % 17) }
+        }
+        Splittable.LongIndexedToDouble doubleSupplier = new Splittable.LongIndexedToDouble() {
+            Splittable.LongIndexedToDouble split() { this }
+            double applyAsDouble(long index) { index / 4.0d }
+        }
+
+        expect:
+        range.intStream(intSupplier).parallel().toArray() as List == indexes.collect { (int)(it % 17) }
+        range.doubleStream(doubleSupplier).parallel().toArray() as List == indexes.collect { it / 4.0d }
+    }
+
+    def "unshuffled primitive spliterators should split and traverse their ranges"() {
+        given:
+        Splittable.LongIndexedToInt doubler = new Splittable.LongIndexedToInt() {
+            Splittable.LongIndexedToInt split() { this }
+            int applyAsInt(long index) { (int)index * 2 }
+        }
+        def spliterator = new LongIndexedToIntSpliterator(10, 1010, Spliterator.SIZED | Spliterator.SUBSIZED, LongShuffler.IDENTITY, doubler)
+        def prefix = spliterator.trySplit()
+
+        expect:
+        prefix.estimateSize() == 500
+        spliterator.estimateSize() == 500
+        StreamSupport.intStream(prefix, false).toArray() as List == (10..<510).collect { it * 2 }
+        StreamSupport.intStream(spliterator, true).toArray() as List == (510..<1010).collect { it * 2 }
+    }
+}
@@ -15,10 +15,21 @@
  */
 package org.beryx.streamplify
 
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.permutation.BigIntegerPermutations
+import org.beryx.streamplify.permutation.LongPermutations
+import org.beryx.streamplify.permutation.Permutations
+import org.beryx.streamplify.product.CartesianProduct
+import org.beryx.streamplify.shared.Limbs
+import org.beryx.streamplify.shuffler.DefaultBigIntegerShuffler
+import org.beryx.streamplify.shuffler.FeistelBigIntegerShuffler
+import org.beryx.streamplify.shuffler.FeistelLongShuffler
 import org.beryx.streamplify.shuffler.ShufflerImpl
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.stream.Collectors
+
 @Unroll
 public class ShufflerSpec extends Specification {
     def shuffler = new ShufflerImpl(new Random())
@@ -82,4 +93,205 @@ public class ShufflerSpec extends Specification {
         "10000000000000000000000" | "20000000000000000000000" | 10000
         "20000000000000000000000" | "20000000000000000011111" | 11111
     }
+
+    def "the long and BigInteger shuffling of #sampleCount indexes starting with #startIndex from a total of #count should be identical"() {
+        given:
+        def bigCount = BigInteger.valueOf(count)
+        def bulk = new long[sampleCount]
+        shuffler.getShuffledIndices(startIndex, bulk, count)
+
+        expect:
+        (0..<sampleCount).every { int i ->
+            long shuffled = shuffler.getShuffledIndex(startIndex + i, count)
+            shuffled == shuffler.getShuffledIndex(BigInteger.valueOf(startIndex + i), bigCount).longValueExact() && bulk[i] == shuffled
+        }
+
+        where:
+        startIndex            | count                 | sampleCount
+        0L                    | 1L                    | 1
+        0L                    | 200L                  | 200
+        0L                    | 256L                  | 256
+        0L                    | 257L                  | 257
+        0L                    | 70_000L               | 70_000
+        123_456_789L          | 1L << 40              | 5000
+        (1L << 40) - 2500     | (1L << 40) + 1        | 5000
+        (Long.MAX_VALUE >> 1) | (Long.MAX_VALUE - 1)  | 5000
+        (Long.MAX_VALUE >> 2) | Long.MAX_VALUE        | 5000
+        (1L << 62) - 2500     | (1L << 62) + 1        | 5000
+    }
+
+    def "the limb and BigInteger shuffling of #sampleCount indexes starting with #startIndex from a total of #count should be identical"() {
+        given:
+        def bigCount = new BigInteger(count)
+        def countLimbs = Limbs.of(bigCount)
+        int bitCount = bigCount.subtract(BigInteger.ONE).bitLength()
+        def index = new Limbs(bigCount.bitLength())
+        def out = new Limbs(bigCount.bitLength())
+
+        expect:
+        (0..<sampleCount).every { int i ->
+            def bigIndex = new BigInteger(startIndex).add(BigInteger.valueOf(i))
+            index.set(bigIndex)
+            shuffler.getShuffledIndex(index, out, countLimbs, bitCount)
+            out.toBigInteger() == shuffler.getShuffledIndex(bigIndex, bigCount)
+        }
+
+        where:
+        startIndex                                     | count                                                               | sampleCount
+        "0"                                            | "1"                                                                 | 1
+        "0"                                            | "257"                                                               | 257
+        "0"                                            | "70000"                                                             | 2000
+        "9223372036854775000"                          | "9223372036854775808"                                               | 2000
+        "18446744073709551000"                         | "18446744073709551617"                                              | 2000
+        "1000000000000000000000000000000"              | "265252859812191058636308480000000"                                 | 2000
+        "1361129467683753853853498429727072845824"     | "1361129467683753853853498429727072845825"                          | 1
+        "10000000000000000000000000000000000000000000" | "30414093201713378043612608166064768844377641568960512000000000000" | 2000
+    }
+
+    def "limbs should store values and divide them by small numbers"() {
+        given:
+        def limbs = Limbs.of(value)
+        def quotientAndRemainder = value.divideAndRemainder(BigInteger.valueOf(divisor))
+
+        when:
+        int rem = limbs.divideBy(divisor)
+
+        then:
+        rem == quotientAndRemainder[1].intValueExact()
+        limbs.toBigInteger() == quotientAndRemainder[0]
+        limbs.compareTo(Limbs.of(quotientAndRemainder[0])) == 0
+        quotientAndRemainder[0].signum() == 0 || limbs.compareTo(Limbs.of(quotientAndRemainder[0].subtract(BigInteger.ONE))) > 0
+
+        where:
+        value                                                     | divisor
+        BigInteger.ZERO                                           | 7
+        new BigInteger("18446744073709551615")                    | 3
+        new BigInteger("18446744073709551616")                    | 2
+        BigIntegerPermutations.factorial(21)                      | 21
+        new BigInteger("340282366920938463463374607431768211455") | Integer.MAX_VALUE
+        BigIntegerPermutations.factorial(300)                     | 299 * 298
+    }
+
+    def "shuffled #description should provide the same elements as the unshuffled data source at the shuffled indexes"() {
+        given:
+        def count = streamableSupplier.call().bigCount()
+        def bigShuffler = new DefaultBigIntegerShuffler(count, new Random(seed))
+        def expected = (0..<100).collect { int i ->
+            streamableSupplier.call().skip(bigShuffler.getShuffledIndex(BigInteger.valueOf(i))).stream().findFirst().get() as List
+        }
+
+        expect:
+        streamableSupplier.call().shuffle(new Random(seed)).stream().limit(100).map { it as List }.collect(Collectors.toList()) == expected
+
+        where:
+        description                 | streamableSupplier                                                           | seed
+        'Permutations(25)'          | { -> new Permutations(25) }                                                  | 1
+        'Permutations(52)'          | { -> new Permutations(52) }                                                  | 2
+        'CartesianProduct(10 x 25)' | { -> new CartesianProduct([10] * 25 as int[]) }                              | 3
+        'CartesianProduct(...)'     | { -> new CartesianProduct([7, 1000, 3] * 12 as int[]).withAllowed(1, 3, 5) } | 4
+        'Combinations(100, 50)'     | { -> new Combinations(100, 50) }                                             | 5
+    }
+
+    def "a Feistel shuffler with #rounds rounds should shuffle all #count elements and invert the shuffling"() {
+        given:
+        def longShuffler = new FeistelLongShuffler(count, new Random(count), rounds)
+        def bigShuffler = new FeistelBigIntegerShuffler(BigInteger.valueOf(count), new Random(count), rounds)
+
+        when:
+        def shuffled = (0L..<count).collect { longShuffler.getShuffledIndex(it) }
+
+        then:
+        new HashSet(shuffled) == new HashSet((0L..<count).toList())
+        (0..<count).every { int i -> longShuffler.getOriginalIndex(shuffled[i]) == i }
+        (0..<count).every { int i -> bigShuffler.getShuffledIndex(BigInteger.valueOf(i)) == BigInteger.valueOf(shuffled[i]) }
+
+        where:
+        count << [1, 2, 3, 255, 256, 257, 1000, 65536, 70001]
+        rounds << [1, 2, 3, 4, 5, 6, 7, 8, 6]
+    }
+
+    def "a Feistel shuffler should invert the shuffling of #sampleCount indexes starting with #startIndex from a total of #count"() {
+        given:
+        def bigCount = new BigInteger("$count")
+        def bigStartIndex = new BigInteger("$startIndex")
+        def shuffler = new FeistelBigIntegerShuffler(bigCount, 42L)
+
+        when:
+        def shuffled = (0..<sampleCount).collect { shuffler.getShuffledIndex(bigStartIndex + it) }
+
+        then:
+        new HashSet(shuffled).size() == sampleCount
+        shuffled.every { it >= 0 && it < bigCount }
+        (0..<sampleCount).every { int i -> shuffler.getOriginalIndex(shuffled[i]) == bigStartIndex + i }
+
+        where:
+        startIndex                | count                     | sampleCount
+        0                         | (Long.MAX_VALUE - 2)      | 2000
+        (Long.MAX_VALUE >> 2)     | Long.MAX_VALUE            | 2000
+        0                         | "10000000000000000000000" | 2000
+        "20000000000000000000000" | "20000000000000000011111" | 11111
+    }
+
+    def "a Feistel shuffler should shuffle and invert #sampleCount limb indexes starting with #startIndex from a total of #count"() {
+        given:
+        def bigCount = new BigInteger(count)
+        def shuffler = new FeistelBigIntegerShuffler(bigCount, 17L)
+        def index = new Limbs(bigCount.bitLength())
+        def out = new Limbs(bigCount.bitLength())
+
+        when:
+        def shuffled = (0..<sampleCount).collect { int i ->
+            index.set(new BigInteger(startIndex) + i)
+            shuffler.getShuffledIndex(index, out)
+            out.toBigInteger()
+        }
+        def original = shuffled.collect { value ->
+            index.set(value)
+            shuffler.getOriginalIndex(index, out)
+            out.toBigInteger()
+        }
+
+        then:
+        new HashSet(shuffled).size() == sampleCount
+        shuffled.every { it >= 0 && it < bigCount }
+        original == (0..<sampleCount).collect { new BigInteger(startIndex) + it }
+        (0..<sampleCount).every { int i -> shuffler.getShuffledIndex(new BigInteger(startIndex) + i) == shuffled[i] }
+
+        where:
+        startIndex                   | count                                     | sampleCount
+        "0"                          | "70001"                                   | 2000
+        "9223372036854773000"        | "9223372036854775808"                     | 2000
+        "18446744073709549000"       | "18446744073709551617"                    | 2000
+        "0"                          | "340282366920938463463374607431768211456" | 2000
+        "1000000000000000000000"     | "340282366920938463463374607431768211457" | 2000
+        "1" + "0" * 300              | "3" + "0" * 305                           | 500
+    }
+
+    def "a Feistel shuffler should be traversed without BigInteger indexes by a BigInteger indexed spliterator"() {
+        given:
+        def count = (1G..21G).inject { a, b -> a * b }
+        def shuffler = new FeistelBigIntegerShuffler(count, 5L)
+        def start = count.divide(3G)
+
+        when:
+        def shuffled = new BigIntegerPermutations(21).withShuffler(shuffler).skip(start).stream().limit(300).map { it as List }.collect(Collectors.toList())
+
+        then:
+        shuffled == (0..<300).collect { new BigIntegerPermutations(21).skip(shuffler.getShuffledIndex(start + it)).stream().findFirst().get() as List }
+    }
+
+    def "a Feistel shuffler should be pluggable into an indexed spliterator and allow resuming after a given element"() {
+        given:
+        def shuffler = new FeistelLongShuffler(5040, 7L)
+        def all = new LongPermutations(7).withShuffler(shuffler).stream().map { it as List }.collect(Collectors.toList())
+        long rank = 1234
+        long position = shuffler.getOriginalIndex(rank)
+
+        expect:
+        new HashSet(all).size() == 5040
+        all[(int)position] == new LongPermutations(7).skip(rank).stream().findFirst().get() as List
+        new LongPermutations(7).withShuffler(shuffler).skip(position + 1).stream().map { it as List }.collect(Collectors.toList()) == all.subList((int)position + 1, 5040)
+        new FeistelLongShuffler(5040, 7L).getShuffledIndex(100) == shuffler.getShuffledIndex(100)
+        new FeistelLongShuffler(5040, 8L).getShuffledIndex(100) != shuffler.getShuffledIndex(100)
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.streamplify
+
+import org.beryx.streamplify.combination.Combinations
+import org.beryx.streamplify.derangement.Derangements
+import org.beryx.streamplify.permutation.Permutations
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.stream.Collectors
+
+@Unroll
+class TemplateSpec extends Specification {
+    static List<String> asList(Streamable streamable) {
+        streamable.stream().map { int[] arr -> (arr as List).toString() }.collect(Collectors.toList())
+    }
+
+    def "a template of #description should provide the same stream any number of times"() {
+        given:
+        def template = streamable.asTemplate()
+        def expected = asList(streamable)
+
+        expect:
+        asList(template) == expected
+        asList(template) == expected
+        template.parallelStream().map { int[] arr -> (arr as List).toString() }.collect(Collectors.toList()) == expected
+        template.count() == expected.size()
+
+        where:
+        description           | streamable
+        'Permutations(6)'     | new Permutations(6)
+        'Permutations(22)'    | new Permutations(22).skip(new BigInteger('1124000727777607680000') - 100)
+        'Combinations(10, 4)' | new Combinations(10, 4)
+        'Derangements(6)'     | new Derangements(6)
+    }
+
+    def "skip and shuffle should return new templates without affecting the original"() {
+        given:
+        def template = new Permutations(5).asTemplate()
+
+        when:
+        def skipped = template.skip(100)
+        def shuffled1 = template.shuffle(new Random(13))
+        def shuffled2 = template.shuffle(new Random(13))
+
+        then:
+        !skipped.is(template)
+        skipped.count() == 20
+        template.count() == 120
+        asList(skipped) == asList(new Permutations(5).skip(100))
+        asList(shuffled1) == asList(shuffled2)
+        asList(shuffled1) != asList(template)
+        asList(template) == asList(new Permutations(5))
+    }
+
+    def "a template should not be affected by changes of the spliterator it was created from"() {
+        given:
+        def permutations = new Permutations(5).skip(10)
+        def template = permutations.asTemplate()
+
+        when:
+        permutations.stream().count()
+        permutations.skip(50)
+
+        then:
+        template.count() == 110
+        asList(template) == asList(new Permutations(5).skip(10))
+    }
+
+    def "a template should be safely used by multiple threads"() {
+        given:
+        def template = new Permutations(8).asTemplate()
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = (1..16).collect { i -> executor.submit({ ->
+            template.skip(i).parallelStream().filter { int[] perm -> perm[0] < perm[7] }.count()
+        } as Callable<Long>) }
+        def counts = futures.collect { it.get() }
+        executor.shutdown()
+
+        then:
+        counts == (1..16).collect { i -> new Permutations(8).skip(i).stream().filter { int[] perm -> perm[0] < perm[7] }.count() }
+    }
+}